@@ -3,7 +3,9 @@ package com.pubnub.api;
 
 import com.pubnub.api.enums.PNHeartbeatNotificationOptions;
 import com.pubnub.api.enums.PNLogVerbosity;
+import com.pubnub.api.enums.PNOperationType;
 import com.pubnub.api.enums.PNReconnectionPolicy;
+import com.pubnub.api.managers.JsonCodec;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
@@ -18,6 +20,9 @@ import javax.net.ssl.SSLSocketFactory;
 import javax.net.ssl.X509ExtendedTrustManager;
 import java.net.Proxy;
 import java.net.ProxySelector;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @Getter
@@ -30,6 +35,13 @@ public class PNConfiguration {
     private static final int NON_SUBSCRIBE_REQUEST_TIMEOUT = 10;
     private static final int SUBSCRIBE_TIMEOUT = 310;
     private static final int CONNECT_TIMEOUT = 5;
+    private static final int DEFAULT_RESPONSE_CACHE_SIZE = 1000;
+    private static final int RECONNECTION_BASE_DELAY = 1;
+    private static final int MAXIMUM_RECONNECTION_DELAY = 32;
+    private static final int CHANNELS_PER_MANAGED_GROUP = 2000;
+    private static final int PERMISSION_CACHE_AUDIT_TTL = 60;
+    private static final int CHUNK_ASSEMBLY_TIMEOUT = 10;
+    private static final int CHUNK_ASSEMBLY_BUFFER_SIZE = 4 * 1024 * 1024;
 
     @Getter
     private SSLSocketFactory sslSocketFactory;
@@ -58,6 +70,18 @@ public class PNConfiguration {
      * origin using this parameter.
      */
     private String origin;
+
+    /**
+     * Equivalent origins to spread requests over. When set, requests go to the healthy origin with the lowest measured
+     * latency and fail over to the next one on connection errors; takes precedence over origin.
+     */
+    private List<String> origins;
+
+    /**
+     * in seconds, how often the latency of the configured origins is measured, 0 to disable probing.
+     */
+    private int originProbeInterval;
+
     private int subscribeTimeout;
 
 
@@ -136,6 +160,18 @@ public class PNConfiguration {
     @Setter
     private int maximumReconnectionRetries;
 
+    /**
+     * in seconds, base delay of the exponential reconnection policy.
+     */
+    @Setter
+    private int reconnectionBaseDelay;
+
+    /**
+     * in seconds, upper bound of the exponential reconnection policy delay.
+     */
+    @Setter
+    private int maximumReconnectionDelay;
+
     /**
      * Proxy configuration which will be passed to the networking layer.
      */
@@ -170,6 +206,100 @@ public class PNConfiguration {
     @Setter
     private Integer maximumMessagesCacheSize;
 
+    /**
+     * In seconds, how long responses of read-only operations are served from the local response cache.
+     * Operations without a TTL are never cached.
+     */
+    @Setter(AccessLevel.NONE)
+    private Map<PNOperationType, Integer> responseCacheTtls;
+
+    /**
+     * maximum number of responses kept by the response cache before the least recently used ones are evicted.
+     */
+    private int maximumResponseCacheSize;
+
+    /**
+     * if set, identical idempotent calls issued while one of them is in flight share a single network request.
+     */
+    private boolean coalesceIdenticalRequests;
+
+    /**
+     * in seconds, how often the server clock is sampled to correct signature timestamps, 0 to rely on the local clock.
+     */
+    private int clockSyncInterval;
+
+    /**
+     * maximum number of messages per channel kept by the history cache, 0 to disable the cache. Message payloads
+     * served from the cache are shared between callers and must not be modified.
+     */
+    private int historyCacheSize;
+
+    /**
+     * if set, occupants of channels subscribed with presence are tracked locally, see PubNub#getPresenceRoster.
+     */
+    private boolean presenceRoster;
+
+    /**
+     * if set, heartbeats leave out state the server already acknowledged, and are skipped altogether while a
+     * subscribe request, which refreshes presence on its own, was sent within the last heartbeat interval.
+     */
+    private boolean suppressRedundantHeartbeats;
+
+    /**
+     * in milliseconds, window join, leave and timeout events of a channel are collapsed over, 0 to deliver every event.
+     */
+    private int presenceAggregationInterval;
+
+    /**
+     * number of subscribed channels above which channels are subscribed through channel groups managed by the SDK,
+     * 0 to always name the channels in the subscribe call.
+     */
+    private int channelGroupShardingThreshold;
+
+    /**
+     * number of channels packed into a single SDK managed channel group, within the group limit of the keys; the
+     * default is the limit of the service. A subscribe names at most ChannelGroupShardManager#MAX_GROUPS_PER_SUBSCRIBE
+     * groups, so small groups cap the channels which can be subscribed.
+     */
+    private int channelsPerManagedGroup;
+
+    /**
+     * number of long-poll connections the subscription is spread over, each with a cursor of its own.
+     */
+    private int subscribeConnections;
+
+    /**
+     * if set, permissions seen in grant and audit results are cached locally, see PubNub#getPermissionCache.
+     */
+    private boolean permissionCache;
+
+    /**
+     * in seconds, how long permissions of an audit result which carries no ttl are cached.
+     */
+    private int permissionCacheAuditTtl;
+
+    /**
+     * codec responses and payloads are serialized with, null for the Gson default.
+     */
+    private JsonCodec jsonCodec;
+
+    /**
+     * in bytes, serialized size from which published messages are deflated, 0 to never compress. Receivers inflate
+     * compressed messages regardless of this setting.
+     */
+    private int compressionThreshold;
+
+    /**
+     * in seconds, how long parts of a chunked message are awaited before the missing ones are looked up in history,
+     * and again before the message is dropped.
+     */
+    private int chunkAssemblyTimeout;
+
+    /**
+     * in characters, maximum amount of part data buffered for incomplete chunked messages.
+     */
+    private int chunkAssemblyBufferSize;
+
     /**
      * Initialize the PNConfiguration with default values
      */
@@ -196,9 +326,20 @@ public class PNConfiguration {
         startSubscriberThread = true;
 
         maximumReconnectionRetries = -1;
+        reconnectionBaseDelay = RECONNECTION_BASE_DELAY;
+        maximumReconnectionDelay = MAXIMUM_RECONNECTION_DELAY;
 
         dedupOnSubscribe = false;
         maximumMessagesCacheSize = DEFAULT_DEDUPE_SIZE;
+
+        responseCacheTtls = new EnumMap<>(PNOperationType.class);
+        maximumResponseCacheSize = DEFAULT_RESPONSE_CACHE_SIZE;
+
+        channelsPerManagedGroup = CHANNELS_PER_MANAGED_GROUP;
+        subscribeConnections = 1;
+        permissionCacheAuditTtl = PERMISSION_CACHE_AUDIT_TTL;
+        chunkAssemblyTimeout = CHUNK_ASSEMBLY_TIMEOUT;
+        chunkAssemblyBufferSize = CHUNK_ASSEMBLY_BUFFER_SIZE;
     }
 
     /**
@@ -225,4 +366,22 @@ public class PNConfiguration {
         return setPresenceTimeoutWithCustomInterval(timeout, (timeout / 2) - 1);
     }
 
+    /**
+     * enable the response cache for a read-only operation. Callers of the operation share the cached result, which
+     * must not be modified.
+     *
+     * @param operation read-only operation, one of here now, where now, get state, channel group listings or audit.
+     * @param ttl       in seconds, how long a response is reused; 0 disables caching for the operation.
+     * @return returns itself.
+     */
+    public PNConfiguration setResponseCacheTtl(PNOperationType operation, int ttl) {
+        if (ttl > 0) {
+            this.responseCacheTtls.put(operation, ttl);
+        } else {
+            this.responseCacheTtls.remove(operation);
+        }
+
+        return this;
+    }
+
 }
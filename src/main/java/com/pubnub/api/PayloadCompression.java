@@ -0,0 +1,136 @@
+package com.pubnub.api;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import com.pubnub.api.builder.PubNubErrorBuilder;
+import com.pubnub.api.managers.MapperManager;
+import com.pubnub.api.vendor.Base64;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.Charset;
+import java.util.Collections;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Deflate stage of published payloads.
+ *
+ * A compressed message is sent as {"pn_deflate": "<base64 of the deflated json>"}; with a cipher key the envelope is
+ * what gets encrypted, so compression always runs on the plain text. Receivers unwrap the envelope whether or not
+ * they compress themselves, after decryption.
+ */
+public final class PayloadCompression {
+
+    public static final String ENVELOPE_FIELD = "pn_deflate";
+
+    /**
+     * guards against payloads which inflate to far more than a message can hold.
+     */
+    private static final int MAX_INFLATED_LENGTH = 16 * 1024 * 1024;
+    private static final int BUFFER_SIZE = 4096;
+    private static final int ENVELOPE_OVERHEAD = 7;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private PayloadCompression() {
+    }
+
+    /**
+     * @param json      serialized message.
+     * @param threshold in bytes, size from which the message is compressed, 0 to never compress.
+     * @return the envelope, or null if the message is below the threshold or would not get smaller.
+     */
+    public static Map<String, String> compress(String json, int threshold) {
+        if (threshold <= 0 || json.length() < threshold) {
+            return null;
+        }
+
+        byte[] input = json.getBytes(UTF_8);
+
+        if (input.length < threshold) {
+            return null;
+        }
+
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        ByteArrayOutputStream output = new ByteArrayOutputStream(input.length / 2);
+        byte[] buffer = new byte[BUFFER_SIZE];
+
+        try {
+            deflater.setInput(input);
+            deflater.finish();
+
+            while (!deflater.finished()) {
+                output.write(buffer, 0, deflater.deflate(buffer));
+            }
+        } finally {
+            deflater.end();
+        }
+
+        String encoded = Base64.encodeToString(output.toByteArray(), Base64.NO_WRAP);
+        // quotes, colon and braces around the field.
+        int envelopeLength = encoded.length() + ENVELOPE_FIELD.length() + ENVELOPE_OVERHEAD;
+
+        return envelopeLength < input.length ? Collections.singletonMap(ENVELOPE_FIELD, encoded) : null;
+    }
+
+    /**
+     * @param message received message, already decrypted.
+     * @param mapper  mapper to parse the inflated json with.
+     * @return the original message if it is an envelope, the message itself otherwise.
+     * @throws PubNubException if the envelope could not be inflated.
+     */
+    public static JsonElement decompress(JsonElement message, MapperManager mapper) throws PubNubException {
+        if (message == null || !message.isJsonObject()) {
+            return message;
+        }
+
+        JsonObject object = message.getAsJsonObject();
+
+        if (object.entrySet().size() != 1 || !object.has(ENVELOPE_FIELD)) {
+            return message;
+        }
+
+        JsonElement field = object.get(ENVELOPE_FIELD);
+
+        if (!field.isJsonPrimitive() || !((JsonPrimitive) field).isString()) {
+            return message;
+        }
+
+        return mapper.fromJson(inflate(field.getAsString()), JsonElement.class);
+    }
+
+    private static String inflate(String encoded) throws PubNubException {
+        Inflater inflater = new Inflater();
+
+        try {
+            byte[] input = Base64.decode(encoded, Base64.NO_WRAP);
+            ByteArrayOutputStream output = new ByteArrayOutputStream(input.length * 2);
+            byte[] buffer = new byte[BUFFER_SIZE];
+            inflater.setInput(input);
+
+            while (!inflater.finished()) {
+                int length = inflater.inflate(buffer);
+
+                if (length == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new DataFormatException("truncated payload");
+                }
+
+                if (output.size() + length > MAX_INFLATED_LENGTH) {
+                    throw new DataFormatException("payload inflates beyond " + MAX_INFLATED_LENGTH + " bytes");
+                }
+
+                output.write(buffer, 0, length);
+            }
+
+            return new String(output.toByteArray(), UTF_8);
+        } catch (DataFormatException | IllegalArgumentException e) {
+            throw PubNubException.builder().pubnubError(PubNubErrorBuilder.PNERROBJ_PARSING_ERROR)
+                    .errormsg(e.toString()).build();
+        } finally {
+            inflater.end();
+        }
+    }
+
+}
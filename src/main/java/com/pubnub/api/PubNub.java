@@ -4,17 +4,27 @@ import com.pubnub.api.builder.PubNubErrorBuilder;
 import com.pubnub.api.builder.SubscribeBuilder;
 import com.pubnub.api.builder.UnsubscribeBuilder;
 import com.pubnub.api.callbacks.SubscribeCallback;
+import com.pubnub.api.callbacks.TypedMessageCallback;
 import com.pubnub.api.endpoints.DeleteMessages;
 import com.pubnub.api.endpoints.FetchMessages;
+import com.pubnub.api.endpoints.FetchMessagesStream;
 import com.pubnub.api.endpoints.History;
+import com.pubnub.api.endpoints.HistoryCursor;
+import com.pubnub.api.endpoints.HistoryStream;
 import com.pubnub.api.endpoints.Time;
 import com.pubnub.api.endpoints.access.Audit;
 import com.pubnub.api.endpoints.access.Grant;
+import com.pubnub.api.endpoints.bulk.BulkDeleteMessages;
+import com.pubnub.api.endpoints.bulk.BulkGrant;
+import com.pubnub.api.endpoints.bulk.BulkPushProvisioning;
+import com.pubnub.api.endpoints.bulk.ChunkedPublish;
 import com.pubnub.api.endpoints.channel_groups.AddChannelChannelGroup;
 import com.pubnub.api.endpoints.channel_groups.AllChannelsChannelGroup;
 import com.pubnub.api.endpoints.channel_groups.DeleteChannelGroup;
 import com.pubnub.api.endpoints.channel_groups.ListAllChannelGroup;
+import com.pubnub.api.endpoints.channel_groups.ReconcileChannelGroup;
 import com.pubnub.api.endpoints.channel_groups.RemoveChannelChannelGroup;
+import com.pubnub.api.endpoints.export.HistoryExport;
 import com.pubnub.api.endpoints.presence.GetState;
 import com.pubnub.api.endpoints.presence.HereNow;
 import com.pubnub.api.endpoints.presence.SetState;
@@ -25,14 +35,21 @@ import com.pubnub.api.endpoints.push.ListPushProvisions;
 import com.pubnub.api.endpoints.push.RemoveAllPushChannelsForDevice;
 import com.pubnub.api.endpoints.push.RemoveChannelsFromPush;
 import com.pubnub.api.managers.BasePathManager;
+import com.pubnub.api.managers.ChannelGroupShardManager;
+import com.pubnub.api.managers.ClockSyncManager;
+import com.pubnub.api.managers.HistoryCacheManager;
 import com.pubnub.api.managers.MapperManager;
+import com.pubnub.api.managers.PermissionCache;
+import com.pubnub.api.managers.PresenceRoster;
 import com.pubnub.api.managers.PublishSequenceManager;
+import com.pubnub.api.managers.RequestCoalescingManager;
+import com.pubnub.api.managers.ResponseCacheManager;
 import com.pubnub.api.managers.RetrofitManager;
 import com.pubnub.api.managers.SubscriptionManager;
+import com.pubnub.api.managers.TypedMessageManager;
 import com.pubnub.api.vendor.Crypto;
 import lombok.Getter;
 
-import java.util.Date;
 import java.util.List;
 import java.util.UUID;
 
@@ -49,12 +66,37 @@ public class PubNub {
 
     private SubscriptionManager subscriptionManager;
 
+    @Getter
     private BasePathManager basePathManager;
 
     private PublishSequenceManager publishSequenceManager;
 
     private RetrofitManager retrofitManager;
 
+    @Getter
+    private ResponseCacheManager responseCacheManager;
+
+    @Getter
+    private RequestCoalescingManager requestCoalescingManager;
+
+    @Getter
+    private ClockSyncManager clockSyncManager;
+
+    @Getter
+    private HistoryCacheManager historyCacheManager;
+
+    @Getter
+    private PresenceRoster presenceRoster;
+
+    @Getter
+    private ChannelGroupShardManager channelGroupShardManager;
+
+    @Getter
+    private PermissionCache permissionCache;
+
+    @Getter
+    private TypedMessageManager typedMessageManager;
+
     private static final int TIMESTAMP_DIVIDER = 1000;
     private static final int MAX_SEQUENCE = 65535;
 
@@ -62,12 +104,21 @@ public class PubNub {
 
     public PubNub(PNConfiguration initialConfig) {
         this.configuration = initialConfig;
-        this.mapper = new MapperManager();
+        this.mapper = new MapperManager(initialConfig.getJsonCodec());
         this.basePathManager = new BasePathManager(initialConfig);
+        this.responseCacheManager = new ResponseCacheManager(initialConfig);
+        this.requestCoalescingManager = new RequestCoalescingManager();
+        this.clockSyncManager = new ClockSyncManager(this);
+        this.historyCacheManager = new HistoryCacheManager(initialConfig);
+        this.presenceRoster = new PresenceRoster(this);
+        this.channelGroupShardManager = new ChannelGroupShardManager(this);
+        this.permissionCache = new PermissionCache(this);
+        this.typedMessageManager = new TypedMessageManager(this);
         this.retrofitManager = new RetrofitManager(this);
         this.subscriptionManager = new SubscriptionManager(this, retrofitManager);
         this.publishSequenceManager = new PublishSequenceManager(MAX_SEQUENCE);
         instanceId = UUID.randomUUID().toString();
+        this.clockSyncManager.start();
     }
 
     public String getBaseUrl() {
@@ -84,6 +135,22 @@ public class PubNub {
         subscriptionManager.removeListener(listener);
     }
 
+    /**
+     * Listen to the messages of a channel decoded into a type.
+     *
+     * @param channel  channel name, or a wildcard ending in ".*".
+     * @param type     type payloads are decoded into.
+     * @param listener listener of the decoded messages.
+     * @param <T>      type payloads are decoded into.
+     */
+    public <T> void addTypedListener(String channel, Class<T> type, TypedMessageCallback<T> listener) {
+        typedMessageManager.addListener(channel, type, listener);
+    }
+
+    public void removeTypedListener(TypedMessageCallback<?> listener) {
+        typedMessageManager.removeListener(listener);
+    }
+
     public SubscribeBuilder subscribe() {
         return new SubscribeBuilder(this.subscriptionManager);
     }
@@ -110,6 +177,10 @@ public class PubNub {
         return new ListPushProvisions(this, this.retrofitManager.getTransactionInstance());
     }
 
+    public BulkPushProvisioning bulkPushProvisioning() {
+        return new BulkPushProvisioning(this);
+    }
+
     // end push
 
     public WhereNow whereNow() {
@@ -128,14 +199,34 @@ public class PubNub {
         return new History(this, this.retrofitManager.getTransactionInstance());
     }
 
+    public HistoryStream historyStream() {
+        return new HistoryStream(this, this.retrofitManager.getTransactionInstance());
+    }
+
+    public HistoryCursor historyCursor() {
+        return new HistoryCursor(this);
+    }
+
+    public HistoryExport historyExport() {
+        return new HistoryExport(this);
+    }
+
     public FetchMessages fetchMessages() {
         return new FetchMessages(this, this.retrofitManager.getTransactionInstance());
     }
 
+    public FetchMessagesStream fetchMessagesStream() {
+        return new FetchMessagesStream(this, this.retrofitManager.getTransactionInstance());
+    }
+
     public DeleteMessages deleteMessages() {
         return new DeleteMessages(this, this.retrofitManager.getTransactionInstance());
     }
 
+    public BulkDeleteMessages bulkDeleteMessages() {
+        return new BulkDeleteMessages(this);
+    }
+
     public Audit audit() {
         return new Audit(this, this.retrofitManager.getTransactionInstance());
     }
@@ -144,6 +235,10 @@ public class PubNub {
         return new Grant(this, this.retrofitManager.getTransactionInstance());
     }
 
+    public BulkGrant bulkGrant() {
+        return new BulkGrant(this);
+    }
+
     public GetState getPresenceState() {
         return new GetState(this, this.retrofitManager.getTransactionInstance());
     }
@@ -156,6 +251,10 @@ public class PubNub {
         return new Publish(this, publishSequenceManager, this.retrofitManager.getTransactionInstance());
     }
 
+    public ChunkedPublish chunkedPublish() {
+        return new ChunkedPublish(this);
+    }
+
     public ListAllChannelGroup listAllChannelGroups() {
         return new ListAllChannelGroup(this, this.retrofitManager.getTransactionInstance());
     }
@@ -172,6 +271,10 @@ public class PubNub {
         return new RemoveChannelChannelGroup(this, this.retrofitManager.getTransactionInstance());
     }
 
+    public ReconcileChannelGroup reconcileChannelGroup() {
+        return new ReconcileChannelGroup(this);
+    }
+
     public DeleteChannelGroup deleteChannelGroup() {
         return new DeleteChannelGroup(this, this.retrofitManager.getTransactionInstance());
     }
@@ -239,7 +342,7 @@ public class PubNub {
     }
 
     public int getTimestamp() {
-        return (int) ((new Date().getTime()) / TIMESTAMP_DIVIDER);
+        return (int) (clockSyncManager.currentTimeMillis() / TIMESTAMP_DIVIDER);
     }
 
     /**
@@ -276,6 +379,7 @@ public class PubNub {
      */
     public void destroy() {
         try {
+            clockSyncManager.stop();
             subscriptionManager.destroy();
             retrofitManager.destroy();
         } catch (Exception error) {
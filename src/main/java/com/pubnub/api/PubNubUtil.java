@@ -23,6 +23,16 @@ import java.util.TreeSet;
 @Log
 public class PubNubUtil {
 
+    /**
+     * looking up and keying a Mac is costly compared to signing a url, every thread keeps one around.
+     */
+    private static final ThreadLocal<Signer> SHA256_SIGNERS = new ThreadLocal<Signer>() {
+        @Override
+        protected Signer initialValue() {
+            return new Signer();
+        }
+    };
+
     private PubNubUtil() {
     }
 
@@ -111,24 +121,10 @@ public class PubNubUtil {
     }
 
     public static String signSHA256(String key, String data) throws PubNubException {
-        Mac sha256HMAC;
         byte[] hmacData;
-        SecretKeySpec secretKey = new SecretKeySpec(key.getBytes(Charset.forName("UTF-8")), "HmacSHA256");
-
-        try {
-            sha256HMAC = Mac.getInstance("HmacSHA256");
-        } catch (NoSuchAlgorithmException e) {
-            throw PubNubException.builder().pubnubError(PubNubErrorBuilder.PNERROBJ_CRYPTO_ERROR).errormsg(e.getMessage()).build();
-        }
-
-        try {
-            sha256HMAC.init(secretKey);
-        } catch (InvalidKeyException e) {
-            throw PubNubException.builder().pubnubError(PubNubErrorBuilder.PNERROBJ_CRYPTO_ERROR).errormsg(e.getMessage()).build();
-        }
 
         try {
-            hmacData = sha256HMAC.doFinal(data.getBytes("UTF-8"));
+            hmacData = SHA256_SIGNERS.get().getMac(key).doFinal(data.getBytes("UTF-8"));
         } catch (UnsupportedEncodingException e) {
             throw PubNubException.builder().pubnubError(PubNubErrorBuilder.PNERROBJ_CRYPTO_ERROR).errormsg(e.getMessage()).build();
         }
@@ -188,4 +184,33 @@ public class PubNubUtil {
         return originalRequest.newBuilder().url(rebuiltUrl).build();
     }
 
+    /**
+     * HmacSHA256 instance of a thread, keyed with the secret key it was last used with.
+     */
+    private static final class Signer {
+
+        private Mac mac;
+        private String key;
+
+        private Mac getMac(String secretKey) throws PubNubException {
+            if (mac != null && secretKey.equals(key)) {
+                // doFinal leaves the Mac initialized with the same key.
+                return mac;
+            }
+
+            try {
+                Mac sha256HMAC = Mac.getInstance("HmacSHA256");
+                sha256HMAC.init(new SecretKeySpec(secretKey.getBytes(Charset.forName("UTF-8")), "HmacSHA256"));
+                mac = sha256HMAC;
+                key = secretKey;
+            } catch (NoSuchAlgorithmException e) {
+                throw PubNubException.builder().pubnubError(PubNubErrorBuilder.PNERROBJ_CRYPTO_ERROR).errormsg(e.getMessage()).build();
+            } catch (InvalidKeyException e) {
+                throw PubNubException.builder().pubnubError(PubNubErrorBuilder.PNERROBJ_CRYPTO_ERROR).errormsg(e.getMessage()).build();
+            }
+
+            return mac;
+        }
+    }
+
 }
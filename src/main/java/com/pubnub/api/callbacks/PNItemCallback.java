@@ -0,0 +1,5 @@
+package com.pubnub.api.callbacks;
+
+public abstract class PNItemCallback<X> {
+    public abstract void onItem(X item);
+}
@@ -0,0 +1,16 @@
+package com.pubnub.api.callbacks;
+
+import com.pubnub.api.PubNub;
+import com.pubnub.api.PubNubException;
+import com.pubnub.api.models.consumer.pubsub.PNMessageResult;
+import com.pubnub.api.models.consumer.pubsub.PNTypedMessageResult;
+
+public abstract class TypedMessageCallback<T> {
+    public abstract void message(PubNub pubnub, PNTypedMessageResult<T> message);
+
+    /**
+     * called instead of message when the payload does not decode into the registered type.
+     */
+    public void decodingFailed(PubNub pubnub, PNMessageResult message, PubNubException error) {
+    }
+}
@@ -3,22 +3,27 @@ package com.pubnub.api.endpoints;
 
 import com.google.gson.JsonElement;
 import com.pubnub.api.PubNub;
+import com.pubnub.api.PubNubError;
 import com.pubnub.api.PubNubException;
 import com.pubnub.api.builder.PubNubErrorBuilder;
 import com.pubnub.api.callbacks.PNCallback;
 import com.pubnub.api.enums.PNOperationType;
 import com.pubnub.api.enums.PNStatusCategory;
 import com.pubnub.api.managers.MapperManager;
+import com.pubnub.api.managers.RequestCoalescingManager;
+import com.pubnub.api.managers.ResponseCacheManager;
 import com.pubnub.api.models.consumer.PNErrorData;
 import com.pubnub.api.models.consumer.PNStatus;
 import lombok.AccessLevel;
 import lombok.Getter;
+import okhttp3.OkHttpClient;
 import retrofit2.Call;
 import retrofit2.Response;
 import retrofit2.Retrofit;
 
 import java.io.IOException;
 import java.net.ConnectException;
+import java.net.SocketException;
 import java.net.SocketTimeoutException;
 import java.net.UnknownHostException;
 import java.util.ArrayList;
@@ -26,6 +31,9 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 public abstract class Endpoint<Input, Output> {
 
@@ -64,6 +72,49 @@ public abstract class Endpoint<Input, Output> {
         this.validateParams();
 
         call = doWork(createBaseParams());
+        String requestKey = createRequestKey();
+
+        if (requestKey != null && isCached()) {
+            Output cachedResponse = getCachedResponse(requestKey);
+
+            if (cachedResponse != null) {
+                return cachedResponse;
+            }
+        }
+
+        if (requestKey == null || !isCoalesced()) {
+            return executeSync(requestKey);
+        }
+
+        RequestCoalescingManager.InFlightRequest inFlightRequest = this.pubnub.getRequestCoalescingManager().join(requestKey);
+
+        if (inFlightRequest != null) {
+            return awaitInFlightRequest(inFlightRequest);
+        }
+
+        Output response = null;
+        PNStatus status = null;
+
+        try {
+            response = executeSync(requestKey);
+            status = createLocalStatusResponse();
+            return response;
+        } catch (PubNubException pubnubException) {
+            status = createStatusResponse(categoryOf(pubnubException), null, pubnubException, null, null);
+            throw pubnubException;
+        } catch (RuntimeException runtimeException) {
+            status = createStatusResponse(PNStatusCategory.PNUnknownCategory, null, PubNubException.builder()
+                    .pubnubError(PubNubErrorBuilder.PNERROBJ_PUBNUB_EXCEPTION)
+                    .errormsg(runtimeException.toString())
+                    .build(), null, null);
+            throw runtimeException;
+        } finally {
+            // callers waiting on this request are released whatever happened to it.
+            this.pubnub.getRequestCoalescingManager().complete(requestKey, response, status);
+        }
+    }
+
+    private Output executeSync(String requestKey) throws PubNubException {
         Response<Input> serverResponse;
         Output response;
 
@@ -71,7 +122,7 @@ public abstract class Endpoint<Input, Output> {
             serverResponse = call.execute();
         } catch (IOException e) {
             throw PubNubException.builder()
-                    .pubnubError(PubNubErrorBuilder.PNERROBJ_PARSING_ERROR)
+                    .pubnubError(errorOf(e))
                     .errormsg(e.toString())
                     .affectedCall(call)
                     .build();
@@ -103,21 +154,63 @@ public abstract class Endpoint<Input, Output> {
         }
 
         response = createResponse(serverResponse);
+        storeResponse(requestKey, response);
 
         return response;
     }
 
-    public void async(final PNCallback<Output> callback) {
-        cachedCallback = callback;
+    public void async(final PNCallback<Output> userCallback) {
+        cachedCallback = userCallback;
+        final PNCallback<Output> callback;
 
         try {
             this.validateParams();
             call = doWork(createBaseParams());
         } catch (PubNubException pubnubException) {
-            callback.onResponse(null, createStatusResponse(PNStatusCategory.PNBadRequestCategory, null, pubnubException, null, null));
+            userCallback.onResponse(null, createStatusResponse(PNStatusCategory.PNBadRequestCategory, null, pubnubException, null, null));
             return;
         }
 
+        final String requestKey = createRequestKey();
+
+        if (requestKey != null && isCached()) {
+            Output cachedResponse = getCachedResponse(requestKey);
+
+            if (cachedResponse != null) {
+                deliverLocally(userCallback, cachedResponse);
+                return;
+            }
+        }
+
+        if (requestKey != null && isCoalesced()) {
+            final RequestCoalescingManager coalescingManager = this.pubnub.getRequestCoalescingManager();
+            RequestCoalescingManager.InFlightRequest inFlightRequest = coalescingManager.join(requestKey);
+
+            if (inFlightRequest != null) {
+                inFlightRequest.addCallback(new PNCallback<Object>() {
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    public void onResponse(Object result, PNStatus status) {
+                        userCallback.onResponse((Output) result, adoptStatus(status));
+                    }
+                });
+                return;
+            }
+
+            // we are the first caller; share the outcome with everybody who joined in the meantime.
+            callback = new PNCallback<Output>() {
+                @Override
+                public void onResponse(Output result, PNStatus status) {
+                    coalescingManager.complete(requestKey, result, status);
+                    if (!silenceFailures || !status.isError()) {
+                        userCallback.onResponse(result, status);
+                    }
+                }
+            };
+        } else {
+            callback = userCallback;
+        }
+
         call.enqueue(new retrofit2.Callback<Input>() {
 
             @Override
@@ -189,14 +282,22 @@ public abstract class Endpoint<Input, Output> {
                 } catch (PubNubException pubnubException) {
                     callback.onResponse(null, createStatusResponse(PNStatusCategory.PNMalformedResponseCategory, response, pubnubException, null, null));
                     return;
+                } catch (RuntimeException runtimeException) {
+                    PubNubException pubnubException = PubNubException.builder()
+                            .pubnubError(PubNubErrorBuilder.PNERROBJ_PARSING_ERROR)
+                            .errormsg(runtimeException.toString())
+                            .build();
+                    callback.onResponse(null, createStatusResponse(PNStatusCategory.PNMalformedResponseCategory, response, pubnubException, null, null));
+                    return;
                 }
 
+                storeResponse(requestKey, callbackResponse);
                 callback.onResponse(callbackResponse, createStatusResponse(PNStatusCategory.PNAcknowledgmentCategory, response, null, null, null));
             }
 
             @Override
             public void onFailure(Call<Input> performedCall, Throwable throwable) {
-                if (silenceFailures) {
+                if (silenceFailures && callback == userCallback) {
                     return;
                 }
 
@@ -280,6 +381,156 @@ public abstract class Endpoint<Input, Output> {
         return pnStatus.build();
     }
 
+    /**
+     * Hand a response which did not need a call to the callback on the thread responses of calls arrive on, so that
+     * callers see the same threading whether or not a cache answered.
+     *
+     * @param callback callback of the caller.
+     * @param result   response to hand over.
+     */
+    protected void deliverLocally(final PNCallback<Output> callback, final Output result) {
+        final PNStatus status = createLocalStatusResponse();
+        Runnable delivery = new Runnable() {
+            @Override
+            public void run() {
+                callback.onResponse(result, status);
+            }
+        };
+
+        Executor executor = retrofit.callbackExecutor();
+
+        if (executor == null && retrofit.callFactory() instanceof OkHttpClient) {
+            executor = ((OkHttpClient) retrofit.callFactory()).dispatcher().executorService();
+        }
+
+        try {
+            if (executor != null) {
+                executor.execute(delivery);
+                return;
+            }
+        } catch (RejectedExecutionException e) {
+            // the client is shutting down, nobody else will run it.
+        }
+
+        delivery.run();
+    }
+
+    protected PNStatus createLocalStatusResponse() {
+        return PNStatus.builder()
+                .executedEndpoint(this)
+                .error(false)
+                .statusCode(SERVER_RESPONSE_SUCCESS)
+                .operation(getOperationType())
+                .category(PNStatusCategory.PNAcknowledgmentCategory)
+                .affectedChannels(getAffectedChannels())
+                .affectedChannelGroups(getAffectedChannelGroups())
+                .build();
+    }
+
+    private boolean isCached() {
+        return this.pubnub.getResponseCacheManager().isCacheable(getOperationType());
+    }
+
+    private boolean isCoalesced() {
+        return this.pubnub.getConfiguration().isCoalesceIdenticalRequests()
+                && RequestCoalescingManager.isCoalescable(getOperationType());
+    }
+
+    /**
+     * @return false if the response of the call cannot be handed to other callers, for example because the
+     * response is delivered through side effects; such calls are never cached nor coalesced.
+     */
+    protected boolean isResponseShareable() {
+        return true;
+    }
+
+    /**
+     * @return key identifying the prepared call or null if the call is neither cached nor coalesced.
+     */
+    private String createRequestKey() {
+        if (!isResponseShareable() || (!isCached() && !isCoalesced())) {
+            return null;
+        }
+
+        return ResponseCacheManager.createKey(getOperationType(), call.request());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Output awaitInFlightRequest(RequestCoalescingManager.InFlightRequest inFlightRequest) throws PubNubException {
+        // the request of the first caller cannot take longer than connecting and reading.
+        long timeout = TimeUnit.SECONDS.toMillis(this.pubnub.getConfiguration().getConnectTimeout()
+                + this.pubnub.getConfiguration().getNonSubscribeRequestTimeout());
+
+        return (Output) inFlightRequest.await(timeout);
+    }
+
+    /**
+     * @param status status of the call this endpoint was attached to.
+     * @return the same status, retrying this endpoint instead of the one which performed the call.
+     */
+    private PNStatus adoptStatus(PNStatus status) {
+        return PNStatus.builder()
+                .executedEndpoint(this)
+                .category(status.getCategory())
+                .errorData(status.getErrorData())
+                .error(status.isError())
+                .statusCode(status.getStatusCode())
+                .operation(status.getOperation())
+                .tlsEnabled(status.isTlsEnabled())
+                .uuid(status.getUuid())
+                .authKey(status.getAuthKey())
+                .origin(status.getOrigin())
+                .clientRequest(status.getClientRequest())
+                .affectedChannels(status.getAffectedChannels())
+                .affectedChannelGroups(status.getAffectedChannelGroups())
+                .build();
+    }
+
+    /**
+     * Classify a request which did not get a response the way failed async calls are; anything but a network failure
+     * happened while reading the response.
+     */
+    private static PubNubError errorOf(IOException e) {
+        if (e instanceof UnknownHostException) {
+            return PubNubErrorBuilder.PNERROBJ_CONNECTION_NOT_SET;
+        } else if (e instanceof ConnectException) {
+            return PubNubErrorBuilder.PNERROBJ_CONNECT_EXCEPTION;
+        } else if (e instanceof SocketTimeoutException) {
+            return PubNubErrorBuilder.PNERROBJ_SUBSCRIBE_TIMEOUT;
+        } else if (e instanceof SocketException) {
+            return PubNubErrorBuilder.PNERROBJ_HTTP_ERROR;
+        }
+
+        return PubNubErrorBuilder.PNERROBJ_PARSING_ERROR;
+    }
+
+    private PNStatusCategory categoryOf(PubNubException pubnubException) {
+        if (pubnubException.getStatusCode() == SERVER_RESPONSE_FORBIDDEN) {
+            return PNStatusCategory.PNAccessDeniedCategory;
+        } else if (pubnubException.getStatusCode() == SERVER_RESPONSE_BAD_REQUEST) {
+            return PNStatusCategory.PNBadRequestCategory;
+        } else if (pubnubException.getStatusCode() == 0) {
+            return PNStatusCategory.PNUnexpectedDisconnectCategory;
+        }
+
+        return PNStatusCategory.PNUnknownCategory;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Output getCachedResponse(String cacheKey) {
+        return (Output) this.pubnub.getResponseCacheManager().get(cacheKey);
+    }
+
+    private void storeResponse(String requestKey, Output response) {
+        ResponseCacheManager responseCache = this.pubnub.getResponseCacheManager();
+
+        if (requestKey != null) {
+            responseCache.put(requestKey, getOperationType(), getAffectedChannels(), getAffectedChannelGroups(), response);
+        }
+
+        responseCache.onWrite(getOperationType(), getAffectedChannels(), getAffectedChannelGroups());
+    }
+
     protected Map<String, String> createBaseParams() {
         Map<String, String> params = new HashMap<>();
 
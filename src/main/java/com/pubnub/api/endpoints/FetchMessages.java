@@ -1,18 +1,15 @@
 package com.pubnub.api.endpoints;
 
 import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
 import com.pubnub.api.PubNub;
 import com.pubnub.api.PubNubException;
 import com.pubnub.api.PubNubUtil;
 import com.pubnub.api.builder.PubNubErrorBuilder;
 import com.pubnub.api.enums.PNOperationType;
-import com.pubnub.api.managers.MapperManager;
 import com.pubnub.api.models.consumer.history.PNFetchMessagesResult;
 import com.pubnub.api.models.consumer.pubsub.PNMessageResult;
 import com.pubnub.api.models.server.FetchMessagesEnvelope;
 import com.pubnub.api.models.server.HistoryForChannelsItem;
-import com.pubnub.api.vendor.Crypto;
 import lombok.Setter;
 import lombok.experimental.Accessors;
 import retrofit2.Call;
@@ -134,34 +131,7 @@ public class FetchMessages extends Endpoint<FetchMessagesEnvelope, PNFetchMessag
     }
 
     private JsonElement processMessage(JsonElement message) throws PubNubException {
-        // if we do not have a crypto key, there is no way to process the node; let's return.
-        if (this.getPubnub().getConfiguration().getCipherKey() == null) {
-            return message;
-        }
-
-        Crypto crypto = new Crypto(this.getPubnub().getConfiguration().getCipherKey());
-        MapperManager mapper = this.getPubnub().getMapper();
-        String inputText;
-        String outputText;
-        JsonElement outputObject;
-
-        if (mapper.isJsonObject(message) && mapper.hasField(message, "pn_other")) {
-            inputText = mapper.elementToString(message, "pn_other");
-        } else {
-            inputText = mapper.elementToString(message);
-        }
-
-        outputText = crypto.decrypt(inputText);
-        outputObject = mapper.fromJson(outputText, JsonElement.class);
-
-        // inject the decoded resposne into the payload
-        if (mapper.isJsonObject(message) && mapper.hasField(message, "pn_other")) {
-            JsonObject objectNode = mapper.getAsObject(message);
-            mapper.putOnObject(objectNode, "pn_other", outputObject);
-            outputObject = objectNode;
-        }
-
-        return outputObject;
+        return MessagePayloads.decode(this.getPubnub(), message);
     }
 
 }
@@ -0,0 +1,175 @@
+package com.pubnub.api.endpoints;
+
+import com.google.gson.JsonElement;
+import com.google.gson.stream.JsonReader;
+import com.pubnub.api.PubNub;
+import com.pubnub.api.PubNubException;
+import com.pubnub.api.PubNubUtil;
+import com.pubnub.api.builder.PubNubErrorBuilder;
+import com.pubnub.api.callbacks.PNItemCallback;
+import com.pubnub.api.enums.PNOperationType;
+import com.pubnub.api.models.consumer.history.PNStreamResult;
+import com.pubnub.api.models.consumer.pubsub.PNMessageResult;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+import okhttp3.ResponseBody;
+import retrofit2.Call;
+import retrofit2.Retrofit;
+import retrofit2.http.GET;
+import retrofit2.http.Path;
+import retrofit2.http.QueryMap;
+import retrofit2.http.Streaming;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fetch messages call which hands every message to the item callback as soon as it has been read off the
+ * connection.
+ */
+@Accessors(chain = true, fluent = true)
+public class FetchMessagesStream extends StreamingEndpoint<PNStreamResult> {
+    private static final int MAX_MESSAGES = 25;
+    @Setter
+    private List<String> channels;
+    @Setter
+    private Integer maximumPerChannel;
+    @Setter
+    private Long start;
+    @Setter
+    private Long end;
+    @Setter
+    private PNItemCallback<PNMessageResult> itemCallback;
+
+    public FetchMessagesStream(PubNub pubnub, Retrofit retrofit) {
+        super(pubnub, retrofit);
+        channels = new ArrayList<>();
+        maximumPerChannel = 1;
+    }
+
+    @Override
+    protected List<String> getAffectedChannels() {
+        return channels;
+    }
+
+    @Override
+    protected List<String> getAffectedChannelGroups() {
+        return null;
+    }
+
+    private interface HistoryForChannelsService {
+        @Streaming
+        @GET("v3/history/sub-key/{subKey}/channel/{channels}")
+        Call<ResponseBody> fetchMessages(@Path("subKey") String subKey,
+                                         @Path("channels") String channels,
+                                         @QueryMap Map<String, String> options);
+    }
+
+    @Override
+    protected void validateParams() throws PubNubException {
+        if (channels == null || channels.size() == 0) {
+            throw PubNubException.builder().pubnubError(PubNubErrorBuilder.PNERROBJ_CHANNEL_MISSING).build();
+        }
+        if (itemCallback == null) {
+            throw PubNubException.builder().pubnubError(PubNubErrorBuilder.PNERROBJ_INVALID_ARGUMENTS)
+                    .errormsg("itemCallback is required").build();
+        }
+        if (maximumPerChannel != null && maximumPerChannel > MAX_MESSAGES) {
+            maximumPerChannel = MAX_MESSAGES;
+        } else if (maximumPerChannel == null) {
+            maximumPerChannel = 1;
+        }
+    }
+
+    @Override
+    protected Call<ResponseBody> doWork(Map<String, String> params) {
+        HistoryForChannelsService service = this.getRetrofit().create(HistoryForChannelsService.class);
+
+        params.put("max", String.valueOf(maximumPerChannel));
+
+        if (start != null) {
+            params.put("start", Long.toString(start).toLowerCase());
+        }
+        if (end != null) {
+            params.put("end", Long.toString(end).toLowerCase());
+        }
+
+        return service.fetchMessages(this.getPubnub().getConfiguration().getSubscribeKey(),
+                PubNubUtil.joinString(channels, ","), params);
+    }
+
+    @Override
+    protected PNStreamResult parse(JsonReader reader) throws IOException, PubNubException {
+        int itemCount = 0;
+        Long oldest = null;
+        Long newest = null;
+
+        reader.beginObject();
+
+        while (reader.hasNext()) {
+            if (!"channels".equals(reader.nextName())) {
+                reader.skipValue();
+                continue;
+            }
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String channel = reader.nextName();
+
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    JsonElement message = null;
+                    Long timetoken = null;
+
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        String name = reader.nextName();
+                        if ("message".equals(name)) {
+                            message = readElement(reader);
+                        } else if ("timetoken".equals(name)) {
+                            timetoken = reader.nextLong();
+                        } else {
+                            reader.skipValue();
+                        }
+                    }
+                    reader.endObject();
+
+                    itemCallback.onItem(PNMessageResult.builder()
+                            .channel(channel)
+                            .message(processMessage(message))
+                            .timetoken(timetoken)
+                            .build());
+                    itemCount++;
+
+                    if (timetoken != null) {
+                        oldest = oldest == null ? timetoken : Math.min(oldest, timetoken);
+                        newest = newest == null ? timetoken : Math.max(newest, timetoken);
+                    }
+                }
+                reader.endArray();
+            }
+            reader.endObject();
+        }
+
+        reader.endObject();
+
+        return PNStreamResult.builder()
+                .itemCount(itemCount)
+                .startTimetoken(oldest)
+                .endTimetoken(newest)
+                .build();
+    }
+
+    @Override
+    protected PNOperationType getOperationType() {
+        return PNOperationType.PNFetchMessagesOperation;
+    }
+
+    @Override
+    protected boolean isAuthRequired() {
+        return true;
+    }
+
+}
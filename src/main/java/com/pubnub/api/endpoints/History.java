@@ -1,15 +1,16 @@
 package com.pubnub.api.endpoints;
 
 import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
 import com.pubnub.api.PubNub;
 import com.pubnub.api.PubNubException;
 import com.pubnub.api.builder.PubNubErrorBuilder;
+import com.pubnub.api.callbacks.PNCallback;
 import com.pubnub.api.enums.PNOperationType;
+import com.pubnub.api.managers.HistoryCacheManager;
 import com.pubnub.api.managers.MapperManager;
+import com.pubnub.api.models.consumer.PNStatus;
 import com.pubnub.api.models.consumer.history.PNHistoryItemResult;
 import com.pubnub.api.models.consumer.history.PNHistoryResult;
-import com.pubnub.api.vendor.Crypto;
 import lombok.Setter;
 import lombok.experimental.Accessors;
 import retrofit2.Call;
@@ -28,6 +29,11 @@ import java.util.Map;
 @Accessors(chain = true, fluent = true)
 public class History extends Endpoint<JsonElement, PNHistoryResult> {
     private static final int MAX_COUNT = 100;
+    /**
+     * in timetoken units, how long a message may take to show up in history after it has been published; an open
+     * ended read is only taken as complete up to that long before it was sent.
+     */
+    private static final long STORAGE_LAG = 10000000L;
     @Setter
     private String channel;
     @Setter
@@ -41,10 +47,55 @@ public class History extends Endpoint<JsonElement, PNHistoryResult> {
     @Setter
     private Boolean includeTimetoken;
 
+    /**
+     * set on reads issued by the history cache itself to fill a gap.
+     */
+    private boolean cacheFill;
+
     public History(PubNub pubnub, Retrofit retrofit) {
         super(pubnub, retrofit);
     }
 
+    @Override
+    public PNHistoryResult sync() throws PubNubException {
+        if (!isReadThrough()) {
+            return fetch();
+        }
+
+        validateParams();
+        return readThrough(true);
+    }
+
+    @Override
+    public void async(final PNCallback<PNHistoryResult> callback) {
+        if (isReadThrough()) {
+            try {
+                validateParams();
+                PNHistoryResult cachedResult = readThrough(false);
+
+                if (cachedResult != null) {
+                    deliverLocally(callback, cachedResult);
+                    return;
+                }
+            } catch (PubNubException e) {
+                // let the regular call report it.
+            }
+        }
+
+        final long requestedAt = getPubnub().getClockSyncManager().serverNow();
+
+        super.async(new PNCallback<PNHistoryResult>() {
+            @Override
+            public void onResponse(PNHistoryResult result, PNStatus status) {
+                if (!status.isError() && result != null) {
+                    cacheResult(result, requestedAt);
+                }
+
+                callback.onResponse(result, status);
+            }
+        });
+    }
+
     @Override
     protected List<String> getAffectedChannels() {
         return Collections.singletonList(channel);
@@ -152,35 +203,159 @@ public class History extends Endpoint<JsonElement, PNHistoryResult> {
         return true;
     }
 
-    private JsonElement processMessage(JsonElement message) throws PubNubException {
-        // if we do not have a crypto key, there is no way to process the node; let's return.
-        if (this.getPubnub().getConfiguration().getCipherKey() == null) {
-            return message;
+    /**
+     * History answers an empty range the same way as a disabled history, but with an empty message list.
+     *
+     * @param exception error raised by a history call.
+     * @return true if the error stands for a range without messages.
+     */
+    public static boolean isEmptyRange(PubNubException exception) {
+        JsonElement body = exception.getJso();
+
+        return body != null && body.isJsonArray() && body.getAsJsonArray().size() > 0
+                && body.getAsJsonArray().get(0).isJsonArray()
+                && body.getAsJsonArray().get(0).getAsJsonArray().size() == 0;
+    }
+
+    private boolean isReadThrough() {
+        // reversed reads page from the oldest message and are passed through.
+        return !cacheFill && getPubnub().getHistoryCacheManager().isEnabled() && (reverse == null || !reverse);
+    }
+
+    /**
+     * Perform the call and remember its outcome in the history cache.
+     */
+    private PNHistoryResult fetch() throws PubNubException {
+        long requestedAt = getPubnub().getClockSyncManager().serverNow();
+        PNHistoryResult result;
+
+        try {
+            result = super.sync();
+        } catch (PubNubException e) {
+            if (!cacheFill || !isEmptyRange(e)) {
+                throw e;
+            }
+
+            result = PNHistoryResult.builder()
+                    .messages(new ArrayList<PNHistoryItemResult>())
+                    .startTimetoken(0L)
+                    .endTimetoken(0L)
+                    .build();
         }
 
-        Crypto crypto = new Crypto(this.getPubnub().getConfiguration().getCipherKey());
-        MapperManager mapper = getPubnub().getMapper();
-        String inputText;
-        String outputText;
-        JsonElement outputObject;
+        cacheResult(result, requestedAt);
+        return result;
+    }
+
+    /**
+     * Store the messages of a call together with the range the call is known to have returned completely.
+     */
+    private void cacheResult(PNHistoryResult result, long requestedAt) {
+        HistoryCacheManager cache = getPubnub().getHistoryCacheManager();
+
+        if (!cache.isEnabled() || includeTimetoken == null || !includeTimetoken || (reverse != null && reverse)
+                || result.getMessages() == null) {
+            return;
+        }
 
-        if (mapper.isJsonObject(message) && mapper.hasField(message, "pn_other")) {
-            inputText = mapper.elementToString(message, "pn_other");
+        List<PNHistoryItemResult> messages = result.getMessages();
+        int requested = count != null && count > 0 && count <= MAX_COUNT ? count : MAX_COUNT;
+        long highest = start != null ? start - 1 : requestedAt - STORAGE_LAG;
+        long lowest;
+
+        if (!messages.isEmpty()) {
+            highest = Math.max(highest, messages.get(messages.size() - 1).getTimetoken());
+        }
+
+        if (messages.size() < requested) {
+            lowest = end != null ? end : 0;
         } else {
-            inputText = mapper.elementToString(message);
+            lowest = messages.get(0).getTimetoken();
         }
 
-        outputText = crypto.decrypt(inputText);
-        outputObject = this.getPubnub().getMapper().fromJson(outputText, JsonElement.class);
+        cache.store(channel, messages, lowest, highest);
+    }
+
+    /**
+     * Answer the call from the cached ranges, reading only the gaps between them from the network.
+     *
+     * @param allowNetwork if false, give up on the first gap.
+     * @return the result, null if a gap was found and the network is not allowed.
+     */
+    private PNHistoryResult readThrough(boolean allowNetwork) throws PubNubException {
+        HistoryCacheManager cache = getPubnub().getHistoryCacheManager();
+        int limit = count != null && count > 0 && count <= MAX_COUNT ? count : MAX_COUNT;
+        long lowest = end != null ? end : 0;
+        long cursor;
 
-        // inject the decoded response into the payload
-        if (mapper.isJsonObject(message) && mapper.hasField(message, "pn_other")) {
-            JsonObject objectNode = mapper.getAsObject(message);
-            mapper.putOnObject(objectNode, "pn_other", outputObject);
-            outputObject = objectNode;
+        if (start != null) {
+            cursor = start - 1;
+        } else {
+            Long liveTail = cache.getLiveTail(channel);
+            cursor = liveTail != null ? liveTail : Long.MAX_VALUE;
         }
 
-        return outputObject;
+        // newest first.
+        List<PNHistoryItemResult> collected = new ArrayList<>();
+
+        while (collected.size() < limit && cursor >= lowest) {
+            int remaining = limit - collected.size();
+            long[] range = cache.getCoveredRange(channel, cursor);
+
+            if (range != null) {
+                long low = Math.max(range[0], lowest);
+                cache.read(channel, cursor, low, remaining, collected);
+                cursor = low - 1;
+                continue;
+            }
+
+            if (!allowNetwork) {
+                return null;
+            }
+
+            long gapLow = Math.max(cache.getHighestCoveredBelow(channel, cursor) + 1, lowest);
+            History gapRead = new History(getPubnub(), getRetrofit())
+                    .channel(channel)
+                    .start(cursor == Long.MAX_VALUE ? null : cursor + 1)
+                    .end(gapLow > 0 ? gapLow : null)
+                    .count(remaining)
+                    .includeTimetoken(true);
+            gapRead.cacheFill = true;
+
+            List<PNHistoryItemResult> page = gapRead.sync().getMessages();
+
+            for (int i = page.size() - 1; i >= 0; i--) {
+                collected.add(page.get(i));
+            }
+
+            if (page.size() >= remaining) {
+                break;
+            }
+
+            cursor = gapLow - 1;
+        }
+
+        return createCachedResult(collected);
+    }
+
+    private PNHistoryResult createCachedResult(List<PNHistoryItemResult> newestFirst) {
+        List<PNHistoryItemResult> messages = new ArrayList<>(newestFirst.size());
+        boolean withTimetoken = includeTimetoken != null && includeTimetoken;
+
+        for (int i = newestFirst.size() - 1; i >= 0; i--) {
+            PNHistoryItemResult message = newestFirst.get(i);
+            messages.add(withTimetoken ? message : PNHistoryItemResult.builder().entry(message.getEntry()).build());
+        }
+
+        return PNHistoryResult.builder()
+                .messages(messages)
+                .startTimetoken(newestFirst.isEmpty() ? 0L : newestFirst.get(newestFirst.size() - 1).getTimetoken())
+                .endTimetoken(newestFirst.isEmpty() ? 0L : newestFirst.get(0).getTimetoken())
+                .build();
+    }
+
+    private JsonElement processMessage(JsonElement message) throws PubNubException {
+        return MessagePayloads.decode(this.getPubnub(), message);
     }
 
 }
@@ -0,0 +1,213 @@
+package com.pubnub.api.endpoints;
+
+import com.pubnub.api.PubNub;
+import com.pubnub.api.PubNubException;
+import com.pubnub.api.builder.PubNubErrorBuilder;
+import com.pubnub.api.models.consumer.history.PNHistoryItemResult;
+import com.pubnub.api.models.consumer.history.PNHistoryResult;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Streams every message of a channel within a timetoken range.
+ *
+ * Pages are fetched and decrypted on a worker thread which runs ahead of the caller by at most
+ * {@link #PREFETCH_PAGES} pages, so the next page is usually ready when the current one has been consumed while
+ * memory stays bounded regardless of the length of the history.
+ *
+ * By default messages are returned from the newest to the oldest; with reverse set they are returned in
+ * chronological order.
+ */
+@Accessors(chain = true, fluent = true)
+public class HistoryCursor {
+
+    /**
+     * number of pages the worker may fetch ahead of the caller.
+     */
+    public static final int PREFETCH_PAGES = 2;
+    private static final int MAX_COUNT = 100;
+
+    @Setter
+    private String channel;
+    /**
+     * timetoken the walk starts at, exclusive.
+     */
+    @Setter
+    private Long start;
+    /**
+     * timetoken the walk stops at, inclusive.
+     */
+    @Setter
+    private Long end;
+    @Setter
+    private Boolean reverse;
+    /**
+     * number of messages requested per page.
+     */
+    @Setter
+    private Integer pageSize;
+
+    private PubNub pubnub;
+
+    private BlockingQueue<Page> pages;
+    private Thread worker;
+    private volatile boolean closed;
+
+    private List<PNHistoryItemResult> currentPage;
+    private int position;
+    private boolean exhausted;
+
+    public HistoryCursor(PubNub pubnubInstance) {
+        this.pubnub = pubnubInstance;
+        this.pages = new ArrayBlockingQueue<>(PREFETCH_PAGES);
+        this.currentPage = Collections.emptyList();
+    }
+
+    /**
+     * @return true if there are more messages, blocks until the next page arrived if needed.
+     * @throws PubNubException a page could not be fetched.
+     */
+    public boolean hasNext() throws PubNubException {
+        while (position >= currentPage.size()) {
+            if (exhausted || closed) {
+                return false;
+            }
+
+            Page page = takePage();
+
+            if (page.error != null) {
+                exhausted = true;
+                throw page.error;
+            }
+
+            exhausted = page.last;
+            currentPage = page.messages;
+            position = 0;
+        }
+
+        return true;
+    }
+
+    /**
+     * @return next message.
+     * @throws PubNubException a page could not be fetched or there are no more messages.
+     */
+    public PNHistoryItemResult next() throws PubNubException {
+        if (!hasNext()) {
+            throw PubNubException.builder().pubnubError(PubNubErrorBuilder.PNERROBJ_PUBNUB_EXCEPTION)
+                    .errormsg("no more history messages").build();
+        }
+
+        PNHistoryItemResult message = currentPage.get(position);
+        // let go of consumed messages early, pages can be large.
+        currentPage.set(position, null);
+        position++;
+        return message;
+    }
+
+    /**
+     * Stop prefetching and release buffered pages.
+     */
+    public void close() {
+        closed = true;
+
+        if (worker != null) {
+            worker.interrupt();
+        }
+
+        pages.clear();
+        currentPage = Collections.emptyList();
+    }
+
+    private Page takePage() throws PubNubException {
+        if (worker == null) {
+            if (channel == null || channel.isEmpty()) {
+                throw PubNubException.builder().pubnubError(PubNubErrorBuilder.PNERROBJ_CHANNEL_MISSING).build();
+            }
+
+            worker = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    fetchPages();
+                }
+            });
+            worker.setName("History Cursor Thread");
+            worker.setDaemon(true);
+            worker.start();
+        }
+
+        try {
+            return pages.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw PubNubException.builder().pubnubError(PubNubErrorBuilder.PNERROBJ_PUBNUB_EXCEPTION)
+                    .errormsg(e.toString()).build();
+        }
+    }
+
+    private void fetchPages() {
+        boolean chronological = reverse != null && reverse;
+        int count = pageSize != null && pageSize > 0 && pageSize <= MAX_COUNT ? pageSize : MAX_COUNT;
+        Long pageStart = start;
+
+        try {
+            while (!closed) {
+                Page page = new Page();
+
+                try {
+                    PNHistoryResult result = pubnub.history()
+                            .channel(channel)
+                            .start(pageStart)
+                            .end(end)
+                            .count(count)
+                            .reverse(reverse)
+                            .includeTimetoken(true)
+                            .sync();
+
+                    List<PNHistoryItemResult> messages = result.getMessages() != null
+                            ? new ArrayList<>(result.getMessages()) : new ArrayList<PNHistoryItemResult>();
+
+                    if (!chronological) {
+                        Collections.reverse(messages);
+                    }
+
+                    page.messages = messages;
+                    pageStart = chronological ? result.getEndTimetoken() : result.getStartTimetoken();
+                    page.last = messages.size() < count || pageStart == null || pageStart.equals(end);
+                } catch (PubNubException e) {
+                    page.error = e;
+                    page.last = true;
+                } catch (RuntimeException e) {
+                    // the caller is blocked on the page, it has to learn about any failure.
+                    page.error = PubNubException.builder().pubnubError(PubNubErrorBuilder.PNERROBJ_PUBNUB_EXCEPTION)
+                            .errormsg(e.toString()).build();
+                    page.last = true;
+                }
+
+                pages.put(page);
+
+                if (page.last) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            // closed by the caller.
+        }
+    }
+
+    /**
+     * A fetched page, or the error which ended the walk.
+     */
+    private static class Page {
+        private List<PNHistoryItemResult> messages = Collections.emptyList();
+        private PubNubException error;
+        private boolean last;
+    }
+
+}
@@ -0,0 +1,194 @@
+package com.pubnub.api.endpoints;
+
+import com.google.gson.JsonElement;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.pubnub.api.PubNub;
+import com.pubnub.api.PubNubException;
+import com.pubnub.api.builder.PubNubErrorBuilder;
+import com.pubnub.api.callbacks.PNItemCallback;
+import com.pubnub.api.enums.PNOperationType;
+import com.pubnub.api.models.consumer.history.PNHistoryItemResult;
+import com.pubnub.api.models.consumer.history.PNStreamResult;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+import okhttp3.ResponseBody;
+import retrofit2.Call;
+import retrofit2.Retrofit;
+import retrofit2.http.GET;
+import retrofit2.http.Path;
+import retrofit2.http.QueryMap;
+import retrofit2.http.Streaming;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * History call which hands every message to the item callback as soon as it has been read off the connection.
+ */
+@Accessors(chain = true, fluent = true)
+public class HistoryStream extends StreamingEndpoint<PNStreamResult> {
+    private static final int MAX_COUNT = 100;
+    @Setter
+    private String channel;
+    @Setter
+    private Long start;
+    @Setter
+    private Long end;
+    @Setter
+    private Boolean reverse;
+    @Setter
+    private Integer count;
+    @Setter
+    private Boolean includeTimetoken;
+    @Setter
+    private PNItemCallback<PNHistoryItemResult> itemCallback;
+
+    public HistoryStream(PubNub pubnub, Retrofit retrofit) {
+        super(pubnub, retrofit);
+    }
+
+    @Override
+    protected List<String> getAffectedChannels() {
+        return Collections.singletonList(channel);
+    }
+
+    @Override
+    protected List<String> getAffectedChannelGroups() {
+        return null;
+    }
+
+    private interface HistoryService {
+        @Streaming
+        @GET("v2/history/sub-key/{subKey}/channel/{channel}")
+        Call<ResponseBody> fetchHistory(@Path("subKey") String subKey,
+                                        @Path("channel") String channel,
+                                        @QueryMap Map<String, String> options);
+    }
+
+    @Override
+    protected void validateParams() throws PubNubException {
+        if (channel == null || channel.isEmpty()) {
+            throw PubNubException.builder().pubnubError(PubNubErrorBuilder.PNERROBJ_CHANNEL_MISSING).build();
+        }
+        if (itemCallback == null) {
+            throw PubNubException.builder().pubnubError(PubNubErrorBuilder.PNERROBJ_INVALID_ARGUMENTS)
+                    .errormsg("itemCallback is required").build();
+        }
+    }
+
+    @Override
+    protected Call<ResponseBody> doWork(Map<String, String> params) {
+        HistoryService service = this.getRetrofit().create(HistoryService.class);
+
+        if (reverse != null) {
+            params.put("reverse", String.valueOf(reverse));
+        }
+
+        if (includeTimetoken != null) {
+            params.put("include_token", String.valueOf(includeTimetoken));
+        }
+
+        if (count != null && count > 0 && count <= MAX_COUNT) {
+            params.put("count", String.valueOf(count));
+        } else {
+            params.put("count", "100");
+        }
+
+        if (start != null) {
+            params.put("start", Long.toString(start).toLowerCase());
+        }
+        if (end != null) {
+            params.put("end", Long.toString(end).toLowerCase());
+        }
+
+        return service.fetchHistory(this.getPubnub().getConfiguration().getSubscribeKey(), channel, params);
+    }
+
+    @Override
+    protected PNStreamResult parse(JsonReader reader) throws IOException, PubNubException {
+        boolean withTimetoken = includeTimetoken != null && includeTimetoken;
+        int itemCount = 0;
+        // an item is handed out once the next one arrived: a disabled history answers with a single notice
+        // which is only recognisable by the timetokens following the list.
+        JsonElement heldMessage = null;
+        Long heldTimetoken = null;
+
+        reader.beginArray();
+        reader.beginArray();
+
+        while (reader.hasNext()) {
+            JsonElement message;
+            Long timetoken = null;
+
+            if (withTimetoken && reader.peek() == JsonToken.BEGIN_OBJECT) {
+                message = null;
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    String name = reader.nextName();
+                    if ("message".equals(name)) {
+                        message = readElement(reader);
+                    } else if ("timetoken".equals(name)) {
+                        timetoken = reader.nextLong();
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+                reader.endObject();
+            } else {
+                message = readElement(reader);
+            }
+
+            if (heldMessage != null) {
+                emit(heldMessage, heldTimetoken);
+                itemCount++;
+            }
+
+            heldMessage = message;
+            heldTimetoken = timetoken;
+        }
+
+        reader.endArray();
+        long startTimetoken = reader.nextLong();
+        long endTimetoken = reader.nextLong();
+
+        if (startTimetoken == 0 && endTimetoken == 0 && heldMessage != null) {
+            throw PubNubException.builder()
+                    .pubnubError(PubNubErrorBuilder.PNERROBJ_HTTP_ERROR)
+                    .errormsg("History is disabled")
+                    .jso(heldMessage)
+                    .build();
+        }
+
+        if (heldMessage != null) {
+            emit(heldMessage, heldTimetoken);
+            itemCount++;
+        }
+
+        return PNStreamResult.builder()
+                .itemCount(itemCount)
+                .startTimetoken(startTimetoken)
+                .endTimetoken(endTimetoken)
+                .build();
+    }
+
+    @Override
+    protected PNOperationType getOperationType() {
+        return PNOperationType.PNHistoryOperation;
+    }
+
+    @Override
+    protected boolean isAuthRequired() {
+        return true;
+    }
+
+    private void emit(JsonElement message, Long timetoken) throws PubNubException {
+        itemCallback.onItem(PNHistoryItemResult.builder()
+                .timetoken(timetoken)
+                .entry(processMessage(message))
+                .build());
+    }
+
+}
@@ -0,0 +1,59 @@
+package com.pubnub.api.endpoints;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.pubnub.api.PayloadCompression;
+import com.pubnub.api.PubNub;
+import com.pubnub.api.PubNubException;
+import com.pubnub.api.managers.MapperManager;
+import com.pubnub.api.vendor.Crypto;
+
+/**
+ * Turns stored message payloads back into what was published: decrypted with the cipher key if there is one, then
+ * inflated if they were compressed.
+ */
+final class MessagePayloads {
+
+    private MessagePayloads() {
+    }
+
+    /**
+     * @param pubnub  instance whose configuration and mapper are used.
+     * @param message payload as returned by the server.
+     * @return the published message.
+     * @throws PubNubException if the payload could not be decrypted or inflated.
+     */
+    static JsonElement decode(PubNub pubnub, JsonElement message) throws PubNubException {
+        MapperManager mapper = pubnub.getMapper();
+
+        // if we do not have a crypto key, there is no way to process the node; let's return.
+        if (pubnub.getConfiguration().getCipherKey() == null) {
+            return PayloadCompression.decompress(message, mapper);
+        }
+
+        Crypto crypto = new Crypto(pubnub.getConfiguration().getCipherKey());
+        String inputText;
+        String outputText;
+        JsonElement outputObject;
+
+        if (mapper.isJsonObject(message) && mapper.hasField(message, "pn_other")) {
+            inputText = mapper.elementToString(message, "pn_other");
+        } else {
+            inputText = mapper.elementToString(message);
+        }
+
+        outputText = crypto.decrypt(inputText);
+        outputObject = mapper.fromJson(outputText, JsonElement.class);
+        outputObject = PayloadCompression.decompress(outputObject, mapper);
+
+        // inject the decoded response into the payload
+        if (mapper.isJsonObject(message) && mapper.hasField(message, "pn_other")) {
+            JsonObject objectNode = mapper.getAsObject(message);
+            mapper.putOnObject(objectNode, "pn_other", outputObject);
+            outputObject = objectNode;
+        }
+
+        return outputObject;
+    }
+
+}
@@ -0,0 +1,77 @@
+package com.pubnub.api.endpoints;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.pubnub.api.PubNub;
+import com.pubnub.api.PubNubException;
+import com.pubnub.api.builder.PubNubErrorBuilder;
+import okhttp3.ResponseBody;
+import retrofit2.Response;
+import retrofit2.Retrofit;
+
+import java.io.IOException;
+
+/**
+ * Base of endpoints which decode their response while it is being read from the connection, handing every item to
+ * a callback instead of building the whole response in memory first. Their output is only a summary, so it is never
+ * cached nor shared between identical calls.
+ */
+public abstract class StreamingEndpoint<Output> extends Endpoint<ResponseBody, Output> {
+
+    private JsonParser parser;
+
+    public StreamingEndpoint(PubNub pubnubInstance, Retrofit retrofitInstance) {
+        super(pubnubInstance, retrofitInstance);
+        this.parser = new JsonParser();
+    }
+
+    /**
+     * Decode the response body.
+     *
+     * @param reader reader positioned at the start of the body.
+     * @return summary of the response.
+     * @throws IOException     the body could not be read.
+     * @throws PubNubException the response is an error or an item could not be processed.
+     */
+    protected abstract Output parse(JsonReader reader) throws IOException, PubNubException;
+
+    @Override
+    protected Output createResponse(Response<ResponseBody> input) throws PubNubException {
+        ResponseBody body = input.body();
+
+        if (body == null) {
+            throw PubNubException.builder().pubnubError(PubNubErrorBuilder.PNERROBJ_PARSING_ERROR).build();
+        }
+
+        try {
+            return parse(new JsonReader(body.charStream()));
+        } catch (IOException | IllegalStateException | NumberFormatException | JsonParseException e) {
+            throw PubNubException.builder()
+                    .pubnubError(PubNubErrorBuilder.PNERROBJ_PARSING_ERROR)
+                    .errormsg(e.toString())
+                    .build();
+        } finally {
+            body.close();
+        }
+    }
+
+    @Override
+    protected boolean isResponseShareable() {
+        return false;
+    }
+
+    /**
+     * @param reader reader positioned at a value.
+     * @return the value as a tree, only this value is held in memory.
+     */
+    protected JsonElement readElement(JsonReader reader) {
+        return parser.parse(reader);
+    }
+
+    protected JsonElement processMessage(JsonElement message) throws PubNubException {
+        return MessagePayloads.decode(this.getPubnub(), message);
+    }
+
+}
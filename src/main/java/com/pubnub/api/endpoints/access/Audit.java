@@ -99,8 +99,10 @@ public class Audit extends Endpoint<Envelope<AccessManagerAuditPayload>, PNAcces
                 .level(auditPayload.getLevel())
                 .subscribeKey(auditPayload.getSubscribeKey());
 
+        PNAccessManagerAuditResult result = pnAccessManagerAuditResult.build();
+        getPubnub().getPermissionCache().store(result, authKeys);
 
-        return pnAccessManagerAuditResult.build();
+        return result;
     }
 
     @Override
@@ -140,6 +140,12 @@ public class Grant extends Endpoint<Envelope<AccessManagerGrantPayload>, PNAcces
             }
         }
 
+        PNAccessManagerKeyData permissions = new PNAccessManagerKeyData()
+                .setReadEnabled(read)
+                .setWriteEnabled(write)
+                .setManageEnabled(manage);
+        getPubnub().getPermissionCache().store(channels, channelGroups, authKeys, permissions, data.getTtl());
+
         return pnAccessManagerGrantResult
                 .subscribeKey(data.getSubscribeKey())
                 .level(data.getLevel())
@@ -0,0 +1,128 @@
+package com.pubnub.api.endpoints.bulk;
+
+import com.pubnub.api.PubNub;
+import com.pubnub.api.PubNubException;
+import com.pubnub.api.builder.PubNubErrorBuilder;
+import com.pubnub.api.managers.RetryingTask;
+import com.pubnub.api.models.consumer.history.PNBulkDeleteMessagesResult;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Purges the history of a large number of channels.
+ *
+ * Channels are split into batches which fit into a single delete request, batches are sent concurrently on a
+ * bounded pool under a shared rate limit, and batches failing with a throttling, server or network error are retried
+ * with a capped, jittered backoff. Batches are independent: the outcome is reported per channel instead of failing
+ * the whole purge on the first error.
+ */
+@Accessors(chain = true, fluent = true)
+public class BulkDeleteMessages {
+
+    @Setter
+    private List<String> channels = new ArrayList<>();
+    @Setter
+    private Long start;
+    @Setter
+    private Long end;
+    /**
+     * maximum url encoded length of the channel list of a single request.
+     */
+    @Setter
+    private int maxChannelsLength = ChannelBatches.DEFAULT_MAX_LENGTH;
+    @Setter
+    private int maxChannelsPerRequest = ChannelBatches.DEFAULT_MAX_NAMES;
+    @Setter
+    private int parallelism = BulkRunner.DEFAULT_PARALLELISM;
+    @Setter
+    private double requestsPerSecond = BulkRunner.DEFAULT_REQUESTS_PER_SECOND;
+    @Setter
+    private int maxRetries = BulkRunner.DEFAULT_MAX_RETRIES;
+    /**
+     * in milliseconds, backoff of the first retry.
+     */
+    @Setter
+    private long retryDelay = BulkRunner.DEFAULT_RETRY_DELAY;
+    /**
+     * in milliseconds, cap of the backoff.
+     */
+    @Setter
+    private long maxRetryDelay = BulkRunner.DEFAULT_MAX_RETRY_DELAY;
+
+    private PubNub pubnub;
+
+    public BulkDeleteMessages(PubNub pubnubInstance) {
+        this.pubnub = pubnubInstance;
+    }
+
+    /**
+     * Run the purge and wait for all batches to finish.
+     *
+     * @return per channel outcome and throughput of the purge.
+     * @throws PubNubException if the parameters are invalid or the caller was interrupted.
+     */
+    public PNBulkDeleteMessagesResult sync() throws PubNubException {
+        validateParams();
+
+        BulkRunner runner = new BulkRunner(parallelism, requestsPerSecond);
+        List<List<String>> batches = ChannelBatches.split(channels, maxChannelsLength, maxChannelsPerRequest);
+        List<DeleteTask> tasks = new ArrayList<>();
+
+        for (List<String> batch : batches) {
+            tasks.add(new DeleteTask(batch, runner));
+        }
+
+        List<PubNubException> errors = runner.run(tasks);
+        List<String> deletedChannels = new ArrayList<>();
+        Map<String, PubNubException> failedChannels = new HashMap<>();
+
+        for (int i = 0; i < batches.size(); i++) {
+            for (String channel : batches.get(i)) {
+                if (errors.get(i) == null) {
+                    deletedChannels.add(channel);
+                } else {
+                    failedChannels.put(channel, errors.get(i));
+                }
+            }
+        }
+
+        return PNBulkDeleteMessagesResult.builder()
+                .deletedChannels(deletedChannels)
+                .failedChannels(failedChannels)
+                .requests(runner.getRequests().get())
+                .retries(runner.getRequests().get() - batches.size())
+                .elapsedMillis(runner.getElapsedMillis())
+                .build();
+    }
+
+    private void validateParams() throws PubNubException {
+        if (channels == null || channels.isEmpty()) {
+            throw PubNubException.builder().pubnubError(PubNubErrorBuilder.PNERROBJ_CHANNEL_MISSING).build();
+        }
+    }
+
+    /**
+     * Deletes one batch.
+     */
+    private class DeleteTask extends RetryingTask {
+
+        private final List<String> batch;
+
+        DeleteTask(List<String> batchChannels, BulkRunner runner) {
+            super(runner.getRateLimiter(), runner.getRequests(), maxRetries, retryDelay, maxRetryDelay);
+            this.batch = Collections.unmodifiableList(batchChannels);
+        }
+
+        @Override
+        protected void execute() throws PubNubException {
+            pubnub.deleteMessages().channels(batch).start(start).end(end).sync();
+        }
+    }
+
+}
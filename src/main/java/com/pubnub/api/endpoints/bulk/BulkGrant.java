@@ -0,0 +1,226 @@
+package com.pubnub.api.endpoints.bulk;
+
+import com.pubnub.api.PubNub;
+import com.pubnub.api.PubNubException;
+import com.pubnub.api.builder.PubNubErrorBuilder;
+import com.pubnub.api.managers.RetryingTask;
+import com.pubnub.api.models.consumer.access_manager.PNAccessManagerBulkGrantResult;
+import com.pubnub.api.models.consumer.access_manager.PNAccessManagerFailedGrant;
+import com.pubnub.api.models.consumer.access_manager.PNAccessManagerGrantResult;
+import com.pubnub.api.models.consumer.access_manager.PNAccessManagerKeyData;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Grants the same permissions to a large number of auth keys on a large number of channels and channel groups.
+ *
+ * Auth keys and targets are packed into requests which stay within the url limit: auth keys take one half of the
+ * length budget and channels, or channel groups, the other, and every pair of batches becomes one grant. Grants run
+ * concurrently on a bounded pool under a shared rate limit, throttled and failed requests are retried with a capped,
+ * jittered backoff, and the results of all requests are merged into a single report.
+ */
+@Accessors(chain = true, fluent = true)
+public class BulkGrant {
+
+    @Setter
+    private boolean read;
+    @Setter
+    private boolean write;
+    @Setter
+    private boolean manage;
+    @Setter
+    private Integer ttl;
+
+    @Setter
+    private List<String> authKeys = new ArrayList<>();
+    @Setter
+    private List<String> channels = new ArrayList<>();
+    @Setter
+    private List<String> channelGroups = new ArrayList<>();
+
+    /**
+     * maximum url encoded length of the auth key, channel and channel group lists of a single request.
+     */
+    @Setter
+    private int maxParamsLength = ChannelBatches.DEFAULT_MAX_LENGTH;
+    /**
+     * maximum number of auth keys, and of channels or channel groups, in a single request.
+     */
+    @Setter
+    private int maxNamesPerRequest = ChannelBatches.DEFAULT_MAX_NAMES;
+    @Setter
+    private int parallelism = BulkRunner.DEFAULT_PARALLELISM;
+    @Setter
+    private double requestsPerSecond = BulkRunner.DEFAULT_REQUESTS_PER_SECOND;
+    @Setter
+    private int maxRetries = BulkRunner.DEFAULT_MAX_RETRIES;
+    /**
+     * in milliseconds, backoff of the first retry.
+     */
+    @Setter
+    private long retryDelay = BulkRunner.DEFAULT_RETRY_DELAY;
+    /**
+     * in milliseconds, cap of the backoff.
+     */
+    @Setter
+    private long maxRetryDelay = BulkRunner.DEFAULT_MAX_RETRY_DELAY;
+
+    private PubNub pubnub;
+
+    public BulkGrant(PubNub pubnubInstance) {
+        this.pubnub = pubnubInstance;
+    }
+
+    /**
+     * Run all grants and wait for them to finish.
+     *
+     * @return merged grants and the targets which could not be granted.
+     * @throws PubNubException if the parameters are invalid or the caller was interrupted.
+     */
+    public PNAccessManagerBulkGrantResult sync() throws PubNubException {
+        validateParams();
+
+        BulkRunner runner = new BulkRunner(parallelism, requestsPerSecond);
+        int halfLength = Math.max(1, maxParamsLength / 2);
+        List<List<String>> authBatches = ChannelBatches.split(authKeys, halfLength, maxNamesPerRequest);
+
+        if (authBatches.isEmpty()) {
+            // a grant without auth keys applies to everyone on the target.
+            authBatches.add(Collections.<String>emptyList());
+        }
+
+        List<GrantTask> tasks = new ArrayList<>();
+
+        for (List<String> authBatch : authBatches) {
+            for (List<String> batch : ChannelBatches.split(channels, halfLength, maxNamesPerRequest)) {
+                tasks.add(new GrantTask(authBatch, batch, Collections.<String>emptyList(), runner));
+            }
+
+            for (List<String> batch : ChannelBatches.split(channelGroups, halfLength, maxNamesPerRequest)) {
+                tasks.add(new GrantTask(authBatch, Collections.<String>emptyList(), batch, runner));
+            }
+        }
+
+        List<PubNubException> errors = runner.run(tasks);
+
+        PNAccessManagerBulkGrantResult.PNAccessManagerBulkGrantResultBuilder result =
+                PNAccessManagerBulkGrantResult.builder();
+        Map<String, Map<String, PNAccessManagerKeyData>> grantedChannels = new HashMap<>();
+        Map<String, Map<String, PNAccessManagerKeyData>> grantedChannelGroups = new HashMap<>();
+        List<PNAccessManagerFailedGrant> failedGrants = new ArrayList<>();
+
+        for (int i = 0; i < tasks.size(); i++) {
+            GrantTask task = tasks.get(i);
+            PubNubException error = errors.get(i);
+
+            if (error != null) {
+                failedGrants.add(PNAccessManagerFailedGrant.builder()
+                        .authKeys(task.authBatch)
+                        .channels(task.channelBatch)
+                        .channelGroups(task.channelGroupBatch)
+                        .error(error)
+                        .build());
+                continue;
+            }
+
+            PNAccessManagerGrantResult grant = task.grant;
+            result.level(grant.getLevel()).ttl(grant.getTtl()).subscribeKey(grant.getSubscribeKey());
+            merge(grantedChannels, grant.getChannels());
+            merge(grantedChannelGroups, grant.getChannelGroups());
+        }
+
+        return result
+                .channels(grantedChannels)
+                .channelGroups(grantedChannelGroups)
+                .failedGrants(failedGrants)
+                .requests(runner.getRequests().get())
+                .retries(runner.getRequests().get() - tasks.size())
+                .elapsedMillis(runner.getElapsedMillis())
+                .build();
+    }
+
+    private void validateParams() throws PubNubException {
+        if (pubnub.getConfiguration().getSecretKey() == null || pubnub.getConfiguration().getSecretKey().isEmpty()) {
+            throw PubNubException.builder().pubnubError(PubNubErrorBuilder.PNERROBJ_SECRET_KEY_MISSING).build();
+        }
+
+        if ((channels == null || channels.isEmpty()) && (channelGroups == null || channelGroups.isEmpty())) {
+            throw PubNubException.builder().pubnubError(PubNubErrorBuilder.PNERROBJ_CHANNEL_AND_GROUP_MISSING).build();
+        }
+
+        if (channels == null) {
+            channels = new ArrayList<>();
+        }
+
+        if (channelGroups == null) {
+            channelGroups = new ArrayList<>();
+        }
+
+        if (authKeys == null) {
+            authKeys = new ArrayList<>();
+        }
+    }
+
+    /**
+     * Add the auth keys granted on every target to what is known about the target already.
+     */
+    private static void merge(Map<String, Map<String, PNAccessManagerKeyData>> into,
+                              Map<String, Map<String, PNAccessManagerKeyData>> grants) {
+        if (grants == null) {
+            return;
+        }
+
+        for (Map.Entry<String, Map<String, PNAccessManagerKeyData>> target : grants.entrySet()) {
+            Map<String, PNAccessManagerKeyData> keys = into.get(target.getKey());
+
+            if (keys == null) {
+                keys = new HashMap<>();
+                into.put(target.getKey(), keys);
+            }
+
+            if (target.getValue() != null) {
+                keys.putAll(target.getValue());
+            }
+        }
+    }
+
+    /**
+     * Grants one batch of auth keys on one batch of channels or channel groups.
+     */
+    private class GrantTask extends RetryingTask {
+
+        private final List<String> authBatch;
+        private final List<String> channelBatch;
+        private final List<String> channelGroupBatch;
+
+        private volatile PNAccessManagerGrantResult grant;
+
+        GrantTask(List<String> authKeyBatch, List<String> batchChannels, List<String> batchChannelGroups,
+                  BulkRunner runner) {
+            super(runner.getRateLimiter(), runner.getRequests(), maxRetries, retryDelay, maxRetryDelay);
+            this.authBatch = Collections.unmodifiableList(authKeyBatch);
+            this.channelBatch = Collections.unmodifiableList(batchChannels);
+            this.channelGroupBatch = Collections.unmodifiableList(batchChannelGroups);
+        }
+
+        @Override
+        protected void execute() throws PubNubException {
+            grant = pubnub.grant()
+                    .authKeys(authBatch)
+                    .channels(channelBatch)
+                    .channelGroups(channelGroupBatch)
+                    .read(read)
+                    .write(write)
+                    .manage(manage)
+                    .ttl(ttl)
+                    .sync();
+        }
+    }
+
+}
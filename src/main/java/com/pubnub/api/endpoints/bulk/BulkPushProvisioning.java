@@ -0,0 +1,283 @@
+package com.pubnub.api.endpoints.bulk;
+
+import com.pubnub.api.PubNub;
+import com.pubnub.api.PubNubException;
+import com.pubnub.api.builder.PubNubErrorBuilder;
+import com.pubnub.api.managers.RetryingTask;
+import com.pubnub.api.models.consumer.push.PNBulkPushProvisioningResult;
+import com.pubnub.api.models.consumer.push.PNPushProvision;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Applies push channel changes to a large number of devices.
+ *
+ * Provisions are read from the iterable as capacity frees up, so a lazily produced stream of millions of devices is
+ * never held in memory at once. Provisions run on a bounded set of workers under a shared rate limit; all provisions
+ * of a device go to the same worker, so they are applied in the order they were given. The channels of a provision
+ * are split into requests which fit into a url, and requests failing with a throttling, server or network error are
+ * retried with a capped, jittered backoff. With a provision cache, changes which would not change anything are
+ * skipped without a request.
+ */
+@Accessors(chain = true, fluent = true)
+public class BulkPushProvisioning {
+
+    @Setter
+    private Iterable<PNPushProvision> provisions;
+    /**
+     * optional, channels known to be enabled on devices; updated with every applied provision.
+     */
+    @Setter
+    private PushProvisionCache cache;
+    /**
+     * maximum url encoded length of the channel list of a single request.
+     */
+    @Setter
+    private int maxChannelsLength = ChannelBatches.DEFAULT_MAX_LENGTH;
+    @Setter
+    private int maxChannelsPerRequest = ChannelBatches.DEFAULT_MAX_NAMES;
+    @Setter
+    private int parallelism = BulkRunner.DEFAULT_PARALLELISM;
+    @Setter
+    private double requestsPerSecond = BulkRunner.DEFAULT_REQUESTS_PER_SECOND;
+    @Setter
+    private int maxRetries = BulkRunner.DEFAULT_MAX_RETRIES;
+    /**
+     * in milliseconds, backoff of the first retry.
+     */
+    @Setter
+    private long retryDelay = BulkRunner.DEFAULT_RETRY_DELAY;
+    /**
+     * in milliseconds, cap of the backoff.
+     */
+    @Setter
+    private long maxRetryDelay = BulkRunner.DEFAULT_MAX_RETRY_DELAY;
+
+    private PubNub pubnub;
+
+    public BulkPushProvisioning(PubNub pubnubInstance) {
+        this.pubnub = pubnubInstance;
+    }
+
+    /**
+     * Apply all provisions and wait for them to finish.
+     *
+     * @return per device outcome and throughput of the run.
+     * @throws PubNubException if the parameters are invalid or the caller was interrupted.
+     */
+    public PNBulkPushProvisioningResult sync() throws PubNubException {
+        if (provisions == null) {
+            throw PubNubException.builder().pubnubError(PubNubErrorBuilder.PNERROBJ_INVALID_ARGUMENTS)
+                    .errormsg("provisions are required").build();
+        }
+
+        int workers = Math.max(1, parallelism);
+        List<ExecutorService> executors = new ArrayList<>(workers);
+        // keeps the iterable from being drained faster than the workers can keep up with.
+        Semaphore capacity = new Semaphore(workers * 2);
+        Run run = new Run(new BulkRunner(workers, requestsPerSecond));
+
+        for (int i = 0; i < workers; i++) {
+            executors.add(Executors.newSingleThreadExecutor());
+        }
+
+        try {
+            for (PNPushProvision provision : provisions) {
+                capacity.acquire();
+
+                try {
+                    executors.get(workerOf(provision, workers)).execute(new ProvisionTask(provision, run, capacity));
+                } catch (RuntimeException e) {
+                    capacity.release();
+                    throw e;
+                }
+            }
+
+            for (ExecutorService executor : executors) {
+                executor.shutdown();
+            }
+
+            for (ExecutorService executor : executors) {
+                executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            }
+
+            return PNBulkPushProvisioningResult.builder()
+                    .provisioned(run.provisioned.get())
+                    .skipped(run.skipped.get())
+                    .failedProvisions(run.failedProvisions)
+                    .requests(run.runner.getRequests().get())
+                    .retries(run.runner.getRequests().get() - run.batches.get())
+                    .elapsedMillis(run.runner.getElapsedMillis())
+                    .build();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw PubNubException.builder().pubnubError(PubNubErrorBuilder.PNERROBJ_PUBNUB_EXCEPTION)
+                    .errormsg(e.toString()).build();
+        } finally {
+            for (ExecutorService executor : executors) {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    private static int workerOf(PNPushProvision provision, int workers) {
+        String deviceId = provision.getDeviceId();
+        return deviceId != null ? (deviceId.hashCode() & Integer.MAX_VALUE) % workers : 0;
+    }
+
+    private static PubNubException validate(PNPushProvision provision) {
+        if (provision.getDeviceId() == null || provision.getDeviceId().isEmpty()) {
+            return PubNubException.builder().pubnubError(PubNubErrorBuilder.PNERROBJ_DEVICE_ID_MISSING).build();
+        }
+
+        if (provision.getPushType() == null) {
+            return PubNubException.builder().pubnubError(PubNubErrorBuilder.PNERROBJ_PUSH_TYPE_MISSING).build();
+        }
+
+        if (provision.getAction() == null) {
+            return PubNubException.builder().pubnubError(PubNubErrorBuilder.PNERROBJ_INVALID_ARGUMENTS)
+                    .errormsg("action is required").build();
+        }
+
+        if (provision.getAction() != PNPushProvision.Action.REMOVE_ALL
+                && (provision.getChannels() == null || provision.getChannels().isEmpty())) {
+            return PubNubException.builder().pubnubError(PubNubErrorBuilder.PNERROBJ_CHANNEL_MISSING).build();
+        }
+
+        return null;
+    }
+
+    /**
+     * Counters shared by the tasks of one run.
+     */
+    private static final class Run {
+
+        private final BulkRunner runner;
+        private final AtomicInteger batches = new AtomicInteger();
+        private final AtomicInteger provisioned = new AtomicInteger();
+        private final AtomicInteger skipped = new AtomicInteger();
+        private final Map<PNPushProvision, PubNubException> failedProvisions = new ConcurrentHashMap<>();
+
+        private Run(BulkRunner bulkRunner) {
+            this.runner = bulkRunner;
+        }
+    }
+
+    /**
+     * Applies one provision, batch by batch.
+     */
+    private class ProvisionTask implements Runnable {
+
+        private final PNPushProvision provision;
+        private final Run run;
+        private final Semaphore capacity;
+
+        ProvisionTask(PNPushProvision pushProvision, Run provisioningRun, Semaphore runCapacity) {
+            this.provision = pushProvision;
+            this.run = provisioningRun;
+            this.capacity = runCapacity;
+        }
+
+        @Override
+        public void run() {
+            try {
+                PubNubException error = apply();
+
+                if (error != null) {
+                    run.failedProvisions.put(provision, error);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                capacity.release();
+            }
+        }
+
+        private PubNubException apply() throws InterruptedException {
+            PubNubException invalid = validate(provision);
+
+            if (invalid != null) {
+                return invalid;
+            }
+
+            List<String> channels = provision.getChannels();
+
+            if (cache != null) {
+                List<String> pending = cache.pending(provision);
+
+                if (pending != null && pending.isEmpty()) {
+                    run.skipped.incrementAndGet();
+                    return null;
+                }
+
+                if (pending != null) {
+                    channels = pending;
+                }
+            }
+
+            List<List<String>> batches = provision.getAction() == PNPushProvision.Action.REMOVE_ALL
+                    ? Collections.singletonList(Collections.<String>emptyList())
+                    : ChannelBatches.split(channels, maxChannelsLength, maxChannelsPerRequest);
+
+            for (List<String> batch : batches) {
+                run.batches.incrementAndGet();
+                PubNubException error = new PushRequest(batch, run).call();
+
+                if (error != null) {
+                    return error;
+                }
+            }
+
+            if (cache != null) {
+                cache.applied(provision);
+            }
+
+            run.provisioned.incrementAndGet();
+            return null;
+        }
+
+        /**
+         * A single add or remove request of the provision.
+         */
+        private class PushRequest extends RetryingTask {
+
+            private final List<String> batch;
+
+            PushRequest(List<String> batchChannels, Run provisioningRun) {
+                super(provisioningRun.runner.getRateLimiter(), provisioningRun.runner.getRequests(), maxRetries,
+                        retryDelay, maxRetryDelay);
+                this.batch = Collections.unmodifiableList(batchChannels);
+            }
+
+            @Override
+            protected void execute() throws PubNubException {
+                switch (provision.getAction()) {
+                    case ADD:
+                        pubnub.addPushNotificationsOnChannels().deviceId(provision.getDeviceId())
+                                .pushType(provision.getPushType()).channels(batch).sync();
+                        break;
+                    case REMOVE:
+                        pubnub.removePushNotificationsFromChannels().deviceId(provision.getDeviceId())
+                                .pushType(provision.getPushType()).channels(batch).sync();
+                        break;
+                    default:
+                        pubnub.removeAllPushNotificationsFromDeviceWithPushToken().deviceId(provision.getDeviceId())
+                                .pushType(provision.getPushType()).sync();
+                        break;
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,105 @@
+package com.pubnub.api.endpoints.bulk;
+
+import com.pubnub.api.PubNubException;
+import com.pubnub.api.builder.PubNubErrorBuilder;
+import com.pubnub.api.managers.RateLimiter;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the requests of a bulk operation concurrently on a bounded pool under a shared rate limit, and collects the
+ * outcome of every request. Also holds the defaults the bulk operations start from.
+ */
+public class BulkRunner {
+
+    public static final int DEFAULT_PARALLELISM = 4;
+    public static final double DEFAULT_REQUESTS_PER_SECOND = 10;
+    public static final int DEFAULT_MAX_RETRIES = 3;
+    /**
+     * in milliseconds, backoff of the first retry.
+     */
+    public static final long DEFAULT_RETRY_DELAY = 500;
+    /**
+     * in milliseconds, cap of the backoff.
+     */
+    public static final long DEFAULT_MAX_RETRY_DELAY = 8000;
+
+    private final int parallelism;
+    private final long startedAt;
+
+    /**
+     * rate limit shared by all requests of the operation.
+     */
+    @Getter
+    private final RateLimiter rateLimiter;
+    /**
+     * requests sent so far, retries included.
+     */
+    @Getter
+    private final AtomicInteger requests = new AtomicInteger();
+
+    /**
+     * @param maxParallelism    maximum number of requests in flight.
+     * @param requestsPerSecond rate limit of the operation.
+     */
+    public BulkRunner(int maxParallelism, double requestsPerSecond) {
+        this.parallelism = Math.max(1, maxParallelism);
+        this.rateLimiter = new RateLimiter(requestsPerSecond, parallelism);
+        this.startedAt = System.nanoTime();
+    }
+
+    /**
+     * Run the tasks and wait for all of them to finish.
+     *
+     * @param tasks tasks returning null on success, otherwise their error.
+     * @return the outcome of every task, in the order of the tasks.
+     * @throws PubNubException if the caller was interrupted.
+     */
+    public List<PubNubException> run(List<? extends Callable<PubNubException>> tasks) throws PubNubException {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(parallelism, tasks.size())));
+
+        try {
+            List<Future<PubNubException>> futures = new ArrayList<>(tasks.size());
+
+            for (Callable<PubNubException> task : tasks) {
+                futures.add(executor.submit(task));
+            }
+
+            List<PubNubException> errors = new ArrayList<>(tasks.size());
+
+            for (Future<PubNubException> future : futures) {
+                try {
+                    errors.add(future.get());
+                } catch (ExecutionException e) {
+                    errors.add(PubNubException.builder().pubnubError(PubNubErrorBuilder.PNERROBJ_PUBNUB_EXCEPTION)
+                            .errormsg(String.valueOf(e.getCause())).build());
+                }
+            }
+
+            return errors;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw PubNubException.builder().pubnubError(PubNubErrorBuilder.PNERROBJ_PUBNUB_EXCEPTION)
+                    .errormsg(e.toString()).build();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * @return time since the runner was created, in milliseconds.
+     */
+    public long getElapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+    }
+
+}
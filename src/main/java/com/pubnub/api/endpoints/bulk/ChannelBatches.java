@@ -0,0 +1,58 @@
+package com.pubnub.api.endpoints.bulk;
+
+import com.pubnub.api.PubNubUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits long name lists into batches which fit into a single request url.
+ */
+public final class ChannelBatches {
+
+    /**
+     * url encoded length of a name list which comfortably fits into a request url.
+     */
+    public static final int DEFAULT_MAX_LENGTH = 4000;
+    public static final int DEFAULT_MAX_NAMES = 500;
+
+    private ChannelBatches() {
+    }
+
+    /**
+     * Batch names in order, so that every batch joined with commas stays within the length once url encoded.
+     *
+     * @param names     names to batch.
+     * @param maxLength maximum encoded length of a batch, a single longer name still gets a batch of its own.
+     * @param maxNames  maximum number of names in a batch.
+     * @return list of batches.
+     */
+    public static List<List<String>> split(List<String> names, int maxLength, int maxNames) {
+        List<List<String>> batches = new ArrayList<>();
+        List<String> batch = new ArrayList<>();
+        int length = 0;
+
+        for (String name : names) {
+            int nameLength = PubNubUtil.urlEncode(name).length();
+            // a comma separates every name from the previous one.
+            int added = batch.isEmpty() ? nameLength : nameLength + 1;
+
+            if (!batch.isEmpty() && (length + added > maxLength || batch.size() >= maxNames)) {
+                batches.add(batch);
+                batch = new ArrayList<>();
+                added = nameLength;
+                length = 0;
+            }
+
+            batch.add(name);
+            length += added;
+        }
+
+        if (!batch.isEmpty()) {
+            batches.add(batch);
+        }
+
+        return batches;
+    }
+
+}
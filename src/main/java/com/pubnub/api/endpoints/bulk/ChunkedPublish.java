@@ -0,0 +1,223 @@
+package com.pubnub.api.endpoints.bulk;
+
+import com.pubnub.api.PubNub;
+import com.pubnub.api.PubNubException;
+import com.pubnub.api.builder.PubNubErrorBuilder;
+import com.pubnub.api.managers.ChunkAssembler;
+import com.pubnub.api.managers.MapperManager;
+import com.pubnub.api.managers.RetryingTask;
+import com.pubnub.api.models.consumer.PNChunkedPublishResult;
+import com.pubnub.api.models.consumer.PNPublishResult;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Publishes a message too large for a single publish, in parts which subscribers put back together before their
+ * listeners see the message, see ChunkAssembler.
+ *
+ * The serialized message is cut into slices whose escaped length stays within the part size, and every slice is
+ * published as a part carrying the message id, its position and the part count. Up to window parts are in flight at
+ * a time under a shared rate limit, and failed parts are retried with a capped, jittered backoff. Parts are stored in
+ * history by default, so subscribers can recover parts they missed. A message which fits into one part is published
+ * as is.
+ */
+@Accessors(chain = true, fluent = true)
+public class ChunkedPublish {
+
+    /**
+     * leaves room for encryption, which grows a part by a third, within the 32KiB limit of a message.
+     */
+    private static final int DEFAULT_PART_SIZE = 16000;
+    private static final int MIN_PART_SIZE = 64;
+    private static final int DEFAULT_WINDOW = 4;
+    private static final double DEFAULT_REQUESTS_PER_SECOND = 50;
+
+    @Setter
+    private Object message;
+    @Setter
+    private String channel;
+    /**
+     * sent with every part, so filters apply to the parts alike.
+     */
+    @Setter
+    private Object meta;
+    @Setter
+    private Boolean shouldStore = true;
+    @Setter
+    private Integer ttl;
+    @Setter
+    private Boolean usePOST = true;
+    /**
+     * maximum serialized length of the message slice of a single part.
+     */
+    @Setter
+    private int partSize = DEFAULT_PART_SIZE;
+    /**
+     * maximum number of parts in flight.
+     */
+    @Setter
+    private int window = DEFAULT_WINDOW;
+    @Setter
+    private double requestsPerSecond = DEFAULT_REQUESTS_PER_SECOND;
+    @Setter
+    private int maxRetries = BulkRunner.DEFAULT_MAX_RETRIES;
+    /**
+     * in milliseconds, backoff of the first retry.
+     */
+    @Setter
+    private long retryDelay = BulkRunner.DEFAULT_RETRY_DELAY;
+    /**
+     * in milliseconds, cap of the backoff.
+     */
+    @Setter
+    private long maxRetryDelay = BulkRunner.DEFAULT_MAX_RETRY_DELAY;
+
+    private PubNub pubnub;
+
+    public ChunkedPublish(PubNub pubnubInstance) {
+        this.pubnub = pubnubInstance;
+    }
+
+    /**
+     * Publish all parts and wait for them to be stored.
+     *
+     * @return id and part count of the message, and the timetoken of its last part.
+     * @throws PubNubException if the parameters are invalid, a part could not be published or the caller was
+     *                         interrupted.
+     */
+    public PNChunkedPublishResult sync() throws PubNubException {
+        validateParams();
+
+        MapperManager mapper = pubnub.getMapper();
+        List<String> slices = split(mapper.toJson(message), mapper);
+        String messageId = slices.size() > 1 ? UUID.randomUUID().toString() : null;
+
+        BulkRunner runner = new BulkRunner(Math.min(window, slices.size()), requestsPerSecond);
+        List<PartTask> tasks = new ArrayList<>();
+
+        for (int i = 0; i < slices.size(); i++) {
+            Object payload = message;
+
+            if (messageId != null) {
+                Map<String, Object> part = new LinkedHashMap<>();
+                part.put(ChunkAssembler.ID_FIELD, messageId);
+                part.put(ChunkAssembler.SEQ_FIELD, i);
+                part.put(ChunkAssembler.TOTAL_FIELD, slices.size());
+                part.put(ChunkAssembler.DATA_FIELD, slices.get(i));
+                payload = part;
+            }
+
+            tasks.add(new PartTask(payload, runner));
+        }
+
+        List<PubNubException> errors = runner.run(tasks);
+        Long timetoken = null;
+
+        for (int i = 0; i < tasks.size(); i++) {
+            if (errors.get(i) != null) {
+                throw errors.get(i);
+            }
+
+            Long partTimetoken = tasks.get(i).result.getTimetoken();
+
+            if (timetoken == null || (partTimetoken != null && partTimetoken > timetoken)) {
+                timetoken = partTimetoken;
+            }
+        }
+
+        return PNChunkedPublishResult.builder()
+                .messageId(messageId)
+                .parts(slices.size())
+                .timetoken(timetoken)
+                .requests(runner.getRequests().get())
+                .retries(runner.getRequests().get() - tasks.size())
+                .elapsedMillis(runner.getElapsedMillis())
+                .build();
+    }
+
+    private void validateParams() throws PubNubException {
+        if (message == null) {
+            throw PubNubException.builder().pubnubError(PubNubErrorBuilder.PNERROBJ_MESSAGE_MISSING).build();
+        }
+
+        if (channel == null || channel.isEmpty()) {
+            throw PubNubException.builder().pubnubError(PubNubErrorBuilder.PNERROBJ_CHANNEL_MISSING).build();
+        }
+
+        if (partSize < MIN_PART_SIZE) {
+            throw PubNubException.builder().pubnubError(PubNubErrorBuilder.PNERROBJ_INVALID_ARGUMENTS)
+                    .errormsg("partSize must be at least " + MIN_PART_SIZE).build();
+        }
+    }
+
+    /**
+     * Cut the json into slices whose length, once escaped as a json string, is within the part size.
+     */
+    private List<String> split(String json, MapperManager mapper) throws PubNubException {
+        List<String> slices = new ArrayList<>();
+
+        if (mapper.toJson(json).length() <= partSize) {
+            slices.add(json);
+            return slices;
+        }
+
+        int offset = 0;
+
+        while (offset < json.length()) {
+            int end = Math.min(json.length(), offset + partSize);
+
+            while (true) {
+                // never separate the halves of a surrogate pair.
+                if (end < json.length() && Character.isHighSurrogate(json.charAt(end - 1)) && end - offset > 1) {
+                    end--;
+                }
+
+                int escapedLength = mapper.toJson(json.substring(offset, end)).length();
+
+                if (escapedLength <= partSize || end - offset <= 1) {
+                    break;
+                }
+
+                // shrink by the share of the slice which is over, escapes are spread unevenly.
+                end = offset + Math.max(1, (int) ((long) (end - offset) * partSize / escapedLength) - 1);
+            }
+
+            slices.add(json.substring(offset, end));
+            offset = end;
+        }
+
+        if (slices.size() > ChunkAssembler.MAX_PARTS) {
+            throw PubNubException.builder().pubnubError(PubNubErrorBuilder.PNERROBJ_INVALID_ARGUMENTS)
+                    .errormsg("message needs more than " + ChunkAssembler.MAX_PARTS + " parts").build();
+        }
+
+        return slices;
+    }
+
+    /**
+     * Publish of a single part.
+     */
+    private class PartTask extends RetryingTask {
+
+        private final Object payload;
+        private PNPublishResult result;
+
+        PartTask(Object partPayload, BulkRunner runner) {
+            super(runner.getRateLimiter(), runner.getRequests(), maxRetries, retryDelay, maxRetryDelay);
+            this.payload = partPayload;
+        }
+
+        @Override
+        protected void execute() throws PubNubException {
+            result = pubnub.publish().channel(channel).message(payload).meta(meta).shouldStore(shouldStore)
+                    .ttl(ttl).usePOST(usePOST).sync();
+        }
+    }
+
+}
@@ -0,0 +1,128 @@
+package com.pubnub.api.endpoints.bulk;
+
+import com.pubnub.api.enums.PNPushType;
+import com.pubnub.api.models.consumer.push.PNPushProvision;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Channels known to be enabled for push on devices, so that bulk provisioning runs can skip changes which would not
+ * change anything.
+ *
+ * Channels are remembered as they are added; a device is only known completely, which allows skipping removals, once
+ * all its channels were removed or its provisions were loaded from the server. The least recently used devices are
+ * dropped above the size limit.
+ */
+public class PushProvisionCache {
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private final LinkedHashMap<String, Device> devices;
+
+    /**
+     * @param maximumDevices number of devices remembered.
+     */
+    public PushProvisionCache(final int maximumDevices) {
+        this.devices = new LinkedHashMap<String, Device>(INITIAL_CAPACITY, LOAD_FACTOR, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Device> eldest) {
+                return size() > maximumDevices;
+            }
+        };
+    }
+
+    /**
+     * Remember the complete channel list of a device, for instance from PubNub#auditPushChannelProvisions.
+     *
+     * @param deviceId device push token.
+     * @param pushType push service of the device.
+     * @param channels every channel enabled on the device.
+     */
+    public synchronized void load(String deviceId, PNPushType pushType, Collection<String> channels) {
+        Device device = new Device();
+        device.complete = true;
+        device.channels.addAll(channels);
+        devices.put(createKey(deviceId, pushType), device);
+    }
+
+    /**
+     * @param provision change to apply.
+     * @return channels the change still has to be sent for, an empty list if it changes nothing; for REMOVE_ALL
+     *         either the empty list or null, which means the request is needed.
+     */
+    public synchronized List<String> pending(PNPushProvision provision) {
+        Device device = devices.get(createKey(provision.getDeviceId(), provision.getPushType()));
+
+        if (provision.getAction() == PNPushProvision.Action.REMOVE_ALL) {
+            return device != null && device.complete && device.channels.isEmpty() ? new ArrayList<String>() : null;
+        }
+
+        List<String> pending = new ArrayList<>();
+        boolean complete = device != null && device.complete;
+
+        for (String channel : provision.getChannels()) {
+            boolean enabled = device != null && device.channels.contains(channel);
+
+            if (provision.getAction() == PNPushProvision.Action.ADD) {
+                if (!enabled) {
+                    pending.add(channel);
+                }
+            } else if (enabled || !complete) {
+                // a channel missing from an incomplete device may still be enabled on the server.
+                pending.add(channel);
+            }
+        }
+
+        return pending;
+    }
+
+    /**
+     * Record a change the server confirmed.
+     *
+     * @param provision applied change.
+     */
+    public synchronized void applied(PNPushProvision provision) {
+        String key = createKey(provision.getDeviceId(), provision.getPushType());
+        Device device = devices.get(key);
+
+        if (device == null) {
+            device = new Device();
+            devices.put(key, device);
+        }
+
+        switch (provision.getAction()) {
+            case ADD:
+                device.channels.addAll(provision.getChannels());
+                break;
+            case REMOVE:
+                device.channels.removeAll(provision.getChannels());
+                break;
+            default:
+                device.channels.clear();
+                device.complete = true;
+                break;
+        }
+    }
+
+    public synchronized void clear() {
+        devices.clear();
+    }
+
+    private static String createKey(String deviceId, PNPushType pushType) {
+        return pushType + ":" + deviceId;
+    }
+
+    private static class Device {
+
+        private final Set<String> channels = new HashSet<>();
+        private boolean complete;
+    }
+
+}
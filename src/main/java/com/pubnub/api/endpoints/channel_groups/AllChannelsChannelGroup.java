@@ -14,6 +14,7 @@ import retrofit2.Response;
 import retrofit2.Retrofit;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
@@ -33,7 +34,7 @@ public class AllChannelsChannelGroup extends Endpoint<Envelope<Object>, PNChanne
 
     @Override
     protected List<String> getAffectedChannelGroups() {
-        return null;
+        return Collections.singletonList(channelGroup);
     }
 
     @Override
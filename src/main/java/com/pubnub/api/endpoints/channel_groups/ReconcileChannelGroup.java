@@ -0,0 +1,183 @@
+package com.pubnub.api.endpoints.channel_groups;
+
+import com.pubnub.api.PubNub;
+import com.pubnub.api.PubNubException;
+import com.pubnub.api.builder.PubNubErrorBuilder;
+import com.pubnub.api.endpoints.bulk.BulkRunner;
+import com.pubnub.api.endpoints.bulk.ChannelBatches;
+import com.pubnub.api.managers.RetryingTask;
+import com.pubnub.api.models.consumer.channel_group.PNChannelGroupsReconcileResult;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Brings the membership of a channel group in line with a desired set of channels.
+ *
+ * The current membership is listed once and diffed against the desired set; the channels to add and to remove are
+ * cut into batches within the per call channel limit, which are sent concurrently on a bounded pool under a shared
+ * rate limit and retried on transient failures. Channels of batches which still fail are reported, running the
+ * reconciliation again picks them up.
+ */
+@Accessors(chain = true, fluent = true)
+public class ReconcileChannelGroup {
+
+    private static final int MAX_CHANNELS_PER_CALL = 200;
+    private static final double DEFAULT_REQUESTS_PER_SECOND = 20;
+
+    @Setter
+    private String channelGroup;
+    /**
+     * channels the group should hold once reconciled.
+     */
+    @Setter
+    private Collection<String> channels = new ArrayList<>();
+    @Setter
+    private int maxChannelsPerRequest = MAX_CHANNELS_PER_CALL;
+    @Setter
+    private int parallelism = BulkRunner.DEFAULT_PARALLELISM;
+    @Setter
+    private double requestsPerSecond = DEFAULT_REQUESTS_PER_SECOND;
+    @Setter
+    private int maxRetries = BulkRunner.DEFAULT_MAX_RETRIES;
+    /**
+     * in milliseconds, backoff of the first retry.
+     */
+    @Setter
+    private long retryDelay = BulkRunner.DEFAULT_RETRY_DELAY;
+    /**
+     * in milliseconds, cap of the backoff.
+     */
+    @Setter
+    private long maxRetryDelay = BulkRunner.DEFAULT_MAX_RETRY_DELAY;
+
+    private PubNub pubnub;
+
+    public ReconcileChannelGroup(PubNub pubnubInstance) {
+        this.pubnub = pubnubInstance;
+    }
+
+    /**
+     * Run the reconciliation and wait for all batches to finish.
+     *
+     * @return what changed.
+     * @throws PubNubException if the parameters are invalid, the current membership could not be listed or the
+     *                         caller was interrupted.
+     */
+    public PNChannelGroupsReconcileResult sync() throws PubNubException {
+        validateParams();
+
+        Set<String> current = new LinkedHashSet<>(pubnub.listChannelsForChannelGroup()
+                .channelGroup(channelGroup).sync().getChannels());
+        Set<String> desired = new LinkedHashSet<>(channels);
+
+        List<String> additions = new ArrayList<>();
+        List<String> removals = new ArrayList<>();
+
+        for (String channel : desired) {
+            if (!current.contains(channel)) {
+                additions.add(channel);
+            }
+        }
+
+        for (String channel : current) {
+            if (!desired.contains(channel)) {
+                removals.add(channel);
+            }
+        }
+
+        BulkRunner runner = new BulkRunner(parallelism, requestsPerSecond);
+        // the listing above counts as well.
+        runner.getRequests().incrementAndGet();
+
+        List<List<String>> addBatches = ChannelBatches.split(additions, ChannelBatches.DEFAULT_MAX_LENGTH,
+                maxChannelsPerRequest);
+        List<List<String>> removeBatches = ChannelBatches.split(removals, ChannelBatches.DEFAULT_MAX_LENGTH,
+                maxChannelsPerRequest);
+        List<MembershipTask> tasks = new ArrayList<>();
+
+        for (List<String> batch : addBatches) {
+            tasks.add(new MembershipTask(batch, true, runner));
+        }
+
+        for (List<String> batch : removeBatches) {
+            tasks.add(new MembershipTask(batch, false, runner));
+        }
+
+        List<PubNubException> errors = runner.run(tasks);
+        Map<String, PubNubException> failedChannels = new HashMap<>();
+        List<String> addedChannels = collect(addBatches, errors.subList(0, addBatches.size()), failedChannels);
+        List<String> removedChannels = collect(removeBatches, errors.subList(addBatches.size(), errors.size()),
+                failedChannels);
+
+        return PNChannelGroupsReconcileResult.builder()
+                .addedChannels(addedChannels)
+                .removedChannels(removedChannels)
+                .unchangedChannels(desired.size() - additions.size())
+                .failedChannels(failedChannels)
+                .requests(runner.getRequests().get())
+                .build();
+    }
+
+    private void validateParams() throws PubNubException {
+        if (channelGroup == null || channelGroup.isEmpty()) {
+            throw PubNubException.builder().pubnubError(PubNubErrorBuilder.PNERROBJ_GROUP_MISSING).build();
+        }
+
+        if (channels == null) {
+            throw PubNubException.builder().pubnubError(PubNubErrorBuilder.PNERROBJ_CHANNEL_MISSING).build();
+        }
+    }
+
+    /**
+     * Sort the channels of the batches into succeeded and failed ones.
+     */
+    private static List<String> collect(List<List<String>> batches, List<PubNubException> errors,
+                                        Map<String, PubNubException> failedChannels) {
+        List<String> succeeded = new ArrayList<>();
+
+        for (int i = 0; i < batches.size(); i++) {
+            for (String channel : batches.get(i)) {
+                if (errors.get(i) == null) {
+                    succeeded.add(channel);
+                } else {
+                    failedChannels.put(channel, errors.get(i));
+                }
+            }
+        }
+
+        return succeeded;
+    }
+
+    /**
+     * Adds a batch of channels to the group, or removes it from the group.
+     */
+    private class MembershipTask extends RetryingTask {
+
+        private final List<String> batch;
+        private final boolean add;
+
+        MembershipTask(List<String> batchChannels, boolean addition, BulkRunner runner) {
+            super(runner.getRateLimiter(), runner.getRequests(), maxRetries, retryDelay, maxRetryDelay);
+            this.batch = batchChannels;
+            this.add = addition;
+        }
+
+        @Override
+        protected void execute() throws PubNubException {
+            if (add) {
+                pubnub.addChannelsToChannelGroup().channelGroup(channelGroup).channels(batch).sync();
+            } else {
+                pubnub.removeChannelsFromChannelGroup().channelGroup(channelGroup).channels(batch).sync();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,271 @@
+package com.pubnub.api.endpoints.export;
+
+import com.pubnub.api.PubNub;
+import com.pubnub.api.PubNubException;
+import com.pubnub.api.builder.PubNubErrorBuilder;
+import com.pubnub.api.endpoints.History;
+import com.pubnub.api.endpoints.bulk.BulkRunner;
+import com.pubnub.api.managers.RateLimiter;
+import com.pubnub.api.models.consumer.history.PNHistoryExportResult;
+import com.pubnub.api.models.consumer.history.PNHistoryItemResult;
+import com.pubnub.api.models.consumer.history.PNHistoryResult;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Exports the history of many channels at once.
+ *
+ * Every channel, optionally cut into several timetoken slices, becomes a task which pages through its history from
+ * the newest to the oldest message. Tasks run on a bounded pool and share a rate limit; pages are handed to the
+ * {@link HistoryExportSink} as they arrive. With a checkpoint file, progress is recorded after every page that was
+ * flushed to the sink, and running the same export again continues where the previous run stopped.
+ */
+@Slf4j
+@Accessors(chain = true, fluent = true)
+public class HistoryExport {
+
+    private static final int MAX_COUNT = 100;
+
+    @Setter
+    private List<String> channels = new ArrayList<>();
+    /**
+     * newest timetoken to export, exclusive.
+     */
+    @Setter
+    private Long start;
+    /**
+     * oldest timetoken to export, inclusive.
+     */
+    @Setter
+    private Long end;
+    /**
+     * number of timetoken slices every channel is cut into, needs both start and end.
+     */
+    @Setter
+    private int rangeSplits = 1;
+    @Setter
+    private int parallelism = BulkRunner.DEFAULT_PARALLELISM;
+    @Setter
+    private double requestsPerSecond = BulkRunner.DEFAULT_REQUESTS_PER_SECOND;
+    @Setter
+    private HistoryExportSink sink;
+    /**
+     * file progress is recorded in, null to always export from scratch.
+     */
+    @Setter
+    private File checkpoint;
+
+    private PubNub pubnub;
+
+    public HistoryExport(PubNub pubnubInstance) {
+        this.pubnub = pubnubInstance;
+    }
+
+    /**
+     * Run the export and wait for it to finish.
+     *
+     * @return summary of the export.
+     * @throws PubNubException the first error a task failed with, after all other tasks finished; tasks which
+     *                         completed are checkpointed and are skipped when the export is run again.
+     */
+    public PNHistoryExportResult sync() throws PubNubException {
+        validateParams();
+
+        HistoryExportCheckpoint progress = null;
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, parallelism));
+
+        try {
+            if (checkpoint != null) {
+                progress = new HistoryExportCheckpoint(checkpoint);
+            }
+
+            RateLimiter rateLimiter = new RateLimiter(requestsPerSecond, Math.max(1, parallelism));
+            List<Future<Long>> futures = new ArrayList<>();
+            int skippedTasks = 0;
+
+            for (String channel : channels) {
+                for (Long[] slice : createSlices()) {
+                    String taskKey = HistoryExportCheckpoint.createKey(channel, slice[0], slice[1]);
+                    String position = progress != null ? progress.get(taskKey) : null;
+
+                    if (HistoryExportCheckpoint.DONE.equals(position)) {
+                        skippedTasks++;
+                        continue;
+                    }
+
+                    Long resumeAt = position != null ? Long.valueOf(position) : slice[0];
+                    futures.add(executor.submit(
+                            new ExportTask(channel, taskKey, resumeAt, slice[1], rateLimiter, progress)));
+                }
+            }
+
+            long exportedMessages = 0;
+            PubNubException firstError = null;
+
+            for (Future<Long> future : futures) {
+                try {
+                    exportedMessages += future.get();
+                } catch (ExecutionException e) {
+                    if (firstError == null) {
+                        firstError = toPubNubException(e.getCause());
+                    }
+                }
+            }
+
+            sink.flush();
+
+            if (firstError != null) {
+                throw firstError;
+            }
+
+            return PNHistoryExportResult.builder()
+                    .exportedMessages(exportedMessages)
+                    .completedTasks(futures.size())
+                    .skippedTasks(skippedTasks)
+                    .build();
+        } catch (IOException e) {
+            throw toPubNubException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw toPubNubException(e);
+        } finally {
+            executor.shutdownNow();
+
+            if (progress != null) {
+                try {
+                    progress.close();
+                } catch (IOException e) {
+                    log.warn("unable to close the export checkpoint: " + e.toString());
+                }
+            }
+        }
+    }
+
+    private void validateParams() throws PubNubException {
+        if (channels == null || channels.isEmpty()) {
+            throw PubNubException.builder().pubnubError(PubNubErrorBuilder.PNERROBJ_CHANNEL_MISSING).build();
+        }
+
+        if (sink == null) {
+            throw PubNubException.builder().pubnubError(PubNubErrorBuilder.PNERROBJ_INVALID_ARGUMENTS)
+                    .errormsg("sink is required").build();
+        }
+
+        if (rangeSplits > 1 && (start == null || end == null)) {
+            throw PubNubException.builder().pubnubError(PubNubErrorBuilder.PNERROBJ_INVALID_ARGUMENTS)
+                    .errormsg("splitting the range requires both start and end").build();
+        }
+    }
+
+    /**
+     * Cut the range into slices where every slice starts, exclusively, at the inclusive end of the previous one.
+     */
+    private List<Long[]> createSlices() {
+        if (rangeSplits <= 1 || start - end < rangeSplits) {
+            return Collections.singletonList(new Long[]{start, end});
+        }
+
+        List<Long[]> slices = new ArrayList<>();
+        long width = (start - end) / rangeSplits;
+        long sliceStart = start;
+
+        for (int i = 0; i < rangeSplits; i++) {
+            long sliceEnd = i == rangeSplits - 1 ? end : sliceStart - width;
+            slices.add(new Long[]{sliceStart, sliceEnd});
+            sliceStart = sliceEnd;
+        }
+
+        return slices;
+    }
+
+    private PubNubException toPubNubException(Throwable throwable) {
+        if (throwable instanceof PubNubException) {
+            return (PubNubException) throwable;
+        }
+
+        return PubNubException.builder().pubnubError(PubNubErrorBuilder.PNERROBJ_PUBNUB_EXCEPTION)
+                .errormsg(String.valueOf(throwable)).build();
+    }
+
+    /**
+     * Pages through one slice of one channel.
+     */
+    private class ExportTask implements Callable<Long> {
+
+        private final String channel;
+        private final String taskKey;
+        private final Long taskEnd;
+        private final RateLimiter rateLimiter;
+        private final HistoryExportCheckpoint progress;
+
+        private Long pageStart;
+
+        ExportTask(String channelName, String key, Long resumeAt, Long sliceEnd, RateLimiter limiter,
+                   HistoryExportCheckpoint checkpointLog) {
+            this.channel = channelName;
+            this.taskKey = key;
+            this.pageStart = resumeAt;
+            this.taskEnd = sliceEnd;
+            this.rateLimiter = limiter;
+            this.progress = checkpointLog;
+        }
+
+        @Override
+        public Long call() throws Exception {
+            long exported = 0;
+            boolean last = false;
+
+            while (!last) {
+                rateLimiter.acquire();
+
+                List<PNHistoryItemResult> messages;
+
+                try {
+                    PNHistoryResult result = pubnub.history()
+                            .channel(channel)
+                            .start(pageStart)
+                            .end(taskEnd)
+                            .count(MAX_COUNT)
+                            .includeTimetoken(true)
+                            .sync();
+
+                    messages = result.getMessages();
+                    pageStart = result.getStartTimetoken();
+                } catch (PubNubException e) {
+                    if (!History.isEmptyRange(e)) {
+                        throw e;
+                    }
+
+                    messages = Collections.emptyList();
+                }
+
+                last = messages.size() < MAX_COUNT || pageStart == null || pageStart.equals(taskEnd);
+
+                if (!messages.isEmpty()) {
+                    sink.write(channel, messages);
+                    exported += messages.size();
+                }
+
+                if (progress != null) {
+                    sink.flush();
+                    progress.record(taskKey, last ? HistoryExportCheckpoint.DONE : String.valueOf(pageStart));
+                }
+            }
+
+            return exported;
+        }
+    }
+
+}
@@ -0,0 +1,73 @@
+package com.pubnub.api.endpoints.export;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Append only log of export progress. Every record holds a task and the timetoken its next page starts at, or
+ * {@link #DONE} once the task finished; the latest record of a task wins when the log is read back.
+ */
+class HistoryExportCheckpoint {
+
+    static final String DONE = "done";
+    private static final String SEPARATOR = "\t";
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private final FileChannel fileChannel;
+    private final Map<String, String> progress;
+
+    HistoryExportCheckpoint(File file) throws IOException {
+        this.progress = new HashMap<>();
+
+        if (file.exists()) {
+            List<String> lines = Files.readAllLines(file.toPath(), UTF8);
+
+            for (String line : lines) {
+                int separator = line.lastIndexOf(SEPARATOR);
+
+                if (separator > 0) {
+                    progress.put(line.substring(0, separator), line.substring(separator + 1));
+                }
+            }
+        }
+
+        this.fileChannel = FileChannel.open(file.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * @param taskKey key of the task.
+     * @return last recorded position of the task, null if it never made progress.
+     */
+    synchronized String get(String taskKey) {
+        return progress.get(taskKey);
+    }
+
+    synchronized void record(String taskKey, String position) throws IOException {
+        ByteBuffer record = ByteBuffer.wrap((taskKey + SEPARATOR + position + "\n").getBytes(UTF8));
+
+        while (record.hasRemaining()) {
+            fileChannel.write(record);
+        }
+
+        fileChannel.force(false);
+        progress.put(taskKey, position);
+    }
+
+    synchronized void close() throws IOException {
+        fileChannel.close();
+    }
+
+    static String createKey(String channel, Long start, Long end) {
+        return channel + SEPARATOR + (start != null ? start : "-") + SEPARATOR + (end != null ? end : "-");
+    }
+
+}
@@ -0,0 +1,30 @@
+package com.pubnub.api.endpoints.export;
+
+import com.pubnub.api.models.consumer.history.PNHistoryItemResult;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Destination of a {@link HistoryExport}. Pages of different channels are written concurrently, implementations
+ * have to be thread safe.
+ */
+public interface HistoryExportSink {
+
+    /**
+     * @param channel  channel the messages were published on.
+     * @param messages one page of messages, decrypted and with timetokens.
+     * @throws IOException the page could not be stored; the export stops the task and does not checkpoint it.
+     */
+    void write(String channel, List<PNHistoryItemResult> messages) throws IOException;
+
+    /**
+     * Make everything written so far durable; called before progress is checkpointed.
+     *
+     * @throws IOException the pages could not be stored.
+     */
+    void flush() throws IOException;
+
+    void close() throws IOException;
+
+}
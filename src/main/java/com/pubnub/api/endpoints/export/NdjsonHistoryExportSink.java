@@ -0,0 +1,86 @@
+package com.pubnub.api.endpoints.export;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import com.pubnub.api.models.consumer.history.PNHistoryItemResult;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Writes exported messages as newline delimited JSON, one object with channel, timetoken and message per line.
+ * Lines are appended through a buffered file channel, so resumed exports continue the same file.
+ */
+public class NdjsonHistoryExportSink implements HistoryExportSink {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private final FileChannel fileChannel;
+    private final ByteBuffer buffer;
+
+    public NdjsonHistoryExportSink(File file) throws IOException {
+        this.fileChannel = FileChannel.open(file.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    }
+
+    @Override
+    public synchronized void write(String channel, List<PNHistoryItemResult> messages) throws IOException {
+        for (PNHistoryItemResult message : messages) {
+            JsonObject line = new JsonObject();
+            line.add("channel", new JsonPrimitive(channel));
+            if (message.getTimetoken() != null) {
+                line.add("timetoken", new JsonPrimitive(message.getTimetoken()));
+            }
+            line.add("message", message.getEntry());
+
+            put((line.toString() + "\n").getBytes(UTF8));
+        }
+    }
+
+    @Override
+    public synchronized void flush() throws IOException {
+        drain();
+        fileChannel.force(false);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            fileChannel.close();
+        }
+    }
+
+    private void put(byte[] bytes) throws IOException {
+        int offset = 0;
+
+        while (offset < bytes.length) {
+            if (!buffer.hasRemaining()) {
+                drain();
+            }
+
+            int length = Math.min(buffer.remaining(), bytes.length - offset);
+            buffer.put(bytes, offset, length);
+            offset += length;
+        }
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+
+        while (buffer.hasRemaining()) {
+            fileChannel.write(buffer);
+        }
+
+        buffer.clear();
+    }
+
+}
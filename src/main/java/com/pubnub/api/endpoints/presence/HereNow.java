@@ -6,9 +6,12 @@ import com.pubnub.api.PubNub;
 import com.pubnub.api.PubNubException;
 import com.pubnub.api.PubNubUtil;
 import com.pubnub.api.builder.PubNubErrorBuilder;
+import com.pubnub.api.callbacks.PNCallback;
 import com.pubnub.api.endpoints.Endpoint;
+import com.pubnub.api.endpoints.bulk.ChannelBatches;
 import com.pubnub.api.enums.PNOperationType;
 import com.pubnub.api.managers.MapperManager;
+import com.pubnub.api.models.consumer.PNStatus;
 import com.pubnub.api.models.consumer.presence.PNHereNowChannelData;
 import com.pubnub.api.models.consumer.presence.PNHereNowOccupantData;
 import com.pubnub.api.models.consumer.presence.PNHereNowResult;
@@ -24,9 +27,11 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
 
 @Accessors(chain = true, fluent = true)
 public class HereNow extends Endpoint<Envelope<JsonElement>, PNHereNowResult> {
+    private static final int DEFAULT_SHARD_PARALLELISM = 4;
     @Setter
     private List<String> channels;
     @Setter
@@ -35,6 +40,21 @@ public class HereNow extends Endpoint<Envelope<JsonElement>, PNHereNowResult> {
     private Boolean includeState;
     @Setter
     private Boolean includeUUIDs;
+    /**
+     * maximum number of channels, or channel groups, asked for in a single request; longer lists are sharded.
+     */
+    @Setter
+    private int maxChannelsPerShard = ChannelBatches.DEFAULT_MAX_NAMES;
+    /**
+     * maximum number of shard requests in flight at once.
+     */
+    @Setter
+    private int shardParallelism = DEFAULT_SHARD_PARALLELISM;
+
+    /**
+     * set on the requests of a sharded call, which must not be sharded again.
+     */
+    private boolean shard;
 
     public HereNow(PubNub pubnubInstance, Retrofit retrofit) {
         super(pubnubInstance, retrofit);
@@ -42,6 +62,67 @@ public class HereNow extends Endpoint<Envelope<JsonElement>, PNHereNowResult> {
         channelGroups = new ArrayList<>();
     }
 
+    /**
+     * Channel and group lists which do not fit into a single request are split into shards which are fetched in
+     * parallel and merged into one result.
+     */
+    @Override
+    public PNHereNowResult sync() throws PubNubException {
+        List<HereNow> shards = createShards();
+
+        if (shards == null) {
+            return super.sync();
+        }
+
+        validateParams();
+
+        final CountDownLatch latch = new CountDownLatch(1);
+        final PNHereNowResult[] result = new PNHereNowResult[1];
+        final PNStatus[] status = new PNStatus[1];
+
+        new ShardedRequest(shards, new PNCallback<PNHereNowResult>() {
+            @Override
+            public void onResponse(PNHereNowResult shardedResult, PNStatus shardedStatus) {
+                result[0] = shardedResult;
+                status[0] = shardedStatus;
+                latch.countDown();
+            }
+        }).start();
+
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw PubNubException.builder().pubnubError(PubNubErrorBuilder.PNERROBJ_PUBNUB_EXCEPTION)
+                    .errormsg(e.toString()).build();
+        }
+
+        if (status[0].isError()) {
+            Exception cause = status[0].getErrorData() != null ? status[0].getErrorData().getThrowable() : null;
+
+            if (cause instanceof PubNubException) {
+                throw (PubNubException) cause;
+            }
+
+            throw PubNubException.builder().pubnubError(PubNubErrorBuilder.PNERROBJ_HTTP_ERROR)
+                    .errormsg(String.valueOf(cause)).statusCode(status[0].getStatusCode()).build();
+        }
+
+        return result[0];
+    }
+
+    @Override
+    public void async(PNCallback<PNHereNowResult> callback) {
+        List<HereNow> shards = createShards();
+
+        if (shards == null) {
+            super.async(callback);
+            return;
+        }
+
+        new ShardedRequest(shards, callback).start();
+    }
+
     @Override
     protected List<String> getAffectedChannels() {
         return channels;
@@ -184,6 +265,154 @@ public class HereNow extends Endpoint<Envelope<JsonElement>, PNHereNowResult> {
         return occupantsResults;
     }
 
+    /**
+     * @return shard requests, null if the call fits into a single request.
+     */
+    private List<HereNow> createShards() {
+        if (shard || channels == null || channelGroups == null) {
+            return null;
+        }
+
+        List<List<String>> channelBatches = ChannelBatches.split(channels, ChannelBatches.DEFAULT_MAX_LENGTH,
+                maxChannelsPerShard);
+        List<List<String>> groupBatches = ChannelBatches.split(channelGroups, ChannelBatches.DEFAULT_MAX_LENGTH,
+                maxChannelsPerShard);
+
+        if (channelBatches.size() <= 1 && groupBatches.size() <= 1) {
+            return null;
+        }
+
+        List<HereNow> shards = new ArrayList<>();
+
+        for (List<String> batch : channelBatches) {
+            shards.add(createShard(batch, new ArrayList<String>()));
+        }
+
+        for (List<String> batch : groupBatches) {
+            shards.add(createShard(new ArrayList<String>(), batch));
+        }
+
+        return shards;
+    }
+
+    private HereNow createShard(List<String> shardChannels, List<String> shardChannelGroups) {
+        HereNow shardRequest = new HereNow(getPubnub(), getRetrofit())
+                .channels(shardChannels)
+                .channelGroups(shardChannelGroups)
+                .includeState(includeState)
+                .includeUUIDs(includeUUIDs);
+        shardRequest.shard = true;
+        return shardRequest;
+    }
+
+    /**
+     * Runs the shards of a call, at most shardParallelism at a time, and merges their results.
+     */
+    private final class ShardedRequest {
+
+        private final List<HereNow> shards;
+        private final PNCallback<PNHereNowResult> callback;
+        private final Map<String, PNHereNowChannelData> merged = new HashMap<>();
+
+        private int started;
+        private int completed;
+        private boolean failed;
+
+        ShardedRequest(List<HereNow> shardRequests, PNCallback<PNHereNowResult> userCallback) {
+            this.shards = shardRequests;
+            this.callback = userCallback;
+        }
+
+        void start() {
+            int initial;
+
+            synchronized (this) {
+                initial = Math.min(shards.size(), Math.max(1, shardParallelism));
+                started = initial;
+            }
+
+            for (int i = 0; i < initial; i++) {
+                run(shards.get(i));
+            }
+        }
+
+        private void run(final HereNow shardRequest) {
+            shardRequest.async(new PNCallback<PNHereNowResult>() {
+                @Override
+                public void onResponse(PNHereNowResult result, PNStatus status) {
+                    onShardResponse(shardRequest, result, status);
+                }
+            });
+        }
+
+        private void onShardResponse(HereNow shardRequest, PNHereNowResult result, PNStatus status) {
+            HereNow next = null;
+            PNHereNowResult mergedResult = null;
+
+            synchronized (this) {
+                if (failed) {
+                    return;
+                }
+
+                if (status.isError()) {
+                    failed = true;
+                } else {
+                    merge(shardRequest, result);
+                    completed++;
+
+                    if (completed == shards.size()) {
+                        mergedResult = createMergedResult();
+                    } else if (started < shards.size()) {
+                        next = shards.get(started++);
+                    }
+                }
+            }
+
+            if (status.isError()) {
+                callback.onResponse(null, status);
+            } else if (mergedResult != null) {
+                callback.onResponse(mergedResult, status);
+            } else if (next != null) {
+                run(next);
+            }
+        }
+
+        private void merge(HereNow shardRequest, PNHereNowResult result) {
+            if (result.getChannels() != null) {
+                merged.putAll(result.getChannels());
+            }
+
+            // single channel responses without uuids do not list the channel.
+            if (shardRequest.channels.size() == 1 && shardRequest.channelGroups.isEmpty()) {
+                String channel = shardRequest.channels.get(0);
+
+                if (!merged.containsKey(channel)) {
+                    merged.put(channel, PNHereNowChannelData.builder()
+                            .channelName(channel)
+                            .occupancy(result.getTotalOccupancy())
+                            .build());
+                }
+            }
+        }
+
+        /**
+         * Channels reached through several groups, or both a group and the channel list, are counted once.
+         */
+        private PNHereNowResult createMergedResult() {
+            int totalOccupancy = 0;
+
+            for (PNHereNowChannelData channelData : merged.values()) {
+                totalOccupancy += channelData.getOccupancy();
+            }
+
+            return PNHereNowResult.builder()
+                    .totalChannels(merged.size())
+                    .totalOccupancy(totalOccupancy)
+                    .channels(merged)
+                    .build();
+        }
+    }
+
     @Override
     protected PNOperationType getOperationType() {
         return PNOperationType.PNHereNowOperation;
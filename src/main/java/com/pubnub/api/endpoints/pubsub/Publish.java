@@ -1,5 +1,6 @@
 package com.pubnub.api.endpoints.pubsub;
 
+import com.pubnub.api.PayloadCompression;
 import com.pubnub.api.PubNub;
 import com.pubnub.api.PubNubException;
 import com.pubnub.api.PubNubUtil;
@@ -78,6 +79,13 @@ public class Publish extends Endpoint<List<Object>, PNPublishResult> {
         MapperManager mapper = this.getPubnub().getMapper();
 
         String stringifiedMessage = mapper.toJson(message);
+        // compressed before encryption, which would leave nothing to compress.
+        Map<String, String> compressed = PayloadCompression.compress(stringifiedMessage,
+                this.getPubnub().getConfiguration().getCompressionThreshold());
+
+        if (compressed != null) {
+            stringifiedMessage = mapper.toJson(compressed);
+        }
 
         if (meta != null) {
             String stringifiedMeta = mapper.toJson(meta);
@@ -115,6 +123,8 @@ public class Publish extends Endpoint<List<Object>, PNPublishResult> {
 
             if (this.getPubnub().getConfiguration().getCipherKey() != null) {
                 payloadToSend = stringifiedMessage;
+            } else if (compressed != null) {
+                payloadToSend = compressed;
             } else {
                 payloadToSend = message;
             }
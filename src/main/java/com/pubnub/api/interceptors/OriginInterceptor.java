@@ -0,0 +1,89 @@
+package com.pubnub.api.interceptors;
+
+import com.pubnub.api.managers.BasePathManager;
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sends every request to the origin picked by the {@link BasePathManager} and retries it on the next origin when
+ * the connection cannot be established, refused, unresolved or timed out. Connection failures happen before anything
+ * is written, so failing over is safe for every operation; read timeouts are not retried.
+ */
+public class OriginInterceptor implements Interceptor {
+
+    /**
+     * message of the timeout raised by the socket while connecting, OkHttp passes it on as is; its case differs
+     * between JDKs.
+     */
+    private static final String CONNECT_TIMED_OUT = "connect timed out";
+
+    private BasePathManager basePathManager;
+
+    public OriginInterceptor(BasePathManager basePathManagerInstance) {
+        this.basePathManager = basePathManagerInstance;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request originalRequest = chain.request();
+
+        if (!basePathManager.isMultiOrigin() || originalRequest.tag() == BasePathManager.PROBE_TAG) {
+            return chain.proceed(originalRequest);
+        }
+
+        List<String> failedOrigins = new ArrayList<>();
+        IOException lastError = null;
+        String origin = basePathManager.selectOrigin(failedOrigins);
+
+        while (origin != null) {
+            try {
+                Response response = chain.proceed(rewrite(originalRequest, origin));
+                basePathManager.reportSuccess(origin, -1);
+                return response;
+            } catch (IOException e) {
+                if (!isConnectFailure(e)) {
+                    throw e;
+                }
+
+                basePathManager.reportFailure(origin);
+                failedOrigins.add(origin);
+                lastError = e;
+            }
+
+            origin = basePathManager.selectOrigin(failedOrigins);
+        }
+
+        throw lastError != null ? lastError : new ConnectException("no origin available");
+    }
+
+    private static boolean isConnectFailure(IOException e) {
+        return e instanceof ConnectException || e instanceof UnknownHostException || e instanceof NoRouteToHostException
+                || (e instanceof SocketTimeoutException && CONNECT_TIMED_OUT.equalsIgnoreCase(e.getMessage()));
+    }
+
+    private Request rewrite(Request request, String origin) {
+        HttpUrl originUrl = HttpUrl.parse(request.url().scheme() + "://" + origin);
+
+        if (originUrl == null) {
+            return request;
+        }
+
+        HttpUrl url = request.url().newBuilder()
+                .host(originUrl.host())
+                .port(originUrl.port())
+                .build();
+
+        return request.newBuilder().url(url).build();
+    }
+
+}
@@ -0,0 +1,65 @@
+package com.pubnub.api.managers;
+
+import com.pubnub.api.PubNubException;
+import com.pubnub.api.builder.PubNubErrorBuilder;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Retry decisions and capped, jittered backoff for requests which failed or found the origin unreachable.
+ */
+public final class Backoff {
+
+    private static final int TOO_MANY_REQUESTS = 429;
+    private static final int SERVER_ERROR = 500;
+
+    private Backoff() {
+    }
+
+    /**
+     * @param e error a request failed with.
+     * @return true for throttling, server errors and requests which never got a response, which are worth another
+     * try; invalid parameters and unreadable responses are not.
+     */
+    public static boolean isRetryable(PubNubException e) {
+        int statusCode = e.getStatusCode();
+
+        if (statusCode != 0) {
+            return statusCode == TOO_MANY_REQUESTS || statusCode >= SERVER_ERROR;
+        }
+
+        if (e.getPubnubError() == null) {
+            return false;
+        }
+
+        switch (e.getPubnubError().getErrorCode()) {
+            case PubNubErrorBuilder.PNERR_CONNECT_EXCEPTION:
+            case PubNubErrorBuilder.PNERR_CONNECTION_NOT_SET:
+            case PubNubErrorBuilder.PNERR_HTTP_SUBSCRIBE_TIMEOUT:
+            case PubNubErrorBuilder.PNERR_HTTP_ERROR:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Capped exponential backoff with full jitter.
+     *
+     * @param attempt   zero based number of the retry.
+     * @param baseDelay delay of the first retry, in milliseconds.
+     * @param maxDelay  cap of the delay, in milliseconds.
+     * @return delay in milliseconds.
+     */
+    public static long delay(int attempt, long baseDelay, long maxDelay) {
+        long backoff = maxDelay;
+        int maxShift = Long.numberOfLeadingZeros(Math.max(1, baseDelay)) - 1;
+
+        if (attempt < maxShift) {
+            backoff = Math.min(maxDelay, Math.max(1, baseDelay) << attempt);
+        }
+
+        return ThreadLocalRandom.current().nextLong(backoff + 1);
+    }
+
+}
@@ -1,12 +1,33 @@
 package com.pubnub.api.managers;
 
 import com.pubnub.api.PNConfiguration;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.TimeUnit;
 
 /**
- * A stateful manager to support base path construction, proxying and cache busting.
+ * A stateful manager to support base path construction, proxying, cache busting and selection between
+ * several equivalent origins.
  */
+@Slf4j
 public class BasePathManager {
 
+    /**
+     * tag of probe requests, these are sent to the origin they name and are never redirected.
+     */
+    public static final Object PROBE_TAG = new Object();
+
     /**
      * PubNub configuration storage.
      */
@@ -28,6 +49,34 @@ public class BasePathManager {
      * default base path if a custom one is not provided.
      */
     private static final String DEFAULT_BASE_PATH = "pndsn.com";
+    /**
+     * in milliseconds, how long an origin is avoided after its first connection failure, doubled on every
+     * further failure.
+     */
+    private static final long MIN_QUARANTINE = 1000;
+    /**
+     * in milliseconds, the longest an origin is avoided.
+     */
+    private static final long MAX_QUARANTINE = 60000;
+    /**
+     * highest number of doublings applied to the quarantine.
+     */
+    private static final int MAX_QUARANTINE_EXPONENT = 6;
+    /**
+     * weight of a new sample in the latency average.
+     */
+    private static final double LATENCY_WEIGHT = 0.3;
+    private static final int MILLISECONDS = 1000;
+
+    /**
+     * health of the configured origins, in configuration order.
+     */
+    private final Map<String, OriginHealth> originHealth;
+
+    /**
+     * Timer for latency probes.
+     */
+    private Timer probeTimer;
 
     /**
      * Initialize the path management.
@@ -36,6 +85,7 @@ public class BasePathManager {
     public BasePathManager(PNConfiguration initialConfig) {
         this.config = initialConfig;
         currentSubdomain = 1;
+        originHealth = new LinkedHashMap<>();
     }
 
 
@@ -52,7 +102,9 @@ public class BasePathManager {
 
         constructedUrl.append("://");
 
-        if (config.getOrigin() != null) {
+        if (isMultiOrigin()) {
+            constructedUrl.append(selectOrigin(null));
+        } else if (config.getOrigin() != null) {
             constructedUrl.append(config.getOrigin());
         } else if (config.isCacheBusting()) {
             constructedUrl.append("ps").append(currentSubdomain).append(".").append(DEFAULT_BASE_PATH);
@@ -70,4 +122,161 @@ public class BasePathManager {
         return constructedUrl.toString();
     }
 
+    /**
+     * @return true if requests are spread over several configured origins.
+     */
+    public boolean isMultiOrigin() {
+        return config.getOrigins() != null && !config.getOrigins().isEmpty();
+    }
+
+    /**
+     * Pick the origin for the next request: the healthy one with the lowest measured latency, origins without a
+     * measurement yet are tried in configuration order. If every origin is failing, the one which recovers first.
+     *
+     * @param excluded origins which already failed for the current request, may be null.
+     * @return origin as host and optional port, null if all origins are excluded.
+     */
+    public synchronized String selectOrigin(List<String> excluded) {
+        long now = System.currentTimeMillis();
+        String best = null;
+        OriginHealth bestHealth = null;
+        String fallback = null;
+        OriginHealth fallbackHealth = null;
+
+        for (String origin : getOrigins()) {
+            if (excluded != null && excluded.contains(origin)) {
+                continue;
+            }
+
+            OriginHealth health = getHealth(origin);
+
+            if (health.quarantinedUntil <= now) {
+                if (bestHealth == null || health.isFasterThan(bestHealth)) {
+                    best = origin;
+                    bestHealth = health;
+                }
+            } else if (fallbackHealth == null || health.quarantinedUntil < fallbackHealth.quarantinedUntil) {
+                fallback = origin;
+                fallbackHealth = health;
+            }
+        }
+
+        return best != null ? best : fallback;
+    }
+
+    /**
+     * @return configured origins, empty when a single origin is used.
+     */
+    public List<String> getOrigins() {
+        List<String> origins = config.getOrigins();
+        return origins != null ? origins : Collections.<String>emptyList();
+    }
+
+    /**
+     * Record that an origin answered.
+     *
+     * @param origin          origin as host and optional port.
+     * @param latencyNanos    in nanoseconds, round trip time worth recording, negative if not representative.
+     */
+    public synchronized void reportSuccess(String origin, long latencyNanos) {
+        OriginHealth health = getHealth(origin);
+        health.failures = 0;
+        health.quarantinedUntil = 0;
+
+        if (latencyNanos >= 0) {
+            double latency = TimeUnit.NANOSECONDS.toMicros(latencyNanos);
+            health.latency = health.latency < 0 ? latency : health.latency + LATENCY_WEIGHT * (latency - health.latency);
+        }
+    }
+
+    /**
+     * Record that an origin could not be reached and avoid it for a while.
+     *
+     * @param origin origin as host and optional port.
+     */
+    public synchronized void reportFailure(String origin) {
+        OriginHealth health = getHealth(origin);
+        long quarantine = Math.min(MAX_QUARANTINE, MIN_QUARANTINE << Math.min(health.failures, MAX_QUARANTINE_EXPONENT));
+
+        health.failures++;
+        health.quarantinedUntil = System.currentTimeMillis() + quarantine;
+        log.debug("origin " + origin + " failed " + health.failures + " times, avoiding it for " + quarantine + "ms");
+    }
+
+    /**
+     * Start measuring the latency of the configured origins if probing is enabled.
+     *
+     * @param client client used to send the probes.
+     */
+    public synchronized void startProbing(final OkHttpClient client) {
+        stopProbing();
+
+        if (!isMultiOrigin() || config.getOriginProbeInterval() <= 0 || client == null) {
+            return;
+        }
+
+        probeTimer = new Timer("Origin Probe Timer", true);
+        probeTimer.schedule(new TimerTask() {
+            @Override
+            public void run() {
+                for (String origin : new ArrayList<>(getOrigins())) {
+                    probe(client, origin);
+                }
+            }
+        }, 0, config.getOriginProbeInterval() * MILLISECONDS);
+    }
+
+    public synchronized void stopProbing() {
+        if (probeTimer != null) {
+            probeTimer.cancel();
+            probeTimer = null;
+        }
+    }
+
+    private void probe(OkHttpClient client, String origin) {
+        String scheme = config.isSecure() ? "https://" : "http://";
+        Request request = new Request.Builder().url(scheme + origin + "/time/0").tag(PROBE_TAG).build();
+        long startedAt = System.nanoTime();
+
+        try {
+            Response response = client.newCall(request).execute();
+            response.close();
+
+            if (response.isSuccessful()) {
+                reportSuccess(origin, System.nanoTime() - startedAt);
+            } else {
+                reportFailure(origin);
+            }
+        } catch (IOException e) {
+            reportFailure(origin);
+        }
+    }
+
+    private OriginHealth getHealth(String origin) {
+        OriginHealth health = originHealth.get(origin);
+
+        if (health == null) {
+            health = new OriginHealth();
+            originHealth.put(origin, health);
+        }
+
+        return health;
+    }
+
+    /**
+     * Connection health and latency of an origin.
+     */
+    private static class OriginHealth {
+        /**
+         * in microseconds, moving average of the probe round trips, negative until measured.
+         */
+        private double latency = -1;
+        private int failures;
+        private long quarantinedUntil;
+
+        private boolean isFasterThan(OriginHealth other) {
+            return latency >= 0 && (other.latency < 0 || latency < other.latency);
+        }
+    }
+
 }
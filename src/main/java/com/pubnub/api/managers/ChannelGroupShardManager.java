@@ -0,0 +1,645 @@
+package com.pubnub.api.managers;
+
+import com.pubnub.api.PubNub;
+import com.pubnub.api.PubNubException;
+import com.pubnub.api.callbacks.PNCallback;
+import com.pubnub.api.enums.PNOperationType;
+import com.pubnub.api.enums.PNStatusCategory;
+import com.pubnub.api.models.consumer.PNErrorData;
+import com.pubnub.api.models.consumer.PNStatus;
+import com.pubnub.api.models.consumer.channel_group.PNChannelGroupsDeleteGroupResult;
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.HttpURLConnection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Subscribes to very large channel sets through channel groups managed by the SDK.
+ *
+ * Once the number of subscribed channels goes over the configured threshold, every channel is packed into a channel
+ * group named after this instance, and the subscribe and heartbeat calls name the groups instead of the channels.
+ * Channels with presence and channels without it are kept in separate groups, so presence is only requested for the
+ * former. Group membership follows subscribe and unsubscribe calls on a background thread; a group is only used by
+ * the subscription once the server acknowledged its membership, after which the subscription is restarted. Until then
+ * its channels keep being named in the subscribe call, so no channel goes without delivery while groups are filled.
+ * Membership changes which keep failing are announced and rescheduled with a capped backoff. A subscribe names at most
+ * MAX_GROUPS_PER_SUBSCRIBE groups, the ones the application subscribed to included; channels which do not fit are
+ * left out of the subscription and announced instead of sending a subscribe the server rejects. Messages received
+ * through the groups are delivered as if the channels were subscribed directly.
+ */
+@Slf4j
+public class ChannelGroupShardManager {
+
+    /**
+     * channel groups the service accepts in a single subscribe call, presence groups included.
+     */
+    public static final int MAX_GROUPS_PER_SUBSCRIBE = 10;
+
+    private static final String GROUP_PREFIX = "pn-sdk-";
+    private static final String PRESENCE_SUFFIX = "-pnpres";
+    private static final int MAX_CHANNELS_PER_CALL = 200;
+    private static final int MAX_RETRIES = 3;
+    private static final long RETRY_DELAY = 500;
+    private static final long MAX_RETRY_DELAY = 8000;
+    private static final double REQUESTS_PER_SECOND = 20;
+    private static final long MAX_RESCHEDULE_DELAY = 60000;
+    /**
+     * in milliseconds, how long destroy waits for the managed groups to be deleted.
+     */
+    private static final long DESTROY_TIMEOUT = 3000;
+
+    private PubNub pubnub;
+
+    private final Pool plainPool = new Pool("c");
+    private final Pool presencePool = new Pool("p");
+
+    private ScheduledExecutorService provisioner;
+    private boolean provisioningScheduled;
+    private int provisioningFailures;
+    private ProvisioningListener provisioningListener;
+    private List<String> reportedOverflow = Collections.emptyList();
+
+    public ChannelGroupShardManager(PubNub pubnubInstance) {
+        this.pubnub = pubnubInstance;
+    }
+
+    /**
+     * @param listener called on the provisioning thread as group memberships are applied or fail to be.
+     */
+    public synchronized void setProvisioningListener(ProvisioningListener listener) {
+        this.provisioningListener = listener;
+    }
+
+    /**
+     * @return true while subscribed channels are reached through managed groups.
+     */
+    public synchronized boolean isActive() {
+        return !plainPool.desired.isEmpty() || !presencePool.desired.isEmpty();
+    }
+
+    /**
+     * @param group channel group name, with or without the presence suffix.
+     * @return true for groups managed by this instance.
+     */
+    public boolean isManagedGroup(String group) {
+        return group != null && group.startsWith(getGroupPrefix());
+    }
+
+    /**
+     * @param channel channel name, without the presence suffix.
+     * @return true if the channel is still meant to be received through a managed group.
+     */
+    public synchronized boolean isTracked(String channel) {
+        return plainPool.desired.contains(channel) || presencePool.desired.contains(channel);
+    }
+
+    /**
+     * @return managed groups to subscribe to, the presence groups of presence enabled channels included.
+     */
+    public synchronized List<String> getSubscribeGroups() {
+        List<String> groups = new ArrayList<>();
+        plainPool.addAppliedGroups(groups, false);
+        presencePool.addAppliedGroups(groups, true);
+        return groups;
+    }
+
+    /**
+     * @param withPresence whether to add the presence channels of presence enabled channels.
+     * @return subscribed channels which are not reached through an applied managed group yet.
+     */
+    public synchronized List<String> getPendingChannels(boolean withPresence) {
+        List<String> channels = new ArrayList<>();
+        plainPool.addPendingChannels(channels, false);
+        presencePool.addPendingChannels(channels, withPresence);
+        return channels;
+    }
+
+    /**
+     * Split an unsubscribe into the managed groups it empties and the channels which have to be named.
+     *
+     * @param channels          channels which are unsubscribed.
+     * @param remainingChannels receives the channels which are not covered by an emptied group.
+     * @return applied groups all of whose channels are unsubscribed.
+     */
+    public synchronized List<String> splitLeave(Collection<String> channels, List<String> remainingChannels) {
+        Set<String> leaving = new HashSet<>(channels);
+        Set<String> covered = new HashSet<>();
+        List<String> groups = new ArrayList<>();
+
+        plainPool.addEmptiedGroups(leaving, groups, covered);
+        presencePool.addEmptiedGroups(leaving, groups, covered);
+
+        for (String channel : channels) {
+            if (!covered.contains(channel)) {
+                remainingChannels.add(channel);
+            }
+        }
+
+        return groups;
+    }
+
+    /**
+     * @return managed groups to heartbeat on.
+     */
+    public synchronized List<String> getHeartbeatGroups() {
+        List<String> groups = new ArrayList<>();
+        plainPool.addAppliedGroups(groups, false);
+        presencePool.addAppliedGroups(groups, false);
+        return groups;
+    }
+
+    /**
+     * Follow the subscribed channels; membership changes are applied in the background.
+     *
+     * @param channels         all subscribed channels.
+     * @param presenceChannels channels subscribed with presence.
+     * @param channelGroups    groups the application subscribed to, presence groups included.
+     */
+    public void update(Collection<String> channels, Collection<String> presenceChannels,
+                       Collection<String> channelGroups) {
+        int threshold = pubnub.getConfiguration().getChannelGroupShardingThreshold();
+        boolean active = threshold > 0 && channels.size() > threshold;
+
+        Set<String> presence = new LinkedHashSet<>();
+        Set<String> plain = new LinkedHashSet<>();
+
+        if (active) {
+            presence.addAll(presenceChannels);
+
+            for (String channel : channels) {
+                if (!presence.contains(channel)) {
+                    plain.add(channel);
+                }
+            }
+        }
+
+        int groupSize = Math.max(1, pubnub.getConfiguration().getChannelsPerManagedGroup());
+        // a presence group is named twice, with and without the presence suffix.
+        int available = Math.max(0, MAX_GROUPS_PER_SUBSCRIBE - channelGroups.size());
+        int presenceGroups = Math.min((presence.size() + groupSize - 1) / groupSize, available / 2);
+
+        synchronized (this) {
+            List<String> overflow = new ArrayList<>();
+            overflow.addAll(presencePool.setDesired(presence, groupSize, presenceGroups));
+            overflow.addAll(plainPool.setDesired(plain, groupSize, available - 2 * presenceGroups));
+
+            if (!plainPool.isApplied() || !presencePool.isApplied()) {
+                scheduleProvisioning();
+            }
+
+            if (!overflow.equals(reportedOverflow)) {
+                reportedOverflow = overflow;
+
+                if (!overflow.isEmpty()) {
+                    reportOverflow(overflow);
+                }
+            }
+        }
+    }
+
+    /**
+     * Delete the managed groups, they would outlive the instance otherwise. The deletions are sent together and waited
+     * for up to DESTROY_TIMEOUT; groups which could not be deleted by then are left behind.
+     */
+    public void destroy() {
+        final List<String> groups = new ArrayList<>();
+
+        synchronized (this) {
+            if (provisioner != null) {
+                provisioner.shutdownNow();
+                provisioner = null;
+            }
+
+            plainPool.addCreatedGroups(groups);
+            presencePool.addCreatedGroups(groups);
+            plainPool.clear();
+            presencePool.clear();
+            reportedOverflow = Collections.emptyList();
+        }
+
+        final CountDownLatch deleted = new CountDownLatch(groups.size());
+
+        for (final String group : groups) {
+            pubnub.deleteChannelGroup().channelGroup(group).async(new PNCallback<PNChannelGroupsDeleteGroupResult>() {
+                @Override
+                public void onResponse(PNChannelGroupsDeleteGroupResult result, PNStatus status) {
+                    if (status.isError()) {
+                        log.warn("unable to delete managed channel group " + group + ": " + status.getCategory());
+                    }
+
+                    deleted.countDown();
+                }
+            });
+        }
+
+        try {
+            if (!deleted.await(DESTROY_TIMEOUT, TimeUnit.MILLISECONDS)) {
+                log.warn(deleted.getCount() + " managed channel groups were not deleted in time");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private String getGroupPrefix() {
+        return GROUP_PREFIX + pubnub.getInstanceId() + "-";
+    }
+
+    private void scheduleProvisioning() {
+        if (provisioningScheduled) {
+            return;
+        }
+
+        provisioningScheduled = true;
+        long delay = provisioningFailures > 0
+                ? Backoff.delay(provisioningFailures - 1, RETRY_DELAY, MAX_RESCHEDULE_DELAY) : 0;
+
+        getProvisioner().schedule(new Runnable() {
+            @Override
+            public void run() {
+                provision();
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Announce the channels left out of the subscription on the provisioning thread, the caller holds the
+     * subscription.
+     */
+    private void reportOverflow(List<String> channels) {
+        String text = channels.size() + " channels are not subscribed, the subscription would need more than "
+                + MAX_GROUPS_PER_SUBSCRIBE + " channel groups";
+        final PNStatus status = PNStatus.builder()
+                .error(true)
+                .errorData(new PNErrorData(text, null))
+                .category(PNStatusCategory.PNBadRequestCategory)
+                .operation(PNOperationType.PNSubscribeOperation)
+                .affectedChannels(channels)
+                .build();
+
+        getProvisioner().execute(new Runnable() {
+            @Override
+            public void run() {
+                ProvisioningListener listener;
+
+                synchronized (ChannelGroupShardManager.this) {
+                    listener = provisioningListener;
+                }
+
+                if (listener != null) {
+                    listener.onProvisioningFailed(status);
+                }
+            }
+        });
+    }
+
+    private ScheduledExecutorService getProvisioner() {
+        if (provisioner == null) {
+            provisioner = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "Channel Group Shard Provisioner");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+
+        return provisioner;
+    }
+
+    /**
+     * Apply membership changes until the groups match what is wanted; the subscription picks up every group as soon
+     * as it is complete.
+     */
+    private void provision() {
+        RateLimiter rateLimiter = new RateLimiter(REQUESTS_PER_SECOND, 1);
+        AtomicInteger requests = new AtomicInteger();
+
+        while (true) {
+            Change change;
+
+            synchronized (this) {
+                change = plainPool.nextChange();
+
+                if (change == null) {
+                    change = presencePool.nextChange();
+                }
+
+                if (change == null) {
+                    provisioningScheduled = false;
+                    break;
+                }
+            }
+
+            PubNubException error;
+
+            try {
+                error = change.call(rateLimiter, requests);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            ProvisioningListener listener;
+            boolean groupApplied = false;
+
+            synchronized (this) {
+                listener = provisioningListener;
+
+                if (error != null) {
+                    log.warn("unable to update managed channel group " + change.group + ": " + error.toString());
+                    provisioningScheduled = false;
+                    provisioningFailures++;
+
+                    if (provisioner != null) {
+                        // the channels stay named in the subscribe call meanwhile.
+                        scheduleProvisioning();
+                    }
+                } else {
+                    provisioningFailures = 0;
+                    change.pool.applied(change);
+                    // removals drop a group from the subscription as well.
+                    groupApplied = !change.add || change.pool.isApplied(change.index);
+                }
+            }
+
+            if (error != null) {
+                if (listener != null) {
+                    listener.onProvisioningFailed(createFailureStatus(change, error));
+                }
+
+                return;
+            }
+
+            if (groupApplied && listener != null) {
+                listener.onProvisioned();
+            }
+        }
+    }
+
+    private PNStatus createFailureStatus(Change change, PubNubException error) {
+        return PNStatus.builder()
+                .error(true)
+                .errorData(new PNErrorData(error.getMessage(), error))
+                .statusCode(error.getStatusCode())
+                .category(error.getStatusCode() == HttpURLConnection.HTTP_FORBIDDEN
+                        ? PNStatusCategory.PNAccessDeniedCategory : PNStatusCategory.PNUnknownCategory)
+                .operation(change.add ? PNOperationType.PNAddChannelsToGroupOperation
+                        : PNOperationType.PNRemoveChannelsFromGroupOperation)
+                .affectedChannels(change.channels)
+                .affectedChannelGroups(Collections.singletonList(change.group))
+                .build();
+    }
+
+    /**
+     * Progress of the managed groups.
+     */
+    public interface ProvisioningListener {
+
+        /**
+         * A managed group got the membership it is meant to have.
+         */
+        void onProvisioned();
+
+        /**
+         * A membership change failed after its retries and is rescheduled with a backoff, or subscribed channels do
+         * not fit into the groups a subscribe can name.
+         *
+         * @param status error status naming the channels concerned.
+         */
+        void onProvisioningFailed(PNStatus status);
+    }
+
+    /**
+     * A batch of channels to add to, or remove from, a single group.
+     */
+    private final class Change {
+
+        private final Pool pool;
+        private final int index;
+        private final String group;
+        private final List<String> channels;
+        private final boolean add;
+
+        Change(Pool changedPool, int groupIndex, List<String> changedChannels, boolean addition) {
+            this.pool = changedPool;
+            this.index = groupIndex;
+            this.group = changedPool.getGroupName(groupIndex);
+            this.channels = changedChannels;
+            this.add = addition;
+        }
+
+        private PubNubException call(RateLimiter rateLimiter, AtomicInteger requests) throws InterruptedException {
+            return new RetryingTask(rateLimiter, requests, MAX_RETRIES, RETRY_DELAY, MAX_RETRY_DELAY) {
+                @Override
+                protected void execute() throws PubNubException {
+                    if (add) {
+                        pubnub.addChannelsToChannelGroup().channelGroup(group).channels(channels).sync();
+                    } else {
+                        pubnub.removeChannelsFromChannelGroup().channelGroup(group).channels(channels).sync();
+                    }
+                }
+            }.call();
+        }
+    }
+
+    /**
+     * Managed groups of one kind, with the membership wanted and the membership the server acknowledged.
+     */
+    private final class Pool {
+
+        private final String tag;
+        private final Set<String> desired = new HashSet<>();
+        private final List<Set<String>> desiredGroups = new ArrayList<>();
+        private final List<Set<String>> appliedGroups = new ArrayList<>();
+
+        Pool(String poolTag) {
+            this.tag = poolTag;
+        }
+
+        private String getGroupName(int index) {
+            return getGroupPrefix() + tag + index;
+        }
+
+        /**
+         * Channels stay in the group they were put in; new ones fill the first group with room.
+         *
+         * @param maxGroups groups this pool may fill.
+         * @return channels which do not fit.
+         */
+        private List<String> setDesired(Set<String> channels, int groupSize, int maxGroups) {
+            Set<String> placed = new HashSet<>();
+
+            for (int i = 0; i < desiredGroups.size(); i++) {
+                Set<String> group = desiredGroups.get(i);
+
+                if (i < maxGroups) {
+                    group.retainAll(channels);
+                    placed.addAll(group);
+                } else {
+                    group.clear();
+                }
+            }
+
+            List<String> overflow = new ArrayList<>();
+
+            for (String channel : channels) {
+                if (placed.contains(channel)) {
+                    continue;
+                }
+
+                Set<String> target = null;
+
+                for (int i = 0; i < desiredGroups.size() && i < maxGroups; i++) {
+                    if (desiredGroups.get(i).size() < groupSize) {
+                        target = desiredGroups.get(i);
+                        break;
+                    }
+                }
+
+                if (target == null && desiredGroups.size() < maxGroups) {
+                    target = new LinkedHashSet<>();
+                    desiredGroups.add(target);
+                    appliedGroups.add(new HashSet<String>());
+                }
+
+                if (target == null) {
+                    overflow.add(channel);
+                    continue;
+                }
+
+                target.add(channel);
+                placed.add(channel);
+            }
+
+            desired.clear();
+            desired.addAll(placed);
+            return overflow;
+        }
+
+        private boolean isApplied() {
+            return desiredGroups.equals(appliedGroups);
+        }
+
+        private boolean isApplied(int index) {
+            return index < desiredGroups.size() && desiredGroups.get(index).equals(appliedGroups.get(index));
+        }
+
+        private void addPendingChannels(List<String> channels, boolean withPresence) {
+            Set<String> applied = new HashSet<>();
+
+            for (Set<String> group : appliedGroups) {
+                applied.addAll(group);
+            }
+
+            for (String channel : desired) {
+                if (!applied.contains(channel)) {
+                    channels.add(channel);
+
+                    if (withPresence) {
+                        channels.add(channel + PRESENCE_SUFFIX);
+                    }
+                }
+            }
+        }
+
+        private void addEmptiedGroups(Set<String> leaving, List<String> groups, Set<String> covered) {
+            for (int i = 0; i < appliedGroups.size(); i++) {
+                Set<String> group = appliedGroups.get(i);
+
+                if (!group.isEmpty() && leaving.containsAll(group)) {
+                    groups.add(getGroupName(i));
+                    covered.addAll(group);
+                }
+            }
+        }
+
+        private Change nextChange() {
+            for (int i = 0; i < desiredGroups.size(); i++) {
+                List<String> removals = new ArrayList<>();
+
+                for (String channel : appliedGroups.get(i)) {
+                    if (!desiredGroups.get(i).contains(channel)) {
+                        removals.add(channel);
+
+                        if (removals.size() == MAX_CHANNELS_PER_CALL) {
+                            break;
+                        }
+                    }
+                }
+
+                if (!removals.isEmpty()) {
+                    return new Change(this, i, removals, false);
+                }
+
+                List<String> additions = new ArrayList<>();
+
+                for (String channel : desiredGroups.get(i)) {
+                    if (!appliedGroups.get(i).contains(channel)) {
+                        additions.add(channel);
+
+                        if (additions.size() == MAX_CHANNELS_PER_CALL) {
+                            break;
+                        }
+                    }
+                }
+
+                if (!additions.isEmpty()) {
+                    return new Change(this, i, additions, true);
+                }
+            }
+
+            return null;
+        }
+
+        private void applied(Change change) {
+            if (change.index >= appliedGroups.size()) {
+                return;
+            }
+
+            if (change.add) {
+                appliedGroups.get(change.index).addAll(change.channels);
+            } else {
+                appliedGroups.get(change.index).removeAll(change.channels);
+            }
+        }
+
+        private void addAppliedGroups(List<String> groups, boolean withPresence) {
+            for (int i = 0; i < appliedGroups.size(); i++) {
+                if (!appliedGroups.get(i).isEmpty()) {
+                    groups.add(getGroupName(i));
+
+                    if (withPresence) {
+                        groups.add(getGroupName(i) + PRESENCE_SUFFIX);
+                    }
+                }
+            }
+        }
+
+        private void addCreatedGroups(List<String> groups) {
+            for (int i = 0; i < appliedGroups.size(); i++) {
+                groups.add(getGroupName(i));
+            }
+        }
+
+        private void clear() {
+            desired.clear();
+            desiredGroups.clear();
+            appliedGroups.clear();
+        }
+    }
+
+}
@@ -0,0 +1,500 @@
+package com.pubnub.api.managers;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import com.pubnub.api.PubNub;
+import com.pubnub.api.PubNubException;
+import com.pubnub.api.enums.PNOperationType;
+import com.pubnub.api.enums.PNStatusCategory;
+import com.pubnub.api.models.consumer.PNErrorData;
+import com.pubnub.api.models.consumer.PNStatus;
+import com.pubnub.api.models.consumer.history.PNHistoryItemResult;
+import com.pubnub.api.models.consumer.history.PNHistoryResult;
+import com.pubnub.api.models.consumer.pubsub.PNMessageResult;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reassembles messages published in parts by ChunkedPublish before they reach the listeners.
+ *
+ * A part is sent as {"pn_chunk": "<message id>", "pn_seq": 0, "pn_total": 3, "pn_data": "<slice of the json>"};
+ * parts are kept per channel and message id until all of them arrived, in any order, and the message is delivered
+ * with the details of the part which completed it. Buffered part data is bounded by
+ * PNConfiguration#getChunkAssemblyBufferSize, counting the slots of the parts still missing, and the oldest incomplete
+ * message is dropped to make room. A message which is still incomplete after PNConfiguration#getChunkAssemblyTimeout
+ * gets its missing parts looked up in the history of the channel once, and is dropped with a
+ * PNMalformedResponseCategory status if that does not complete it either. History is read on a small pool of its own
+ * so a slow lookup delays neither the timer nor other lookups. What is recovered or dropped off the subscribe worker
+ * is handed to it, so listeners keep being called from that thread only, never while the assembler is held. Messages
+ * which are not parts pass through unchanged.
+ */
+@Slf4j
+public class ChunkAssembler {
+
+    public static final String ID_FIELD = "pn_chunk";
+    public static final String SEQ_FIELD = "pn_seq";
+    public static final String TOTAL_FIELD = "pn_total";
+    public static final String DATA_FIELD = "pn_data";
+
+    /**
+     * upper bound of the part count of a message, anything beyond is not taken for a part.
+     */
+    public static final int MAX_PARTS = 10000;
+
+    private static final long CHECK_INTERVAL = TimeUnit.SECONDS.toMillis(1);
+    /**
+     * timetokens are in units of 100 nanoseconds.
+     */
+    private static final long TIMETOKENS_PER_MILLI = 10000;
+    private static final int RECOVERY_PAGE_SIZE = 100;
+    private static final int MAX_RECOVERY_PAGES = 10;
+    /**
+     * history lookups running at the same time.
+     */
+    private static final int MAX_RECOVERIES = 4;
+    private static final long RECOVERY_KEEP_ALIVE = TimeUnit.SECONDS.toMillis(30);
+    /**
+     * buffer space taken by the slot of a part, received or not.
+     */
+    private static final int SLOT_LENGTH = 8;
+    /**
+     * returned by add when the completed message does not parse.
+     */
+    private static final PNMessageResult NOT_JSON = PNMessageResult.builder().build();
+
+    private PubNub pubnub;
+    private ListenerManager listenerManager;
+    private Executor workerExecutor;
+
+    private final Map<String, Pending> pending = new LinkedHashMap<>();
+    private long bufferedLength;
+    private Timer timer;
+    private ThreadPoolExecutor recoverer;
+
+    /**
+     * @param workerExecutorInstance runs tasks on the thread which delivers received messages.
+     */
+    public ChunkAssembler(PubNub pubnubInstance, ListenerManager listenerManagerInstance,
+                          Executor workerExecutorInstance) {
+        this.pubnub = pubnubInstance;
+        this.listenerManager = listenerManagerInstance;
+        this.workerExecutor = workerExecutorInstance;
+    }
+
+    /**
+     * Deliver a message to the listeners, right away or once all of its parts arrived.
+     *
+     * @param message received message, already decrypted.
+     */
+    public void announce(PNMessageResult message) {
+        Part part = Part.of(message);
+
+        if (part == null) {
+            deliver(message);
+            return;
+        }
+
+        PNMessageResult assembled;
+        Pending entry;
+        List<Pending> evicted = new ArrayList<>();
+
+        synchronized (this) {
+            String key = keyOf(message.getChannel(), part.id);
+            entry = pending.get(key);
+
+            if (entry == null) {
+                entry = new Pending(message.getChannel(), part.id, part.total, currentTimeMillis());
+                pending.put(key, entry);
+                bufferedLength += entry.length;
+            }
+
+            assembled = add(key, entry, part, message);
+
+            while (bufferedLength > pubnub.getConfiguration().getChunkAssemblyBufferSize() && !pending.isEmpty()) {
+                Iterator<Map.Entry<String, Pending>> oldest = pending.entrySet().iterator();
+                Pending dropped = oldest.next().getValue();
+                oldest.remove();
+                bufferedLength -= dropped.length;
+                evicted.add(dropped);
+            }
+
+            if (!pending.isEmpty() && timer == null) {
+                timer = new Timer("Chunk Assembler", true);
+                timer.schedule(new TimerTask() {
+                    @Override
+                    public void run() {
+                        expire();
+                    }
+                }, CHECK_INTERVAL, CHECK_INTERVAL);
+            }
+        }
+
+        for (Pending dropped : evicted) {
+            announceIncomplete(dropped, "assembly buffer is full");
+        }
+
+        if (assembled == NOT_JSON) {
+            announceIncomplete(entry, "assembled message is not valid json");
+        } else if (assembled != null) {
+            deliver(assembled);
+        }
+    }
+
+    /**
+     * Drop all incomplete messages and stop the timer and the history lookups.
+     */
+    public synchronized void stop() {
+        if (timer != null) {
+            timer.cancel();
+            timer = null;
+        }
+
+        if (recoverer != null) {
+            recoverer.shutdownNow();
+            recoverer = null;
+        }
+
+        pending.clear();
+        bufferedLength = 0;
+    }
+
+    public synchronized int pendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * @return milliseconds of a monotonic clock.
+     */
+    protected long currentTimeMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+    }
+
+    /**
+     * Recover messages past their deadline from history, drop those which were already given that chance.
+     */
+    void expire() {
+        long now = currentTimeMillis();
+        long timeout = TimeUnit.SECONDS.toMillis(pubnub.getConfiguration().getChunkAssemblyTimeout());
+        List<String> recover = new ArrayList<>();
+        ThreadPoolExecutor recovery;
+        final List<Pending> dropped = new ArrayList<>();
+
+        synchronized (this) {
+            Iterator<Map.Entry<String, Pending>> iterator = pending.entrySet().iterator();
+
+            while (iterator.hasNext()) {
+                Map.Entry<String, Pending> entry = iterator.next();
+                Pending message = entry.getValue();
+
+                if (now - message.startedAt < timeout) {
+                    continue;
+                }
+
+                if (message.recovering) {
+                    iterator.remove();
+                    bufferedLength -= message.length;
+                    dropped.add(message);
+                } else {
+                    message.recovering = true;
+                    message.startedAt = now;
+                    recover.add(entry.getKey());
+                }
+            }
+
+            if (pending.isEmpty() && timer != null) {
+                timer.cancel();
+                timer = null;
+            }
+
+            if (!recover.isEmpty() && recoverer == null) {
+                recoverer = new ThreadPoolExecutor(MAX_RECOVERIES, MAX_RECOVERIES, RECOVERY_KEEP_ALIVE,
+                        TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable runnable) {
+                        Thread thread = new Thread(runnable, "Chunk Recovery");
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+                recoverer.allowCoreThreadTimeOut(true);
+            }
+
+            recovery = recoverer;
+        }
+
+        if (!dropped.isEmpty()) {
+            workerExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    for (Pending message : dropped) {
+                        announceIncomplete(message, "parts are missing");
+                    }
+                }
+            });
+        }
+
+        try {
+            for (final String key : recover) {
+                recovery.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        recover(key);
+                    }
+                });
+            }
+        } catch (RejectedExecutionException e) {
+            // stopped in the meantime, the messages are gone.
+            log.debug("chunk recovery stopped", e);
+        }
+    }
+
+    /**
+     * Look for the missing parts of a message in the history of its channel, around the parts which did arrive.
+     */
+    private void recover(String key) {
+        String channel;
+        String id;
+        Long start;
+        Long end;
+
+        synchronized (this) {
+            Pending message = pending.get(key);
+
+            if (message == null || message.received == 0) {
+                return;
+            }
+
+            long margin = TimeUnit.SECONDS.toMillis(pubnub.getConfiguration().getChunkAssemblyTimeout())
+                    * TIMETOKENS_PER_MILLI;
+            channel = message.channel;
+            id = message.id;
+            start = message.latestTimetoken + margin;
+            end = Math.max(0, message.earliestTimetoken - margin);
+        }
+
+        try {
+            for (int page = 0; page < MAX_RECOVERY_PAGES; page++) {
+                PNHistoryResult result = pubnub.history().channel(channel).start(start).end(end)
+                        .count(RECOVERY_PAGE_SIZE).includeTimetoken(true).sync();
+                final PNMessageResult[] assembled = new PNMessageResult[1];
+                final Pending message;
+
+                synchronized (this) {
+                    message = pending.get(key);
+
+                    if (message == null) {
+                        return;
+                    }
+
+                    for (PNHistoryItemResult item : result.getMessages()) {
+                        Part part = Part.of(item.getEntry());
+
+                        if (part != null && part.id.equals(id) && assembled[0] == null) {
+                            PNMessageResult recovered = PNMessageResult.builder()
+                                    .message(item.getEntry())
+                                    .channel(channel)
+                                    .timetoken(item.getTimetoken())
+                                    .build();
+                            assembled[0] = add(key, message, part, recovered);
+                        }
+                    }
+                }
+
+                if (assembled[0] != null) {
+                    workerExecutor.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            if (assembled[0] == NOT_JSON) {
+                                announceIncomplete(message, "assembled message is not valid json");
+                            } else {
+                                deliver(assembled[0]);
+                            }
+                        }
+                    });
+                    return;
+                }
+
+                if (result.getMessages().size() < RECOVERY_PAGE_SIZE) {
+                    return;
+                }
+
+                start = result.getStartTimetoken();
+            }
+        } catch (PubNubException e) {
+            log.debug("unable to recover parts of " + id + " from history", e);
+        }
+    }
+
+    /**
+     * Called while holding the assembler, so nothing is announced from here.
+     *
+     * @return the assembled message if the part completed it, NOT_JSON if the completed message does not parse.
+     */
+    private PNMessageResult add(String key, Pending message, Part part, PNMessageResult result) {
+        if (part.total != message.parts.length || message.parts[part.seq] != null) {
+            return null;
+        }
+
+        message.parts[part.seq] = part.data;
+        message.received++;
+        message.dataLength += part.data.length();
+        message.length += part.data.length();
+        bufferedLength += part.data.length();
+
+        if (result.getTimetoken() != null) {
+            message.earliestTimetoken = Math.min(message.earliestTimetoken, result.getTimetoken());
+            message.latestTimetoken = Math.max(message.latestTimetoken, result.getTimetoken());
+        }
+
+        if (message.received < message.parts.length) {
+            return null;
+        }
+
+        pending.remove(key);
+        bufferedLength -= message.length;
+
+        StringBuilder json = new StringBuilder((int) message.dataLength);
+
+        for (String data : message.parts) {
+            json.append(data);
+        }
+
+        JsonElement assembled;
+
+        try {
+            assembled = pubnub.getMapper().fromJson(json.toString(), JsonElement.class);
+        } catch (PubNubException e) {
+            return NOT_JSON;
+        }
+
+        return PNMessageResult.builder()
+                .message(assembled)
+                .channel(result.getChannel())
+                .subscription(result.getSubscription())
+                .timetoken(result.getTimetoken())
+                .publisher(result.getPublisher())
+                .userMetadata(result.getUserMetadata())
+                .build();
+    }
+
+    private void deliver(PNMessageResult message) {
+        listenerManager.announce(message);
+        pubnub.getTypedMessageManager().announce(message);
+    }
+
+    private void announceIncomplete(Pending message, String reason) {
+        String text = "chunked message " + message.id + " on " + message.channel + " dropped, " + reason;
+        PNStatus status = PNStatus.builder().error(true)
+                .errorData(new PNErrorData(text, null))
+                .operation(PNOperationType.PNSubscribeOperation)
+                .category(PNStatusCategory.PNMalformedResponseCategory)
+                .affectedChannels(Collections.singletonList(message.channel))
+                .build();
+
+        listenerManager.announce(status);
+    }
+
+    private static String keyOf(String channel, String id) {
+        return channel + "\n" + id;
+    }
+
+    /**
+     * A message of which some parts arrived.
+     */
+    private static final class Pending {
+
+        private final String channel;
+        private final String id;
+        private final String[] parts;
+        private int received;
+        private long dataLength;
+        /**
+         * buffer space taken, part data and slots.
+         */
+        private long length;
+        private long startedAt;
+        private boolean recovering;
+        private long earliestTimetoken = Long.MAX_VALUE;
+        private long latestTimetoken = Long.MIN_VALUE;
+
+        private Pending(String messageChannel, String messageId, int total, long now) {
+            this.channel = messageChannel;
+            this.id = messageId;
+            this.parts = new String[total];
+            this.length = (long) total * SLOT_LENGTH;
+            this.startedAt = now;
+        }
+    }
+
+    /**
+     * Fields of a part, read from a received message.
+     */
+    private static final class Part {
+
+        private final String id;
+        private final int seq;
+        private final int total;
+        private final String data;
+
+        private Part(String partId, int partSeq, int partTotal, String partData) {
+            this.id = partId;
+            this.seq = partSeq;
+            this.total = partTotal;
+            this.data = partData;
+        }
+
+        private static Part of(PNMessageResult message) {
+            return message.getChannel() != null ? of(message.getMessage()) : null;
+        }
+
+        /**
+         * @return the part, or null if the message is not a well formed part.
+         */
+        private static Part of(JsonElement message) {
+            if (message == null || !message.isJsonObject()) {
+                return null;
+            }
+
+            JsonObject object = message.getAsJsonObject();
+            JsonPrimitive id = primitive(object, ID_FIELD);
+            JsonPrimitive seq = primitive(object, SEQ_FIELD);
+            JsonPrimitive total = primitive(object, TOTAL_FIELD);
+            JsonPrimitive data = primitive(object, DATA_FIELD);
+
+            if (id == null || !id.isString() || seq == null || !seq.isNumber() || total == null || !total.isNumber()
+                    || data == null || !data.isString()) {
+                return null;
+            }
+
+            int partSeq = seq.getAsInt();
+            int partTotal = total.getAsInt();
+
+            if (partTotal <= 0 || partTotal > MAX_PARTS || partSeq < 0 || partSeq >= partTotal) {
+                return null;
+            }
+
+            return new Part(id.getAsString(), partSeq, partTotal, data.getAsString());
+        }
+
+        private static JsonPrimitive primitive(JsonObject object, String field) {
+            JsonElement element = object.get(field);
+            return element != null && element.isJsonPrimitive() ? element.getAsJsonPrimitive() : null;
+        }
+    }
+
+}
@@ -0,0 +1,179 @@
+package com.pubnub.api.managers;
+
+import com.pubnub.api.PubNub;
+import com.pubnub.api.callbacks.PNCallback;
+import com.pubnub.api.models.consumer.PNStatus;
+import com.pubnub.api.models.consumer.PNTimeResult;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps track of the offset between the local wall clock and the PubNub servers so that request signatures
+ * and timetoken arithmetic do not depend on the local clock being accurate.
+ *
+ * The offset is estimated from Time calls; every sample is corrected by half of its round trip time and the
+ * sample with the shortest round trip out of the recent ones wins, since it carries the least uncertainty. Samples
+ * also tell when the origin was last heard from, which the reconnection probes rely on before calling Time again.
+ */
+@Slf4j
+public class ClockSyncManager {
+
+    /**
+     * number of timetoken units (100ns) in one millisecond.
+     */
+    private static final long TIMETOKEN_UNITS_PER_MILLISECOND = 10000L;
+    private static final int MILLISECONDS = 1000;
+    /**
+     * number of recent samples considered when picking the offset.
+     */
+    private static final int SAMPLE_WINDOW = 8;
+
+    private PubNub pubnub;
+
+    private long[] sampleOffsets;
+    private long[] sampleRoundTrips;
+    private int sampleCount;
+    private int nextSample;
+
+    /**
+     * in milliseconds, server clock minus local clock.
+     */
+    private volatile long offset;
+    private volatile boolean synchronizedClock;
+    /**
+     * System.nanoTime() of the last sample.
+     */
+    private volatile long lastSampleNanos;
+
+    /**
+     * Timer for clock sampling.
+     */
+    private Timer timer;
+
+    public ClockSyncManager(PubNub pubnubInstance) {
+        this.pubnub = pubnubInstance;
+        this.sampleOffsets = new long[SAMPLE_WINDOW];
+        this.sampleRoundTrips = new long[SAMPLE_WINDOW];
+    }
+
+    /**
+     * start sampling the server clock if a sampling interval is configured.
+     */
+    public synchronized void start() {
+        stop();
+
+        int interval = pubnub.getConfiguration().getClockSyncInterval();
+
+        if (interval <= 0) {
+            return;
+        }
+
+        timer = new Timer("Clock Sync Timer", true);
+        timer.schedule(new TimerTask() {
+            @Override
+            public void run() {
+                sample(null);
+            }
+        }, 0, interval * MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (timer != null) {
+            timer.cancel();
+            timer = null;
+        }
+    }
+
+    /**
+     * @return true once at least one server sample has been taken.
+     */
+    public boolean isSynchronized() {
+        return synchronizedClock;
+    }
+
+    /**
+     * @param nanos System.nanoTime() to compare with.
+     * @return true if the server answered a Time call at or after the given time.
+     */
+    public boolean hasSampleSince(long nanos) {
+        return synchronizedClock && lastSampleNanos - nanos >= 0;
+    }
+
+    /**
+     * @return in milliseconds, estimated server clock minus local clock.
+     */
+    public long getOffset() {
+        return offset;
+    }
+
+    /**
+     * @return server corrected unix time in milliseconds; the local clock until the first sample arrives.
+     */
+    public long currentTimeMillis() {
+        return System.currentTimeMillis() + offset;
+    }
+
+    /**
+     * @return estimated current server time as a timetoken.
+     */
+    public long serverNow() {
+        return currentTimeMillis() * TIMETOKEN_UNITS_PER_MILLISECOND;
+    }
+
+    /**
+     * Record a server timetoken which was obtained by a request issued by somebody else.
+     *
+     * @param timetoken         timetoken reported by the server.
+     * @param roundTripNanos    in nanoseconds, how long the request took.
+     * @param receivedAtMillis  local wall clock when the response arrived.
+     */
+    public synchronized void addSample(long timetoken, long roundTripNanos, long receivedAtMillis) {
+        long roundTripMillis = TimeUnit.NANOSECONDS.toMillis(roundTripNanos);
+        long serverMillis = timetoken / TIMETOKEN_UNITS_PER_MILLISECOND;
+        // the server stamped the response roughly half way through the round trip.
+        long localMillis = receivedAtMillis - roundTripMillis / 2;
+
+        sampleOffsets[nextSample] = serverMillis - localMillis;
+        sampleRoundTrips[nextSample] = roundTripMillis;
+        nextSample = (nextSample + 1) % SAMPLE_WINDOW;
+        sampleCount = Math.min(sampleCount + 1, SAMPLE_WINDOW);
+
+        int best = 0;
+        for (int i = 1; i < sampleCount; i++) {
+            if (sampleRoundTrips[i] < sampleRoundTrips[best]) {
+                best = i;
+            }
+        }
+
+        offset = sampleOffsets[best];
+        lastSampleNanos = System.nanoTime();
+        synchronizedClock = true;
+        log.debug("clock offset " + offset + "ms with round trip " + sampleRoundTrips[best] + "ms");
+    }
+
+    /**
+     * Sample the server clock once.
+     *
+     * @param callback notified with the outcome of the Time call once it is recorded, may be null.
+     */
+    public void sample(final PNCallback<PNTimeResult> callback) {
+        final long startedAt = System.nanoTime();
+
+        pubnub.time().async(new PNCallback<PNTimeResult>() {
+            @Override
+            public void onResponse(PNTimeResult result, PNStatus status) {
+                if (!status.isError() && result != null && result.getTimetoken() != null) {
+                    addSample(result.getTimetoken(), System.nanoTime() - startedAt, System.currentTimeMillis());
+                }
+
+                if (callback != null) {
+                    callback.onResponse(result, status);
+                }
+            }
+        });
+    }
+
+}
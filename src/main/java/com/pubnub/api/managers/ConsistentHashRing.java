@@ -0,0 +1,53 @@
+package com.pubnub.api.managers;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Assigns keys to a fixed number of nodes so that changing the key set moves no other key, and the assignment is the
+ * same on every run.
+ */
+public class ConsistentHashRing {
+
+    private static final int VIRTUAL_NODES = 64;
+    private static final int MIX_MULTIPLIER_1 = 0x85ebca6b;
+    private static final int MIX_MULTIPLIER_2 = 0xc2b2ae35;
+    private static final int MIX_SHIFT_1 = 16;
+    private static final int MIX_SHIFT_2 = 13;
+
+    private final TreeMap<Integer, Integer> ring = new TreeMap<>();
+
+    /**
+     * @param nodes number of nodes, at least one.
+     */
+    public ConsistentHashRing(int nodes) {
+        for (int node = 0; node < Math.max(1, nodes); node++) {
+            for (int replica = 0; replica < VIRTUAL_NODES; replica++) {
+                ring.put(hash("node-" + node + "-" + replica), node);
+            }
+        }
+    }
+
+    /**
+     * @param key key to place.
+     * @return node owning the key.
+     */
+    public int nodeFor(String key) {
+        Map.Entry<Integer, Integer> entry = ring.ceilingEntry(hash(key));
+        return entry != null ? entry.getValue() : ring.firstEntry().getValue();
+    }
+
+    /**
+     * String#hashCode is stable across runs; the finalizer of murmur3 spreads it over the ring.
+     */
+    private static int hash(String key) {
+        int hash = key.hashCode();
+        hash ^= hash >>> MIX_SHIFT_1;
+        hash *= MIX_MULTIPLIER_1;
+        hash ^= hash >>> MIX_SHIFT_2;
+        hash *= MIX_MULTIPLIER_2;
+        hash ^= hash >>> MIX_SHIFT_1;
+        return hash;
+    }
+
+}
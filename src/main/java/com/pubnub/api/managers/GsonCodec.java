@@ -0,0 +1,52 @@
+package com.pubnub.api.managers;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import com.pubnub.api.PubNubException;
+import com.pubnub.api.builder.PubNubErrorBuilder;
+import retrofit2.Converter;
+import retrofit2.converter.gson.GsonConverterFactory;
+
+/**
+ * Default codec, backed by Gson.
+ */
+public class GsonCodec implements JsonCodec {
+
+    private final Gson gson;
+    private final Converter.Factory converterFactory;
+
+    public GsonCodec(Gson gsonInstance) {
+        this.gson = gsonInstance;
+        this.converterFactory = GsonConverterFactory.create(gsonInstance);
+    }
+
+    @Override
+    public <T> T fromJson(String input, Class<T> clazz) throws PubNubException {
+        try {
+            return gson.fromJson(input, clazz);
+        } catch (JsonParseException e) {
+            throw PubNubException.builder().pubnubError(PubNubErrorBuilder.PNERROBJ_PARSING_ERROR).errormsg(e.getMessage()).build();
+        }
+    }
+
+    @Override
+    public <T> T fromJsonTree(JsonElement input, Class<T> clazz) {
+        return gson.fromJson(input, clazz);
+    }
+
+    @Override
+    public String toJson(Object input) throws PubNubException {
+        try {
+            return gson.toJson(input);
+        } catch (JsonParseException e) {
+            throw PubNubException.builder().pubnubError(PubNubErrorBuilder.PNERROBJ_JSON_ERROR).errormsg(e.getMessage()).build();
+        }
+    }
+
+    @Override
+    public Converter.Factory getConverterFactory() {
+        return converterFactory;
+    }
+
+}
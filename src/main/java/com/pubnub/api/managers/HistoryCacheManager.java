@@ -0,0 +1,361 @@
+package com.pubnub.api.managers;
+
+import com.google.gson.JsonElement;
+import com.pubnub.api.PNConfiguration;
+import com.pubnub.api.models.consumer.history.PNHistoryItemResult;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Opt-in client side cache of channel history.
+ *
+ * Messages are kept per channel in timetoken order in primitive arrays, next to the list of timetoken ranges the
+ * cache is known to hold every message of. Overlapping and adjacent ranges are merged as pages come in, so a range
+ * fetched in several overlapping calls is stored once. While a channel is subscribed, live messages are appended to
+ * its newest range and every subscribe response extends that range, which keeps the tail of the history current
+ * without network calls.
+ */
+public class HistoryCacheManager {
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.75f;
+    /**
+     * maximum number of channels with a cached history.
+     */
+    private static final int MAX_CHANNELS = 1000;
+
+    private PNConfiguration config;
+
+    private LinkedHashMap<String, ChannelHistory> channels;
+
+    public HistoryCacheManager(PNConfiguration initialConfig) {
+        this.config = initialConfig;
+        this.channels = new LinkedHashMap<String, ChannelHistory>(INITIAL_CAPACITY, LOAD_FACTOR, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ChannelHistory> eldest) {
+                return size() > MAX_CHANNELS;
+            }
+        };
+    }
+
+    public boolean isEnabled() {
+        return config.getHistoryCacheSize() > 0;
+    }
+
+    /**
+     * @param channel   channel name.
+     * @param timetoken timetoken to look up.
+     * @return the cached range holding the timetoken as {lowest, highest}, null if the timetoken is not covered.
+     */
+    public synchronized long[] getCoveredRange(String channel, long timetoken) {
+        ChannelHistory history = channels.get(channel);
+        return history != null ? history.getRange(timetoken) : null;
+    }
+
+    /**
+     * @param channel   channel name.
+     * @param timetoken upper bound, exclusive.
+     * @return highest covered timetoken below the bound, Long.MIN_VALUE if there is none.
+     */
+    public synchronized long getHighestCoveredBelow(String channel, long timetoken) {
+        ChannelHistory history = channels.get(channel);
+        return history != null ? history.getHighestCoveredBelow(timetoken) : Long.MIN_VALUE;
+    }
+
+    /**
+     * @param channel channel name.
+     * @return newest covered timetoken if the channel is subscribed and its cached tail is kept current, else null.
+     */
+    public synchronized Long getLiveTail(String channel) {
+        ChannelHistory history = channels.get(channel);
+
+        if (history == null || !history.live || history.rangeCount == 0) {
+            return null;
+        }
+
+        return history.rangeHighs[history.rangeCount - 1];
+    }
+
+    /**
+     * Copy cached messages out, newest first. The items are new, their message payloads are shared with the cache
+     * and must not be modified.
+     *
+     * @param channel   channel name.
+     * @param newest    highest timetoken to return, inclusive.
+     * @param oldest    lowest timetoken to return, inclusive.
+     * @param max       maximum number of messages.
+     * @param output    list the messages are added to.
+     */
+    public synchronized void read(String channel, long newest, long oldest, int max, List<PNHistoryItemResult> output) {
+        ChannelHistory history = channels.get(channel);
+
+        if (history != null) {
+            history.read(newest, oldest, max, output);
+        }
+    }
+
+    /**
+     * Store messages returned by the server together with the range they are known to cover completely.
+     *
+     * @param channel  channel name.
+     * @param messages messages with timetokens.
+     * @param lowest   lowest covered timetoken, inclusive.
+     * @param highest  highest covered timetoken, inclusive.
+     */
+    public synchronized void store(String channel, Collection<PNHistoryItemResult> messages, long lowest, long highest) {
+        if (!isEnabled()) {
+            return;
+        }
+
+        ChannelHistory history = channels.get(channel);
+
+        if (history == null) {
+            history = new ChannelHistory();
+            channels.put(channel, history);
+        }
+
+        for (PNHistoryItemResult message : messages) {
+            if (message.getTimetoken() != null) {
+                history.insert(message.getTimetoken(), message.getEntry());
+            }
+        }
+
+        if (lowest <= highest) {
+            history.cover(lowest, highest);
+        }
+
+        history.trim(config.getHistoryCacheSize());
+    }
+
+    /**
+     * Append a message received through subscribe; only channels which already have a cached history are kept.
+     *
+     * @param channel   channel name.
+     * @param timetoken publish timetoken of the message.
+     * @param message   decrypted message.
+     */
+    public synchronized void append(String channel, long timetoken, JsonElement message) {
+        ChannelHistory history = channels.get(channel);
+
+        if (history == null) {
+            return;
+        }
+
+        history.insert(timetoken, message);
+
+        if (history.pendingMessage != null && timetoken >= history.pendingMessage && history.rangeCount > 0) {
+            history.cover(history.rangeHighs[history.rangeCount - 1], history.pendingTail);
+            history.pendingMessage = null;
+        }
+
+        history.trim(config.getHistoryCacheSize());
+    }
+
+    /**
+     * A subscribe response delivered every message published on the channels between two timetokens; the newest
+     * cached range of a channel is extended if it reaches the previous timetoken. Messages of the response are
+     * appended by the subscribe worker afterwards, so the extension waits until the last of them arrived.
+     *
+     * @param subscribedChannels   channels of the subscribe call.
+     * @param previousTimetoken    timetoken the call was made with.
+     * @param nextTimetoken        timetoken returned by the call.
+     * @param lastMessageTimetokens per channel, timetoken of the newest message in the response.
+     */
+    public synchronized void onSubscribeResponse(List<String> subscribedChannels, long previousTimetoken,
+                                                 long nextTimetoken, Map<String, Long> lastMessageTimetokens) {
+        for (String channel : subscribedChannels) {
+            ChannelHistory history = channels.get(channel);
+
+            if (history == null || history.rangeCount == 0) {
+                continue;
+            }
+
+            long tail = history.rangeHighs[history.rangeCount - 1];
+
+            if (previousTimetoken == 0 || tail < previousTimetoken || history.pendingMessage != null) {
+                // a gap the cache did not see, the tail is only known up to what is stored.
+                history.live = false;
+                history.pendingMessage = null;
+                continue;
+            }
+
+            history.live = true;
+            Long lastMessage = lastMessageTimetokens.get(channel);
+
+            if (lastMessage == null) {
+                history.cover(tail, nextTimetoken);
+            } else {
+                history.pendingMessage = lastMessage;
+                history.pendingTail = nextTimetoken;
+            }
+        }
+    }
+
+    /**
+     * The subscription loop stopped, cached tails are not kept current anymore.
+     */
+    public synchronized void onSubscriptionStopped() {
+        for (ChannelHistory history : channels.values()) {
+            history.live = false;
+            history.pendingMessage = null;
+        }
+    }
+
+    public synchronized void clear() {
+        channels.clear();
+    }
+
+    /**
+     * @param channel channel name.
+     * @return number of messages cached for the channel.
+     */
+    public synchronized int size(String channel) {
+        ChannelHistory history = channels.get(channel);
+        return history != null ? history.size : 0;
+    }
+
+    /**
+     * Messages and covered ranges of a single channel.
+     */
+    private static class ChannelHistory {
+
+        private long[] timetokens = new long[INITIAL_CAPACITY];
+        private JsonElement[] messages = new JsonElement[INITIAL_CAPACITY];
+        private int size;
+
+        /**
+         * sorted, disjoint and non adjacent ranges of complete knowledge.
+         */
+        private long[] rangeLows = new long[INITIAL_CAPACITY];
+        private long[] rangeHighs = new long[INITIAL_CAPACITY];
+        private int rangeCount;
+
+        private boolean live;
+        private Long pendingMessage;
+        private long pendingTail;
+
+        private void insert(long timetoken, JsonElement message) {
+            int index = Arrays.binarySearch(timetokens, 0, size, timetoken);
+
+            if (index >= 0) {
+                messages[index] = message;
+                return;
+            }
+
+            index = -index - 1;
+
+            if (size == timetokens.length) {
+                timetokens = Arrays.copyOf(timetokens, size * 2);
+                messages = Arrays.copyOf(messages, size * 2);
+            }
+
+            System.arraycopy(timetokens, index, timetokens, index + 1, size - index);
+            System.arraycopy(messages, index, messages, index + 1, size - index);
+            timetokens[index] = timetoken;
+            messages[index] = message;
+            size++;
+        }
+
+        private void cover(long lowest, long highest) {
+            // first range which ends at or after the new one starts, adjacent ranges included.
+            int first = 0;
+            while (first < rangeCount && rangeHighs[first] < lowest - 1) {
+                first++;
+            }
+
+            int last = first;
+            long mergedLow = lowest;
+            long mergedHigh = highest;
+
+            while (last < rangeCount && rangeLows[last] <= highest + 1) {
+                mergedLow = Math.min(mergedLow, rangeLows[last]);
+                mergedHigh = Math.max(mergedHigh, rangeHighs[last]);
+                last++;
+            }
+
+            int removed = last - first;
+
+            if (removed == 0) {
+                if (rangeCount == rangeLows.length) {
+                    rangeLows = Arrays.copyOf(rangeLows, rangeCount * 2);
+                    rangeHighs = Arrays.copyOf(rangeHighs, rangeCount * 2);
+                }
+
+                System.arraycopy(rangeLows, first, rangeLows, first + 1, rangeCount - first);
+                System.arraycopy(rangeHighs, first, rangeHighs, first + 1, rangeCount - first);
+                rangeCount++;
+            } else if (removed > 1) {
+                System.arraycopy(rangeLows, last, rangeLows, first + 1, rangeCount - last);
+                System.arraycopy(rangeHighs, last, rangeHighs, first + 1, rangeCount - last);
+                rangeCount -= removed - 1;
+            }
+
+            rangeLows[first] = mergedLow;
+            rangeHighs[first] = mergedHigh;
+        }
+
+        private long[] getRange(long timetoken) {
+            for (int i = 0; i < rangeCount; i++) {
+                if (rangeLows[i] <= timetoken && timetoken <= rangeHighs[i]) {
+                    return new long[]{rangeLows[i], rangeHighs[i]};
+                }
+            }
+
+            return null;
+        }
+
+        private long getHighestCoveredBelow(long timetoken) {
+            for (int i = rangeCount - 1; i >= 0; i--) {
+                if (rangeHighs[i] < timetoken) {
+                    return rangeHighs[i];
+                }
+            }
+
+            return Long.MIN_VALUE;
+        }
+
+        private void read(long newest, long oldest, int max, List<PNHistoryItemResult> output) {
+            int index = Arrays.binarySearch(timetokens, 0, size, newest);
+            index = index >= 0 ? index : -index - 2;
+
+            for (int taken = 0; index >= 0 && timetokens[index] >= oldest && taken < max; index--, taken++) {
+                output.add(PNHistoryItemResult.builder().timetoken(timetokens[index]).entry(messages[index]).build());
+            }
+        }
+
+        /**
+         * Drop the oldest messages above the limit; ranges are cut so they never claim evicted messages.
+         */
+        private void trim(int limit) {
+            if (size <= limit) {
+                return;
+            }
+
+            int evicted = size - limit;
+            long lowestKept = timetokens[evicted];
+
+            System.arraycopy(timetokens, evicted, timetokens, 0, limit);
+            System.arraycopy(messages, evicted, messages, 0, limit);
+            Arrays.fill(messages, limit, size, null);
+            size = limit;
+
+            int firstKept = 0;
+            while (firstKept < rangeCount && rangeHighs[firstKept] < lowestKept) {
+                firstKept++;
+            }
+
+            System.arraycopy(rangeLows, firstKept, rangeLows, 0, rangeCount - firstKept);
+            System.arraycopy(rangeHighs, firstKept, rangeHighs, 0, rangeCount - firstKept);
+            rangeCount -= firstKept;
+
+            if (rangeCount > 0 && rangeLows[0] < lowestKept) {
+                rangeLows[0] = lowestKept;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,45 @@
+package com.pubnub.api.managers;
+
+import com.google.gson.JsonElement;
+import com.pubnub.api.PubNubException;
+import retrofit2.Converter;
+
+/**
+ * Serialization the SDK hands its JSON work to, see PNConfiguration#setJsonCodec.
+ *
+ * The codec decodes every response envelope, through its converter factory, and encodes and decodes payloads. Parts
+ * of the public api, like PNMessageResult#getMessage, expose Gson trees; a codec built on another library has to
+ * produce them for fields typed as JsonElement, and is handed such trees back by {@link #fromJsonTree}.
+ */
+public interface JsonCodec {
+
+    /**
+     * @param input json text.
+     * @param clazz type to decode into, JsonElement for a tree.
+     * @param <T>   type to decode into.
+     * @return decoded value.
+     * @throws PubNubException if the input could not be decoded.
+     */
+    <T> T fromJson(String input, Class<T> clazz) throws PubNubException;
+
+    /**
+     * @param input json tree.
+     * @param clazz type to decode into.
+     * @param <T>   type to decode into.
+     * @return decoded value.
+     */
+    <T> T fromJsonTree(JsonElement input, Class<T> clazz);
+
+    /**
+     * @param input value to encode.
+     * @return json text.
+     * @throws PubNubException if the input could not be encoded.
+     */
+    String toJson(Object input) throws PubNubException;
+
+    /**
+     * @return factory retrofit decodes response envelopes with.
+     */
+    Converter.Factory getConverterFactory();
+
+}
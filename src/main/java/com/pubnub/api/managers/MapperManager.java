@@ -5,16 +5,15 @@ import com.google.gson.GsonBuilder;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
-import com.google.gson.JsonParseException;
 import com.google.gson.TypeAdapter;
 import com.google.gson.stream.JsonReader;
 import com.google.gson.stream.JsonToken;
 import com.google.gson.stream.JsonWriter;
 import com.pubnub.api.PubNubException;
-import com.pubnub.api.builder.PubNubErrorBuilder;
+import com.pubnub.api.models.server.ServerModelAdapterFactory;
+import com.pubnub.api.models.server.access_manager.AccessManagerAdapterFactory;
 import lombok.Getter;
 import retrofit2.Converter;
-import retrofit2.converter.gson.GsonConverterFactory;
 
 import java.io.IOException;
 import java.util.Iterator;
@@ -22,12 +21,22 @@ import java.util.Map;
 
 public class MapperManager {
 
+    /**
+     * Gson instance of the tree helpers, which the default codec decodes with as well.
+     */
     @Getter
     private Gson objectMapper;
     @Getter
-    private Converter.Factory converterFactory;
+    private JsonCodec codec;
 
     public MapperManager() {
+        this(null);
+    }
+
+    /**
+     * @param jsonCodec codec to serialize with, null for the Gson default.
+     */
+    public MapperManager(JsonCodec jsonCodec) {
 
         TypeAdapter<Boolean> booleanAsIntAdapter = new TypeAdapter<Boolean>() {
             @Override public void write(JsonWriter out, Boolean value) throws IOException {
@@ -58,8 +67,14 @@ public class MapperManager {
         this.objectMapper = new GsonBuilder()
                 .registerTypeAdapter(Boolean.class, booleanAsIntAdapter)
                 .registerTypeAdapter(boolean.class, booleanAsIntAdapter)
+                .registerTypeAdapterFactory(new ServerModelAdapterFactory())
+                .registerTypeAdapterFactory(new AccessManagerAdapterFactory())
                 .create();
-        this.converterFactory = GsonConverterFactory.create(this.getObjectMapper());
+        this.codec = jsonCodec != null ? jsonCodec : new GsonCodec(this.objectMapper);
+    }
+
+    public Converter.Factory getConverterFactory() {
+        return codec.getConverterFactory();
     }
 
     public boolean hasField(JsonElement element, String field) {
@@ -130,26 +145,17 @@ public class MapperManager {
         return element.getAsJsonArray();
     }
 
-    @SuppressWarnings("unchecked")
     public <T> T fromJson(String input, Class<T> clazz) throws PubNubException {
-        try {
-            return this.objectMapper.fromJson(input, clazz);
-        } catch (JsonParseException e) {
-            throw PubNubException.builder().pubnubError(PubNubErrorBuilder.PNERROBJ_PARSING_ERROR).errormsg(e.getMessage()).build();
-        }
+        return codec.fromJson(input, clazz);
     }
 
     @SuppressWarnings("unchecked")
     public <T> T convertValue(JsonElement input, Class clazz) {
-        return (T) this.objectMapper.fromJson(input, clazz);
+        return (T) codec.fromJsonTree(input, clazz);
     }
 
     public String toJson(Object input) throws PubNubException {
-        try {
-            return this.objectMapper.toJson(input);
-        } catch (JsonParseException e) {
-            throw PubNubException.builder().pubnubError(PubNubErrorBuilder.PNERROBJ_JSON_ERROR).errormsg(e.getMessage()).build();
-        }
+        return codec.toJson(input);
     }
 
 }
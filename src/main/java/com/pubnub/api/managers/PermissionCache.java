@@ -0,0 +1,391 @@
+package com.pubnub.api.managers;
+
+import com.pubnub.api.PubNub;
+import com.pubnub.api.models.consumer.access_manager.PNAccessManagerAuditResult;
+import com.pubnub.api.models.consumer.access_manager.PNAccessManagerGrantResult;
+import com.pubnub.api.models.consumer.access_manager.PNAccessManagerKeyData;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opt-in local copy of access manager permissions, to answer permission checks without an audit call.
+ *
+ * Entries are filled from grant and audit results, grants sent through this instance write through, and every entry
+ * lives as long as the ttl it was granted with. Lookups are hash map reads which also check the expiry of the entry;
+ * expired entries are dropped by a timing wheel with one slot per second, which is advanced by the calls made on the
+ * cache, so no thread is needed. Grants without auth keys apply to every key on the target and are kept as entries of
+ * their own. Audits answer for the keys they were asked about, so what an audit did not allow is a certain denial,
+ * also for keys the audit returned nothing for.
+ */
+public class PermissionCache {
+
+    private static final int WHEEL_SLOTS = 512;
+    private static final long TICK_MILLIS = TimeUnit.SECONDS.toMillis(1);
+    private static final long NO_EXPIRY = Long.MAX_VALUE;
+    private static final int HASH_MULTIPLIER = 31;
+
+    private PubNub pubnub;
+
+    private final Map<Key, Entry> entries = new HashMap<>();
+
+    private final List<List<Key>> wheel = new ArrayList<>(WHEEL_SLOTS);
+    private long currentTick;
+
+    public PermissionCache(PubNub pubnubInstance) {
+        this.pubnub = pubnubInstance;
+
+        for (int i = 0; i < WHEEL_SLOTS; i++) {
+            wheel.add(new ArrayList<Key>());
+        }
+
+        this.currentTick = currentTimeMillis() / TICK_MILLIS;
+    }
+
+    public boolean isEnabled() {
+        return pubnub.getConfiguration().isPermissionCache();
+    }
+
+    /**
+     * Cache the permissions of a grant result.
+     *
+     * @param result result of a grant.
+     */
+    public void store(PNAccessManagerGrantResult result) {
+        if (!isEnabled()) {
+            return;
+        }
+
+        synchronized (this) {
+            long expiresAt = expiryOf(TimeUnit.MINUTES.toMillis(result.getTtl()));
+            storeTargets(Target.CHANNEL, result.getChannels(), expiresAt);
+            storeTargets(Target.CHANNEL_GROUP, result.getChannelGroups(), expiresAt);
+        }
+    }
+
+    /**
+     * Cache the permissions of an audit result, and a denial of everything for audited keys which are not in it; the
+     * ttl of every key is taken from the result, keys without one are kept for
+     * PNConfiguration#getPermissionCacheAuditTtl.
+     *
+     * @param result          result of an audit on a channel or a channel group.
+     * @param auditedAuthKeys auth keys the audit was asked about.
+     */
+    public void store(PNAccessManagerAuditResult result, Collection<String> auditedAuthKeys) {
+        if (!isEnabled() || result.getAuthKeys() == null) {
+            return;
+        }
+
+        Target target = result.getChannelGroup() != null ? Target.CHANNEL_GROUP : Target.CHANNEL;
+        String name = result.getChannelGroup() != null ? result.getChannelGroup() : result.getChannel();
+
+        if (name == null) {
+            return;
+        }
+
+        synchronized (this) {
+            long auditExpiresAt = expiryOf(TimeUnit.SECONDS.toMillis(pubnub.getConfiguration().getPermissionCacheAuditTtl()));
+
+            for (Map.Entry<String, PNAccessManagerKeyData> authKey : result.getAuthKeys().entrySet()) {
+                Integer ttl = authKey.getValue().getTtl();
+                long expiresAt = ttl != null ? expiryOf(TimeUnit.MINUTES.toMillis(ttl)) : auditExpiresAt;
+                put(new Key(target, name, authKey.getKey()), authKey.getValue(), expiresAt, true);
+            }
+
+            for (String authKey : auditedAuthKeys) {
+                if (!result.getAuthKeys().containsKey(authKey)) {
+                    put(new Key(target, name, authKey), new PNAccessManagerKeyData(), auditExpiresAt, true);
+                }
+            }
+        }
+    }
+
+    /**
+     * Cache a grant sent by this instance, from its parameters.
+     *
+     * @param channels      granted channels.
+     * @param channelGroups granted channel groups.
+     * @param authKeys      granted auth keys, empty if the grant applies to every key.
+     * @param permissions   granted permissions.
+     * @param ttl           in minutes, as returned by the server, 0 if the grant does not expire.
+     */
+    public void store(Collection<String> channels, Collection<String> channelGroups, Collection<String> authKeys,
+                      PNAccessManagerKeyData permissions, int ttl) {
+        if (!isEnabled()) {
+            return;
+        }
+
+        Collection<String> keys = authKeys.isEmpty() ? Collections.<String>singletonList(null) : authKeys;
+
+        synchronized (this) {
+            long expiresAt = expiryOf(TimeUnit.MINUTES.toMillis(ttl));
+
+            for (String authKey : keys) {
+                for (String channel : channels) {
+                    put(new Key(Target.CHANNEL, channel, authKey), permissions, expiresAt, false);
+                }
+
+                for (String channelGroup : channelGroups) {
+                    put(new Key(Target.CHANNEL_GROUP, channelGroup, authKey), permissions, expiresAt, false);
+                }
+            }
+        }
+    }
+
+    /**
+     * @param channel channel name.
+     * @param authKey auth key.
+     * @return whether the key may read from the channel, null if the cache does not know.
+     */
+    public Boolean canRead(String channel, String authKey) {
+        return lookup(Target.CHANNEL, channel, authKey, Permission.READ);
+    }
+
+    /**
+     * @param channel channel name.
+     * @param authKey auth key.
+     * @return whether the key may write to the channel, null if the cache does not know.
+     */
+    public Boolean canWrite(String channel, String authKey) {
+        return lookup(Target.CHANNEL, channel, authKey, Permission.WRITE);
+    }
+
+    /**
+     * @param channel channel name.
+     * @param authKey auth key.
+     * @return whether the key may manage the channel, null if the cache does not know.
+     */
+    public Boolean canManage(String channel, String authKey) {
+        return lookup(Target.CHANNEL, channel, authKey, Permission.MANAGE);
+    }
+
+    /**
+     * @param channelGroup channel group name.
+     * @param authKey      auth key.
+     * @return whether the key may subscribe to the channel group, null if the cache does not know.
+     */
+    public Boolean canReadChannelGroup(String channelGroup, String authKey) {
+        return lookup(Target.CHANNEL_GROUP, channelGroup, authKey, Permission.READ);
+    }
+
+    /**
+     * @param channelGroup channel group name.
+     * @param authKey      auth key.
+     * @return whether the key may add channels to and remove channels from the group, null if the cache does not know.
+     */
+    public Boolean canManageChannelGroup(String channelGroup, String authKey) {
+        return lookup(Target.CHANNEL_GROUP, channelGroup, authKey, Permission.MANAGE);
+    }
+
+    public synchronized int size() {
+        advance();
+        return entries.size();
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+
+        for (List<Key> slot : wheel) {
+            slot.clear();
+        }
+    }
+
+    /**
+     * @return milliseconds of a monotonic clock.
+     */
+    protected long currentTimeMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+    }
+
+    /**
+     * Permissions of a key and of the target itself add up; a denial is only certain if both are known, or if the key
+     * was audited.
+     */
+    private synchronized Boolean lookup(Target target, String name, String authKey, Permission permission) {
+        if (!isEnabled()) {
+            return null;
+        }
+
+        advance();
+        long now = currentTimeMillis();
+
+        Entry keyEntry = authKey != null ? live(new Key(target, name, authKey), now) : null;
+        Entry targetEntry = live(new Key(target, name, null), now);
+
+        if ((keyEntry != null && keyEntry.allows(permission)) || (targetEntry != null && targetEntry.allows(permission))) {
+            return true;
+        }
+
+        if ((keyEntry != null || authKey == null) && targetEntry != null) {
+            return false;
+        }
+
+        if (keyEntry != null && keyEntry.audited) {
+            return false;
+        }
+
+        return null;
+    }
+
+    private Entry live(Key key, long now) {
+        Entry entry = entries.get(key);
+        return entry != null && entry.expiresAt > now ? entry : null;
+    }
+
+    private void storeTargets(Target target, Map<String, Map<String, PNAccessManagerKeyData>> targets, long expiresAt) {
+        if (targets == null) {
+            return;
+        }
+
+        for (Map.Entry<String, Map<String, PNAccessManagerKeyData>> grant : targets.entrySet()) {
+            if (grant.getValue() == null) {
+                continue;
+            }
+
+            for (Map.Entry<String, PNAccessManagerKeyData> authKey : grant.getValue().entrySet()) {
+                put(new Key(target, grant.getKey(), authKey.getKey()), authKey.getValue(), expiresAt, false);
+            }
+        }
+    }
+
+    private long expiryOf(long ttlMillis) {
+        return ttlMillis > 0 ? currentTimeMillis() + ttlMillis : NO_EXPIRY;
+    }
+
+    private void put(Key key, PNAccessManagerKeyData permissions, long expiresAt, boolean audited) {
+        advance();
+        entries.put(key, new Entry(permissions, expiresAt, audited));
+
+        if (expiresAt != NO_EXPIRY) {
+            // the slot is visited once per revolution; entries with a later expiry stay until their turn comes.
+            long tick = Math.max(expiresAt / TICK_MILLIS, currentTick + 1);
+            wheel.get((int) (tick % WHEEL_SLOTS)).add(key);
+        }
+    }
+
+    /**
+     * Visit the slots of every tick which passed since the last call and drop what expired in them.
+     */
+    private void advance() {
+        long now = currentTimeMillis();
+        long tick = now / TICK_MILLIS;
+
+        if (tick <= currentTick) {
+            return;
+        }
+
+        long passed = Math.min(tick - currentTick, WHEEL_SLOTS);
+
+        for (long i = 1; i <= passed; i++) {
+            List<Key> slot = wheel.get((int) ((currentTick + i) % WHEEL_SLOTS));
+            List<Key> pending = new ArrayList<>();
+
+            for (Key key : slot) {
+                Entry entry = entries.get(key);
+
+                if (entry == null || entry.expiresAt == NO_EXPIRY) {
+                    continue;
+                }
+
+                if (entry.expiresAt <= now) {
+                    entries.remove(key);
+                } else if (entry.expiresAt / TICK_MILLIS % WHEEL_SLOTS == (currentTick + i) % WHEEL_SLOTS) {
+                    // due in a later revolution; keys which were stored again are tracked in their new slot.
+                    pending.add(key);
+                }
+            }
+
+            slot.clear();
+            slot.addAll(pending);
+        }
+
+        currentTick = tick;
+    }
+
+    private enum Target {
+        CHANNEL,
+        CHANNEL_GROUP
+    }
+
+    private enum Permission {
+        READ,
+        WRITE,
+        MANAGE
+    }
+
+    /**
+     * Target and auth key of an entry, the auth key is null for grants which apply to every key.
+     */
+    private static final class Key {
+
+        private final Target target;
+        private final String name;
+        private final String authKey;
+
+        private Key(Target keyTarget, String keyName, String keyAuthKey) {
+            this.target = keyTarget;
+            this.name = keyName;
+            this.authKey = keyAuthKey;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+
+            if (!(o instanceof Key)) {
+                return false;
+            }
+
+            Key other = (Key) o;
+            return target == other.target && name.equals(other.name)
+                    && (authKey == null ? other.authKey == null : authKey.equals(other.authKey));
+        }
+
+        @Override
+        public int hashCode() {
+            int result = target.hashCode();
+            result = HASH_MULTIPLIER * result + name.hashCode();
+            result = HASH_MULTIPLIER * result + (authKey != null ? authKey.hashCode() : 0);
+            return result;
+        }
+    }
+
+    private static final class Entry {
+
+        private final boolean read;
+        private final boolean write;
+        private final boolean manage;
+        private final long expiresAt;
+        /**
+         * whether the entry holds everything the key was allowed when it was audited.
+         */
+        private final boolean audited;
+
+        private Entry(PNAccessManagerKeyData permissions, long expiry, boolean fromAudit) {
+            this.read = permissions.isReadEnabled();
+            this.write = permissions.isWriteEnabled();
+            this.manage = permissions.isManageEnabled();
+            this.expiresAt = expiry;
+            this.audited = fromAudit;
+        }
+
+        private boolean allows(Permission permission) {
+            switch (permission) {
+                case READ:
+                    return read;
+                case WRITE:
+                    return write;
+                default:
+                    return manage;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,240 @@
+package com.pubnub.api.managers;
+
+import com.pubnub.api.PubNub;
+import com.pubnub.api.models.consumer.pubsub.PNPresenceEventResult;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.Executor;
+
+/**
+ * Opt-in debouncing of presence events.
+ *
+ * Join, leave, timeout and interval events of a channel are buffered for the aggregation interval and delivered as a
+ * single interval event which lists every user by the last thing that happened to them, together with the latest
+ * occupancy. A window holding a single event delivers that event unchanged. State changes are never buffered; they
+ * flush the window of their channel first, so listeners see the events of a channel in order. Windows which are due
+ * are delivered by the subscribe worker, like every other event, and the timer stops once nothing is buffered.
+ */
+public class PresenceEventAggregator {
+
+    private static final String JOIN = "join";
+    private static final String LEAVE = "leave";
+    private static final String TIMEOUT = "timeout";
+    private static final String INTERVAL = "interval";
+
+    private PubNub pubnub;
+    private ListenerManager listenerManager;
+    private Executor workerExecutor;
+
+    private final Map<String, Window> windows = new LinkedHashMap<>();
+    private Timer timer;
+
+    /**
+     * @param workerExecutorInstance runs tasks on the thread which delivers received messages.
+     */
+    public PresenceEventAggregator(PubNub pubnubInstance, ListenerManager listenerManagerInstance,
+                                   Executor workerExecutorInstance) {
+        this.pubnub = pubnubInstance;
+        this.listenerManager = listenerManagerInstance;
+        this.workerExecutor = workerExecutorInstance;
+    }
+
+    /**
+     * Deliver a presence event to the listeners, right away or as part of the window of its channel.
+     *
+     * @param event presence event.
+     */
+    public void announce(PNPresenceEventResult event) {
+        int interval = pubnub.getConfiguration().getPresenceAggregationInterval();
+        String action = event.getEvent();
+        boolean aggregated = JOIN.equals(action) || LEAVE.equals(action) || TIMEOUT.equals(action)
+                || INTERVAL.equals(action);
+
+        if (interval <= 0 || !aggregated || event.getChannel() == null) {
+            flush(event.getChannel());
+            listenerManager.announce(event);
+            return;
+        }
+
+        synchronized (this) {
+            Window window = windows.get(event.getChannel());
+
+            if (window == null) {
+                window = new Window();
+                windows.put(event.getChannel(), window);
+            }
+
+            window.add(event);
+
+            if (timer == null) {
+                timer = new Timer("Presence Event Aggregator", true);
+                timer.schedule(new TimerTask() {
+                    @Override
+                    public void run() {
+                        onTick();
+                    }
+                }, interval, interval);
+            }
+        }
+    }
+
+    /**
+     * Deliver all buffered windows and stop the timer.
+     */
+    public void stop() {
+        synchronized (this) {
+            if (timer != null) {
+                timer.cancel();
+                timer = null;
+            }
+        }
+
+        flush(null);
+    }
+
+    private void onTick() {
+        synchronized (this) {
+            if (windows.isEmpty()) {
+                if (timer != null) {
+                    timer.cancel();
+                    timer = null;
+                }
+
+                return;
+            }
+        }
+
+        workerExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                flush(null);
+            }
+        });
+    }
+
+    /**
+     * @param channel channel to flush, null for all of them.
+     */
+    private void flush(String channel) {
+        List<PNPresenceEventResult> events = new ArrayList<>();
+
+        synchronized (this) {
+            if (windows.isEmpty()) {
+                return;
+            }
+
+            if (channel == null) {
+                for (Window window : windows.values()) {
+                    events.add(window.build());
+                }
+                windows.clear();
+            } else {
+                Window window = windows.remove(channel);
+
+                if (window != null) {
+                    events.add(window.build());
+                }
+            }
+        }
+
+        for (PNPresenceEventResult event : events) {
+            listenerManager.announce(event);
+        }
+    }
+
+    /**
+     * Events of one channel within the current interval.
+     */
+    private static class Window {
+
+        private PNPresenceEventResult first;
+        private PNPresenceEventResult latest;
+        private int count;
+
+        /**
+         * last action per user, in order of appearance.
+         */
+        private final Map<String, String> actions = new LinkedHashMap<>();
+        private Integer occupancy;
+        private boolean hereNowRefresh;
+
+        private void add(PNPresenceEventResult event) {
+            if (first == null) {
+                first = event;
+            }
+
+            latest = event;
+            count++;
+
+            if (INTERVAL.equals(event.getEvent())) {
+                record(event.getJoin(), JOIN);
+                record(event.getLeave(), LEAVE);
+                record(event.getTimeout(), TIMEOUT);
+            } else if (event.getUuid() != null) {
+                actions.remove(event.getUuid());
+                actions.put(event.getUuid(), event.getEvent());
+            }
+
+            if (event.getOccupancy() != null) {
+                occupancy = event.getOccupancy();
+            }
+
+            if (event.getHereNowRefresh() != null && event.getHereNowRefresh()) {
+                hereNowRefresh = true;
+            }
+        }
+
+        private void record(List<String> uuids, String action) {
+            if (uuids == null) {
+                return;
+            }
+
+            for (String uuid : uuids) {
+                actions.remove(uuid);
+                actions.put(uuid, action);
+            }
+        }
+
+        @SuppressWarnings("deprecation")
+        private PNPresenceEventResult build() {
+            if (count == 1) {
+                return first;
+            }
+
+            List<String> join = new ArrayList<>();
+            List<String> leave = new ArrayList<>();
+            List<String> timeout = new ArrayList<>();
+
+            for (Map.Entry<String, String> entry : actions.entrySet()) {
+                if (JOIN.equals(entry.getValue())) {
+                    join.add(entry.getKey());
+                } else if (LEAVE.equals(entry.getValue())) {
+                    leave.add(entry.getKey());
+                } else {
+                    timeout.add(entry.getKey());
+                }
+            }
+
+            return PNPresenceEventResult.builder()
+                    .event(INTERVAL)
+                    .actualChannel(latest.getActualChannel())
+                    .subscribedChannel(latest.getSubscribedChannel())
+                    .channel(latest.getChannel())
+                    .subscription(latest.getSubscription())
+                    .timetoken(latest.getTimetoken())
+                    .timestamp(latest.getTimestamp())
+                    .occupancy(occupancy)
+                    .join(join)
+                    .leave(leave)
+                    .timeout(timeout)
+                    .hereNowRefresh(hereNowRefresh)
+                    .build();
+        }
+    }
+
+}
@@ -0,0 +1,278 @@
+package com.pubnub.api.managers;
+
+import com.pubnub.api.PubNub;
+import com.pubnub.api.callbacks.PNCallback;
+import com.pubnub.api.models.consumer.PNStatus;
+import com.pubnub.api.models.consumer.presence.PNHereNowChannelData;
+import com.pubnub.api.models.consumer.presence.PNHereNowOccupantData;
+import com.pubnub.api.models.consumer.presence.PNHereNowResult;
+import com.pubnub.api.models.consumer.pubsub.PNPresenceEventResult;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Opt-in local view of who is present on the channels subscribed with presence.
+ *
+ * A single here now call seeds the roster when channels are subscribed; from then on, presence events keep the
+ * occupant sets current, so occupancy and membership can be answered without network calls. Interval events only
+ * carry deltas, except when the server asks for a here_now_refresh because the deltas were too large, which is the
+ * only time the roster goes back to the network. Events arriving while a seed is in flight are replayed on top of
+ * its result.
+ */
+@Slf4j
+public class PresenceRoster {
+
+    private PubNub pubnub;
+
+    private final Map<String, ChannelRoster> channels = new HashMap<>();
+
+    public PresenceRoster(PubNub pubnubInstance) {
+        this.pubnub = pubnubInstance;
+    }
+
+    public boolean isEnabled() {
+        return pubnub.getConfiguration().isPresenceRoster();
+    }
+
+    /**
+     * Start tracking channels and seed the ones which are not tracked yet.
+     *
+     * @param trackedChannels channels subscribed with presence.
+     */
+    public void track(Collection<String> trackedChannels) {
+        if (!isEnabled()) {
+            return;
+        }
+
+        List<String> seeded = new ArrayList<>();
+
+        synchronized (this) {
+            for (String channel : trackedChannels) {
+                if (!channels.containsKey(channel)) {
+                    channels.put(channel, new ChannelRoster());
+                    seeded.add(channel);
+                }
+            }
+        }
+
+        seed(seeded);
+    }
+
+    /**
+     * @param untrackedChannels channels which were unsubscribed.
+     */
+    public synchronized void untrack(Collection<String> untrackedChannels) {
+        for (String channel : untrackedChannels) {
+            channels.remove(channel);
+        }
+    }
+
+    /**
+     * Seed every tracked channel again, for instance after the subscription lost events during a network outage.
+     */
+    public void resync() {
+        List<String> tracked;
+
+        synchronized (this) {
+            tracked = new ArrayList<>(channels.keySet());
+        }
+
+        seed(tracked);
+    }
+
+    public synchronized void clear() {
+        channels.clear();
+    }
+
+    /**
+     * @param channel channel name.
+     * @return occupancy last announced by the server, -1 if the channel is not tracked or not seeded yet.
+     */
+    public synchronized int getOccupancy(String channel) {
+        ChannelRoster roster = channels.get(channel);
+        return roster != null && roster.seeded ? roster.occupancy : -1;
+    }
+
+    /**
+     * @param channel channel name.
+     * @return known occupants, empty if the channel is not tracked or not seeded yet.
+     */
+    public synchronized Set<String> getOccupants(String channel) {
+        ChannelRoster roster = channels.get(channel);
+
+        if (roster == null || !roster.seeded) {
+            return Collections.emptySet();
+        }
+
+        return Collections.unmodifiableSet(new HashSet<>(roster.occupants));
+    }
+
+    public synchronized boolean isPresent(String channel, String uuid) {
+        ChannelRoster roster = channels.get(channel);
+        return roster != null && roster.seeded && roster.occupants.contains(uuid);
+    }
+
+    public synchronized boolean isSeeded(String channel) {
+        ChannelRoster roster = channels.get(channel);
+        return roster != null && roster.seeded;
+    }
+
+    /**
+     * Apply a presence event coming from the subscription.
+     *
+     * @param event presence event.
+     */
+    public void onPresenceEvent(PNPresenceEventResult event) {
+        boolean refresh = false;
+
+        synchronized (this) {
+            ChannelRoster roster = event.getChannel() != null ? channels.get(event.getChannel()) : null;
+
+            if (roster == null) {
+                return;
+            }
+
+            if (event.getHereNowRefresh() != null && event.getHereNowRefresh()) {
+                // the deltas were left out, nothing but a fresh here now tells who is present.
+                roster.seeding = false;
+                roster.pendingEvents.clear();
+                refresh = true;
+            } else if (roster.seeding) {
+                roster.pendingEvents.add(event);
+            } else {
+                roster.apply(event);
+            }
+        }
+
+        if (refresh) {
+            seed(Collections.singletonList(event.getChannel()));
+        }
+    }
+
+    private void seed(final List<String> seededChannels) {
+        if (seededChannels.isEmpty()) {
+            return;
+        }
+
+        synchronized (this) {
+            for (String channel : seededChannels) {
+                ChannelRoster roster = channels.get(channel);
+
+                if (roster != null) {
+                    roster.seeding = true;
+                    roster.pendingEvents.clear();
+                }
+            }
+        }
+
+        pubnub.hereNow().channels(seededChannels).includeUUIDs(true).async(new PNCallback<PNHereNowResult>() {
+            @Override
+            public void onResponse(PNHereNowResult result, PNStatus status) {
+                if (status.isError()) {
+                    log.warn("unable to seed the presence roster: " + status.getErrorData());
+                    onSeedFailed(seededChannels);
+                } else {
+                    onSeeded(seededChannels, result);
+                }
+            }
+        });
+    }
+
+    synchronized void onSeeded(List<String> seededChannels, PNHereNowResult result) {
+        for (String channel : seededChannels) {
+            ChannelRoster roster = channels.get(channel);
+
+            // untracked or refreshed again while the call was in flight.
+            if (roster == null || !roster.seeding) {
+                continue;
+            }
+
+            PNHereNowChannelData data = result.getChannels() != null ? result.getChannels().get(channel) : null;
+
+            roster.occupants.clear();
+            roster.occupancy = 0;
+
+            if (data != null) {
+                roster.occupancy = data.getOccupancy();
+
+                if (data.getOccupants() != null) {
+                    for (PNHereNowOccupantData occupant : data.getOccupants()) {
+                        roster.occupants.add(occupant.getUuid());
+                    }
+                }
+            }
+
+            roster.seeded = true;
+            roster.seeding = false;
+
+            for (PNPresenceEventResult event : roster.pendingEvents) {
+                roster.apply(event);
+            }
+
+            roster.pendingEvents.clear();
+        }
+    }
+
+    private synchronized void onSeedFailed(List<String> seededChannels) {
+        for (String channel : seededChannels) {
+            ChannelRoster roster = channels.get(channel);
+
+            if (roster != null && roster.seeding) {
+                // keep applying events, the roster stays unseeded until the next refresh or resync.
+                roster.seeding = false;
+                roster.pendingEvents.clear();
+            }
+        }
+    }
+
+    /**
+     * Occupants of a single channel.
+     */
+    private static class ChannelRoster {
+
+        private final Set<String> occupants = new HashSet<>();
+        private final List<PNPresenceEventResult> pendingEvents = new ArrayList<>();
+        private int occupancy;
+        private boolean seeded;
+        private boolean seeding;
+
+        private void apply(PNPresenceEventResult event) {
+            String action = event.getEvent();
+
+            if ("join".equals(action) || "state-change".equals(action)) {
+                occupants.add(event.getUuid());
+            } else if ("leave".equals(action) || "timeout".equals(action)) {
+                occupants.remove(event.getUuid());
+            } else if ("interval".equals(action)) {
+                addAll(event.getJoin());
+                removeAll(event.getLeave());
+                removeAll(event.getTimeout());
+            }
+
+            if (event.getOccupancy() != null) {
+                occupancy = event.getOccupancy();
+            }
+        }
+
+        private void addAll(List<String> uuids) {
+            if (uuids != null) {
+                occupants.addAll(uuids);
+            }
+        }
+
+        private void removeAll(List<String> uuids) {
+            if (uuids != null) {
+                occupants.removeAll(uuids);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,90 @@
+package com.pubnub.api.managers;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket shared by the workers of bulk operations to keep them under a request rate.
+ */
+public class RateLimiter {
+
+    private static final long NANOSECONDS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * in nanoseconds, time it takes to earn a single permit.
+     */
+    private final long permitInterval;
+    private final double maximumPermits;
+
+    private double storedPermits;
+    private long lastRefill;
+
+    /**
+     * @param permitsPerSecond sustained rate.
+     * @param burst            number of permits which can be taken at once after an idle period.
+     */
+    public RateLimiter(double permitsPerSecond, int burst) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("permitsPerSecond must be positive");
+        }
+
+        this.permitInterval = (long) (NANOSECONDS_PER_SECOND / permitsPerSecond);
+        this.maximumPermits = Math.max(1, burst);
+        this.storedPermits = this.maximumPermits;
+        this.lastRefill = System.nanoTime();
+    }
+
+    /**
+     * Take a permit, blocking until one is available.
+     *
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public void acquire() throws InterruptedException {
+        long wait = reserve();
+
+        if (wait > 0) {
+            TimeUnit.NANOSECONDS.sleep(wait);
+        }
+    }
+
+    /**
+     * Take a permit if one is available right now.
+     *
+     * @return true if a permit was taken.
+     */
+    public synchronized boolean tryAcquire() {
+        refill(System.nanoTime());
+
+        if (storedPermits >= 1) {
+            storedPermits -= 1;
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Take a permit, going into debt if none is stored, and tell how long the caller has to wait for it.
+     */
+    private synchronized long reserve() {
+        long now = System.nanoTime();
+        refill(now);
+
+        storedPermits -= 1;
+
+        if (storedPermits >= 0) {
+            return 0;
+        }
+
+        return (long) (-storedPermits * permitInterval);
+    }
+
+    private void refill(long now) {
+        long elapsed = now - lastRefill;
+
+        if (elapsed > 0) {
+            storedPermits = Math.min(maximumPermits, storedPermits + (double) elapsed / permitInterval);
+            lastRefill = now;
+        }
+    }
+
+}
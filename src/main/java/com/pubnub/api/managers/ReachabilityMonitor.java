@@ -0,0 +1,246 @@
+package com.pubnub.api.managers;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Timer;
+import java.util.TimerTask;
+
+/**
+ * Process wide watcher of origin reachability.
+ *
+ * Every disconnected {@link ReconnectionManager} registers with the monitor of its origin instead of probing on its
+ * own; a single probe loop runs per origin and its outcome is fanned out to all of the registered managers, so a
+ * network recovery causes one probe rather than one per PubNub instance. The next probe is due as soon as any
+ * watcher's own policy asks for it, a probe which does not report back in time counts as failed, and a monitor
+ * nobody watches is dropped.
+ */
+@Slf4j
+public final class ReachabilityMonitor {
+
+    private static final Map<String, ReachabilityMonitor> MONITORS = new HashMap<>();
+
+    private String origin;
+
+    /**
+     * managers waiting for the origin to become reachable, the first one drives the probes.
+     */
+    private List<ReconnectionManager> watchers;
+
+    /**
+     * pending probe, or the deadline of the running one.
+     */
+    private Timer timer;
+
+    /**
+     * manager running the current probe, null in between probes.
+     */
+    private ReconnectionManager driver;
+
+    /**
+     * identifies the current probe, results of abandoned probes are ignored.
+     */
+    private int generation;
+
+    private ReachabilityMonitor(String originKey) {
+        this.origin = originKey;
+        this.watchers = new ArrayList<>();
+    }
+
+    /**
+     * Notify the manager once the origin of its instance is reachable again; starts probing if nobody else is
+     * watching yet.
+     *
+     * @param origin              base url of the origin.
+     * @param reconnectionManager manager to notify.
+     * @return the shared monitor of the origin.
+     */
+    public static ReachabilityMonitor watch(String origin, ReconnectionManager reconnectionManager) {
+        synchronized (MONITORS) {
+            ReachabilityMonitor monitor = MONITORS.get(origin);
+
+            if (monitor == null) {
+                monitor = new ReachabilityMonitor(origin);
+                MONITORS.put(origin, monitor);
+            }
+
+            monitor.watch(reconnectionManager);
+            return monitor;
+        }
+    }
+
+    /**
+     * @param origin base url of the origin.
+     * @return the monitor of the origin, null if nobody watches it.
+     */
+    static ReachabilityMonitor find(String origin) {
+        synchronized (MONITORS) {
+            return MONITORS.get(origin);
+        }
+    }
+
+    private synchronized void watch(ReconnectionManager reconnectionManager) {
+        if (!watchers.contains(reconnectionManager)) {
+            watchers.add(reconnectionManager);
+        }
+
+        if (timer == null && driver == null) {
+            schedule();
+        }
+    }
+
+    public void unwatch(ReconnectionManager reconnectionManager) {
+        synchronized (this) {
+            watchers.remove(reconnectionManager);
+
+            if (watchers.isEmpty()) {
+                abandonProbe();
+            } else if (reconnectionManager == driver) {
+                // the call of a destroyed driver may never report back, another watcher takes over.
+                abandonProbe();
+                schedule();
+            }
+        }
+
+        retireIfIdle();
+    }
+
+    public synchronized int getWatcherCount() {
+        return watchers.size();
+    }
+
+    private void schedule() {
+        stopTimer();
+
+        long delay = Long.MAX_VALUE;
+
+        for (ReconnectionManager watcher : watchers) {
+            delay = Math.min(delay, watcher.nextProbeDelay());
+        }
+
+        log.debug("probing " + origin + " in " + delay + "ms");
+
+        timer = new Timer("Reachability Monitor", true);
+        timer.schedule(new TimerTask() {
+            @Override
+            public void run() {
+                probe();
+            }
+        }, delay);
+    }
+
+    private void stopTimer() {
+        if (timer != null) {
+            timer.cancel();
+            timer = null;
+        }
+    }
+
+    private void abandonProbe() {
+        stopTimer();
+        driver = null;
+        generation++;
+    }
+
+    private void probe() {
+        ReconnectionManager probeDriver;
+        final int probeGeneration;
+
+        synchronized (this) {
+            timer = null;
+
+            if (watchers.isEmpty()) {
+                return;
+            }
+
+            probeDriver = watchers.get(0);
+            driver = probeDriver;
+            probeGeneration = ++generation;
+
+            timer = new Timer("Reachability Monitor", true);
+            timer.schedule(new TimerTask() {
+                @Override
+                public void run() {
+                    log.debug("probe of " + origin + " timed out");
+                    onProbeResult(probeGeneration, false);
+                }
+            }, probeDriver.probeTimeout());
+        }
+
+        probeDriver.probe(this, probeGeneration);
+    }
+
+    /**
+     * Called by the driving manager with the outcome of a probe.
+     *
+     * @param probeGeneration generation the probe was started with.
+     * @param reachable       true if the origin answered.
+     */
+    void onProbeResult(int probeGeneration, boolean reachable) {
+        List<ReconnectionManager> notified;
+
+        synchronized (this) {
+            if (probeGeneration != generation || driver == null) {
+                return;
+            }
+
+            stopTimer();
+            driver = null;
+            notified = new ArrayList<>(watchers);
+
+            if (reachable) {
+                watchers.clear();
+            }
+        }
+
+        if (reachable) {
+            retireIfIdle();
+
+            for (ReconnectionManager watcher : notified) {
+                watcher.onReachable();
+            }
+
+            return;
+        }
+
+        // managers are not called while holding the monitor, they call into it under their own lock.
+        List<ReconnectionManager> exhausted = new ArrayList<>();
+
+        for (ReconnectionManager watcher : notified) {
+            if (watcher.registerFailedProbe()) {
+                exhausted.add(watcher);
+            }
+        }
+
+        synchronized (this) {
+            watchers.removeAll(exhausted);
+
+            if (!watchers.isEmpty() && timer == null && driver == null) {
+                schedule();
+            }
+        }
+
+        retireIfIdle();
+
+        for (ReconnectionManager watcher : exhausted) {
+            watcher.onExhausted();
+        }
+    }
+
+    /**
+     * Drop the monitor from the registry once nobody watches it; must not be called while holding the monitor.
+     */
+    private void retireIfIdle() {
+        synchronized (MONITORS) {
+            synchronized (this) {
+                if (watchers.isEmpty() && driver == null && MONITORS.get(origin) == this) {
+                    MONITORS.remove(origin);
+                }
+            }
+        }
+    }
+
+}
@@ -1,5 +1,6 @@
 package com.pubnub.api.managers;
 
+import com.pubnub.api.PNConfiguration;
 import com.pubnub.api.PubNub;
 import com.pubnub.api.callbacks.PNCallback;
 import com.pubnub.api.callbacks.ReconnectionCallback;
@@ -9,28 +10,28 @@ import com.pubnub.api.models.consumer.PNTimeResult;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.Calendar;
-import java.util.Timer;
-import java.util.TimerTask;
 
 
 @Slf4j
 public class ReconnectionManager {
 
     private static final int INTERVAL = 3;
-    private static final int MINEXPONENTIALBACKOFF = 1;
-    private static final int MAXEXPONENTIALBACKOFF = 32;
+    private static final int MILLISECONDS = 1000;
 
     private ReconnectionCallback callback;
     private PubNub pubnub;
 
-    private int exponentialMultiplier = 1;
-    private int failedCalls = 0;
-    private static final int MILLISECONDS = 1000;
+    private volatile int failedCalls = 0;
 
     /**
-     * Timer for heartbeat operations.
+     * System.nanoTime() when the manager started polling.
      */
-    private Timer timer;
+    private volatile long pollingSince;
+
+    /**
+     * monitor this manager is currently registered with, null while connected.
+     */
+    private ReachabilityMonitor monitor;
 
     public ReconnectionManager(PubNub pubnubInstance) {
         this.pubnub = pubnubInstance;
@@ -47,80 +48,134 @@ public class ReconnectionManager {
             return;
         }
 
-        exponentialMultiplier = 1;
-        failedCalls = 0;
-
-        registerHeartbeatTimer();
-    }
+        boolean exhausted;
 
+        synchronized (this) {
+            failedCalls = 0;
+            pollingSince = System.nanoTime();
+            exhausted = isExhausted();
 
-    private void registerHeartbeatTimer() {
-        // make sure only one timer is running at a time.
-        stopHeartbeatTimer();
-
-        if (this.pubnub.getConfiguration().getReconnectionPolicy() == PNReconnectionPolicy.NONE) {
-            log.warn("reconnection policy is disabled, please handle reconnection manually.");
-            return;
+            if (!exhausted) {
+                stopMonitoring();
+            }
         }
 
-        int  maxRetries = this.pubnub.getConfiguration().getMaximumReconnectionRetries();
-        if (maxRetries != -1 && failedCalls >= maxRetries) {
+        if (exhausted) {
             callback.onMaxReconnectionExhaustion();
             return;
         }
 
-        timer = new Timer();
-        int timerInterval = INTERVAL;
-
-        if (pubnub.getConfiguration().getReconnectionPolicy() == PNReconnectionPolicy.EXPONENTIAL) {
-            timerInterval = (int) (Math.pow(2, exponentialMultiplier) - 1);
-            if (timerInterval > MAXEXPONENTIALBACKOFF) {
-                timerInterval = MINEXPONENTIALBACKOFF;
-                exponentialMultiplier = 1;
-                log.debug("timerInterval > MAXEXPONENTIALBACKOFF at: " + Calendar.getInstance().getTime().toString());
-            } else if (timerInterval < 1) {
-                timerInterval = MINEXPONENTIALBACKOFF;
-            }
-            log.debug("timerInterval = " + String.valueOf(timerInterval) + " at: " + Calendar.getInstance().getTime().toString());
-        }
+        ReachabilityMonitor reachabilityMonitor = ReachabilityMonitor.watch(pubnub.getBaseUrl(), this);
 
-        if (pubnub.getConfiguration().getReconnectionPolicy() == PNReconnectionPolicy.LINEAR) {
-            timerInterval = INTERVAL;
+        synchronized (this) {
+            monitor = reachabilityMonitor;
         }
+    }
 
-        timer.schedule(new TimerTask() {
-            @Override
-            public void run() {
-                callTime();
-            }
-        }, timerInterval * MILLISECONDS, timerInterval * MILLISECONDS);
+    public synchronized void stopPolling() {
+        stopMonitoring();
     }
 
-    private void stopHeartbeatTimer() {
-        if (timer != null) {
-            timer.cancel();
-            timer = null;
+    /**
+     * Delay before the next probe. The exponential policy uses full jitter: a random delay between zero and the
+     * capped exponential backoff, so that clients which lost the network together do not retry in lockstep.
+     *
+     * @param attempt number of failed probes so far.
+     * @return delay in milliseconds.
+     */
+    long nextDelay(int attempt) {
+        PNConfiguration configuration = pubnub.getConfiguration();
+
+        if (configuration.getReconnectionPolicy() != PNReconnectionPolicy.EXPONENTIAL) {
+            return INTERVAL * MILLISECONDS;
         }
+
+        long base = Math.max(1, configuration.getReconnectionBaseDelay()) * (long) MILLISECONDS;
+        long cap = Math.max(1, configuration.getMaximumReconnectionDelay()) * (long) MILLISECONDS;
+        long delay = Backoff.delay(attempt, base, cap);
+        log.debug("delay = " + delay + "ms at: " + Calendar.getInstance().getTime().toString());
+        return delay;
+    }
+
+    /**
+     * @return delay before the next probe by this manager's policy, in milliseconds.
+     */
+    long nextProbeDelay() {
+        return nextDelay(failedCalls);
+    }
+
+    /**
+     * @return time after which a probe without a result counts as failed, in milliseconds.
+     */
+    long probeTimeout() {
+        PNConfiguration configuration = pubnub.getConfiguration();
+        return (configuration.getConnectTimeout() + configuration.getNonSubscribeRequestTimeout()) * (long) MILLISECONDS;
     }
 
-    private void callTime() {
+    /**
+     * Probe the origin on behalf of everybody watching the monitor. The probe is a clock sample: if the clock sync
+     * heard from the origin since the connection was lost, that answer counts and no Time call is made.
+     *
+     * @param reachabilityMonitor monitor to report to.
+     * @param probeGeneration     generation to report the result with.
+     */
+    void probe(final ReachabilityMonitor reachabilityMonitor, final int probeGeneration) {
+        ClockSyncManager clockSyncManager = pubnub.getClockSyncManager();
+
+        if (clockSyncManager.hasSampleSince(pollingSince)) {
+            reachabilityMonitor.onProbeResult(probeGeneration, true);
+            return;
+        }
+
         try {
-            pubnub.time().async(new PNCallback<PNTimeResult>() {
+            clockSyncManager.sample(new PNCallback<PNTimeResult>() {
                 @Override
                 public void onResponse(PNTimeResult result, PNStatus status) {
-                    if (!status.isError()) {
-                        stopHeartbeatTimer();
-                        callback.onReconnection();
-                    } else {
+                    if (status.isError()) {
                         log.debug("callTime() at: " + Calendar.getInstance().getTime().toString());
-                        exponentialMultiplier++;
-                        failedCalls++;
-                        registerHeartbeatTimer();
                     }
+
+                    reachabilityMonitor.onProbeResult(probeGeneration, !status.isError());
                 }
             });
         } catch (Exception error) {
-            //
+            reachabilityMonitor.onProbeResult(probeGeneration, false);
+        }
+    }
+
+    /**
+     * @return true if the retries are exhausted and the manager should stop watching.
+     */
+    synchronized boolean registerFailedProbe() {
+        failedCalls++;
+        return isExhausted();
+    }
+
+    void onReachable() {
+        synchronized (this) {
+            monitor = null;
+        }
+
+        callback.onReconnection();
+    }
+
+    void onExhausted() {
+        synchronized (this) {
+            monitor = null;
+        }
+
+        callback.onMaxReconnectionExhaustion();
+    }
+
+    private boolean isExhausted() {
+        int maxRetries = this.pubnub.getConfiguration().getMaximumReconnectionRetries();
+        return maxRetries != -1 && failedCalls >= maxRetries;
+    }
+
+    private void stopMonitoring() {
+        if (monitor != null) {
+            monitor.unwatch(this);
+            monitor = null;
         }
     }
 }
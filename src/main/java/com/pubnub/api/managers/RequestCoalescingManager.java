@@ -0,0 +1,172 @@
+package com.pubnub.api.managers;
+
+import com.pubnub.api.PubNubException;
+import com.pubnub.api.builder.PubNubErrorBuilder;
+import com.pubnub.api.callbacks.PNCallback;
+import com.pubnub.api.enums.PNOperationType;
+import com.pubnub.api.models.consumer.PNStatus;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-flight support for idempotent operations: identical calls issued while one of them is still in flight
+ * are attached to the running call and receive its result instead of sending their own request.
+ */
+public class RequestCoalescingManager {
+
+    /**
+     * operations which are safe to share between callers.
+     */
+    private static final Set<PNOperationType> COALESCABLE_OPERATIONS = EnumSet.of(
+            PNOperationType.PNHereNowOperation,
+            PNOperationType.PNWhereNowOperation,
+            PNOperationType.PNGetState,
+            PNOperationType.PNTimeOperation,
+            PNOperationType.PNHistoryOperation,
+            PNOperationType.PNFetchMessagesOperation,
+            PNOperationType.PNChannelsForGroupOperation,
+            PNOperationType.PNChannelGroupsOperation,
+            PNOperationType.PNAccessManagerAudit);
+
+    private Map<String, InFlightRequest> inFlightRequests;
+
+    public RequestCoalescingManager() {
+        this.inFlightRequests = new HashMap<>();
+    }
+
+    public static boolean isCoalescable(PNOperationType operation) {
+        return operation != null && COALESCABLE_OPERATIONS.contains(operation);
+    }
+
+    /**
+     * Attach to an identical call which is already in flight.
+     *
+     * @param requestKey normalised key of the call.
+     * @return the running call to wait on, or null if the caller has to perform the request and
+     * {@link #complete(String, Object, PNStatus)} it afterwards.
+     */
+    public synchronized InFlightRequest join(String requestKey) {
+        InFlightRequest inFlightRequest = inFlightRequests.get(requestKey);
+
+        if (inFlightRequest == null) {
+            inFlightRequests.put(requestKey, new InFlightRequest());
+        }
+
+        return inFlightRequest;
+    }
+
+    /**
+     * Publish the outcome of a call to everybody who joined it.
+     *
+     * @param requestKey normalised key of the call.
+     * @param result     response of the call, null on failures.
+     * @param status     status of the call.
+     */
+    public void complete(String requestKey, Object result, PNStatus status) {
+        InFlightRequest inFlightRequest;
+
+        synchronized (this) {
+            inFlightRequest = inFlightRequests.remove(requestKey);
+        }
+
+        if (inFlightRequest != null) {
+            inFlightRequest.complete(result, status);
+        }
+    }
+
+    public synchronized int size() {
+        return inFlightRequests.size();
+    }
+
+    /**
+     * A call which is being executed on behalf of several callers.
+     */
+    public static class InFlightRequest {
+
+        private List<PNCallback<Object>> callbacks;
+        private CountDownLatch latch;
+
+        private boolean completed;
+        private Object result;
+        private PNStatus status;
+
+        InFlightRequest() {
+            this.callbacks = new ArrayList<>();
+            this.latch = new CountDownLatch(1);
+        }
+
+        /**
+         * @param callback callback which is invoked once the call completes, immediately if it already has.
+         */
+        public void addCallback(PNCallback<Object> callback) {
+            synchronized (this) {
+                if (!completed) {
+                    callbacks.add(callback);
+                    return;
+                }
+            }
+
+            callback.onResponse(result, status);
+        }
+
+        /**
+         * Block until the call completes.
+         *
+         * @param timeoutMillis how long to wait for the call, which is bounded by the request timeouts.
+         * @return response of the call.
+         * @throws PubNubException the error the call failed with, or a timeout if it did not complete in time.
+         */
+        public Object await(long timeoutMillis) throws PubNubException {
+            try {
+                if (!latch.await(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                    throw PubNubException.builder().pubnubError(PubNubErrorBuilder.PNERROBJ_TIMEOUT)
+                            .errormsg("identical request in flight did not complete").build();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw PubNubException.builder().pubnubError(PubNubErrorBuilder.PNERROBJ_PUBNUB_EXCEPTION)
+                        .errormsg(e.toString()).build();
+            }
+
+            if (status != null && status.isError()) {
+                if (status.getErrorData() != null && status.getErrorData().getThrowable() instanceof PubNubException) {
+                    throw (PubNubException) status.getErrorData().getThrowable();
+                }
+
+                throw PubNubException.builder()
+                        .pubnubError(PubNubErrorBuilder.PNERROBJ_HTTP_ERROR)
+                        .errormsg(status.getErrorData() != null ? status.getErrorData().getInformation() : null)
+                        .statusCode(status.getStatusCode())
+                        .build();
+            }
+
+            return result;
+        }
+
+        private void complete(Object completedResult, PNStatus completedStatus) {
+            List<PNCallback<Object>> waitingCallbacks;
+
+            synchronized (this) {
+                this.result = completedResult;
+                this.status = completedStatus;
+                this.completed = true;
+                waitingCallbacks = new ArrayList<>(callbacks);
+                callbacks.clear();
+            }
+
+            latch.countDown();
+
+            for (PNCallback<Object> callback : waitingCallbacks) {
+                callback.onResponse(completedResult, completedStatus);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,253 @@
+package com.pubnub.api.managers;
+
+import com.pubnub.api.PNConfiguration;
+import com.pubnub.api.enums.PNOperationType;
+import okhttp3.HttpUrl;
+import okhttp3.Request;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Opt-in response cache for read-only operations; entries are keyed by operation and normalised
+ * request parameters, expire after a per-operation TTL and are evicted in least recently used order.
+ *
+ * A cached result is handed to every caller which asks for the same request while it is fresh, so results of
+ * cacheable operations must be treated as read-only.
+ */
+public class ResponseCacheManager {
+
+    private static final int MILLISECONDS = 1000;
+    private static final int INITIAL_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    /**
+     * operations which never mutate server side data and are safe to serve from the cache.
+     */
+    private static final Set<PNOperationType> CACHEABLE_OPERATIONS = EnumSet.of(
+            PNOperationType.PNHereNowOperation,
+            PNOperationType.PNWhereNowOperation,
+            PNOperationType.PNGetState,
+            PNOperationType.PNChannelsForGroupOperation,
+            PNOperationType.PNChannelGroupsOperation,
+            PNOperationType.PNAccessManagerAudit);
+
+    /**
+     * query parameters which change on every request without affecting the response.
+     */
+    private static final Set<String> VOLATILE_PARAMETERS = new HashSet<>(
+            Arrays.asList("requestid", "timestamp", "signature"));
+
+    private PNConfiguration config;
+
+    private LinkedHashMap<String, CacheEntry> entries;
+
+    public ResponseCacheManager(PNConfiguration initialConfig) {
+        this.config = initialConfig;
+        this.entries = new LinkedHashMap<String, CacheEntry>(INITIAL_CAPACITY, LOAD_FACTOR, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CacheEntry> eldest) {
+                return size() > config.getMaximumResponseCacheSize();
+            }
+        };
+    }
+
+    /**
+     * @param operation operation type of the endpoint.
+     * @return true if responses of the operation should be cached.
+     */
+    public boolean isCacheable(PNOperationType operation) {
+        return operation != null && CACHEABLE_OPERATIONS.contains(operation) && getTtl(operation) > 0;
+    }
+
+    /**
+     * Builds a cache key out of the operation and the request path with its query parameters sorted and the
+     * per-request parameters removed.
+     *
+     * @param operation operation type of the endpoint.
+     * @param request   request which is about to be sent.
+     * @return normalised cache key.
+     */
+    public static String createKey(PNOperationType operation, Request request) {
+        HttpUrl url = request.url();
+        StringBuilder key = new StringBuilder(operation.name()).append(" ").append(url.encodedPath());
+        Set<String> parameterNames = new TreeSet<>(url.queryParameterNames());
+
+        for (String parameterName : parameterNames) {
+            if (VOLATILE_PARAMETERS.contains(parameterName)) {
+                continue;
+            }
+
+            for (String value : url.queryParameterValues(parameterName)) {
+                key.append("&").append(parameterName).append("=").append(value);
+            }
+        }
+
+        return key.toString();
+    }
+
+    /**
+     * @param key cache key, see {@link #createKey(PNOperationType, Request)}.
+     * @return the cached result, shared with every other caller; null if there is none or it expired.
+     */
+    public synchronized Object get(String key) {
+        CacheEntry entry = entries.get(key);
+
+        if (entry == null) {
+            return null;
+        }
+
+        if (entry.expiresAt <= System.currentTimeMillis()) {
+            entries.remove(key);
+            return null;
+        }
+
+        return entry.value;
+    }
+
+    public synchronized void put(String key, PNOperationType operation, List<String> channels,
+                                 List<String> channelGroups, Object value) {
+        if (value == null || !isCacheable(operation)) {
+            return;
+        }
+
+        CacheEntry entry = new CacheEntry();
+        entry.operation = operation;
+        entry.channels = copyOf(channels);
+        entry.channelGroups = copyOf(channelGroups);
+        entry.value = value;
+        entry.expiresAt = System.currentTimeMillis() + (long) getTtl(operation) * MILLISECONDS;
+
+        entries.put(key, entry);
+    }
+
+    /**
+     * Drop the entries which may have been made stale by a successful local write.
+     *
+     * @param operation     operation type which completed.
+     * @param channels      channels affected by the operation.
+     * @param channelGroups channel groups affected by the operation.
+     */
+    public synchronized void onWrite(PNOperationType operation, List<String> channels, List<String> channelGroups) {
+        if (operation == null || entries.isEmpty()) {
+            return;
+        }
+
+        switch (operation) {
+            case PNSetStateOperation:
+                invalidate(EnumSet.of(PNOperationType.PNGetState, PNOperationType.PNHereNowOperation),
+                        channels, channelGroups, false);
+                break;
+            case PNAddChannelsToGroupOperation:
+            case PNRemoveChannelsFromGroupOperation:
+            case PNRemoveGroupOperation:
+                invalidate(EnumSet.of(PNOperationType.PNChannelsForGroupOperation, PNOperationType.PNHereNowOperation,
+                        PNOperationType.PNGetState), null, channelGroups, false);
+                invalidate(EnumSet.of(PNOperationType.PNChannelGroupsOperation), null, null, true);
+                break;
+            case PNAccessManagerGrant:
+                invalidate(EnumSet.of(PNOperationType.PNAccessManagerAudit), channels, channelGroups, false);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Drop the presence entries which may have been made stale by an incoming presence event.
+     *
+     * @param channel      channel of the presence event, without the presence suffix.
+     * @param subscription channel group or wildcard the event was received through, if any.
+     */
+    public synchronized void onPresenceEvent(String channel, String subscription) {
+        if (entries.isEmpty()) {
+            return;
+        }
+
+        Set<PNOperationType> presenceOperations = EnumSet.of(PNOperationType.PNHereNowOperation, PNOperationType.PNGetState);
+
+        invalidate(presenceOperations,
+                channel != null ? Collections.singletonList(channel) : null,
+                subscription != null ? Collections.singletonList(subscription) : null, false);
+        // global calls are not scoped to channels, they are affected by every event.
+        invalidate(presenceOperations, null, null, true);
+        invalidate(EnumSet.of(PNOperationType.PNWhereNowOperation), null, null, true);
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private void invalidate(Set<PNOperationType> operations, Collection<String> channels,
+                            Collection<String> channelGroups, boolean dropUnscoped) {
+        for (Iterator<CacheEntry> it = entries.values().iterator(); it.hasNext();) {
+            CacheEntry entry = it.next();
+
+            if (!operations.contains(entry.operation)) {
+                continue;
+            }
+
+            boolean unscoped = entry.channels.isEmpty() && entry.channelGroups.isEmpty();
+
+            if ((dropUnscoped && unscoped) || intersects(entry.channels, channels)
+                    || intersects(entry.channelGroups, channelGroups)) {
+                it.remove();
+            }
+        }
+    }
+
+    private int getTtl(PNOperationType operation) {
+        Integer ttl = config.getResponseCacheTtls().get(operation);
+        return ttl != null ? ttl : 0;
+    }
+
+    private static boolean intersects(Set<String> cached, Collection<String> affected) {
+        if (affected == null) {
+            return false;
+        }
+
+        for (String item : affected) {
+            if (item != null && cached.contains(item)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static Set<String> copyOf(List<String> items) {
+        Set<String> result = new HashSet<>();
+
+        if (items != null) {
+            for (String item : items) {
+                if (item != null) {
+                    result.add(item);
+                }
+            }
+        }
+
+        return result;
+    }
+
+    private static class CacheEntry {
+        private PNOperationType operation;
+        private Set<String> channels;
+        private Set<String> channelGroups;
+        private Object value;
+        private long expiresAt;
+    }
+
+}
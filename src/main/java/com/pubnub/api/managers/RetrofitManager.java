@@ -5,6 +5,7 @@ import com.pubnub.api.PNConfiguration;
 import com.pubnub.api.PubNub;
 import com.pubnub.api.endpoints.vendor.AppEngineFactory;
 import com.pubnub.api.enums.PNLogVerbosity;
+import com.pubnub.api.interceptors.OriginInterceptor;
 import com.pubnub.api.interceptors.SignatureInterceptor;
 
 import java.util.Collections;
@@ -22,6 +23,8 @@ public class RetrofitManager {
 
     private SignatureInterceptor signatureInterceptor;
 
+    private OriginInterceptor originInterceptor;
+
     private OkHttpClient transactionClientInstance;
     private OkHttpClient subscriptionClientInstance;
 
@@ -32,6 +35,7 @@ public class RetrofitManager {
         this.pubnub = pubNubInstance;
 
         this.signatureInterceptor = new SignatureInterceptor(pubNubInstance);
+        this.originInterceptor = new OriginInterceptor(pubNubInstance.getBasePathManager());
 
         if (!pubNubInstance.getConfiguration().isGoogleAppEngineNetworking()) {
             this.transactionClientInstance = createOkHttpClient(
@@ -43,10 +47,18 @@ public class RetrofitManager {
                     this.pubnub.getConfiguration().getSubscribeTimeout(),
                     this.pubnub.getConfiguration().getConnectTimeout()
             );
+
+            // every long-poll loop holds a request open to the same host.
+            int subscribeConnections = this.pubnub.getConfiguration().getSubscribeConnections();
+            if (subscribeConnections > this.subscriptionClientInstance.dispatcher().getMaxRequestsPerHost()) {
+                this.subscriptionClientInstance.dispatcher().setMaxRequestsPerHost(subscribeConnections);
+            }
         }
 
         this.transactionInstance = createRetrofit(this.transactionClientInstance);
         this.subscriptionInstance = createRetrofit(this.subscriptionClientInstance);
+
+        this.pubnub.getBasePathManager().startProbing(this.transactionClientInstance);
     }
 
     private OkHttpClient createOkHttpClient(int requestTimeout, int connectTimeOut) {
@@ -55,6 +67,9 @@ public class RetrofitManager {
         httpClient.readTimeout(requestTimeout, TimeUnit.SECONDS);
         httpClient.connectTimeout(connectTimeOut, TimeUnit.SECONDS);
 
+        // first, so that everything after it sees the origin the request is actually sent to.
+        httpClient.addInterceptor(this.originInterceptor);
+
         if (pubnub.getConfiguration().getLogVerbosity() == PNLogVerbosity.BODY) {
             HttpLoggingInterceptor logging = new HttpLoggingInterceptor();
             logging.setLevel(HttpLoggingInterceptor.Level.BODY);
@@ -118,6 +133,8 @@ public class RetrofitManager {
     }
 
     public void destroy() {
+        this.pubnub.getBasePathManager().stopProbing();
+
         if (this.transactionClientInstance != null) {
             closeExecutor(this.transactionClientInstance);
         }
@@ -0,0 +1,69 @@
+package com.pubnub.api.managers;
+
+import com.pubnub.api.PubNubException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A single request of a bulk operation or a manager, sent under a shared rate limit and retried on transient failures
+ * with a capped, jittered backoff.
+ */
+@Slf4j
+public abstract class RetryingTask implements Callable<PubNubException> {
+
+    private final RateLimiter rateLimiter;
+    private final AtomicInteger requests;
+    private final int maxRetries;
+    private final long retryDelay;
+    private final long maxRetryDelay;
+
+    /**
+     * @param limiter        rate limit shared by all tasks of the operation.
+     * @param requestCounter counter of the requests sent by all tasks, retries included.
+     * @param retries        maximum number of retries.
+     * @param baseDelay      in milliseconds, backoff of the first retry.
+     * @param maxDelay       in milliseconds, cap of the backoff.
+     */
+    public RetryingTask(RateLimiter limiter, AtomicInteger requestCounter, int retries, long baseDelay,
+                        long maxDelay) {
+        this.rateLimiter = limiter;
+        this.requests = requestCounter;
+        this.maxRetries = retries;
+        this.retryDelay = baseDelay;
+        this.maxRetryDelay = maxDelay;
+    }
+
+    /**
+     * Send the request once.
+     *
+     * @throws PubNubException if the request failed.
+     */
+    protected abstract void execute() throws PubNubException;
+
+    /**
+     * @return null on success, otherwise the error of the last attempt.
+     */
+    @Override
+    public PubNubException call() throws InterruptedException {
+        for (int attempt = 0;; attempt++) {
+            rateLimiter.acquire();
+            requests.incrementAndGet();
+
+            try {
+                execute();
+                return null;
+            } catch (PubNubException e) {
+                if (attempt >= maxRetries || !Backoff.isRetryable(e)) {
+                    return e;
+                }
+
+                long delay = Backoff.delay(attempt, retryDelay, maxRetryDelay);
+                log.debug("bulk request failed with " + e.getStatusCode() + ", retrying in " + delay + "ms");
+                Thread.sleep(delay);
+            }
+        }
+    }
+
+}
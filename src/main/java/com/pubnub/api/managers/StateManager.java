@@ -32,6 +32,11 @@ public class StateManager {
      */
     private Map<String, SubscriptionItem> presenceGroups;
 
+    /**
+     * Bumped on every change of the memberships or their state.
+     */
+    private long version;
+
     public StateManager() {
         this.channels = new HashMap<>();
         this.presenceChannels = new HashMap<>();
@@ -42,6 +47,8 @@ public class StateManager {
 
 
     public synchronized void adaptSubscribeBuilder(SubscribeOperation subscribeOperation) {
+        version++;
+
         for (String channel : subscribeOperation.getChannels()) {
             SubscriptionItem subscriptionItem = new SubscriptionItem().setName(channel);
             channels.put(channel, subscriptionItem);
@@ -66,6 +73,8 @@ public class StateManager {
     }
 
     public synchronized void adaptStateBuilder(StateOperation stateOperation) {
+        version++;
+
         for (String channel: stateOperation.getChannels()) {
             SubscriptionItem subscribedChannel = channels.get(channel);
 
@@ -85,6 +94,8 @@ public class StateManager {
 
 
     public synchronized void adaptUnsubscribeBuilder(UnsubscribeOperation unsubscribeOperation) {
+        version++;
+
         for (String channel: unsubscribeOperation.getChannels()) {
             this.channels.remove(channel);
             this.presenceChannels.remove(channel);
@@ -96,6 +107,10 @@ public class StateManager {
         }
     }
 
+    public synchronized long getVersion() {
+        return version;
+    }
+
     public synchronized Map<String, Object> createStatePayload() {
         Map<String, Object> stateResponse = new HashMap<>();
 
@@ -122,6 +137,13 @@ public class StateManager {
         return prepareMembershipList(groups, presenceGroups, includePresence);
     }
 
+    /**
+     * @return channels subscribed with presence, without the presence suffix.
+     */
+    public synchronized List<String> preparePresenceChannelList() {
+        return new ArrayList<>(presenceChannels.keySet());
+    }
+
     public synchronized boolean isEmpty() {
         return (channels.isEmpty() && presenceChannels.isEmpty() && groups.isEmpty() && presenceGroups.isEmpty());
     }
@@ -1,33 +1,42 @@
 package com.pubnub.api.managers;
 
 import com.pubnub.api.PubNub;
+import com.pubnub.api.PubNubUtil;
 import com.pubnub.api.builder.dto.StateOperation;
 import com.pubnub.api.builder.dto.SubscribeOperation;
 import com.pubnub.api.builder.dto.UnsubscribeOperation;
 import com.pubnub.api.callbacks.PNCallback;
 import com.pubnub.api.callbacks.ReconnectionCallback;
 import com.pubnub.api.callbacks.SubscribeCallback;
+import com.pubnub.api.endpoints.bulk.ChannelBatches;
 import com.pubnub.api.endpoints.presence.Heartbeat;
 import com.pubnub.api.endpoints.presence.Leave;
 import com.pubnub.api.endpoints.pubsub.Subscribe;
 import com.pubnub.api.enums.PNHeartbeatNotificationOptions;
 import com.pubnub.api.enums.PNStatusCategory;
 import com.pubnub.api.models.consumer.PNStatus;
+import com.pubnub.api.models.server.PublishMetaData;
 import com.pubnub.api.models.server.SubscribeEnvelope;
 import com.pubnub.api.models.server.SubscribeMessage;
 import com.pubnub.api.workers.SubscribeMessageWorker;
+import com.pubnub.api.workers.SubscribeWorkerExecutor;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Timer;
 import java.util.TimerTask;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 public class SubscriptionManager {
 
     private static final int HEARTBEAT_INTERVAL_MULTIPLIER = 1000;
+    private static final long NO_STATE_VERSION = -1;
 
     private PubNub pubnub;
     private Subscribe subscribeCall;
@@ -53,8 +62,44 @@ public class SubscriptionManager {
      */
     private Timer timer;
 
+    /**
+     * long-poll loops of a subscription partitioned over several connections, empty with a single connection.
+     */
+    private List<PartitionLoop> partitionLoops = new ArrayList<>();
+
+    /**
+     * cursor and region of every partition, kept across restarts of the loops.
+     */
+    private Long[] partitionTimetokens = new Long[0];
+    private String[] partitionRegions = new String[0];
+
+    /**
+     * timetoken given with the latest subscribe, seeds the cursor of partitions which have none yet.
+     */
+    private Long requestedTimetoken;
+
+    /**
+     * System.nanoTime of the latest subscribe request; every subscribe refreshes presence like a heartbeat.
+     */
+    private volatile long lastSubscribeRequestAt;
+
+    /**
+     * version of the subscription state the server acknowledged through a heartbeat.
+     */
+    private volatile long acknowledgedStateVersion = NO_STATE_VERSION;
+
+    /**
+     * presence memberships of the last heartbeat, rebuilt only when the subscription state changed.
+     */
+    private List<String> heartbeatChannels;
+    private List<String> heartbeatChannelGroups;
+    private long heartbeatListsVersion = NO_STATE_VERSION;
+
     private StateManager subscriptionState;
     private ListenerManager listenerManager;
+    private PresenceEventAggregator presenceEventAggregator;
+    private ChunkAssembler chunkAssembler;
+    private SubscribeWorkerExecutor workerExecutor;
     private ReconnectionManager reconnectionManager;
     private RetrofitManager retrofitManager;
 
@@ -71,9 +116,13 @@ public class SubscriptionManager {
 
         this.subscriptionStatusAnnounced = false;
         this.messageQueue = new LinkedBlockingQueue<>();
+        this.workerExecutor = new SubscribeWorkerExecutor(this.messageQueue);
         this.subscriptionState = new StateManager();
 
         this.listenerManager = new ListenerManager(this.pubnub);
+        this.presenceEventAggregator = new PresenceEventAggregator(this.pubnub, this.listenerManager,
+                this.workerExecutor);
+        this.chunkAssembler = new ChunkAssembler(this.pubnub, this.listenerManager, this.workerExecutor);
         this.reconnectionManager = new ReconnectionManager(this.pubnub);
         this.retrofitManager = retrofitManagerInstance;
         this.duplicationManager = new DuplicationManager(this.pubnub.getConfiguration());
@@ -85,6 +134,7 @@ public class SubscriptionManager {
             @Override
             public void onReconnection() {
                 reconnect();
+                pubnub.getPresenceRoster().resync();
                 PNStatus pnStatus = PNStatus.builder()
                         .error(false)
                         .affectedChannels(subscriptionState.prepareChannelList(true))
@@ -111,8 +161,23 @@ public class SubscriptionManager {
             }
         });
 
+        this.pubnub.getChannelGroupShardManager().setProvisioningListener(
+                new ChannelGroupShardManager.ProvisioningListener() {
+                    @Override
+                    public void onProvisioned() {
+                        // newly provisioned managed groups are only picked up by a new subscribe loop.
+                        reconnect();
+                    }
+
+                    @Override
+                    public void onProvisioningFailed(PNStatus status) {
+                        listenerManager.announce(status);
+                    }
+                });
+
         if (this.pubnub.getConfiguration().isStartSubscriberThread()) {
-            consumerThread = new Thread(new SubscribeMessageWorker(this.pubnub, listenerManager, messageQueue, duplicationManager));
+            consumerThread = new Thread(new SubscribeMessageWorker(this.pubnub, listenerManager, presenceEventAggregator,
+                    chunkAssembler, messageQueue, workerExecutor, duplicationManager));
             consumerThread.setName("Subscription Manager Consumer Thread");
             consumerThread.start();
         }
@@ -135,17 +200,30 @@ public class SubscriptionManager {
     public synchronized void disconnect() {
         stopHeartbeatTimer();
         stopSubscribeLoop();
+        acknowledgedStateVersion = NO_STATE_VERSION;
+        pubnub.getHistoryCacheManager().onSubscriptionStopped();
     }
 
 
     @Deprecated
     public synchronized void stop() {
         this.disconnect();
+        reconnectionManager.stopPolling();
+        presenceEventAggregator.stop();
+        chunkAssembler.stop();
         consumerThread.interrupt();
     }
 
-    public synchronized void  destroy() {
-        this.disconnect();
+    public void destroy() {
+        synchronized (this) {
+            this.disconnect();
+            reconnectionManager.stopPolling();
+            presenceEventAggregator.stop();
+            chunkAssembler.stop();
+        }
+
+        // waits for the managed groups to be deleted, which needs nothing from the subscription.
+        pubnub.getChannelGroupShardManager().destroy();
         consumerThread.interrupt();
     }
 
@@ -160,9 +238,17 @@ public class SubscriptionManager {
         this.subscriptionStatusAnnounced = false;
 
         this.duplicationManager.clearHistory();
+        updateChannelGroupShards();
+
+        if (subscribeOperation.isPresenceEnabled()) {
+            pubnub.getPresenceRoster().track(subscribeOperation.getChannels());
+        }
+
+        requestedTimetoken = subscribeOperation.getTimetoken();
 
         if (subscribeOperation.getTimetoken() != null) {
             this.timetoken = subscribeOperation.getTimetoken();
+            Arrays.fill(partitionTimetokens, subscribeOperation.getTimetoken());
         }
 
         // if the timetoken is not at starting position, reset the timetoken to get a connected event
@@ -180,20 +266,39 @@ public class SubscriptionManager {
 
         this.subscriptionStatusAnnounced = false;
 
-        new Leave(pubnub, this.retrofitManager.getTransactionInstance())
-            .channels(unsubscribeOperation.getChannels()).channelGroups(unsubscribeOperation.getChannelGroups())
-            .async(new PNCallback<Boolean>() {
-                @Override
-                public void onResponse(Boolean result, PNStatus status) {
-                    listenerManager.announce(status);
-                }
-        });
+        pubnub.getPresenceRoster().untrack(unsubscribeOperation.getChannels());
+
+        ChannelGroupShardManager shardManager = pubnub.getChannelGroupShardManager();
+
+        if (shardManager.isActive()) {
+            // leave through the managed groups which are emptied, name the rest in batches which fit a url.
+            List<String> remainingChannels = new ArrayList<>();
+            List<String> leaveChannelGroups = new ArrayList<>(unsubscribeOperation.getChannelGroups());
+            leaveChannelGroups.addAll(shardManager.splitLeave(unsubscribeOperation.getChannels(), remainingChannels));
+            List<List<String>> batches = ChannelBatches.split(remainingChannels, ChannelBatches.DEFAULT_MAX_LENGTH,
+                    ChannelBatches.DEFAULT_MAX_NAMES);
+
+            if (batches.isEmpty()) {
+                leave(new ArrayList<String>(), leaveChannelGroups);
+            }
+
+            for (int i = 0; i < batches.size(); i++) {
+                leave(batches.get(i), i == 0 ? leaveChannelGroups : new ArrayList<String>());
+            }
+        } else {
+            leave(unsubscribeOperation.getChannels(), unsubscribeOperation.getChannelGroups());
+        }
+
+        updateChannelGroupShards();
 
         // if we unsubscribed from all the channels, reset the timetoken back to zero and remove the region.
         if (this.subscriptionState.isEmpty()) {
             region = null;
             storedTimetoken = null;
             timetoken = 0L;
+            partitionTimetokens = new Long[0];
+            partitionRegions = new String[0];
+            requestedTimetoken = null;
         } else {
             storedTimetoken = timetoken;
             timetoken = 0L;
@@ -202,6 +307,17 @@ public class SubscriptionManager {
         reconnect();
     }
 
+    private void leave(List<String> channels, List<String> channelGroups) {
+        new Leave(pubnub, this.retrofitManager.getTransactionInstance())
+            .channels(channels).channelGroups(channelGroups)
+            .async(new PNCallback<Boolean>() {
+                @Override
+                public void onResponse(Boolean result, PNStatus status) {
+                    listenerManager.announce(status);
+                }
+        });
+    }
+
     private void registerHeartbeatTimer() {
         // make sure only one timer is running at a time.
         stopHeartbeatTimer();
@@ -235,56 +351,42 @@ public class SubscriptionManager {
         List<String> combinedChannels = this.subscriptionState.prepareChannelList(true);
         List<String> combinedChannelGroups = this.subscriptionState.prepareChannelGroupList(true);
 
+        ChannelGroupShardManager shardManager = pubnub.getChannelGroupShardManager();
+
+        if (shardManager.isActive()) {
+            // channels are reached through the managed groups which are provisioned already, the rest stay named.
+            combinedChannels = shardManager.getPendingChannels(true);
+            combinedChannelGroups.addAll(shardManager.getSubscribeGroups());
+        }
+
         // do not start the subscribe loop if we have no channels to subscribe to.
         if (combinedChannels.isEmpty() && combinedChannelGroups.isEmpty()) {
             return;
         }
 
+        if (pubnub.getConfiguration().getSubscribeConnections() > 1) {
+            startPartitionLoops(combinedChannels, combinedChannelGroups);
+            return;
+        }
+
         subscribeCall = new Subscribe(pubnub, this.retrofitManager.getSubscriptionInstance())
                 .channels(combinedChannels).channelGroups(combinedChannelGroups)
                 .timetoken(timetoken).region(region)
                 .filterExpression(pubnub.getConfiguration().getFilterExpression());
 
+        lastSubscribeRequestAt = System.nanoTime();
         subscribeCall.async(new PNCallback<SubscribeEnvelope>() {
             @Override
             public void onResponse(SubscribeEnvelope result, PNStatus status) {
                 if (status.isError()) {
-
-                    if (status.getCategory() == PNStatusCategory.PNTimeoutCategory) {
+                    if (isRetriedInPlace(status)) {
                         startSubscribeLoop();
-                    } else {
-                        disconnect();
-                        listenerManager.announce(status);
-
-                        // stop all announcements and ask the reconnection manager to start polling for connection restoration..
-                        reconnectionManager.startPolling();
                     }
 
                     return;
                 }
 
-                if (!subscriptionStatusAnnounced) {
-                    PNStatus pnStatus = createPublicStatus(status)
-                            .category(PNStatusCategory.PNConnectedCategory)
-                            .error(false)
-                            .build();
-                    subscriptionStatusAnnounced = true;
-                    listenerManager.announce(pnStatus);
-                }
-
-                Integer requestMessageCountThreshold = pubnub.getConfiguration().getRequestMessageCountThreshold();
-                if (requestMessageCountThreshold != null && requestMessageCountThreshold <= result.getMessages().size()) {
-                    PNStatus pnStatus = createPublicStatus(status)
-                            .category(PNStatusCategory.PNRequestMessageCountExceededCategory)
-                            .error(false)
-                            .build();
-
-                    listenerManager.announce(pnStatus);
-                }
-
-                if (result.getMessages().size() != 0) {
-                    messageQueue.addAll(result.getMessages());
-                }
+                prepareDelivery(result, status, timetoken, subscriptionState.prepareChannelList(false)).run();
 
                 if (storedTimetoken != null) {
                     timetoken = storedTimetoken;
@@ -300,11 +402,143 @@ public class SubscriptionManager {
 
     }
 
+    /**
+     * Spread channels and groups over the configured number of long-poll loops; consistent hashing keeps a
+     * channel on the same loop, with the same cursor, when others are added or removed.
+     */
+    private void startPartitionLoops(List<String> combinedChannels, List<String> combinedChannelGroups) {
+        int connections = pubnub.getConfiguration().getSubscribeConnections();
+        ConsistentHashRing ring = new ConsistentHashRing(connections);
+
+        List<List<String>> channels = new ArrayList<>();
+        List<List<String>> channelGroups = new ArrayList<>();
+
+        for (int i = 0; i < connections; i++) {
+            channels.add(new ArrayList<String>());
+            channelGroups.add(new ArrayList<String>());
+        }
+
+        // presence of a channel, or group, travels on the same loop as the channel itself.
+        for (String channel : combinedChannels) {
+            channels.get(ring.nodeFor(PubNubUtil.replaceLast(channel, "-pnpres", ""))).add(channel);
+        }
+
+        for (String channelGroup : combinedChannelGroups) {
+            channelGroups.get(ring.nodeFor(PubNubUtil.replaceLast(channelGroup, "-pnpres", ""))).add(channelGroup);
+        }
+
+        if (partitionTimetokens.length != connections) {
+            partitionTimetokens = new Long[connections];
+            partitionRegions = new String[connections];
+        }
+
+        for (int i = 0; i < connections; i++) {
+            if (partitionTimetokens[i] == null) {
+                partitionTimetokens[i] = requestedTimetoken;
+            }
+        }
+
+        for (int i = 0; i < connections; i++) {
+            if (!channels.get(i).isEmpty() || !channelGroups.get(i).isEmpty()) {
+                PartitionLoop loop = new PartitionLoop(i, channels.get(i), channelGroups.get(i));
+                partitionLoops.add(loop);
+                loop.subscribe();
+            }
+        }
+    }
+
+    /**
+     * Handle a failed subscribe request.
+     *
+     * @return true if the request only timed out and the loop should carry on.
+     */
+    private boolean isRetriedInPlace(PNStatus status) {
+        if (status.getCategory() == PNStatusCategory.PNTimeoutCategory) {
+            return true;
+        }
+
+        disconnect();
+        reportSubscribeFailure(status);
+        return false;
+    }
+
+    /**
+     * Announce a subscribe failure and wait for the origin to come back; must not be called while holding the
+     * manager, listeners run on the calling thread.
+     */
+    private void reportSubscribeFailure(PNStatus status) {
+        listenerManager.announce(status);
+
+        // stop all announcements and ask the reconnection manager to start polling for connection restoration..
+        reconnectionManager.startPolling();
+    }
+
+    /**
+     * Work out the outcome of a successful subscribe request; the returned delivery announces it and hands the
+     * messages to the worker, and runs once the manager is released.
+     */
+    private Delivery prepareDelivery(SubscribeEnvelope result, PNStatus status, Long previousTimetoken,
+                                     List<String> channels) {
+        Delivery delivery = new Delivery(result.getMessages());
+
+        if (!subscriptionStatusAnnounced) {
+            PNStatus pnStatus = createPublicStatus(status)
+                    .category(PNStatusCategory.PNConnectedCategory)
+                    .error(false)
+                    .build();
+            subscriptionStatusAnnounced = true;
+            delivery.statuses.add(pnStatus);
+        }
+
+        Integer requestMessageCountThreshold = pubnub.getConfiguration().getRequestMessageCountThreshold();
+        if (requestMessageCountThreshold != null && requestMessageCountThreshold <= result.getMessages().size()) {
+            PNStatus pnStatus = createPublicStatus(status)
+                    .category(PNStatusCategory.PNRequestMessageCountExceededCategory)
+                    .error(false)
+                    .build();
+
+            delivery.statuses.add(pnStatus);
+        }
+
+        if (pubnub.getHistoryCacheManager().isEnabled()) {
+            // before the messages are queued, the worker appends them to the cache.
+            trackHistoryTail(result, previousTimetoken, channels);
+        }
+
+        return delivery;
+    }
+
+    private void trackHistoryTail(SubscribeEnvelope result, Long previousTimetoken, List<String> channels) {
+        Map<String, Long> lastMessageTimetokens = new HashMap<>();
+
+        for (SubscribeMessage message : result.getMessages()) {
+            PublishMetaData publishMetaData = message.getPublishMetaData();
+
+            if (publishMetaData == null || publishMetaData.getPublishTimetoken() == null) {
+                continue;
+            }
+
+            Long last = lastMessageTimetokens.get(message.getChannel());
+            if (last == null || last < publishMetaData.getPublishTimetoken()) {
+                lastMessageTimetokens.put(message.getChannel(), publishMetaData.getPublishTimetoken());
+            }
+        }
+
+        pubnub.getHistoryCacheManager().onSubscribeResponse(channels,
+                previousTimetoken, result.getMetadata().getTimetoken(), lastMessageTimetokens);
+    }
+
     private void stopSubscribeLoop() {
         if (subscribeCall != null) {
             subscribeCall.silentCancel();
             subscribeCall = null;
         }
+
+        for (PartitionLoop loop : partitionLoops) {
+            loop.stop();
+        }
+
+        partitionLoops.clear();
     }
 
     private void performHeartbeatLoop() {
@@ -313,15 +547,39 @@ public class SubscriptionManager {
             heartbeatCall = null;
         }
 
-        List<String> presenceChannels = this.subscriptionState.prepareChannelList(false);
-        List<String> presenceChannelGroups = this.subscriptionState.prepareChannelGroupList(false);
-        Map<String, Object> stateStorage = this.subscriptionState.createStatePayload();
+        final long stateVersion = this.subscriptionState.getVersion();
+
+        if (heartbeatListsVersion != stateVersion) {
+            heartbeatChannels = this.subscriptionState.prepareChannelList(false);
+            heartbeatChannelGroups = this.subscriptionState.prepareChannelGroupList(false);
+            heartbeatListsVersion = stateVersion;
+        }
+
+        List<String> presenceChannels = heartbeatChannels;
+        List<String> presenceChannelGroups = heartbeatChannelGroups;
+        ChannelGroupShardManager shardManager = pubnub.getChannelGroupShardManager();
+
+        if (shardManager.isActive()) {
+            presenceChannels = shardManager.getPendingChannels(false);
+            presenceChannelGroups = new ArrayList<>(heartbeatChannelGroups);
+            presenceChannelGroups.addAll(shardManager.getHeartbeatGroups());
+        }
 
         // do not start the loop if we do not have any presence channels or channel groups enabled.
         if (presenceChannels.isEmpty() && presenceChannelGroups.isEmpty()) {
             return;
         }
 
+        final boolean suppressRedundant = pubnub.getConfiguration().isSuppressRedundantHeartbeats();
+        boolean stateAcknowledged = suppressRedundant && acknowledgedStateVersion == stateVersion;
+
+        if (stateAcknowledged && isSubscribeRecent()) {
+            log.trace("heartbeat skipped, a recent subscribe request refreshed presence");
+            return;
+        }
+
+        Map<String, Object> stateStorage = stateAcknowledged ? null : this.subscriptionState.createStatePayload();
+
         heartbeatCall = new Heartbeat(pubnub, this.retrofitManager.getTransactionInstance())
                 .channels(presenceChannels).channelGroups(presenceChannelGroups).state(stateStorage);
 
@@ -332,12 +590,19 @@ public class SubscriptionManager {
                         .getConfiguration().getHeartbeatNotificationOptions();
 
                 if (status.isError()) {
+                    // the server may have dropped the state with the presence, send it again.
+                    acknowledgedStateVersion = NO_STATE_VERSION;
+
                     if (heartbeatVerbosity == PNHeartbeatNotificationOptions.ALL
                             || heartbeatVerbosity == PNHeartbeatNotificationOptions.FAILURES) {
                         listenerManager.announce(status);
                     }
 
                 } else {
+                    if (suppressRedundant) {
+                        acknowledgedStateVersion = stateVersion;
+                    }
+
                     if (heartbeatVerbosity == PNHeartbeatNotificationOptions.ALL) {
                         listenerManager.announce(status);
                     }
@@ -347,6 +612,21 @@ public class SubscriptionManager {
 
     }
 
+    private void updateChannelGroupShards() {
+        pubnub.getChannelGroupShardManager().update(this.subscriptionState.prepareChannelList(false),
+                this.subscriptionState.preparePresenceChannelList(),
+                this.subscriptionState.prepareChannelGroupList(true));
+    }
+
+    /**
+     * @return true if a subscribe loop is running and its latest request went out within the heartbeat interval.
+     */
+    private boolean isSubscribeRecent() {
+        long interval = TimeUnit.SECONDS.toNanos(pubnub.getConfiguration().getHeartbeatInterval());
+        return (subscribeCall != null || !partitionLoops.isEmpty())
+                && System.nanoTime() - lastSubscribeRequestAt < interval;
+    }
+
     public synchronized List<String> getSubscribedChannels() {
         return subscriptionState.prepareChannelList(false);
     }
@@ -362,6 +642,131 @@ public class SubscriptionManager {
                 .build());
     }
 
+    /**
+     * Long-poll loop over one partition of the subscription, with a cursor of its own.
+     */
+    private final class PartitionLoop {
+
+        private final int partition;
+        private final List<String> channels;
+        private final List<String> channelGroups;
+
+        private Subscribe call;
+        private boolean stopped;
+        private long timetoken;
+        private Long storedTimetoken;
+
+        PartitionLoop(int partitionIndex, List<String> partitionChannels, List<String> partitionChannelGroups) {
+            this.partition = partitionIndex;
+            this.channels = partitionChannels;
+            this.channelGroups = partitionChannelGroups;
+
+            // like the single loop, start from zero to get connected and resume from the stored cursor afterwards.
+            Long previous = partitionTimetokens[partitionIndex];
+            this.timetoken = 0L;
+            this.storedTimetoken = previous != null && previous != 0L ? previous : null;
+        }
+
+        private void subscribe() {
+            synchronized (SubscriptionManager.this) {
+                if (stopped) {
+                    return;
+                }
+
+                call = new Subscribe(pubnub, retrofitManager.getSubscriptionInstance())
+                        .channels(channels).channelGroups(channelGroups)
+                        .timetoken(timetoken).region(partitionRegions[partition])
+                        .filterExpression(pubnub.getConfiguration().getFilterExpression());
+
+                lastSubscribeRequestAt = System.nanoTime();
+            }
+
+            call.async(new PNCallback<SubscribeEnvelope>() {
+                @Override
+                public void onResponse(SubscribeEnvelope result, PNStatus status) {
+                    onResponseReceived(result, status);
+                }
+            });
+        }
+
+        private void onResponseReceived(SubscribeEnvelope result, PNStatus status) {
+            Delivery delivery = null;
+
+            synchronized (SubscriptionManager.this) {
+                if (stopped) {
+                    return;
+                }
+
+                if (status.isError()) {
+                    if (status.getCategory() != PNStatusCategory.PNTimeoutCategory) {
+                        disconnect();
+                    }
+                } else {
+                    List<String> plainChannels = new ArrayList<>();
+
+                    for (String channel : channels) {
+                        if (!channel.endsWith("-pnpres")) {
+                            plainChannels.add(channel);
+                        }
+                    }
+
+                    delivery = prepareDelivery(result, status, timetoken, plainChannels);
+
+                    if (storedTimetoken != null) {
+                        timetoken = storedTimetoken;
+                        storedTimetoken = null;
+                    } else {
+                        timetoken = result.getMetadata().getTimetoken();
+                    }
+
+                    partitionTimetokens[partition] = timetoken;
+                    partitionRegions[partition] = result.getMetadata().getRegion();
+                }
+            }
+
+            // listeners are called outside of the manager, they may subscribe or unsubscribe from another thread.
+            if (delivery != null) {
+                delivery.run();
+            } else if (status.getCategory() != PNStatusCategory.PNTimeoutCategory) {
+                reportSubscribeFailure(status);
+                return;
+            }
+
+            subscribe();
+        }
+
+        private void stop() {
+            stopped = true;
+
+            if (call != null) {
+                call.silentCancel();
+            }
+        }
+    }
+
+    /**
+     * Statuses and messages of a successful subscribe request, handed over in that order.
+     */
+    private final class Delivery {
+
+        private final List<PNStatus> statuses = new ArrayList<>();
+        private final List<SubscribeMessage> messages;
+
+        Delivery(List<SubscribeMessage> receivedMessages) {
+            this.messages = receivedMessages;
+        }
+
+        private void run() {
+            for (PNStatus status : statuses) {
+                listenerManager.announce(status);
+            }
+
+            if (messages.size() != 0) {
+                messageQueue.addAll(messages);
+            }
+        }
+    }
+
     private PNStatus.PNStatusBuilder createPublicStatus(PNStatus privateStatus) {
         return PNStatus.builder()
                 .statusCode(privateStatus.getStatusCode())
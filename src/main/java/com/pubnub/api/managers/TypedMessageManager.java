@@ -0,0 +1,175 @@
+package com.pubnub.api.managers;
+
+import com.google.gson.JsonElement;
+import com.google.gson.TypeAdapter;
+import com.pubnub.api.PubNub;
+import com.pubnub.api.PubNubException;
+import com.pubnub.api.builder.PubNubErrorBuilder;
+import com.pubnub.api.callbacks.TypedMessageCallback;
+import com.pubnub.api.models.consumer.pubsub.PNMessageResult;
+import com.pubnub.api.models.consumer.pubsub.PNTypedMessageResult;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Delivers messages decoded into the type registered for their channel.
+ *
+ * Listeners register a type for a channel, or for every channel below a wildcard like "chat.*". The adapter of the
+ * type is looked up once at registration, the listeners of a channel are resolved once and kept until listeners
+ * change, and a message is decoded once per type no matter how many listeners share it. Payloads are decoded from
+ * the json tree the subscribe response was parsed into, on the subscribe worker. At most 1024
+ * channels keep their resolved listeners, the cache starts over once it is full.
+ */
+public class TypedMessageManager {
+
+    private static final String WILDCARD = ".*";
+    private static final int MAX_RESOLVED_CHANNELS = 1024;
+
+    private PubNub pubnub;
+
+    private final List<Registration<?>> registrations = new CopyOnWriteArrayList<>();
+    private final Map<String, List<Registration<?>>> resolved = new ConcurrentHashMap<>();
+
+    public TypedMessageManager(PubNub pubnubInstance) {
+        this.pubnub = pubnubInstance;
+    }
+
+    /**
+     * @param channel  channel name, or a wildcard ending in ".*".
+     * @param type     type payloads are decoded into.
+     * @param callback listener of the decoded messages.
+     * @param <T>      type payloads are decoded into.
+     */
+    public <T> void addListener(String channel, Class<T> type, TypedMessageCallback<T> callback) {
+        TypeAdapter<T> adapter = pubnub.getMapper().getCodec() instanceof GsonCodec
+                ? pubnub.getMapper().getObjectMapper().getAdapter(type) : null;
+
+        synchronized (this) {
+            registrations.add(new Registration<>(channel, type, adapter, callback));
+            resolved.clear();
+        }
+    }
+
+    public synchronized void removeListener(TypedMessageCallback<?> callback) {
+        for (Registration<?> registration : registrations) {
+            if (registration.callback == callback) {
+                registrations.remove(registration);
+            }
+        }
+
+        resolved.clear();
+    }
+
+    /**
+     * Decode a message for the typed listeners of its channel.
+     *
+     * @param result message as delivered to the plain listeners.
+     */
+    public void announce(PNMessageResult result) {
+        if (registrations.isEmpty() || result.getChannel() == null || result.getMessage() == null) {
+            return;
+        }
+
+        List<Registration<?>> listeners = resolve(result.getChannel());
+
+        if (listeners.isEmpty()) {
+            return;
+        }
+
+        Map<Class<?>, Object> decoded = new HashMap<>();
+
+        for (Registration<?> registration : listeners) {
+            registration.deliver(result, decoded);
+        }
+    }
+
+    private List<Registration<?>> resolve(String channel) {
+        List<Registration<?>> listeners = resolved.get(channel);
+        return listeners != null ? listeners : resolveMissing(channel);
+    }
+
+    /**
+     * Resolved under the lock which listener changes take, so a list built from outdated registrations is never kept.
+     */
+    private synchronized List<Registration<?>> resolveMissing(String channel) {
+        List<Registration<?>> listeners = new ArrayList<>();
+
+        for (Registration<?> registration : registrations) {
+            if (registration.matches(channel)) {
+                listeners.add(registration);
+            }
+        }
+
+        if (resolved.size() >= MAX_RESOLVED_CHANNELS) {
+            resolved.clear();
+        }
+
+        listeners = Collections.unmodifiableList(listeners);
+        resolved.put(channel, listeners);
+        return listeners;
+    }
+
+    private final class Registration<T> {
+
+        private final String channel;
+        private final Class<T> type;
+        private final TypeAdapter<T> adapter;
+        private final TypedMessageCallback<T> callback;
+
+        private Registration(String channelName, Class<T> messageType, TypeAdapter<T> typeAdapter,
+                             TypedMessageCallback<T> typedCallback) {
+            this.channel = channelName;
+            this.type = messageType;
+            this.adapter = typeAdapter;
+            this.callback = typedCallback;
+        }
+
+        private boolean matches(String name) {
+            if (channel.endsWith(WILDCARD)) {
+                // "chat.*" covers "chat.room" but not "chat" itself.
+                return name.startsWith(channel.substring(0, channel.length() - 1));
+            }
+
+            return channel.equals(name);
+        }
+
+        private void deliver(PNMessageResult result, Map<Class<?>, Object> decoded) {
+            T message;
+
+            try {
+                message = type.cast(decoded.containsKey(type) ? decoded.get(type) : decode(result.getMessage()));
+                decoded.put(type, message);
+            } catch (RuntimeException e) {
+                // Gson reports malformed and mismatching input with unchecked exceptions.
+                PubNubException error = PubNubException.builder().pubnubError(PubNubErrorBuilder.PNERROBJ_PARSING_ERROR)
+                        .errormsg(e.getMessage()).build();
+                callback.decodingFailed(pubnub, result, error);
+                return;
+            }
+
+            callback.message(pubnub, PNTypedMessageResult.<T>builder()
+                    .message(message)
+                    .channel(result.getChannel())
+                    .subscription(result.getSubscription())
+                    .timetoken(result.getTimetoken())
+                    .userMetadata(result.getUserMetadata())
+                    .publisher(result.getPublisher())
+                    .build());
+        }
+
+        private T decode(JsonElement payload) {
+            if (adapter != null) {
+                return adapter.fromJsonTree(payload);
+            }
+
+            return pubnub.getMapper().getCodec().fromJsonTree(payload, type);
+        }
+    }
+
+}
@@ -0,0 +1,26 @@
+package com.pubnub.api.models.consumer;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@Builder
+@ToString
+public class PNChunkedPublishResult {
+
+    /**
+     * id shared by the parts, null if the message fit into a single publish.
+     */
+    private String messageId;
+    private int parts;
+    /**
+     * timetoken of the last part to be stored.
+     */
+    private Long timetoken;
+
+    private int requests;
+    private int retries;
+    private long elapsedMillis;
+
+}
@@ -0,0 +1,38 @@
+package com.pubnub.api.models.consumer.access_manager;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+import java.util.Map;
+
+@Builder
+@Getter
+@ToString
+public class PNAccessManagerBulkGrantResult {
+
+    private String level;
+    private int ttl;
+    private String subscribeKey;
+
+    /**
+     * merged grants of all successful requests, per channel and auth key.
+     */
+    private Map<String, Map<String, PNAccessManagerKeyData>> channels;
+
+    private Map<String, Map<String, PNAccessManagerKeyData>> channelGroups;
+
+    /**
+     * requests which still failed after all retries, with the auth keys and targets they covered.
+     */
+    private List<PNAccessManagerFailedGrant> failedGrants;
+
+    /**
+     * requests sent, retries included.
+     */
+    private int requests;
+    private int retries;
+    private long elapsedMillis;
+
+}
@@ -0,0 +1,27 @@
+package com.pubnub.api.models.consumer.access_manager;
+
+import com.pubnub.api.PubNubException;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+/**
+ * A grant of a bulk grant which still failed after all retries; granting the same auth keys on the same targets
+ * again retries exactly this request.
+ */
+@Builder
+@Getter
+@ToString
+public class PNAccessManagerFailedGrant {
+
+    /**
+     * empty if the grant applied to everyone on the targets.
+     */
+    private List<String> authKeys;
+    private List<String> channels;
+    private List<String> channelGroups;
+    private PubNubException error;
+
+}
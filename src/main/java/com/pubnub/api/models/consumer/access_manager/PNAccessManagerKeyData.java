@@ -21,4 +21,10 @@ public class PNAccessManagerKeyData {
     @SerializedName("m")
     private boolean manageEnabled;
 
+    /**
+     * in minutes, as returned by an audit; null if the response did not carry it.
+     */
+    @SerializedName("ttl")
+    private Integer ttl;
+
 }
@@ -0,0 +1,31 @@
+package com.pubnub.api.models.consumer.channel_group;
+
+import com.pubnub.api.PubNubException;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+import java.util.Map;
+
+@Builder
+@Getter
+@ToString
+public class PNChannelGroupsReconcileResult {
+
+    private List<String> addedChannels;
+    private List<String> removedChannels;
+    /**
+     * channels which were already in the group and are wanted.
+     */
+    private int unchangedChannels;
+    /**
+     * channels of batches which still failed after all retries, with the last error.
+     */
+    private Map<String, PubNubException> failedChannels;
+    /**
+     * requests sent, the membership listing and retries included.
+     */
+    private int requests;
+
+}
@@ -0,0 +1,37 @@
+package com.pubnub.api.models.consumer.history;
+
+import com.pubnub.api.PubNubException;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+import java.util.Map;
+
+@Getter
+@Builder
+@ToString
+public class PNBulkDeleteMessagesResult {
+
+    private static final double MILLISECONDS_PER_SECOND = 1000.0;
+
+    private List<String> deletedChannels;
+    /**
+     * channels of batches which still failed after all retries, with the last error.
+     */
+    private Map<String, PubNubException> failedChannels;
+    /**
+     * requests sent, retries included.
+     */
+    private int requests;
+    private int retries;
+    private long elapsedMillis;
+
+    /**
+     * @return channels purged per second over the whole run.
+     */
+    public double getChannelsPerSecond() {
+        return elapsedMillis > 0 ? deletedChannels.size() * MILLISECONDS_PER_SECOND / elapsedMillis : deletedChannels.size();
+    }
+
+}
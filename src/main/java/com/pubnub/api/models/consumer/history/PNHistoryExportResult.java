@@ -0,0 +1,19 @@
+package com.pubnub.api.models.consumer.history;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@Builder
+@ToString
+public class PNHistoryExportResult {
+
+    private long exportedMessages;
+    private int completedTasks;
+    /**
+     * tasks which were already finished by an earlier run of the export.
+     */
+    private int skippedTasks;
+
+}
@@ -0,0 +1,19 @@
+package com.pubnub.api.models.consumer.history;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Summary of a streamed call, the items themselves are handed to the item callback as they are decoded.
+ */
+@Getter
+@Builder
+@ToString
+public class PNStreamResult {
+
+    private int itemCount;
+    private Long startTimetoken;
+    private Long endTimetoken;
+
+}
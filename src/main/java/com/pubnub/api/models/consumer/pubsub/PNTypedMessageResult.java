@@ -0,0 +1,22 @@
+package com.pubnub.api.models.consumer.pubsub;
+
+import com.google.gson.JsonElement;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@Builder
+@ToString
+public class PNTypedMessageResult<T> {
+
+    private T message;
+
+    private String channel;
+    private String subscription;
+
+    private Long timetoken;
+    private JsonElement userMetadata;
+
+    private String publisher;
+}
@@ -0,0 +1,44 @@
+package com.pubnub.api.models.consumer.push;
+
+import com.pubnub.api.PubNubException;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Map;
+
+@Getter
+@Builder
+@ToString
+public class PNBulkPushProvisioningResult {
+
+    private static final double MILLISECONDS_PER_SECOND = 1000.0;
+
+    /**
+     * provisions which were applied.
+     */
+    private int provisioned;
+    /**
+     * provisions the provision cache knew to change nothing.
+     */
+    private int skipped;
+    /**
+     * provisions which still failed after all retries, with the last error; every provision is a key of its own.
+     */
+    private Map<PNPushProvision, PubNubException> failedProvisions;
+    /**
+     * requests sent, retries included.
+     */
+    private int requests;
+    private int retries;
+    private long elapsedMillis;
+
+    /**
+     * @return provisions applied or skipped per second over the whole run.
+     */
+    public double getProvisionsPerSecond() {
+        int done = provisioned + skipped;
+        return elapsedMillis > 0 ? done * MILLISECONDS_PER_SECOND / elapsedMillis : done;
+    }
+
+}
@@ -0,0 +1,32 @@
+package com.pubnub.api.models.consumer.push;
+
+import com.pubnub.api.enums.PNPushType;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+/**
+ * A single change of the push channels of a device, as handed to a bulk provisioning run.
+ */
+@Builder
+@Getter
+@ToString
+public class PNPushProvision {
+
+    public enum Action {
+        ADD,
+        REMOVE,
+        REMOVE_ALL
+    }
+
+    private String deviceId;
+    private PNPushType pushType;
+    private Action action;
+    /**
+     * channels to add or remove, ignored by REMOVE_ALL.
+     */
+    private List<String> channels;
+
+}
@@ -0,0 +1,102 @@
+package com.pubnub.api.models.server;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Streaming decoder of a server model; unknown fields are skipped, and encoding is left to the reflective adapter
+ * since the SDK never sends these models.
+ *
+ * The read helpers accept the same input as the Gson adapters of the field types, so both paths decode alike.
+ *
+ * @param <T> model type.
+ */
+public abstract class ModelAdapter<T> extends TypeAdapter<T> {
+
+    private final TypeAdapter<T> delegate;
+
+    protected ModelAdapter(TypeAdapter<T> reflectiveAdapter) {
+        this.delegate = reflectiveAdapter;
+    }
+
+    /**
+     * @return empty model to read the fields into.
+     */
+    protected abstract T create();
+
+    /**
+     * @param in    reader positioned at the value of the field.
+     * @param name  field name.
+     * @param model model being read.
+     * @return false if the field is unknown and has to be skipped.
+     * @throws IOException if the value could not be read.
+     */
+    protected abstract boolean readField(JsonReader in, String name, T model) throws IOException;
+
+    @Override
+    public void write(JsonWriter out, T value) throws IOException {
+        delegate.write(out, value);
+    }
+
+    @Override
+    public T read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        T model = create();
+        in.beginObject();
+
+        while (in.hasNext()) {
+            if (!readField(in, in.nextName(), model)) {
+                in.skipValue();
+            }
+        }
+
+        in.endObject();
+        return model;
+    }
+
+    protected static String readString(JsonReader in) throws IOException {
+        JsonToken peek = in.peek();
+
+        if (peek == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        return peek == JsonToken.BOOLEAN ? Boolean.toString(in.nextBoolean()) : in.nextString();
+    }
+
+    protected static Long readLong(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        return in.nextLong();
+    }
+
+    protected static Integer readInteger(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        return in.nextInt();
+    }
+
+    /**
+     * @param fallback value of a primitive field when the input is null, which leaves the field untouched.
+     */
+    protected static int readInt(JsonReader in, int fallback) throws IOException {
+        Integer value = readInteger(in);
+        return value != null ? value : fallback;
+    }
+
+}
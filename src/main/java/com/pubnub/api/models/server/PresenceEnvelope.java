@@ -1,9 +1,12 @@
 package com.pubnub.api.models.server;
 
 import com.google.gson.JsonElement;
+import lombok.AccessLevel;
 import lombok.Getter;
+import lombok.Setter;
 
 @Getter
+@Setter(AccessLevel.PACKAGE)
 public class PresenceEnvelope {
 
     private String action;
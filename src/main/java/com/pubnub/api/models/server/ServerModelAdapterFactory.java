@@ -0,0 +1,469 @@
+package com.pubnub.api.models.server;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.pubnub.api.models.server.presence.WhereNowPayload;
+
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hand written decoders of the server models, which skip the reflection Gson otherwise uses to look up and fill
+ * their fields on first use and on every read.
+ */
+public class ServerModelAdapterFactory implements TypeAdapterFactory {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        Class<? super T> rawType = type.getRawType();
+
+        if (rawType == SubscribeEnvelope.class) {
+            return (TypeAdapter<T>) new SubscribeEnvelopeAdapter(gson, delegate(gson, SubscribeEnvelope.class));
+        } else if (rawType == SubscribeMessage.class) {
+            return (TypeAdapter<T>) new SubscribeMessageAdapter(gson, delegate(gson, SubscribeMessage.class));
+        } else if (rawType == SubscribeMetadata.class) {
+            return (TypeAdapter<T>) new SubscribeMetadataAdapter(delegate(gson, SubscribeMetadata.class));
+        } else if (rawType == PublishMetaData.class) {
+            return (TypeAdapter<T>) new PublishMetaDataAdapter(delegate(gson, PublishMetaData.class));
+        } else if (rawType == OriginationMetaData.class) {
+            return (TypeAdapter<T>) new OriginationMetaDataAdapter(delegate(gson, OriginationMetaData.class));
+        } else if (rawType == Envelope.class) {
+            return (TypeAdapter<T>) new EnvelopeAdapter(gson, type.getType(), gson.getDelegateAdapter(this, type));
+        } else if (rawType == PresenceEnvelope.class) {
+            return (TypeAdapter<T>) new PresenceEnvelopeAdapter(gson, delegate(gson, PresenceEnvelope.class));
+        } else if (rawType == DeleteMessagesEnvelope.class) {
+            return (TypeAdapter<T>) new DeleteMessagesEnvelopeAdapter(gson, delegate(gson, DeleteMessagesEnvelope.class));
+        } else if (rawType == FetchMessagesEnvelope.class) {
+            return (TypeAdapter<T>) new FetchMessagesEnvelopeAdapter(gson, delegate(gson, FetchMessagesEnvelope.class));
+        } else if (rawType == HistoryForChannelsItem.class) {
+            return (TypeAdapter<T>) new HistoryForChannelsItemAdapter(gson, delegate(gson, HistoryForChannelsItem.class));
+        } else if (rawType == WhereNowPayload.class) {
+            return (TypeAdapter<T>) new WhereNowPayloadAdapter(gson, delegate(gson, WhereNowPayload.class));
+        }
+
+        return null;
+    }
+
+    private <T> TypeAdapter<T> delegate(Gson gson, Class<T> clazz) {
+        return gson.getDelegateAdapter(this, TypeToken.get(clazz));
+    }
+
+    private static final class SubscribeEnvelopeAdapter extends ModelAdapter<SubscribeEnvelope> {
+
+        private final TypeAdapter<SubscribeMessage> messageAdapter;
+        private final TypeAdapter<SubscribeMetadata> metadataAdapter;
+
+        private SubscribeEnvelopeAdapter(Gson gson, TypeAdapter<SubscribeEnvelope> delegate) {
+            super(delegate);
+            this.messageAdapter = gson.getAdapter(SubscribeMessage.class);
+            this.metadataAdapter = gson.getAdapter(SubscribeMetadata.class);
+        }
+
+        @Override
+        protected SubscribeEnvelope create() {
+            return new SubscribeEnvelope();
+        }
+
+        @Override
+        protected boolean readField(JsonReader in, String name, SubscribeEnvelope model) throws IOException {
+            switch (name) {
+                case "m":
+                    model.setMessages(readList(in, messageAdapter));
+                    return true;
+                case "t":
+                    model.setMetadata(metadataAdapter.read(in));
+                    return true;
+                default:
+                    return false;
+            }
+        }
+    }
+
+    private static final class SubscribeMessageAdapter extends ModelAdapter<SubscribeMessage> {
+
+        private final TypeAdapter<JsonElement> elementAdapter;
+        private final TypeAdapter<OriginationMetaData> originationAdapter;
+        private final TypeAdapter<PublishMetaData> publishAdapter;
+
+        private SubscribeMessageAdapter(Gson gson, TypeAdapter<SubscribeMessage> delegate) {
+            super(delegate);
+            this.elementAdapter = gson.getAdapter(JsonElement.class);
+            this.originationAdapter = gson.getAdapter(OriginationMetaData.class);
+            this.publishAdapter = gson.getAdapter(PublishMetaData.class);
+        }
+
+        @Override
+        protected SubscribeMessage create() {
+            return new SubscribeMessage();
+        }
+
+        @Override
+        protected boolean readField(JsonReader in, String name, SubscribeMessage model) throws IOException {
+            switch (name) {
+                case "a":
+                    model.setShard(readString(in));
+                    return true;
+                case "b":
+                    model.setSubscriptionMatch(readString(in));
+                    return true;
+                case "c":
+                    model.setChannel(readString(in));
+                    return true;
+                case "d":
+                    model.setPayload(elementAdapter.read(in));
+                    return true;
+                case "f":
+                    model.setFlags(readString(in));
+                    return true;
+                case "i":
+                    model.setIssuingClientId(readString(in));
+                    return true;
+                case "k":
+                    model.setSubscribeKey(readString(in));
+                    return true;
+                case "o":
+                    model.setOriginationMetadata(originationAdapter.read(in));
+                    return true;
+                case "p":
+                    model.setPublishMetaData(publishAdapter.read(in));
+                    return true;
+                case "u":
+                    model.setUserMetadata(elementAdapter.read(in));
+                    return true;
+                default:
+                    return false;
+            }
+        }
+    }
+
+    private static final class SubscribeMetadataAdapter extends ModelAdapter<SubscribeMetadata> {
+
+        private SubscribeMetadataAdapter(TypeAdapter<SubscribeMetadata> delegate) {
+            super(delegate);
+        }
+
+        @Override
+        protected SubscribeMetadata create() {
+            return new SubscribeMetadata();
+        }
+
+        @Override
+        protected boolean readField(JsonReader in, String name, SubscribeMetadata model) throws IOException {
+            switch (name) {
+                case "t":
+                    model.setTimetoken(readLong(in));
+                    return true;
+                case "r":
+                    model.setRegion(readString(in));
+                    return true;
+                default:
+                    return false;
+            }
+        }
+    }
+
+    private static final class PublishMetaDataAdapter extends ModelAdapter<PublishMetaData> {
+
+        private PublishMetaDataAdapter(TypeAdapter<PublishMetaData> delegate) {
+            super(delegate);
+        }
+
+        @Override
+        protected PublishMetaData create() {
+            return new PublishMetaData();
+        }
+
+        @Override
+        protected boolean readField(JsonReader in, String name, PublishMetaData model) throws IOException {
+            switch (name) {
+                case "t":
+                    model.setPublishTimetoken(readLong(in));
+                    return true;
+                case "r":
+                    model.setRegion(readInteger(in));
+                    return true;
+                default:
+                    return false;
+            }
+        }
+    }
+
+    private static final class OriginationMetaDataAdapter extends ModelAdapter<OriginationMetaData> {
+
+        private OriginationMetaDataAdapter(TypeAdapter<OriginationMetaData> delegate) {
+            super(delegate);
+        }
+
+        @Override
+        protected OriginationMetaData create() {
+            return new OriginationMetaData();
+        }
+
+        @Override
+        protected boolean readField(JsonReader in, String name, OriginationMetaData model) throws IOException {
+            switch (name) {
+                case "t":
+                    model.setTimetoken(readLong(in));
+                    return true;
+                case "r":
+                    model.setRegion(readInteger(in));
+                    return true;
+                default:
+                    return false;
+            }
+        }
+    }
+
+    /**
+     * Envelope of most json endpoints; the payload is decoded with the adapter of the type argument.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static final class EnvelopeAdapter extends ModelAdapter<Envelope> {
+
+        private final TypeAdapter<Object> payloadAdapter;
+        private final TypeAdapter<JsonElement> elementAdapter;
+        private final TypeAdapter<Boolean> booleanAdapter;
+
+        private EnvelopeAdapter(Gson gson, Type type, TypeAdapter delegate) {
+            super(delegate);
+            Type payloadType = type instanceof ParameterizedType
+                    ? ((ParameterizedType) type).getActualTypeArguments()[0] : Object.class;
+            this.payloadAdapter = (TypeAdapter<Object>) gson.getAdapter(TypeToken.get(payloadType));
+            this.elementAdapter = gson.getAdapter(JsonElement.class);
+            this.booleanAdapter = gson.getAdapter(boolean.class);
+        }
+
+        @Override
+        protected Envelope create() {
+            return new Envelope();
+        }
+
+        @Override
+        protected boolean readField(JsonReader in, String name, Envelope model) throws IOException {
+            switch (name) {
+                case "status":
+                    model.setStatus(readInt(in, model.getStatus()));
+                    return true;
+                case "message":
+                    model.setMessage(readString(in));
+                    return true;
+                case "service":
+                    model.setService(readString(in));
+                    return true;
+                case "payload":
+                    model.setPayload(payloadAdapter.read(in));
+                    return true;
+                case "occupancy":
+                    model.setOccupancy(readInt(in, model.getOccupancy()));
+                    return true;
+                case "uuids":
+                    model.setUuids(elementAdapter.read(in));
+                    return true;
+                case "action":
+                    model.setAction(readString(in));
+                    return true;
+                case "error":
+                    model.setError(booleanAdapter.read(in));
+                    return true;
+                default:
+                    return false;
+            }
+        }
+    }
+
+    private static final class PresenceEnvelopeAdapter extends ModelAdapter<PresenceEnvelope> {
+
+        private final TypeAdapter<JsonElement> elementAdapter;
+
+        private PresenceEnvelopeAdapter(Gson gson, TypeAdapter<PresenceEnvelope> delegate) {
+            super(delegate);
+            this.elementAdapter = gson.getAdapter(JsonElement.class);
+        }
+
+        @Override
+        protected PresenceEnvelope create() {
+            return new PresenceEnvelope();
+        }
+
+        @Override
+        protected boolean readField(JsonReader in, String name, PresenceEnvelope model) throws IOException {
+            switch (name) {
+                case "action":
+                    model.setAction(readString(in));
+                    return true;
+                case "uuid":
+                    model.setUuid(readString(in));
+                    return true;
+                case "occupancy":
+                    model.setOccupancy(readInteger(in));
+                    return true;
+                case "timestamp":
+                    model.setTimestamp(readLong(in));
+                    return true;
+                case "data":
+                    model.setData(elementAdapter.read(in));
+                    return true;
+                default:
+                    return false;
+            }
+        }
+    }
+
+    private static final class DeleteMessagesEnvelopeAdapter extends ModelAdapter<DeleteMessagesEnvelope> {
+
+        private final TypeAdapter<Boolean> booleanAdapter;
+
+        private DeleteMessagesEnvelopeAdapter(Gson gson, TypeAdapter<DeleteMessagesEnvelope> delegate) {
+            super(delegate);
+            this.booleanAdapter = gson.getAdapter(boolean.class);
+        }
+
+        @Override
+        protected DeleteMessagesEnvelope create() {
+            return new DeleteMessagesEnvelope();
+        }
+
+        @Override
+        protected boolean readField(JsonReader in, String name, DeleteMessagesEnvelope model) throws IOException {
+            switch (name) {
+                case "status":
+                    model.setStatus(readInteger(in));
+                    return true;
+                case "error":
+                    model.setError(booleanAdapter.read(in));
+                    return true;
+                case "error_message":
+                    model.setErrorMessage(readString(in));
+                    return true;
+                default:
+                    return false;
+            }
+        }
+    }
+
+    private static final class FetchMessagesEnvelopeAdapter extends ModelAdapter<FetchMessagesEnvelope> {
+
+        private final TypeAdapter<HistoryForChannelsItem> itemAdapter;
+
+        private FetchMessagesEnvelopeAdapter(Gson gson, TypeAdapter<FetchMessagesEnvelope> delegate) {
+            super(delegate);
+            this.itemAdapter = gson.getAdapter(HistoryForChannelsItem.class);
+        }
+
+        @Override
+        protected FetchMessagesEnvelope create() {
+            return new FetchMessagesEnvelope();
+        }
+
+        @Override
+        protected boolean readField(JsonReader in, String name, FetchMessagesEnvelope model) throws IOException {
+            if (!"channels".equals(name)) {
+                return false;
+            }
+
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                model.setChannels(null);
+                return true;
+            }
+
+            Map<String, List<HistoryForChannelsItem>> channels = new LinkedHashMap<>();
+            in.beginObject();
+
+            while (in.hasNext()) {
+                String channel = in.nextName();
+                channels.put(channel, readList(in, itemAdapter));
+            }
+
+            in.endObject();
+            model.setChannels(channels);
+            return true;
+        }
+    }
+
+    private static final class HistoryForChannelsItemAdapter extends ModelAdapter<HistoryForChannelsItem> {
+
+        private final TypeAdapter<JsonElement> elementAdapter;
+
+        private HistoryForChannelsItemAdapter(Gson gson, TypeAdapter<HistoryForChannelsItem> delegate) {
+            super(delegate);
+            this.elementAdapter = gson.getAdapter(JsonElement.class);
+        }
+
+        @Override
+        protected HistoryForChannelsItem create() {
+            return new HistoryForChannelsItem();
+        }
+
+        @Override
+        protected boolean readField(JsonReader in, String name, HistoryForChannelsItem model) throws IOException {
+            switch (name) {
+                case "message":
+                    model.setMessage(elementAdapter.read(in));
+                    return true;
+                case "timetoken":
+                    model.setTimetoken(readLong(in));
+                    return true;
+                default:
+                    return false;
+            }
+        }
+    }
+
+    private static final class WhereNowPayloadAdapter extends ModelAdapter<WhereNowPayload> {
+
+        private final TypeAdapter<String> stringAdapter;
+
+        private WhereNowPayloadAdapter(Gson gson, TypeAdapter<WhereNowPayload> delegate) {
+            super(delegate);
+            this.stringAdapter = gson.getAdapter(String.class);
+        }
+
+        @Override
+        protected WhereNowPayload create() {
+            return new WhereNowPayload();
+        }
+
+        @Override
+        protected boolean readField(JsonReader in, String name, WhereNowPayload model) throws IOException {
+            if (!"channels".equals(name)) {
+                return false;
+            }
+
+            model.setChannels(readList(in, stringAdapter));
+            return true;
+        }
+    }
+
+    /**
+     * @return decoded list, null for a null value.
+     */
+    private static <E> List<E> readList(JsonReader in, TypeAdapter<E> elementAdapter) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        List<E> list = new ArrayList<>();
+        in.beginArray();
+
+        while (in.hasNext()) {
+            list.add(elementAdapter.read(in));
+        }
+
+        in.endArray();
+        return list;
+    }
+
+}
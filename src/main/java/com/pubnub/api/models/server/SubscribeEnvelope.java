@@ -1,11 +1,14 @@
 package com.pubnub.api.models.server;
 
 import com.google.gson.annotations.SerializedName;
+import lombok.AccessLevel;
 import lombok.Getter;
+import lombok.Setter;
 
 import java.util.List;
 
 @Getter
+@Setter(AccessLevel.PACKAGE)
 public class SubscribeEnvelope {
 
     @SerializedName("m")
@@ -1,9 +1,12 @@
 package com.pubnub.api.models.server;
 
 import com.google.gson.annotations.SerializedName;
+import lombok.AccessLevel;
 import lombok.Getter;
+import lombok.Setter;
 
 @Getter
+@Setter(AccessLevel.PACKAGE)
 public class SubscribeMetadata {
 
     @SerializedName("t")
@@ -0,0 +1,121 @@
+package com.pubnub.api.models.server.access_manager;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.pubnub.api.models.consumer.access_manager.PNAccessManagerKeyData;
+import com.pubnub.api.models.consumer.access_manager.PNAccessManagerKeysData;
+import com.pubnub.api.models.server.ModelAdapter;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Hand written decoders of the access manager payloads, see ServerModelAdapterFactory.
+ */
+public class AccessManagerAdapterFactory implements TypeAdapterFactory {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        if (type.getRawType() == AccessManagerGrantPayload.class) {
+            return (TypeAdapter<T>) new GrantPayloadAdapter(gson,
+                    gson.getDelegateAdapter(this, TypeToken.get(AccessManagerGrantPayload.class)));
+        } else if (type.getRawType() == AccessManagerAuditPayload.class) {
+            return (TypeAdapter<T>) new AuditPayloadAdapter(gson,
+                    gson.getDelegateAdapter(this, TypeToken.get(AccessManagerAuditPayload.class)));
+        }
+
+        return null;
+    }
+
+    private static final class GrantPayloadAdapter extends ModelAdapter<AccessManagerGrantPayload> {
+
+        private final TypeAdapter<Map<String, PNAccessManagerKeysData>> channelsAdapter;
+        private final TypeAdapter<Map<String, PNAccessManagerKeyData>> authKeysAdapter;
+        private final TypeAdapter<JsonElement> elementAdapter;
+
+        private GrantPayloadAdapter(Gson gson, TypeAdapter<AccessManagerGrantPayload> delegate) {
+            super(delegate);
+            this.channelsAdapter = gson.getAdapter(new TypeToken<Map<String, PNAccessManagerKeysData>>() { });
+            this.authKeysAdapter = gson.getAdapter(new TypeToken<Map<String, PNAccessManagerKeyData>>() { });
+            this.elementAdapter = gson.getAdapter(JsonElement.class);
+        }
+
+        @Override
+        protected AccessManagerGrantPayload create() {
+            return new AccessManagerGrantPayload();
+        }
+
+        @Override
+        protected boolean readField(JsonReader in, String name, AccessManagerGrantPayload model) throws IOException {
+            switch (name) {
+                case "level":
+                    model.setLevel(readString(in));
+                    return true;
+                case "ttl":
+                    model.setTtl(readInt(in, model.getTtl()));
+                    return true;
+                case "subscribe_key":
+                    model.setSubscribeKey(readString(in));
+                    return true;
+                case "channels":
+                    model.setChannels(channelsAdapter.read(in));
+                    return true;
+                case "channel-groups":
+                    model.setChannelGroups(elementAdapter.read(in));
+                    return true;
+                case "auths":
+                    model.setAuthKeys(authKeysAdapter.read(in));
+                    return true;
+                case "channel":
+                    model.setChannel(readString(in));
+                    return true;
+                default:
+                    return false;
+            }
+        }
+    }
+
+    private static final class AuditPayloadAdapter extends ModelAdapter<AccessManagerAuditPayload> {
+
+        private final TypeAdapter<Map<String, PNAccessManagerKeyData>> authKeysAdapter;
+
+        private AuditPayloadAdapter(Gson gson, TypeAdapter<AccessManagerAuditPayload> delegate) {
+            super(delegate);
+            this.authKeysAdapter = gson.getAdapter(new TypeToken<Map<String, PNAccessManagerKeyData>>() { });
+        }
+
+        @Override
+        protected AccessManagerAuditPayload create() {
+            return new AccessManagerAuditPayload();
+        }
+
+        @Override
+        protected boolean readField(JsonReader in, String name, AccessManagerAuditPayload model) throws IOException {
+            switch (name) {
+                case "level":
+                    model.setLevel(readString(in));
+                    return true;
+                case "subscribe_key":
+                    model.setSubscribeKey(readString(in));
+                    return true;
+                case "channel":
+                    model.setChannel(readString(in));
+                    return true;
+                case "channel-group":
+                    model.setChannelGroup(readString(in));
+                    return true;
+                case "auths":
+                    model.setAuthKeys(authKeysAdapter.read(in));
+                    return true;
+                default:
+                    return false;
+            }
+        }
+    }
+
+}
@@ -2,11 +2,14 @@ package com.pubnub.api.models.server.access_manager;
 
 import com.google.gson.annotations.SerializedName;
 import com.pubnub.api.models.consumer.access_manager.PNAccessManagerKeyData;
+import lombok.AccessLevel;
 import lombok.Getter;
+import lombok.Setter;
 
 import java.util.Map;
 
 @Getter
+@Setter(AccessLevel.PACKAGE)
 public class AccessManagerAuditPayload {
 
     @SerializedName("level")
@@ -4,11 +4,14 @@ import com.google.gson.JsonElement;
 import com.google.gson.annotations.SerializedName;
 import com.pubnub.api.models.consumer.access_manager.PNAccessManagerKeyData;
 import com.pubnub.api.models.consumer.access_manager.PNAccessManagerKeysData;
+import lombok.AccessLevel;
 import lombok.Getter;
+import lombok.Setter;
 
 import java.util.Map;
 
 @Getter
+@Setter(AccessLevel.PACKAGE)
 public class AccessManagerGrantPayload {
 
     @SerializedName("level")
@@ -3,14 +3,18 @@ package com.pubnub.api.workers;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.pubnub.api.PayloadCompression;
 import com.pubnub.api.PubNub;
 import com.pubnub.api.PubNubException;
 import com.pubnub.api.PubNubUtil;
 import com.pubnub.api.enums.PNOperationType;
 import com.pubnub.api.enums.PNStatusCategory;
+import com.pubnub.api.managers.ChannelGroupShardManager;
+import com.pubnub.api.managers.ChunkAssembler;
 import com.pubnub.api.managers.DuplicationManager;
 import com.pubnub.api.managers.ListenerManager;
 import com.pubnub.api.managers.MapperManager;
+import com.pubnub.api.managers.PresenceEventAggregator;
 import com.pubnub.api.models.consumer.PNErrorData;
 import com.pubnub.api.models.consumer.PNStatus;
 import com.pubnub.api.models.consumer.pubsub.PNMessageResult;
@@ -31,18 +35,27 @@ public class SubscribeMessageWorker implements Runnable {
 
     private PubNub pubnub;
     private ListenerManager listenerManager;
+    private PresenceEventAggregator presenceEventAggregator;
+    private ChunkAssembler chunkAssembler;
     private LinkedBlockingQueue<SubscribeMessage> queue;
+    private SubscribeWorkerExecutor executor;
     private DuplicationManager duplicationManager;
 
     private boolean isRunning;
 
     public SubscribeMessageWorker(PubNub pubnubInstance,
                                   ListenerManager listenerManagerInstance,
+                                  PresenceEventAggregator presenceEventAggregatorInstance,
+                                  ChunkAssembler chunkAssemblerInstance,
                                   LinkedBlockingQueue<SubscribeMessage> queueInstance,
+                                  SubscribeWorkerExecutor executorInstance,
                                   DuplicationManager dupManager) {
         this.pubnub = pubnubInstance;
         this.listenerManager = listenerManagerInstance;
+        this.presenceEventAggregator = presenceEventAggregatorInstance;
+        this.chunkAssembler = chunkAssemblerInstance;
         this.queue = queueInstance;
+        this.executor = executorInstance;
         this.duplicationManager = dupManager;
     }
 
@@ -57,7 +70,13 @@ public class SubscribeMessageWorker implements Runnable {
 
         while (this.isRunning) {
             try {
-                this.processIncomingPayload(this.queue.take());
+                SubscribeMessage message = this.queue.take();
+
+                if (message == SubscribeWorkerExecutor.WAKE_UP) {
+                    this.executor.runPending();
+                } else {
+                    this.processIncomingPayload(message);
+                }
             } catch (InterruptedException e) {
                 this.isRunning = false;
                 log.trace("take message interrupted", e);
@@ -68,7 +87,7 @@ public class SubscribeMessageWorker implements Runnable {
     private JsonElement processMessage(JsonElement input) {
         // if we do not have a crypto key, there is no way to process the node; let's return.
         if (pubnub.getConfiguration().getCipherKey() == null) {
-            return input;
+            return decompress(input);
         }
 
         Crypto crypto = new Crypto(pubnub.getConfiguration().getCipherKey());
@@ -109,6 +128,12 @@ public class SubscribeMessageWorker implements Runnable {
             return null;
         }
 
+        outputObject = decompress(outputObject);
+
+        if (outputObject == null) {
+            return null;
+        }
+
         // inject the decoded response into the payload
         if (mapper.isJsonObject(input) && mapper.hasField(input, "pn_other")) {
             JsonObject objectNode = mapper.getAsObject(input);
@@ -119,6 +144,21 @@ public class SubscribeMessageWorker implements Runnable {
         return outputObject;
     }
 
+    private JsonElement decompress(JsonElement input) {
+        try {
+            return PayloadCompression.decompress(input, this.pubnub.getMapper());
+        } catch (PubNubException e) {
+            PNStatus pnStatus = PNStatus.builder().error(true)
+                    .errorData(new PNErrorData(e.getMessage(), e))
+                    .operation(PNOperationType.PNSubscribeOperation)
+                    .category(PNStatusCategory.PNMalformedResponseCategory)
+                    .build();
+
+            listenerManager.announce(pnStatus);
+            return null;
+        }
+    }
+
     private void processIncomingPayload(SubscribeMessage message) {
         MapperManager mapper = this.pubnub.getMapper();
 
@@ -130,6 +170,17 @@ public class SubscribeMessageWorker implements Runnable {
             subscriptionMatch = null;
         }
 
+        ChannelGroupShardManager shardManager = this.pubnub.getChannelGroupShardManager();
+
+        if (shardManager.isManagedGroup(subscriptionMatch)) {
+            // delivered as if the channel was subscribed directly; the group may lag behind an unsubscribe.
+            if (channel == null || !shardManager.isTracked(PubNubUtil.replaceLast(channel, "-pnpres", ""))) {
+                return;
+            }
+
+            subscriptionMatch = null;
+        }
+
         if (this.pubnub.getConfiguration().isDedupOnSubscribe()) {
             if (this.duplicationManager.isDuplicate(message)) {
                 return;
@@ -153,6 +204,8 @@ public class SubscribeMessageWorker implements Runnable {
 
             JsonElement isHereNowRefresh = message.getPayload().getAsJsonObject().get("here_now_refresh");
 
+            this.pubnub.getResponseCacheManager().onPresenceEvent(strippedPresenceChannel, strippedPresenceSubscription);
+
             PNPresenceEventResult pnPresenceEventResult = PNPresenceEventResult.builder()
                     .event(presencePayload.getAction())
                     // deprecated
@@ -172,12 +225,15 @@ public class SubscribeMessageWorker implements Runnable {
                     .hereNowRefresh(isHereNowRefresh != null && isHereNowRefresh.getAsBoolean())
                     .build();
 
-            listenerManager.announce(pnPresenceEventResult);
+            this.pubnub.getPresenceRoster().onPresenceEvent(pnPresenceEventResult);
+            presenceEventAggregator.announce(pnPresenceEventResult);
         } else {
             JsonElement extractedMessage = processMessage(message.getPayload());
 
             if (extractedMessage == null) {
                 log.debug("unable to parse payload on #processIncomingMessages");
+            } else if (publishMetaData != null && publishMetaData.getPublishTimetoken() != null) {
+                this.pubnub.getHistoryCacheManager().append(channel, publishMetaData.getPublishTimetoken(), extractedMessage);
             }
 
             PNMessageResult pnMessageResult = PNMessageResult.builder()
@@ -193,8 +249,7 @@ public class SubscribeMessageWorker implements Runnable {
                     .userMetadata(message.getUserMetadata())
                     .build();
 
-
-            listenerManager.announce(pnMessageResult);
+            chunkAssembler.announce(pnMessageResult);
         }
     }
 
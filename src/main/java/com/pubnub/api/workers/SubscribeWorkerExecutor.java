@@ -0,0 +1,45 @@
+package com.pubnub.api.workers;
+
+import com.pubnub.api.models.server.SubscribeMessage;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Runs tasks on the thread of the {@link SubscribeMessageWorker}, in line with the received messages, so that
+ * listeners are only ever called from that one thread.
+ */
+public class SubscribeWorkerExecutor implements Executor {
+
+    /**
+     * queued to wake the worker up, never processed as a message.
+     */
+    static final SubscribeMessage WAKE_UP = new SubscribeMessage();
+
+    private final LinkedBlockingQueue<SubscribeMessage> queue;
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+
+    public SubscribeWorkerExecutor(LinkedBlockingQueue<SubscribeMessage> queueInstance) {
+        this.queue = queueInstance;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        tasks.add(task);
+        queue.offer(WAKE_UP);
+    }
+
+    /**
+     * Run the tasks queued so far; called by the worker.
+     */
+    void runPending() {
+        Runnable task;
+
+        while ((task = tasks.poll()) != null) {
+            task.run();
+        }
+    }
+
+}
@@ -0,0 +1,102 @@
+package com.pubnub.api;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.pubnub.api.endpoints.TestHarness;
+import com.pubnub.api.managers.MapperManager;
+import com.pubnub.api.models.consumer.history.PNHistoryResult;
+import com.pubnub.api.vendor.Crypto;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Map;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class PayloadCompressionTest extends TestHarness {
+
+    @Rule
+    public WireMockRule wireMockRule = new WireMockRule();
+
+    private PubNub pubnub;
+    private MapperManager mapper;
+
+    @Before
+    public void beforeEach() throws IOException {
+        pubnub = this.createPubNubInstance(8080);
+        mapper = pubnub.getMapper();
+        wireMockRule.start();
+    }
+
+    @After
+    public void afterEach() {
+        pubnub.destroy();
+    }
+
+    private static String document() {
+        StringBuilder json = new StringBuilder("{\"items\":[");
+
+        for (int i = 0; i < 50; i++) {
+            json.append(i > 0 ? "," : "").append("{\"id\":").append(i).append(",\"name\":\"item\"}");
+        }
+
+        return json.append("]}").toString();
+    }
+
+    @Test
+    public void testRoundTrip() throws PubNubException {
+        String json = document();
+        Map<String, String> envelope = PayloadCompression.compress(json, 100);
+
+        assertNotNull(envelope);
+
+        JsonElement message = PayloadCompression.decompress(new JsonParser().parse(mapper.toJson(envelope)), mapper);
+        assertEquals(new JsonParser().parse(json), message);
+    }
+
+    @Test
+    public void testThreshold() {
+        assertNull(PayloadCompression.compress(document(), 0));
+        assertNull(PayloadCompression.compress(document(), document().length() + 1));
+        // too short to shrink.
+        assertNull(PayloadCompression.compress("\"abcdefgh\"", 1));
+    }
+
+    @Test
+    public void testOtherMessagesPassThrough() throws PubNubException {
+        JsonElement string = new JsonParser().parse("{\"pn_deflate\":1}");
+        JsonElement extraField = new JsonParser().parse("{\"pn_deflate\":\"eJw=\",\"a\":1}");
+
+        assertSame(string, PayloadCompression.decompress(string, mapper));
+        assertSame(extraField, PayloadCompression.decompress(extraField, mapper));
+    }
+
+    @Test(expected = PubNubException.class)
+    public void testCorruptEnvelope() throws PubNubException {
+        PayloadCompression.decompress(new JsonParser().parse("{\"pn_deflate\":\"bm90IGRlZmxhdGVk\"}"), mapper);
+    }
+
+    @Test
+    public void testEncryptedHistoryIsInflated() throws PubNubException {
+        pubnub.getConfiguration().setCipherKey("testCipher");
+
+        String json = document();
+        String encrypted = new Crypto("testCipher").encrypt(mapper.toJson(PayloadCompression.compress(json, 100)));
+
+        stubFor(get(urlPathEqualTo("/v2/history/sub-key/mySubscribeKey/channel/niceChannel"))
+                .willReturn(aResponse().withBody("[[\"" + encrypted.replace("\n", "") + "\"],100,100]")));
+
+        PNHistoryResult result = pubnub.history().channel("niceChannel").sync();
+
+        assertEquals(new JsonParser().parse(json), result.getMessages().get(0).getEntry());
+    }
+
+}
@@ -0,0 +1,139 @@
+package com.pubnub.api.endpoints;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import com.pubnub.api.PubNub;
+import com.pubnub.api.PubNubException;
+import com.pubnub.api.models.consumer.history.PNHistoryItemResult;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
+
+public class HistoryCursorTest extends TestHarness {
+
+    private PubNub pubnub;
+
+    @Rule
+    public WireMockRule wireMockRule = new WireMockRule();
+
+    @Before
+    public void beforeEach() throws IOException {
+        pubnub = this.createPubNubInstance(8080);
+        wireMockRule.start();
+    }
+
+    @After
+    public void afterEach() {
+        pubnub.destroy();
+    }
+
+    @Test
+    public void testWalksAllPagesNewestFirst() throws PubNubException {
+        // most recently added stubs win, the first page is the one without a start.
+        stubFor(get(urlPathEqualTo("/v2/history/sub-key/mySubscribeKey/channel/niceChannel"))
+                .willReturn(aResponse().withBody("[[{\"message\":\"c\",\"timetoken\":30},{\"message\":\"d\",\"timetoken\":40}],30,40]")));
+        stubFor(get(urlPathEqualTo("/v2/history/sub-key/mySubscribeKey/channel/niceChannel"))
+                .withQueryParam("start", equalTo("30"))
+                .willReturn(aResponse().withBody("[[{\"message\":\"a\",\"timetoken\":10},{\"message\":\"b\",\"timetoken\":20}],10,20]")));
+        stubFor(get(urlPathEqualTo("/v2/history/sub-key/mySubscribeKey/channel/niceChannel"))
+                .withQueryParam("start", equalTo("10"))
+                .willReturn(aResponse().withBody("[[{\"message\":\"z\",\"timetoken\":5}],5,5]")));
+
+        HistoryCursor cursor = pubnub.historyCursor().channel("niceChannel").pageSize(2);
+        List<Long> timetokens = new ArrayList<>();
+
+        while (cursor.hasNext()) {
+            PNHistoryItemResult item = cursor.next();
+            timetokens.add(item.getTimetoken());
+        }
+
+        assertEquals(5, timetokens.size());
+        assertEquals(Long.valueOf(40), timetokens.get(0));
+        assertEquals(Long.valueOf(5), timetokens.get(4));
+        assertEquals(3, findAll(getRequestedFor(urlMatching("/v2/history.*"))).size());
+    }
+
+    @Test
+    public void testChronologicalWalk() throws PubNubException {
+        // most recently added stubs win, the first page is the one without a start.
+        stubFor(get(urlPathEqualTo("/v2/history/sub-key/mySubscribeKey/channel/niceChannel"))
+                .willReturn(aResponse().withBody("[[{\"message\":\"a\",\"timetoken\":10},{\"message\":\"b\",\"timetoken\":20}],10,20]")));
+        stubFor(get(urlPathEqualTo("/v2/history/sub-key/mySubscribeKey/channel/niceChannel"))
+                .withQueryParam("start", equalTo("20"))
+                .willReturn(aResponse().withBody("[[{\"message\":\"c\",\"timetoken\":30}],30,30]")));
+
+        HistoryCursor cursor = pubnub.historyCursor().channel("niceChannel").pageSize(2).reverse(true);
+        List<Long> timetokens = new ArrayList<>();
+
+        while (cursor.hasNext()) {
+            timetokens.add(cursor.next().getTimetoken());
+        }
+
+        assertEquals(3, timetokens.size());
+        assertEquals(Long.valueOf(10), timetokens.get(0));
+        assertEquals(Long.valueOf(30), timetokens.get(2));
+    }
+
+    @Test
+    public void testErrorIsRaisedToCaller() {
+        stubFor(get(urlPathEqualTo("/v2/history/sub-key/mySubscribeKey/channel/niceChannel"))
+                .willReturn(aResponse().withStatus(403).withBody("{}")));
+
+        HistoryCursor cursor = pubnub.historyCursor().channel("niceChannel");
+
+        try {
+            cursor.hasNext();
+            fail("expected the failed page to be raised");
+        } catch (PubNubException e) {
+            assertEquals(403, e.getStatusCode());
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testUncheckedFailureIsRaisedToCaller() {
+        stubFor(get(urlPathEqualTo("/v2/history/sub-key/mySubscribeKey/channel/niceChannel"))
+                .willReturn(aResponse().withBody("[[{\"message\":\"a\",\"timetoken\":\"soon\"}],10,20]")));
+
+        HistoryCursor cursor = pubnub.historyCursor().channel("niceChannel");
+
+        try {
+            cursor.hasNext();
+            fail("expected the failed page to be raised");
+        } catch (PubNubException e) {
+            assertNotNull(e.getPubnubError());
+        }
+    }
+
+    @Test
+    public void testMissingChannel() {
+        try {
+            pubnub.historyCursor().hasNext();
+            fail("expected a missing channel error");
+        } catch (PubNubException e) {
+            assertEquals("Channel Missing.", e.getPubnubError().getMessage());
+        }
+    }
+
+    @Test
+    public void testClose() throws PubNubException {
+        stubFor(get(urlPathEqualTo("/v2/history/sub-key/mySubscribeKey/channel/niceChannel"))
+                .willReturn(aResponse().withBody("[[{\"message\":\"a\",\"timetoken\":10},{\"message\":\"b\",\"timetoken\":20}],10,20]")));
+
+        HistoryCursor cursor = pubnub.historyCursor().channel("niceChannel").pageSize(2);
+        cursor.next();
+        cursor.close();
+
+        assertFalse(cursor.hasNext());
+    }
+
+}
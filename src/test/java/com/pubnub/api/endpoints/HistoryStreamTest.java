@@ -0,0 +1,143 @@
+package com.pubnub.api.endpoints;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import com.pubnub.api.PubNub;
+import com.pubnub.api.PubNubException;
+import com.pubnub.api.builder.PubNubErrorBuilder;
+import com.pubnub.api.callbacks.PNItemCallback;
+import com.pubnub.api.models.consumer.history.PNHistoryItemResult;
+import com.pubnub.api.models.consumer.history.PNStreamResult;
+import com.pubnub.api.models.consumer.pubsub.PNMessageResult;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class HistoryStreamTest extends TestHarness {
+
+    private PubNub pubnub;
+
+    @Rule
+    public WireMockRule wireMockRule = new WireMockRule();
+
+    @Before
+    public void beforeEach() throws IOException {
+        pubnub = this.createPubNubInstance(8080);
+        wireMockRule.start();
+    }
+
+    @After
+    public void afterEach() {
+        pubnub.destroy();
+    }
+
+    @Test
+    public void testItemsAreStreamed() throws PubNubException {
+        stubFor(get(urlPathEqualTo("/v2/history/sub-key/mySubscribeKey/channel/niceChannel"))
+                .willReturn(aResponse().withBody("[[{\"message\":{\"a\":1},\"timetoken\":10},"
+                        + "{\"message\":\"b\",\"timetoken\":\"20\"}],10,20]")));
+
+        final List<PNHistoryItemResult> items = new ArrayList<>();
+        PNStreamResult result = pubnub.historyStream().channel("niceChannel").includeTimetoken(true)
+                .itemCallback(new PNItemCallback<PNHistoryItemResult>() {
+                    @Override
+                    public void onItem(PNHistoryItemResult item) {
+                        items.add(item);
+                    }
+                }).sync();
+
+        assertEquals(2, result.getItemCount());
+        assertEquals(Long.valueOf(10), result.getStartTimetoken());
+        assertEquals(Long.valueOf(20), result.getEndTimetoken());
+        assertEquals(1, items.get(0).getEntry().getAsJsonObject().get("a").getAsInt());
+        assertEquals(Long.valueOf(20), items.get(1).getTimetoken());
+    }
+
+    @Test
+    public void testDisabledHistoryIsNotEmitted() {
+        stubFor(get(urlPathEqualTo("/v2/history/sub-key/mySubscribeKey/channel/niceChannel"))
+                .willReturn(aResponse().withBody("[[\"Use of the history API requires the Storage & Playback which is not enabled for this subscribe key.\"],0,0]")));
+
+        final List<PNHistoryItemResult> items = new ArrayList<>();
+
+        try {
+            pubnub.historyStream().channel("niceChannel")
+                    .itemCallback(new PNItemCallback<PNHistoryItemResult>() {
+                        @Override
+                        public void onItem(PNHistoryItemResult item) {
+                            items.add(item);
+                        }
+                    }).sync();
+            fail("expected disabled history to be raised");
+        } catch (PubNubException e) {
+            assertEquals("History is disabled", e.getErrormsg());
+        }
+
+        assertTrue(items.isEmpty());
+    }
+
+    @Test
+    public void testMalformedTimetokenIsAParsingError() {
+        stubFor(get(urlPathEqualTo("/v2/history/sub-key/mySubscribeKey/channel/niceChannel"))
+                .willReturn(aResponse().withBody("[[{\"message\":\"a\",\"timetoken\":\"soon\"}],10,20]")));
+
+        try {
+            pubnub.historyStream().channel("niceChannel").includeTimetoken(true)
+                    .itemCallback(new PNItemCallback<PNHistoryItemResult>() {
+                        @Override
+                        public void onItem(PNHistoryItemResult item) {
+                        }
+                    }).sync();
+            fail("expected a parsing error");
+        } catch (PubNubException e) {
+            assertEquals(PubNubErrorBuilder.PNERR_PARSING_ERROR, e.getPubnubError().getErrorCode());
+        }
+    }
+
+    @Test
+    public void testMissingCallback() {
+        try {
+            pubnub.historyStream().channel("niceChannel").sync();
+            fail("expected a missing callback error");
+        } catch (PubNubException e) {
+            assertEquals("itemCallback is required", e.getErrormsg());
+        }
+    }
+
+    @Test
+    public void testFetchMessagesStream() throws PubNubException {
+        stubFor(get(urlPathEqualTo("/v3/history/sub-key/mySubscribeKey/channel/ch1,ch2"))
+                .willReturn(aResponse().withBody("{\"status\":200,\"error\":false,\"error_message\":\"\","
+                        + "\"channels\":{\"ch1\":[{\"message\":\"a\",\"timetoken\":\"15\"}],"
+                        + "\"ch2\":[{\"message\":\"b\",\"timetoken\":\"12\"},{\"message\":\"c\",\"timetoken\":\"18\"}]}}")));
+
+        final List<PNMessageResult> items = new ArrayList<>();
+        PNStreamResult result = pubnub.fetchMessagesStream().channels(Arrays.asList("ch1", "ch2"))
+                .maximumPerChannel(5)
+                .itemCallback(new PNItemCallback<PNMessageResult>() {
+                    @Override
+                    public void onItem(PNMessageResult item) {
+                        items.add(item);
+                    }
+                }).sync();
+
+        assertEquals(3, result.getItemCount());
+        assertEquals(Long.valueOf(12), result.getStartTimetoken());
+        assertEquals(Long.valueOf(18), result.getEndTimetoken());
+        assertEquals("ch1", items.get(0).getChannel());
+        assertEquals("c", items.get(2).getMessage().getAsString());
+        assertEquals(1, findAll(getRequestedFor(urlMatching("/v3/history.*"))
+                .withQueryParam("max", equalTo("5"))).size());
+    }
+
+}
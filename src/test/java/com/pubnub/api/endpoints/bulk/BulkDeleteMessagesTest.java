@@ -0,0 +1,127 @@
+package com.pubnub.api.endpoints.bulk;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import com.github.tomakehurst.wiremock.stubbing.Scenario;
+import com.pubnub.api.PubNub;
+import com.pubnub.api.PubNubException;
+import com.pubnub.api.endpoints.TestHarness;
+import com.pubnub.api.models.consumer.history.PNBulkDeleteMessagesResult;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class BulkDeleteMessagesTest extends TestHarness {
+
+    private static final String SUCCESS = "{\"status\": 200, \"error\": false, \"error_message\": \"\"}";
+
+    @Rule
+    public WireMockRule wireMockRule = new WireMockRule();
+
+    private PubNub pubnub;
+
+    @Before
+    public void beforeEach() throws IOException {
+        pubnub = this.createPubNubInstance(8080);
+        wireMockRule.start();
+    }
+
+    @After
+    public void afterEach() {
+        pubnub.destroy();
+    }
+
+    @Test
+    public void testBatchesRespectLimits() {
+        List<List<String>> batches = ChannelBatches.split(Arrays.asList("aa", "bb", "c c", "dd", "ee"), 10, 3);
+
+        // "c c" is encoded to "c%20c", which pushes it into its own batch with the next name.
+        assertEquals(3, batches.size());
+        assertEquals(Arrays.asList("aa", "bb"), batches.get(0));
+        assertEquals(Arrays.asList("c c", "dd"), batches.get(1));
+        assertEquals(Arrays.asList("ee"), batches.get(2));
+
+        assertEquals(2, ChannelBatches.split(Arrays.asList("a", "b", "c"), 100, 2).size());
+    }
+
+    @Test
+    public void testTransientFailureIsRetried() throws PubNubException {
+        stubFor(delete(urlPathEqualTo("/v3/history/sub-key/mySubscribeKey/channel/ch3"))
+                .willReturn(aResponse().withBody(SUCCESS)));
+        stubFor(delete(urlPathEqualTo("/v3/history/sub-key/mySubscribeKey/channel/ch1,ch2"))
+                .inScenario("retry").whenScenarioStateIs(Scenario.STARTED)
+                .willReturn(aResponse().withStatus(503).withBody("{}"))
+                .willSetStateTo("recovered"));
+        stubFor(delete(urlPathEqualTo("/v3/history/sub-key/mySubscribeKey/channel/ch1,ch2"))
+                .inScenario("retry").whenScenarioStateIs("recovered")
+                .willReturn(aResponse().withBody(SUCCESS)));
+
+        PNBulkDeleteMessagesResult result = pubnub.bulkDeleteMessages()
+                .channels(Arrays.asList("ch1", "ch2", "ch3"))
+                .maxChannelsPerRequest(2)
+                .retryDelay(1)
+                .sync();
+
+        assertEquals(3, result.getDeletedChannels().size());
+        assertTrue(result.getFailedChannels().isEmpty());
+        assertEquals(3, result.getRequests());
+        assertEquals(1, result.getRetries());
+    }
+
+    @Test
+    public void testUnreadableResponseIsNotRetried() throws PubNubException {
+        stubFor(delete(urlPathEqualTo("/v3/history/sub-key/mySubscribeKey/channel/ch1"))
+                .willReturn(aResponse().withBody("{not json")));
+
+        PNBulkDeleteMessagesResult result = pubnub.bulkDeleteMessages()
+                .channels(Arrays.asList("ch1"))
+                .retryDelay(1)
+                .sync();
+
+        assertEquals(1, result.getFailedChannels().size());
+        assertEquals(1, result.getRequests());
+        assertEquals(0, result.getRetries());
+    }
+
+    @Test
+    public void testFailuresAreReportedPerChannel() throws PubNubException {
+        stubFor(delete(urlPathEqualTo("/v3/history/sub-key/mySubscribeKey/channel/ch3"))
+                .willReturn(aResponse().withBody(SUCCESS)));
+        stubFor(delete(urlPathEqualTo("/v3/history/sub-key/mySubscribeKey/channel/ch1,ch2"))
+                .willReturn(aResponse().withStatus(403).withBody("{}")));
+
+        PNBulkDeleteMessagesResult result = pubnub.bulkDeleteMessages()
+                .channels(Arrays.asList("ch1", "ch2", "ch3"))
+                .maxChannelsPerRequest(2)
+                .start(10L)
+                .end(20L)
+                .sync();
+
+        assertEquals(Arrays.asList("ch3"), result.getDeletedChannels());
+        assertEquals(403, result.getFailedChannels().get("ch1").getStatusCode());
+        assertEquals(2, result.getFailedChannels().size());
+        assertEquals(0, result.getRetries());
+        assertEquals(1, findAll(deleteRequestedFor(urlPathEqualTo("/v3/history/sub-key/mySubscribeKey/channel/ch1,ch2"))
+                .withQueryParam("start", equalTo("10")).withQueryParam("end", equalTo("20"))).size());
+    }
+
+    @Test
+    public void testMissingChannels() {
+        try {
+            pubnub.bulkDeleteMessages().sync();
+            fail("expected a missing channel error");
+        } catch (PubNubException e) {
+            assertEquals("Channel Missing.", e.getPubnubError().getMessage());
+        }
+    }
+
+}
@@ -0,0 +1,161 @@
+package com.pubnub.api.endpoints.bulk;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import com.github.tomakehurst.wiremock.stubbing.Scenario;
+import com.pubnub.api.PubNub;
+import com.pubnub.api.PubNubException;
+import com.pubnub.api.endpoints.TestHarness;
+import com.pubnub.api.models.consumer.access_manager.PNAccessManagerBulkGrantResult;
+import com.pubnub.api.models.consumer.access_manager.PNAccessManagerFailedGrant;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class BulkGrantTest extends TestHarness {
+
+    @Rule
+    public WireMockRule wireMockRule = new WireMockRule();
+
+    private PubNub pubnub;
+
+    @Before
+    public void beforeEach() throws IOException {
+        pubnub = this.createPubNubInstance(8080);
+        pubnub.getConfiguration().setSecretKey("secretKey");
+        wireMockRule.start();
+    }
+
+    @After
+    public void afterEach() {
+        pubnub.destroy();
+    }
+
+    private static String grantResponse(List<String> channels, List<String> authKeys) {
+        StringBuilder auths = new StringBuilder();
+
+        for (String authKey : authKeys) {
+            auths.append(auths.length() == 0 ? "" : ",").append("\"").append(authKey).append("\":{\"r\":1,\"w\":0,\"m\":0}");
+        }
+
+        StringBuilder payload = new StringBuilder();
+
+        for (String channel : channels) {
+            payload.append(payload.length() == 0 ? "" : ",")
+                    .append("\"").append(channel).append("\":{\"auths\":{").append(auths).append("}}");
+        }
+
+        return "{\"message\":\"Success\",\"payload\":{\"level\":\"user\",\"subscribe_key\":\"mySubscribeKey\",\"ttl\":60,"
+                + "\"channels\":{" + payload + "}},\"service\":\"Access Manager\",\"status\":200}";
+    }
+
+    private static void stubGrant(List<String> channels, List<String> authKeys) {
+        stubFor(get(urlPathEqualTo("/v1/auth/grant/sub-key/mySubscribeKey"))
+                .withQueryParam("channel", equalTo(channels.get(0) + (channels.size() > 1 ? "," + channels.get(1) : "")))
+                .withQueryParam("auth", equalTo(authKeys.get(0) + "," + authKeys.get(1)))
+                .willReturn(aResponse().withBody(grantResponse(channels, authKeys))));
+    }
+
+    @Test
+    public void testGrantsArePackedAndMerged() throws PubNubException {
+        stubGrant(Arrays.asList("ch1", "ch2"), Arrays.asList("k1", "k2"));
+        stubGrant(Arrays.asList("ch1", "ch2"), Arrays.asList("k3", "k4"));
+        stubGrant(Arrays.asList("ch3"), Arrays.asList("k1", "k2"));
+        stubGrant(Arrays.asList("ch3"), Arrays.asList("k3", "k4"));
+
+        PNAccessManagerBulkGrantResult result = pubnub.bulkGrant()
+                .authKeys(Arrays.asList("k1", "k2", "k3", "k4"))
+                .channels(Arrays.asList("ch1", "ch2", "ch3"))
+                .read(true)
+                .ttl(60)
+                .maxNamesPerRequest(2)
+                .sync();
+
+        assertEquals(4, result.getRequests());
+        assertEquals(0, result.getRetries());
+        assertEquals(60, result.getTtl());
+        assertEquals(3, result.getChannels().size());
+        assertEquals(4, result.getChannels().get("ch1").size());
+        assertEquals(4, result.getChannels().get("ch3").size());
+        assertTrue(result.getChannels().get("ch3").get("k4").isReadEnabled());
+        assertTrue(result.getFailedGrants().isEmpty());
+
+        assertEquals(4, findAll(getRequestedFor(urlPathEqualTo("/v1/auth/grant/sub-key/mySubscribeKey"))
+                .withQueryParam("r", equalTo("1")).withQueryParam("ttl", equalTo("60"))).size());
+    }
+
+    @Test
+    public void testThrottledGrantIsRetried() throws PubNubException {
+        stubFor(get(urlPathEqualTo("/v1/auth/grant/sub-key/mySubscribeKey"))
+                .inScenario("throttle").whenScenarioStateIs(Scenario.STARTED)
+                .willReturn(aResponse().withStatus(429).withBody("{}"))
+                .willSetStateTo("recovered"));
+        stubFor(get(urlPathEqualTo("/v1/auth/grant/sub-key/mySubscribeKey"))
+                .inScenario("throttle").whenScenarioStateIs("recovered")
+                .willReturn(aResponse().withBody(grantResponse(Arrays.asList("ch1", "ch2"), Arrays.asList("k1", "k2")))));
+
+        PNAccessManagerBulkGrantResult result = pubnub.bulkGrant()
+                .authKeys(Arrays.asList("k1", "k2"))
+                .channels(Arrays.asList("ch1", "ch2"))
+                .retryDelay(1)
+                .sync();
+
+        assertEquals(2, result.getRequests());
+        assertEquals(1, result.getRetries());
+        assertEquals(2, result.getChannels().get("ch2").size());
+    }
+
+    @Test
+    public void testFailedBatchIsReported() throws PubNubException {
+        stubFor(get(urlPathEqualTo("/v1/auth/grant/sub-key/mySubscribeKey"))
+                .withQueryParam("auth", equalTo("k1"))
+                .willReturn(aResponse().withBody(grantResponse(Arrays.asList("ch1", "ch2"), Arrays.asList("k1")))));
+        stubFor(get(urlPathEqualTo("/v1/auth/grant/sub-key/mySubscribeKey"))
+                .withQueryParam("auth", equalTo("k2"))
+                .willReturn(aResponse().withBody(grantResponse(Arrays.asList("ch1"), Arrays.asList("k2")))));
+        stubFor(get(urlPathEqualTo("/v1/auth/grant/sub-key/mySubscribeKey"))
+                .withQueryParam("auth", equalTo("k2"))
+                .withQueryParam("channel", equalTo("ch2"))
+                .willReturn(aResponse().withStatus(403).withBody("{}")));
+
+        PNAccessManagerBulkGrantResult result = pubnub.bulkGrant()
+                .authKeys(Arrays.asList("k1", "k2"))
+                .channels(Arrays.asList("ch1", "ch2"))
+                .maxNamesPerRequest(1)
+                .retryDelay(1)
+                .sync();
+
+        // forbidden is not retried; only the grant of k2 on ch2 failed.
+        assertEquals(4, result.getRequests());
+        assertEquals(1, result.getChannels().get("ch2").size());
+        assertEquals(1, result.getFailedGrants().size());
+
+        PNAccessManagerFailedGrant failed = result.getFailedGrants().get(0);
+        assertEquals(Arrays.asList("k2"), failed.getAuthKeys());
+        assertEquals(Arrays.asList("ch2"), failed.getChannels());
+        assertTrue(failed.getChannelGroups().isEmpty());
+        assertEquals(403, failed.getError().getStatusCode());
+    }
+
+    @Test
+    public void testSecretKeyRequired() {
+        pubnub.getConfiguration().setSecretKey(null);
+
+        try {
+            pubnub.bulkGrant().channels(Arrays.asList("ch1")).sync();
+            fail("expected a missing secret key error");
+        } catch (PubNubException e) {
+            assertEquals("ULS configuration failed. Secret Key not configured.", e.getPubnubError().getMessage());
+        }
+    }
+
+}
@@ -0,0 +1,185 @@
+package com.pubnub.api.endpoints.bulk;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import com.github.tomakehurst.wiremock.stubbing.Scenario;
+import com.github.tomakehurst.wiremock.verification.LoggedRequest;
+import com.pubnub.api.PubNub;
+import com.pubnub.api.PubNubException;
+import com.pubnub.api.endpoints.TestHarness;
+import com.pubnub.api.enums.PNPushType;
+import com.pubnub.api.models.consumer.push.PNBulkPushProvisioningResult;
+import com.pubnub.api.models.consumer.push.PNPushProvision;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BulkPushProvisioningTest extends TestHarness {
+
+    private static final String MODIFIED = "[1, \"Modified Channels\"]";
+
+    @Rule
+    public WireMockRule wireMockRule = new WireMockRule();
+
+    private PubNub pubnub;
+
+    @Before
+    public void beforeEach() throws IOException {
+        pubnub = this.createPubNubInstance(8080);
+        wireMockRule.start();
+    }
+
+    @After
+    public void afterEach() {
+        pubnub.destroy();
+    }
+
+    private static PNPushProvision add(String deviceId, String... channels) {
+        return PNPushProvision.builder().deviceId(deviceId).pushType(PNPushType.GCM)
+                .action(PNPushProvision.Action.ADD).channels(Arrays.asList(channels)).build();
+    }
+
+    @Test
+    public void testProvisionsAreStreamedAndBatched() throws PubNubException {
+        stubFor(get(urlMatching("/v1/push/sub-key/mySubscribeKey/devices/.*"))
+                .willReturn(aResponse().withBody(MODIFIED)));
+
+        final int devices = 20;
+
+        // a lazily produced stream, the run never asks for everything at once.
+        Iterable<PNPushProvision> provisions = new Iterable<PNPushProvision>() {
+            @Override
+            public Iterator<PNPushProvision> iterator() {
+                return new Iterator<PNPushProvision>() {
+                    private int next;
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < devices;
+                    }
+
+                    @Override
+                    public PNPushProvision next() {
+                        return add("device" + next++, "ch1", "ch2", "ch3");
+                    }
+
+                    @Override
+                    public void remove() {
+                        throw new UnsupportedOperationException();
+                    }
+                };
+            }
+        };
+
+        PNBulkPushProvisioningResult result = pubnub.bulkPushProvisioning()
+                .provisions(provisions)
+                .maxChannelsPerRequest(2)
+                .requestsPerSecond(1000)
+                .sync();
+
+        assertEquals(devices, result.getProvisioned());
+        assertEquals(devices * 2, result.getRequests());
+        assertEquals(0, result.getRetries());
+        assertTrue(result.getFailedProvisions().isEmpty());
+        assertEquals(devices, findAll(getRequestedFor(urlMatching("/v1/push/sub-key/mySubscribeKey/devices/.*"))
+                .withQueryParam("add", equalTo("ch3"))).size());
+    }
+
+    @Test
+    public void testCacheSkipsNoOpChanges() throws PubNubException {
+        stubFor(get(urlMatching("/v1/push/sub-key/mySubscribeKey/devices/.*"))
+                .willReturn(aResponse().withBody(MODIFIED)));
+
+        PushProvisionCache cache = new PushProvisionCache(100);
+        cache.load("device2", PNPushType.GCM, Arrays.asList("ch1"));
+
+        pubnub.bulkPushProvisioning().cache(cache).provisions(Arrays.asList(add("device1", "ch1", "ch2"))).sync();
+
+        List<PNPushProvision> provisions = new ArrayList<>();
+        provisions.add(add("device1", "ch1", "ch2"));
+        provisions.add(add("device1", "ch2", "ch3"));
+        provisions.add(PNPushProvision.builder().deviceId("device2").pushType(PNPushType.GCM)
+                .action(PNPushProvision.Action.REMOVE).channels(Arrays.asList("ch2")).build());
+
+        PNBulkPushProvisioningResult result = pubnub.bulkPushProvisioning()
+                .cache(cache)
+                .provisions(provisions)
+                .parallelism(1)
+                .sync();
+
+        assertEquals(1, result.getProvisioned());
+        assertEquals(2, result.getSkipped());
+        assertEquals(1, findAll(getRequestedFor(urlPathEqualTo("/v1/push/sub-key/mySubscribeKey/devices/device1"))
+                .withQueryParam("add", equalTo("ch3"))).size());
+    }
+
+    @Test
+    public void testFailuresAreReportedPerDevice() throws PubNubException {
+        stubFor(get(urlMatching("/v1/push/sub-key/mySubscribeKey/devices/.*"))
+                .willReturn(aResponse().withBody(MODIFIED)));
+        stubFor(get(urlPathEqualTo("/v1/push/sub-key/mySubscribeKey/devices/device2"))
+                .willReturn(aResponse().withStatus(400).withBody("{}")));
+        stubFor(get(urlPathEqualTo("/v1/push/sub-key/mySubscribeKey/devices/device3"))
+                .inScenario("throttle").whenScenarioStateIs(Scenario.STARTED)
+                .willReturn(aResponse().withStatus(429).withBody("{}"))
+                .willSetStateTo("recovered"));
+        stubFor(get(urlPathEqualTo("/v1/push/sub-key/mySubscribeKey/devices/device3"))
+                .inScenario("throttle").whenScenarioStateIs("recovered")
+                .willReturn(aResponse().withBody(MODIFIED)));
+
+        PNPushProvision rejected = add("device2", "ch1");
+        PNPushProvision rejectedAgain = add("device2", "ch2");
+        PNPushProvision invalid = PNPushProvision.builder().pushType(PNPushType.APNS)
+                .action(PNPushProvision.Action.REMOVE_ALL).build();
+
+        PNBulkPushProvisioningResult result = pubnub.bulkPushProvisioning()
+                .provisions(Arrays.asList(add("device1", "ch1"), rejected, add("device3", "ch1"), rejectedAgain, invalid))
+                .retryDelay(1)
+                .sync();
+
+        assertEquals(2, result.getProvisioned());
+        assertEquals(1, result.getRetries());
+        // failures of the same device are kept apart.
+        assertEquals(3, result.getFailedProvisions().size());
+        assertEquals(400, result.getFailedProvisions().get(rejected).getStatusCode());
+        assertEquals(400, result.getFailedProvisions().get(rejectedAgain).getStatusCode());
+        assertEquals("Device Id Missing.", result.getFailedProvisions().get(invalid).getPubnubError().getMessage());
+    }
+
+    @Test
+    public void testProvisionsOfADeviceAreAppliedInOrder() throws PubNubException {
+        stubFor(get(urlPathEqualTo("/v1/push/sub-key/mySubscribeKey/devices/device1"))
+                .withQueryParam("add", equalTo("ch1"))
+                .willReturn(aResponse().withFixedDelay(300).withBody(MODIFIED)));
+        stubFor(get(urlPathEqualTo("/v1/push/sub-key/mySubscribeKey/devices/device1"))
+                .withQueryParam("remove", equalTo("ch1"))
+                .willReturn(aResponse().withBody(MODIFIED)));
+
+        PNPushProvision remove = PNPushProvision.builder().deviceId("device1").pushType(PNPushType.GCM)
+                .action(PNPushProvision.Action.REMOVE).channels(Arrays.asList("ch1")).build();
+
+        pubnub.bulkPushProvisioning()
+                .provisions(Arrays.asList(add("device1", "ch1"), remove))
+                .parallelism(4)
+                .requestsPerSecond(1000)
+                .sync();
+
+        List<LoggedRequest> requests = findAll(getRequestedFor(urlPathEqualTo("/v1/push/sub-key/mySubscribeKey/devices/device1")));
+        assertEquals(2, requests.size());
+        assertTrue(requests.get(0).getUrl().contains("add=ch1"));
+        assertTrue(requests.get(1).getUrl().contains("remove=ch1"));
+        // the removal waited for the slow addition to be answered.
+        assertTrue(requests.get(1).getLoggedDate().getTime() - requests.get(0).getLoggedDate().getTime() >= 250);
+    }
+
+}
@@ -0,0 +1,120 @@
+package com.pubnub.api.endpoints.bulk;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import com.github.tomakehurst.wiremock.verification.LoggedRequest;
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.pubnub.api.PubNub;
+import com.pubnub.api.PubNubException;
+import com.pubnub.api.endpoints.TestHarness;
+import com.pubnub.api.models.consumer.PNChunkedPublishResult;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ChunkedPublishTest extends TestHarness {
+
+    @Rule
+    public WireMockRule wireMockRule = new WireMockRule();
+
+    private PubNub pubnub;
+
+    @Before
+    public void beforeEach() throws IOException {
+        pubnub = this.createPubNubInstance(8080);
+        wireMockRule.start();
+
+        stubFor(post(urlPathEqualTo("/publish/myPublishKey/mySubscribeKey/0/coolChannel/0"))
+                .willReturn(aResponse().withBody("[1,\"Sent\",\"14598111595318003\"]")));
+    }
+
+    @After
+    public void afterEach() {
+        pubnub.destroy();
+    }
+
+    private static List<String> document() {
+        List<String> items = new ArrayList<>();
+
+        for (int i = 0; i < 100; i++) {
+            items.add("item \"" + i + "\" <with> escapes é😀");
+        }
+
+        return items;
+    }
+
+    @Test
+    public void testLargeMessageIsSentInParts() throws PubNubException {
+        List<String> message = document();
+
+        PNChunkedPublishResult result = pubnub.chunkedPublish().channel("coolChannel").message(message)
+                .partSize(300).sync();
+
+        List<LoggedRequest> requests = findAll(postRequestedFor(urlMatching("/publish.*")));
+        assertEquals(result.getParts(), requests.size());
+        assertTrue(result.getParts() > 10);
+        assertEquals(Long.valueOf(14598111595318003L), result.getTimetoken());
+
+        String[] slices = new String[result.getParts()];
+        Set<String> ids = new HashSet<>();
+
+        for (LoggedRequest request : requests) {
+            assertEquals("1", request.queryParameter("store").firstValue());
+
+            JsonObject part = new JsonParser().parse(new String(request.getBody(), Charset.forName("UTF-8")))
+                    .getAsJsonObject();
+            ids.add(part.get("pn_chunk").getAsString());
+            assertEquals(result.getParts(), part.get("pn_total").getAsInt());
+
+            String data = part.get("pn_data").getAsString();
+            assertTrue(new Gson().toJson(data).length() <= 300);
+            slices[part.get("pn_seq").getAsInt()] = data;
+        }
+
+        assertEquals(1, ids.size());
+        assertEquals(result.getMessageId(), ids.iterator().next());
+
+        StringBuilder json = new StringBuilder();
+        for (String slice : slices) {
+            json.append(slice);
+        }
+
+        JsonElement expected = new JsonParser().parse(new Gson().toJson(message));
+        assertEquals(expected, new JsonParser().parse(json.toString()));
+    }
+
+    @Test
+    public void testSmallMessageIsPublishedAsIs() throws PubNubException {
+        PNChunkedPublishResult result = pubnub.chunkedPublish().channel("coolChannel").message("hi").sync();
+
+        List<LoggedRequest> requests = findAll(postRequestedFor(urlMatching("/publish.*")));
+        assertEquals(1, requests.size());
+        assertEquals(1, result.getParts());
+        assertNull(result.getMessageId());
+        assertEquals("\"hi\"", new String(requests.get(0).getBody(), Charset.forName("UTF-8")));
+    }
+
+    @Test(expected = PubNubException.class)
+    public void testFailedPartFailsThePublish() throws PubNubException {
+        stubFor(post(urlPathEqualTo("/publish/myPublishKey/mySubscribeKey/0/coolChannel/0"))
+                .willReturn(aResponse().withStatus(400).withBody("[0,\"Invalid\",\"0\"]")));
+
+        pubnub.chunkedPublish().channel("coolChannel").message(document()).partSize(300).sync();
+    }
+
+}
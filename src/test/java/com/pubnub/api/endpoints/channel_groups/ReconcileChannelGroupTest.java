@@ -0,0 +1,96 @@
+package com.pubnub.api.endpoints.channel_groups;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import com.pubnub.api.PubNub;
+import com.pubnub.api.PubNubException;
+import com.pubnub.api.endpoints.TestHarness;
+import com.pubnub.api.models.consumer.channel_group.PNChannelGroupsReconcileResult;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ReconcileChannelGroupTest extends TestHarness {
+
+    private static final String OK = "{\"status\": 200, \"message\": \"OK\", \"service\": \"ChannelGroups\", \"error\": false}";
+
+    private PubNub pubnub;
+
+    @Rule
+    public WireMockRule wireMockRule = new WireMockRule();
+
+    @Before
+    public void beforeEach() throws IOException {
+        pubnub = this.createPubNubInstance(8080);
+        wireMockRule.start();
+    }
+
+    @After
+    public void afterEach() {
+        pubnub.destroy();
+    }
+
+    @Test
+    public void testDiffIsAppliedInBatches() throws PubNubException {
+        // most recently added stubs win, the listing is the one without add or remove.
+        stubFor(get(urlPathEqualTo("/v1/channel-registration/sub-key/mySubscribeKey/channel-group/groupA"))
+                .willReturn(aResponse().withBody("{\"status\": 200, \"message\": \"OK\", \"payload\": {\"channels\": [\"a\",\"b\",\"c\"]}, \"service\": \"ChannelGroups\"}")));
+        stubFor(get(urlPathEqualTo("/v1/channel-registration/sub-key/mySubscribeKey/channel-group/groupA"))
+                .withQueryParam("add", matching(".+"))
+                .willReturn(aResponse().withBody(OK)));
+        stubFor(get(urlPathEqualTo("/v1/channel-registration/sub-key/mySubscribeKey/channel-group/groupA"))
+                .withQueryParam("remove", equalTo("a"))
+                .willReturn(aResponse().withBody(OK)));
+
+        PNChannelGroupsReconcileResult result = pubnub.reconcileChannelGroup()
+                .channelGroup("groupA")
+                .channels(Arrays.asList("b", "c", "d", "e", "f"))
+                .maxChannelsPerRequest(2)
+                .sync();
+
+        assertEquals(Arrays.asList("d", "e", "f"), result.getAddedChannels());
+        assertEquals(Arrays.asList("a"), result.getRemovedChannels());
+        assertEquals(2, result.getUnchangedChannels());
+        assertTrue(result.getFailedChannels().isEmpty());
+        assertEquals(4, result.getRequests());
+        assertEquals(2, findAll(getRequestedFor(urlPathEqualTo("/v1/channel-registration/sub-key/mySubscribeKey/channel-group/groupA"))
+                .withQueryParam("add", matching(".+"))).size());
+    }
+
+    @Test
+    public void testFailedBatchIsReported() throws PubNubException {
+        stubFor(get(urlPathEqualTo("/v1/channel-registration/sub-key/mySubscribeKey/channel-group/groupA"))
+                .willReturn(aResponse().withBody("{\"status\": 200, \"message\": \"OK\", \"payload\": {\"channels\": []}, \"service\": \"ChannelGroups\"}")));
+        stubFor(get(urlPathEqualTo("/v1/channel-registration/sub-key/mySubscribeKey/channel-group/groupA"))
+                .withQueryParam("add", matching(".+"))
+                .willReturn(aResponse().withStatus(403).withBody("{}")));
+
+        PNChannelGroupsReconcileResult result = pubnub.reconcileChannelGroup()
+                .channelGroup("groupA")
+                .channels(Arrays.asList("a", "b"))
+                .sync();
+
+        assertTrue(result.getAddedChannels().isEmpty());
+        assertEquals(403, result.getFailedChannels().get("b").getStatusCode());
+    }
+
+    @Test
+    public void testMissingGroup() {
+        try {
+            pubnub.reconcileChannelGroup().channels(Collections.singletonList("a")).sync();
+            fail("expected a missing group error");
+        } catch (PubNubException e) {
+            assertEquals("Group Missing.", e.getPubnubError().getMessage());
+        }
+    }
+
+}
@@ -0,0 +1,136 @@
+package com.pubnub.api.endpoints.export;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import com.pubnub.api.PubNub;
+import com.pubnub.api.PubNubException;
+import com.pubnub.api.endpoints.TestHarness;
+import com.pubnub.api.models.consumer.history.PNHistoryExportResult;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class HistoryExportTest extends TestHarness {
+
+    private PubNub pubnub;
+
+    @Rule
+    public WireMockRule wireMockRule = new WireMockRule();
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Before
+    public void beforeEach() throws IOException {
+        pubnub = this.createPubNubInstance(8080);
+        wireMockRule.start();
+
+        stubFor(get(urlPathEqualTo("/v2/history/sub-key/mySubscribeKey/channel/ch1"))
+                .willReturn(aResponse().withBody("[[{\"message\":\"a\",\"timetoken\":10},{\"message\":\"b\",\"timetoken\":20}],10,20]")));
+        stubFor(get(urlPathEqualTo("/v2/history/sub-key/mySubscribeKey/channel/ch2"))
+                .willReturn(aResponse().withBody("[[{\"message\":{\"text\":\"c\"},\"timetoken\":30}],30,30]")));
+        stubFor(get(urlPathEqualTo("/v2/history/sub-key/mySubscribeKey/channel/empty"))
+                .willReturn(aResponse().withBody("[[],0,0]")));
+    }
+
+    @After
+    public void afterEach() {
+        pubnub.destroy();
+    }
+
+    @Test
+    public void testExportToNdjson() throws PubNubException, IOException {
+        File output = folder.newFile("export.ndjson");
+        NdjsonHistoryExportSink sink = new NdjsonHistoryExportSink(output);
+
+        PNHistoryExportResult result = pubnub.historyExport()
+                .channels(Arrays.asList("ch1", "ch2", "empty"))
+                .sink(sink)
+                .sync();
+        sink.close();
+
+        assertEquals(3, result.getExportedMessages());
+        assertEquals(3, result.getCompletedTasks());
+
+        List<String> lines = Files.readAllLines(output.toPath(), Charset.forName("UTF-8"));
+        assertEquals(3, lines.size());
+        assertTrue(lines.contains("{\"channel\":\"ch2\",\"timetoken\":30,\"message\":{\"text\":\"c\"}}"));
+    }
+
+    @Test
+    public void testResumeSkipsFinishedTasks() throws PubNubException, IOException {
+        File output = folder.newFile("export.ndjson");
+        File checkpoint = new File(folder.getRoot(), "export.checkpoint");
+        stubFor(get(urlPathEqualTo("/v2/history/sub-key/mySubscribeKey/channel/broken"))
+                .willReturn(aResponse().withStatus(500).withBody("{}")));
+
+        NdjsonHistoryExportSink sink = new NdjsonHistoryExportSink(output);
+        try {
+            pubnub.historyExport()
+                    .channels(Arrays.asList("ch1", "broken"))
+                    .sink(sink)
+                    .checkpoint(checkpoint)
+                    .sync();
+            fail("expected the failed channel to be reported");
+        } catch (PubNubException e) {
+            assertEquals(500, e.getStatusCode());
+        }
+
+        stubFor(get(urlPathEqualTo("/v2/history/sub-key/mySubscribeKey/channel/broken"))
+                .willReturn(aResponse().withBody("[[{\"message\":\"d\",\"timetoken\":40}],40,40]")));
+
+        PNHistoryExportResult result = pubnub.historyExport()
+                .channels(Arrays.asList("ch1", "broken"))
+                .sink(sink)
+                .checkpoint(checkpoint)
+                .sync();
+        sink.close();
+
+        assertEquals(1, result.getSkippedTasks());
+        assertEquals(1, result.getExportedMessages());
+        assertEquals(3, Files.readAllLines(output.toPath(), Charset.forName("UTF-8")).size());
+        assertEquals(1, findAll(getRequestedFor(urlPathEqualTo("/v2/history/sub-key/mySubscribeKey/channel/ch1"))).size());
+    }
+
+    @Test
+    public void testRangeIsSplitIntoSlices() throws PubNubException, IOException {
+        NdjsonHistoryExportSink sink = new NdjsonHistoryExportSink(folder.newFile("export.ndjson"));
+
+        pubnub.historyExport()
+                .channels(Arrays.asList("ch1"))
+                .start(1000L)
+                .end(0L)
+                .rangeSplits(4)
+                .sink(sink)
+                .sync();
+        sink.close();
+
+        assertEquals(4, findAll(getRequestedFor(urlPathEqualTo("/v2/history/sub-key/mySubscribeKey/channel/ch1"))).size());
+        assertEquals(1, findAll(getRequestedFor(urlPathEqualTo("/v2/history/sub-key/mySubscribeKey/channel/ch1"))
+                .withQueryParam("start", equalTo("750")).withQueryParam("end", equalTo("500"))).size());
+    }
+
+    @Test
+    public void testMissingSink() {
+        try {
+            pubnub.historyExport().channels(Arrays.asList("ch1")).sync();
+            fail("expected a missing sink error");
+        } catch (PubNubException e) {
+            assertEquals("sink is required", e.getErrormsg());
+        }
+    }
+
+}
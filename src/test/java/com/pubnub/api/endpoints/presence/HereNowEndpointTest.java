@@ -21,6 +21,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
 import static com.github.tomakehurst.wiremock.client.WireMock.findAll;
 import static com.github.tomakehurst.wiremock.client.WireMock.get;
 import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
@@ -265,4 +266,49 @@ public class HereNowEndpointTest extends TestHarness {
         partialHereNow.channels(Arrays.asList("ch1", "ch2")).includeState(true).sync();
     }
 
+    @Test
+    public void testShardedSync() throws PubNubException {
+        stubFor(get(urlPathEqualTo("/v2/presence/sub_key/mySubscribeKey/channel/ch1,ch2"))
+                .willReturn(aResponse().withBody("{\"status\":200,\"message\":\"OK\",\"payload\":{\"total_occupancy\":3,\"total_channels\":2,\"channels\":{\"ch1\":{\"occupancy\":1,\"uuids\":[\"user1\"]},\"ch2\":{\"occupancy\":2,\"uuids\":[\"user1\",\"user3\"]}}},\"service\":\"Presence\"}")));
+        stubFor(get(urlPathEqualTo("/v2/presence/sub_key/mySubscribeKey/channel/ch3"))
+                .willReturn(aResponse().withBody("{\"status\": 200, \"message\": \"OK\", \"service\": \"Presence\", \"uuids\": [\"user4\"], \"occupancy\": 1}")));
+        stubFor(get(urlPathEqualTo("/v2/presence/sub_key/mySubscribeKey/channel/,"))
+                .withQueryParam("channel-group", equalTo("cg1"))
+                .willReturn(aResponse().withBody("{\"status\":200,\"message\":\"OK\",\"payload\":{\"total_occupancy\":6,\"total_channels\":2,\"channels\":{\"ch2\":{\"occupancy\":2,\"uuids\":[\"user1\",\"user3\"]},\"ch9\":{\"occupancy\":4,\"uuids\":[\"a\",\"b\",\"c\",\"d\"]}}},\"service\":\"Presence\"}")));
+
+        PNHereNowResult response = partialHereNow.channels(Arrays.asList("ch1", "ch2", "ch3"))
+                .channelGroups(Arrays.asList("cg1"))
+                .maxChannelsPerShard(2)
+                .sync();
+
+        // ch2 is reached through both the channel list and the group and is counted once.
+        assertEquals(4, response.getTotalChannels());
+        assertEquals(8, response.getTotalOccupancy());
+        assertEquals(1, response.getChannels().get("ch3").getOccupants().size());
+        assertEquals(4, response.getChannels().get("ch9").getOccupancy());
+        assertEquals(3, findAll(getRequestedFor(urlMatching("/v2/presence.*"))).size());
+    }
+
+    @Test
+    public void testShardedAsyncFailure() {
+        stubFor(get(urlPathEqualTo("/v2/presence/sub_key/mySubscribeKey/channel/ch1,ch2"))
+                .willReturn(aResponse().withBody("{\"status\":200,\"message\":\"OK\",\"payload\":{\"total_occupancy\":0,\"total_channels\":0,\"channels\":{}},\"service\":\"Presence\"}")));
+        stubFor(get(urlPathEqualTo("/v2/presence/sub_key/mySubscribeKey/channel/ch3"))
+                .willReturn(aResponse().withStatus(403).withBody("{}")));
+
+        final AtomicInteger errors = new AtomicInteger();
+
+        partialHereNow.channels(Arrays.asList("ch1", "ch2", "ch3")).maxChannelsPerShard(2).shardParallelism(1)
+                .async(new PNCallback<PNHereNowResult>() {
+                    @Override
+                    public void onResponse(PNHereNowResult result, PNStatus status) {
+                        if (status.isError() && result == null) {
+                            errors.incrementAndGet();
+                        }
+                    }
+                });
+
+        Awaitility.await().atMost(5, TimeUnit.SECONDS).untilAtomic(errors, org.hamcrest.core.IsEqual.equalTo(1));
+    }
+
 }
@@ -2,7 +2,10 @@ package com.pubnub.api.endpoints.pubsub;
 
 import com.github.tomakehurst.wiremock.junit.WireMockRule;
 import com.github.tomakehurst.wiremock.verification.LoggedRequest;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
 import com.jayway.awaitility.Awaitility;
+import com.pubnub.api.PayloadCompression;
 import com.pubnub.api.PubNub;
 import com.pubnub.api.PubNubException;
 import com.pubnub.api.callbacks.PNCallback;
@@ -29,6 +32,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 import static com.github.tomakehurst.wiremock.client.WireMock.*;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 public class PublishTest extends TestHarness {
 
@@ -452,4 +456,40 @@ public class PublishTest extends TestHarness {
         assertEquals(null, requests.get(0).queryParameter("ttl"));
     }
 
+    @Test
+    public void testCompressedPostSync() throws PubNubException, InterruptedException {
+        stubFor(post(urlPathEqualTo("/publish/myPublishKey/mySubscribeKey/0/coolChannel/0"))
+                .willReturn(aResponse().withBody("[1,\"Sent\",\"14598111595318003\"]")));
+
+        pubnub.getConfiguration().setCompressionThreshold(100);
+
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            text.append("compressible ");
+        }
+
+        instance.channel("coolChannel").usePOST(true).message(Arrays.asList(text.toString())).sync();
+
+        List<LoggedRequest> requests = findAll(postRequestedFor(urlMatching("/.*")));
+        assertEquals(1, requests.size());
+
+        String body = new String(requests.get(0).getBody(), Charset.forName("UTF-8"));
+        JsonElement envelope = new JsonParser().parse(body);
+        assertTrue(envelope.getAsJsonObject().has("pn_deflate"));
+        assertTrue(body.length() < text.length());
+        assertEquals(text.toString(), PayloadCompression.decompress(envelope, pubnub.getMapper())
+                .getAsJsonArray().get(0).getAsString());
+    }
+
+    @Test
+    public void testBelowCompressionThresholdSync() throws PubNubException, InterruptedException {
+        stubFor(get(urlPathEqualTo("/publish/myPublishKey/mySubscribeKey/0/coolChannel/0/%22hi%22"))
+                .willReturn(aResponse().withBody("[1,\"Sent\",\"14598111595318003\"]")));
+
+        pubnub.getConfiguration().setCompressionThreshold(100);
+        instance.channel("coolChannel").message("hi").sync();
+
+        assertEquals(1, findAll(getRequestedFor(urlMatching("/.*"))).size());
+    }
+
 }
@@ -6,6 +6,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.util.Arrays;
 
 public class BasePathManagerTest {
 
@@ -119,4 +120,36 @@ public class BasePathManagerTest {
         Assert.assertEquals("https://ps1.pndsn.com", basePathManager.getBasePath());
     }
 
+    @Test
+    public void multipleOriginsPreferConfigurationOrder() {
+        pnConfiguration.setOrigins(Arrays.asList("a.origin.com", "b.origin.com"));
+        pnConfiguration.setSecure(false);
+        BasePathManager basePathManager = new BasePathManager(pnConfiguration);
+        Assert.assertEquals("http://a.origin.com", basePathManager.getBasePath());
+    }
+
+    @Test
+    public void multipleOriginsPreferLowestLatency() {
+        pnConfiguration.setOrigins(Arrays.asList("a.origin.com", "b.origin.com"));
+        BasePathManager basePathManager = new BasePathManager(pnConfiguration);
+        basePathManager.reportSuccess("a.origin.com", 80000000L);
+        basePathManager.reportSuccess("b.origin.com", 20000000L);
+        Assert.assertEquals("b.origin.com", basePathManager.selectOrigin(null));
+    }
+
+    @Test
+    public void multipleOriginsAvoidFailingOrigin() {
+        pnConfiguration.setOrigins(Arrays.asList("a.origin.com", "b.origin.com"));
+        BasePathManager basePathManager = new BasePathManager(pnConfiguration);
+        basePathManager.reportFailure("a.origin.com");
+        Assert.assertEquals("b.origin.com", basePathManager.selectOrigin(null));
+
+        basePathManager.reportFailure("b.origin.com");
+        Assert.assertEquals("a.origin.com", basePathManager.selectOrigin(null));
+        Assert.assertNull(basePathManager.selectOrigin(Arrays.asList("a.origin.com", "b.origin.com")));
+
+        basePathManager.reportSuccess("b.origin.com", -1);
+        Assert.assertEquals("b.origin.com", basePathManager.selectOrigin(null));
+    }
+
 }
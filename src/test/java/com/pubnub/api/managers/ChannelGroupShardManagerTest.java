@@ -0,0 +1,293 @@
+package com.pubnub.api.managers;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import com.github.tomakehurst.wiremock.verification.LoggedRequest;
+import com.jayway.awaitility.Awaitility;
+import com.pubnub.api.PubNub;
+import com.pubnub.api.callbacks.SubscribeCallback;
+import com.pubnub.api.endpoints.TestHarness;
+import com.pubnub.api.enums.PNOperationType;
+import com.pubnub.api.enums.PNStatusCategory;
+import com.pubnub.api.models.consumer.PNStatus;
+import com.pubnub.api.models.consumer.pubsub.PNMessageResult;
+import com.pubnub.api.models.consumer.pubsub.PNPresenceEventResult;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ChannelGroupShardManagerTest extends TestHarness {
+
+    private static final String GROUP_PATH = "/v1/channel-registration/sub-key/mySubscribeKey/channel-group/";
+    private static final String OK = "{\"status\": 200, \"message\": \"OK\", \"service\": \"ChannelGroups\", \"error\": false}";
+
+    @Rule
+    public WireMockRule wireMockRule = new WireMockRule();
+
+    private PubNub pubnub;
+
+    @Before
+    public void beforeEach() throws IOException {
+        pubnub = this.createPubNubInstance(8080);
+        pubnub.getConfiguration().setChannelGroupShardingThreshold(2);
+        pubnub.getConfiguration().setChannelsPerManagedGroup(2);
+        wireMockRule.start();
+    }
+
+    @After
+    public void afterEach() {
+        pubnub.destroy();
+    }
+
+    @Test
+    public void testChannelsAreSubscribedThroughManagedGroups() {
+        stubFor(get(urlMatching(GROUP_PATH + ".*")).willReturn(aResponse().withBody(OK)));
+        stubFor(get(urlPathEqualTo("/v2/subscribe/mySubscribeKey/,/0"))
+                .withQueryParam("channel-group", equalTo("pn-sdk-PubNubInstanceId-c0,pn-sdk-PubNubInstanceId-c1"))
+                .willReturn(aResponse().withBody("{\"t\":{\"t\":\"14607577960932487\",\"r\":1},\"m\":[{\"a\":\"4\",\"f\":0,"
+                        + "\"i\":\"Client-g5d4g\",\"p\":{\"t\":\"14607577960925503\",\"r\":1},\"k\":\"mySubscribeKey\","
+                        + "\"c\":\"ch3\",\"d\":{\"text\":\"hi\"},\"b\":\"pn-sdk-PubNubInstanceId-c1\"},"
+                        + "{\"a\":\"4\",\"f\":0,\"i\":\"Client-g5d4g\",\"p\":{\"t\":\"14607577960925504\",\"r\":1},"
+                        + "\"k\":\"mySubscribeKey\",\"c\":\"stale\",\"d\":{\"text\":\"gone\"},\"b\":\"pn-sdk-PubNubInstanceId-c1\"}]}")));
+
+        final List<PNMessageResult> messages = new CopyOnWriteArrayList<>();
+
+        pubnub.addListener(new SubscribeCallback() {
+            @Override
+            public void status(PubNub pubnub, PNStatus status) {
+            }
+
+            @Override
+            public void message(PubNub pubnub, PNMessageResult message) {
+                messages.add(message);
+            }
+
+            @Override
+            public void presence(PubNub pubnub, PNPresenceEventResult presence) {
+            }
+        });
+
+        pubnub.subscribe().channels(Arrays.asList("ch1", "ch2", "ch3")).execute();
+
+        Awaitility.await().atMost(5, TimeUnit.SECONDS).until(new Callable<Boolean>() {
+            @Override
+            public Boolean call() throws Exception {
+                return !messages.isEmpty();
+            }
+        });
+
+        PNMessageResult message = messages.get(0);
+        assertEquals("ch3", message.getChannel());
+        assertNull(message.getSubscription());
+        // a channel the managed group still held after it was dropped is not delivered.
+        for (PNMessageResult received : messages) {
+            assertEquals("ch3", received.getChannel());
+        }
+
+        assertEquals(1, findAll(getRequestedFor(urlPathEqualTo(GROUP_PATH + "pn-sdk-PubNubInstanceId-c0"))
+                .withQueryParam("add", matching("ch[12],ch[12]"))).size());
+        assertEquals(1, findAll(getRequestedFor(urlPathEqualTo(GROUP_PATH + "pn-sdk-PubNubInstanceId-c1"))
+                .withQueryParam("add", equalTo("ch3"))).size());
+        assertTrue(pubnub.getSubscribedChannelGroups().isEmpty());
+        assertEquals(3, pubnub.getSubscribedChannels().size());
+
+        pubnub.destroy();
+
+        assertEquals(1, findAll(getRequestedFor(urlPathEqualTo(GROUP_PATH + "pn-sdk-PubNubInstanceId-c1/remove"))).size());
+    }
+
+    @Test
+    public void testFailedGroupKeepsChannelsNamedAndIsAnnounced() {
+        stubFor(get(urlPathEqualTo(GROUP_PATH + "pn-sdk-PubNubInstanceId-c0")).willReturn(aResponse().withBody(OK)));
+        stubFor(get(urlPathEqualTo(GROUP_PATH + "pn-sdk-PubNubInstanceId-c1")).willReturn(aResponse().withStatus(403)
+                .withBody("{\"status\": 403, \"message\": \"Forbidden\", \"error\": true}")));
+        stubFor(get(urlPathEqualTo("/v2/subscribe/mySubscribeKey/ch3/0"))
+                .withQueryParam("channel-group", equalTo("pn-sdk-PubNubInstanceId-c0"))
+                .willReturn(aResponse().withBody("{\"t\":{\"t\":\"14607577960932487\",\"r\":1},\"m\":[]}")));
+
+        final List<PNStatus> failures = new CopyOnWriteArrayList<>();
+
+        pubnub.addListener(new SubscribeCallback() {
+            @Override
+            public void status(PubNub pubnub, PNStatus status) {
+                if (status.getOperation() == PNOperationType.PNAddChannelsToGroupOperation) {
+                    failures.add(status);
+                }
+            }
+
+            @Override
+            public void message(PubNub pubnub, PNMessageResult message) {
+            }
+
+            @Override
+            public void presence(PubNub pubnub, PNPresenceEventResult presence) {
+            }
+        });
+
+        pubnub.subscribe().channels(Arrays.asList("ch1", "ch2", "ch3")).execute();
+
+        Awaitility.await().atMost(5, TimeUnit.SECONDS).until(new Callable<Boolean>() {
+            @Override
+            public Boolean call() throws Exception {
+                return !failures.isEmpty() && !findAll(getRequestedFor(urlPathEqualTo("/v2/subscribe/mySubscribeKey/ch3/0"))
+                        .withQueryParam("channel-group", equalTo("pn-sdk-PubNubInstanceId-c0"))).isEmpty();
+            }
+        });
+
+        PNStatus status = failures.get(0);
+        assertTrue(status.isError());
+        assertEquals(PNStatusCategory.PNAccessDeniedCategory, status.getCategory());
+        assertEquals(Arrays.asList("ch3"), status.getAffectedChannels());
+        assertEquals(Arrays.asList("pn-sdk-PubNubInstanceId-c1"), status.getAffectedChannelGroups());
+        assertEquals(Arrays.asList("ch3"), pubnub.getChannelGroupShardManager().getPendingChannels(false));
+    }
+
+    @Test
+    public void testLeaveGoesThroughEmptiedGroups() {
+        stubFor(get(urlMatching(GROUP_PATH + ".*")).willReturn(aResponse().withBody(OK)));
+        stubFor(get(urlMatching("/v2/subscribe/mySubscribeKey/.*"))
+                .willReturn(aResponse().withBody("{\"t\":{\"t\":\"14607577960932487\",\"r\":1},\"m\":[]}")));
+        stubFor(get(urlMatching("/v2/presence/sub-key/mySubscribeKey/channel/.*/leave.*"))
+                .willReturn(aResponse().withBody("{\"status\": 200, \"message\": \"OK\", \"service\": \"Presence\"}")));
+
+        final ChannelGroupShardManager shardManager = pubnub.getChannelGroupShardManager();
+
+        pubnub.subscribe().channels(Arrays.asList("ch1", "ch2", "ch3")).execute();
+
+        Awaitility.await().atMost(5, TimeUnit.SECONDS).until(new Callable<Boolean>() {
+            @Override
+            public Boolean call() throws Exception {
+                return shardManager.getPendingChannels(false).isEmpty();
+            }
+        });
+
+        pubnub.unsubscribe().channels(Arrays.asList("ch1", "ch2")).execute();
+
+        Awaitility.await().atMost(5, TimeUnit.SECONDS).until(new Callable<Boolean>() {
+            @Override
+            public Boolean call() throws Exception {
+                return !findAll(getRequestedFor(urlMatching("/v2/presence/.*/leave.*"))).isEmpty();
+            }
+        });
+
+        List<LoggedRequest> leaves = findAll(getRequestedFor(urlMatching("/v2/presence/.*/leave.*")));
+        assertEquals(1, leaves.size());
+        assertEquals("/v2/presence/sub-key/mySubscribeKey/channel/,/leave", leaves.get(0).getUrl().split("\\?")[0]);
+        assertEquals("pn-sdk-PubNubInstanceId-c0", leaves.get(0).queryParameter("channel-group").firstValue());
+    }
+
+    @Test
+    public void testBelowThresholdChannelsAreNamed() {
+        ChannelGroupShardManager shardManager = pubnub.getChannelGroupShardManager();
+
+        shardManager.update(Arrays.asList("ch1", "ch2"), Arrays.<String>asList(), Arrays.<String>asList());
+
+        assertFalse(shardManager.isActive());
+        assertTrue(shardManager.getSubscribeGroups().isEmpty());
+    }
+
+    @Test
+    public void testChannelsBeyondGroupLimitAreLeftOutAndAnnounced() {
+        stubFor(get(urlMatching(GROUP_PATH + ".*")).willReturn(aResponse().withBody(OK)));
+        stubFor(get(urlMatching("/v2/subscribe/mySubscribeKey/.*"))
+                .willReturn(aResponse().withBody("{\"t\":{\"t\":\"14607577960932487\",\"r\":1},\"m\":[]}")));
+
+        final List<PNStatus> failures = new CopyOnWriteArrayList<>();
+
+        pubnub.addListener(new SubscribeCallback() {
+            @Override
+            public void status(PubNub pubnub, PNStatus status) {
+                if (status.getCategory() == PNStatusCategory.PNBadRequestCategory) {
+                    failures.add(status);
+                }
+            }
+
+            @Override
+            public void message(PubNub pubnub, PNMessageResult message) {
+            }
+
+            @Override
+            public void presence(PubNub pubnub, PNPresenceEventResult presence) {
+            }
+        });
+
+        List<String> channels = new ArrayList<>();
+
+        for (int i = 0; i < 21; i++) {
+            channels.add("ch" + i);
+        }
+
+        // the application's own group leaves room for 9 managed groups of 2 channels.
+        pubnub.subscribe().channelGroups(Arrays.asList("cg")).execute();
+        pubnub.subscribe().channels(channels).execute();
+
+        Awaitility.await().atMost(5, TimeUnit.SECONDS).until(new Callable<Boolean>() {
+            @Override
+            public Boolean call() throws Exception {
+                return !failures.isEmpty();
+            }
+        });
+
+        PNStatus status = failures.get(0);
+        assertTrue(status.isError());
+        assertEquals(PNOperationType.PNSubscribeOperation, status.getOperation());
+        assertEquals(3, status.getAffectedChannels().size());
+
+        ChannelGroupShardManager shardManager = pubnub.getChannelGroupShardManager();
+        int tracked = 0;
+
+        for (String channel : channels) {
+            if (shardManager.isTracked(channel)) {
+                tracked++;
+            }
+        }
+
+        assertEquals(18, tracked);
+
+        for (String channel : status.getAffectedChannels()) {
+            assertFalse(shardManager.isTracked(channel));
+            assertFalse(shardManager.getPendingChannels(false).contains(channel));
+        }
+    }
+
+    @Test
+    public void testDestroyDoesNotWaitOnEveryGroupDeletion() {
+        stubFor(get(urlMatching(GROUP_PATH + ".*")).willReturn(aResponse().withBody(OK)));
+        stubFor(get(urlMatching(GROUP_PATH + ".*/remove.*")).willReturn(aResponse().withFixedDelay(8000).withBody(OK)));
+        stubFor(get(urlMatching("/v2/subscribe/mySubscribeKey/.*"))
+                .willReturn(aResponse().withBody("{\"t\":{\"t\":\"14607577960932487\",\"r\":1},\"m\":[]}")));
+
+        final ChannelGroupShardManager shardManager = pubnub.getChannelGroupShardManager();
+
+        pubnub.subscribe().channels(Arrays.asList("ch1", "ch2", "ch3", "ch4", "ch5")).execute();
+
+        Awaitility.await().atMost(5, TimeUnit.SECONDS).until(new Callable<Boolean>() {
+            @Override
+            public Boolean call() throws Exception {
+                return shardManager.getPendingChannels(false).isEmpty();
+            }
+        });
+
+        long startedAt = System.currentTimeMillis();
+        pubnub.destroy();
+
+        // the three deletions go out together and are given up on after the deadline.
+        assertTrue(System.currentTimeMillis() - startedAt < 6000);
+        assertEquals(3, findAll(getRequestedFor(urlMatching(GROUP_PATH + ".*/remove.*"))).size());
+    }
+
+}
@@ -0,0 +1,240 @@
+package com.pubnub.api.managers;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import com.jayway.awaitility.Awaitility;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import com.pubnub.api.PubNub;
+import com.pubnub.api.callbacks.SubscribeCallback;
+import com.pubnub.api.endpoints.TestHarness;
+import com.pubnub.api.enums.PNStatusCategory;
+import com.pubnub.api.models.consumer.PNStatus;
+import com.pubnub.api.models.consumer.pubsub.PNMessageResult;
+import com.pubnub.api.models.consumer.pubsub.PNPresenceEventResult;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ChunkAssemblerTest extends TestHarness {
+
+    @Rule
+    public WireMockRule wireMockRule = new WireMockRule();
+
+    private PubNub pubnub;
+    private ChunkAssembler assembler;
+    private long now;
+    private final List<PNMessageResult> delivered = new CopyOnWriteArrayList<>();
+    private final List<PNStatus> statuses = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean calledWhileHeld = new AtomicBoolean();
+
+    @Before
+    public void beforeEach() throws IOException {
+        pubnub = this.createPubNubInstance(8080);
+        wireMockRule.start();
+
+        ListenerManager listenerManager = new ListenerManager(pubnub);
+        listenerManager.addListener(new SubscribeCallback() {
+            @Override
+            public void status(PubNub pubnub, PNStatus status) {
+                calledWhileHeld.compareAndSet(false, Thread.holdsLock(assembler));
+                statuses.add(status);
+            }
+
+            @Override
+            public void message(PubNub pubnub, PNMessageResult message) {
+                calledWhileHeld.compareAndSet(false, Thread.holdsLock(assembler));
+                delivered.add(message);
+            }
+
+            @Override
+            public void presence(PubNub pubnub, PNPresenceEventResult presence) {
+            }
+        });
+
+        Executor inline = new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                command.run();
+            }
+        };
+
+        assembler = new ChunkAssembler(pubnub, listenerManager, inline) {
+            @Override
+            protected long currentTimeMillis() {
+                return now;
+            }
+        };
+    }
+
+    @After
+    public void afterEach() {
+        assembler.stop();
+        pubnub.destroy();
+    }
+
+    private static JsonObject part(String id, int seq, int total, String data) {
+        JsonObject part = new JsonObject();
+        part.addProperty("pn_chunk", id);
+        part.addProperty("pn_seq", seq);
+        part.addProperty("pn_total", total);
+        part.addProperty("pn_data", data);
+        return part;
+    }
+
+    private static PNMessageResult message(Object payload, long timetoken) {
+        return PNMessageResult.builder()
+                .channel("ch")
+                .message(payload instanceof JsonObject ? (JsonObject) payload : new JsonPrimitive((String) payload))
+                .timetoken(timetoken)
+                .publisher("publisher")
+                .build();
+    }
+
+    private static void awaitSize(final List<?> list, final int size) {
+        Awaitility.await().atMost(5, TimeUnit.SECONDS).until(new Callable<Boolean>() {
+            @Override
+            public Boolean call() throws Exception {
+                return list.size() == size;
+            }
+        });
+    }
+
+    @Test
+    public void testPartsAreAssembledInAnyOrder() {
+        assembler.announce(message(part("m1", 2, 3, "3]"), 30));
+        assembler.announce(message(part("m1", 0, 3, "[1,"), 10));
+        assembler.announce(message("plain", 15));
+
+        assertEquals(1, delivered.size());
+        assertEquals("plain", delivered.get(0).getMessage().getAsString());
+
+        // a duplicate of a part already received is ignored.
+        assembler.announce(message(part("m1", 0, 3, "[1,"), 10));
+        assembler.announce(message(part("m1", 1, 3, "2,"), 20));
+
+        assertEquals(2, delivered.size());
+        assertEquals(new JsonParser().parse("[1,2,3]"), delivered.get(1).getMessage());
+        assertEquals(Long.valueOf(20), delivered.get(1).getTimetoken());
+        assertEquals("publisher", delivered.get(1).getPublisher());
+        assertEquals(0, assembler.pendingCount());
+    }
+
+    @Test
+    public void testOldestMessageIsEvictedWhenBufferIsFull() {
+        // 16 for the slots of a message and 7 for its first part.
+        pubnub.getConfiguration().setChunkAssemblyBufferSize(40);
+
+        assembler.announce(message(part("m1", 0, 2, "[\"aaaaa"), 10));
+        assembler.announce(message(part("m2", 0, 2, "[\"bbbbb"), 20));
+
+        assertEquals(1, assembler.pendingCount());
+        assertEquals(1, statuses.size());
+        assertEquals(PNStatusCategory.PNMalformedResponseCategory, statuses.get(0).getCategory());
+
+        assembler.announce(message(part("m2", 1, 2, "\"]"), 30));
+        assertEquals(1, delivered.size());
+    }
+
+    @Test
+    public void testMissingPartsAreRecoveredFromHistory() {
+        pubnub.getConfiguration().setChunkAssemblyTimeout(1);
+
+        stubFor(get(urlPathEqualTo("/v2/history/sub-key/mySubscribeKey/channel/ch"))
+                .willReturn(aResponse().withBody("[[{\"message\":{\"pn_chunk\":\"m1\",\"pn_seq\":1,\"pn_total\":3,"
+                        + "\"pn_data\":\"2,\"},\"timetoken\":20},{\"message\":\"other\",\"timetoken\":25}],20,25]")));
+
+        assembler.announce(message(part("m1", 0, 3, "[1,"), 10));
+        assembler.announce(message(part("m1", 2, 3, "3]"), 30));
+
+        now += 500;
+        assembler.expire();
+        assertEquals(0, delivered.size());
+
+        now += 1000;
+        assembler.expire();
+
+        awaitSize(delivered, 1);
+        assertEquals(new JsonParser().parse("[1,2,3]"), delivered.get(0).getMessage());
+        assertEquals(1, findAll(getRequestedFor(urlMatching("/v2/history.*"))
+                .withQueryParam("end", equalTo("0"))).size());
+    }
+
+    @Test
+    public void testUnrecoverableMessageIsDropped() {
+        pubnub.getConfiguration().setChunkAssemblyTimeout(1);
+
+        stubFor(get(urlPathEqualTo("/v2/history/sub-key/mySubscribeKey/channel/ch"))
+                .willReturn(aResponse().withBody("[[],0,0]")));
+
+        assembler.announce(message(part("m1", 0, 2, "[1,"), 10));
+
+        now += 1000;
+        assembler.expire();
+        assertEquals(1, assembler.pendingCount());
+        assertEquals(0, statuses.size());
+
+        now += 1000;
+        assembler.expire();
+        assertEquals(0, assembler.pendingCount());
+        assertEquals(1, statuses.size());
+        assertEquals(0, delivered.size());
+    }
+
+    @Test
+    public void testInvalidRecoveredMessageIsAnnouncedOutsideOfAssembler() {
+        pubnub.getConfiguration().setChunkAssemblyTimeout(1);
+
+        stubFor(get(urlPathEqualTo("/v2/history/sub-key/mySubscribeKey/channel/ch"))
+                .willReturn(aResponse().withBody("[[{\"message\":{\"pn_chunk\":\"m1\",\"pn_seq\":1,\"pn_total\":2,"
+                        + "\"pn_data\":\"}}\"},\"timetoken\":20}],20,20]")));
+
+        assembler.announce(message(part("m1", 0, 2, "[1,"), 10));
+
+        now += 1000;
+        assembler.expire();
+
+        awaitSize(statuses, 1);
+        assertEquals(PNStatusCategory.PNMalformedResponseCategory, statuses.get(0).getCategory());
+        assertEquals(0, assembler.pendingCount());
+        assertFalse(calledWhileHeld.get());
+    }
+
+    @Test
+    public void testSlowRecoveryDoesNotHoldUpExpiry() {
+        pubnub.getConfiguration().setChunkAssemblyTimeout(1);
+
+        stubFor(get(urlPathEqualTo("/v2/history/sub-key/mySubscribeKey/channel/ch"))
+                .willReturn(aResponse().withFixedDelay(3000).withBody("[[],0,0]")));
+
+        assembler.announce(message(part("m1", 0, 2, "[1,"), 10));
+
+        long startedAt = System.currentTimeMillis();
+
+        now += 1000;
+        assembler.expire();
+
+        // the lookup is still running, the message is dropped on time all the same.
+        now += 1000;
+        assembler.expire();
+
+        assertTrue(System.currentTimeMillis() - startedAt < 1000);
+        assertEquals(0, assembler.pendingCount());
+        assertEquals(1, statuses.size());
+    }
+
+}
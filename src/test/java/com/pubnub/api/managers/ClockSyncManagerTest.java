@@ -0,0 +1,98 @@
+package com.pubnub.api.managers;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import com.jayway.awaitility.Awaitility;
+import com.pubnub.api.PNConfiguration;
+import com.pubnub.api.PubNub;
+import com.pubnub.api.endpoints.TestHarness;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ClockSyncManagerTest extends TestHarness {
+
+    @Rule
+    public WireMockRule wireMockRule = new WireMockRule();
+
+    private PubNub pubnub;
+
+    @Before
+    public void beforeEach() throws IOException {
+        pubnub = this.createPubNubInstance(8080);
+        wireMockRule.start();
+    }
+
+    @After
+    public void afterEach() {
+        pubnub.destroy();
+    }
+
+    @Test
+    public void testLocalClockUntilSampled() {
+        ClockSyncManager clockSyncManager = new ClockSyncManager(pubnub);
+
+        assertFalse(clockSyncManager.isSynchronized());
+        assertEquals(0, clockSyncManager.getOffset());
+    }
+
+    @Test
+    public void testSampleIsCorrectedByHalfRoundTrip() {
+        ClockSyncManager clockSyncManager = new ClockSyncManager(pubnub);
+
+        // server is 5 seconds ahead, the request took 200ms.
+        clockSyncManager.addSample(15000L * 10000L, TimeUnit.MILLISECONDS.toNanos(200), 10100L);
+
+        assertTrue(clockSyncManager.isSynchronized());
+        assertEquals(5000L, clockSyncManager.getOffset());
+    }
+
+    @Test
+    public void testShortestRoundTripWins() {
+        ClockSyncManager clockSyncManager = new ClockSyncManager(pubnub);
+
+        clockSyncManager.addSample(15000L * 10000L, TimeUnit.MILLISECONDS.toNanos(20), 10010L);
+        clockSyncManager.addSample(25000L * 10000L, TimeUnit.MILLISECONDS.toNanos(2000), 20000L);
+
+        assertEquals(5000L, clockSyncManager.getOffset());
+    }
+
+    @Test
+    public void testPeriodicSampling() {
+        final long serverMillis = System.currentTimeMillis() + 60000L;
+        stubFor(get(urlPathEqualTo("/time/0"))
+                .willReturn(aResponse().withBody("[" + serverMillis * 10000L + "]")));
+
+        PNConfiguration configuration = pubnub.getConfiguration();
+        configuration.setClockSyncInterval(60);
+        final ClockSyncManager clockSyncManager = new ClockSyncManager(pubnub);
+        clockSyncManager.start();
+
+        try {
+            Awaitility.await().atMost(5, TimeUnit.SECONDS).until(new Callable<Boolean>() {
+                @Override
+                public Boolean call() throws Exception {
+                    return clockSyncManager.isSynchronized();
+                }
+            });
+        } finally {
+            clockSyncManager.stop();
+        }
+
+        assertTrue(Math.abs(clockSyncManager.getOffset() - 60000L) < 5000L);
+        assertTrue(Math.abs(clockSyncManager.serverNow() / 10000L - System.currentTimeMillis() - 60000L) < 5000L);
+    }
+
+}
@@ -0,0 +1,71 @@
+package com.pubnub.api.managers;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ConsistentHashRingTest {
+
+    private static final int KEYS = 1000;
+
+    @Test
+    public void testAssignmentIsStable() {
+        ConsistentHashRing first = new ConsistentHashRing(4);
+        ConsistentHashRing second = new ConsistentHashRing(4);
+
+        for (int i = 0; i < KEYS; i++) {
+            assertEquals(first.nodeFor("channel-" + i), second.nodeFor("channel-" + i));
+        }
+    }
+
+    @Test
+    public void testKeysAreSpreadOverAllNodes() {
+        ConsistentHashRing ring = new ConsistentHashRing(4);
+        int[] counts = new int[4];
+
+        for (int i = 0; i < KEYS; i++) {
+            counts[ring.nodeFor("channel-" + i)]++;
+        }
+
+        for (int count : counts) {
+            assertTrue("unbalanced node with " + count + " keys", count > KEYS / 8);
+        }
+    }
+
+    @Test
+    public void testAddingNodeMovesFewKeys() {
+        ConsistentHashRing four = new ConsistentHashRing(4);
+        ConsistentHashRing five = new ConsistentHashRing(5);
+        int moved = 0;
+
+        for (int i = 0; i < KEYS; i++) {
+            int before = four.nodeFor("channel-" + i);
+            int after = five.nodeFor("channel-" + i);
+
+            if (before != after) {
+                // keys only ever move to the new node.
+                assertEquals(4, after);
+                moved++;
+            }
+        }
+
+        assertTrue("moved " + moved + " keys", moved < KEYS / 3);
+    }
+
+    @Test
+    public void testSingleNode() {
+        ConsistentHashRing ring = new ConsistentHashRing(1);
+        Set<Integer> nodes = new HashSet<>();
+
+        for (int i = 0; i < KEYS; i++) {
+            nodes.add(ring.nodeFor("channel-" + i));
+        }
+
+        assertEquals(1, nodes.size());
+    }
+
+}
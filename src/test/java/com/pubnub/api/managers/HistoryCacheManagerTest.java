@@ -0,0 +1,152 @@
+package com.pubnub.api.managers;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import com.google.gson.JsonPrimitive;
+import com.jayway.awaitility.Awaitility;
+import com.pubnub.api.PNConfiguration;
+import com.pubnub.api.PubNub;
+import com.pubnub.api.PubNubException;
+import com.pubnub.api.callbacks.PNCallback;
+import com.pubnub.api.endpoints.TestHarness;
+import com.pubnub.api.models.consumer.PNStatus;
+import com.pubnub.api.models.consumer.history.PNHistoryItemResult;
+import com.pubnub.api.models.consumer.history.PNHistoryResult;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+
+public class HistoryCacheManagerTest extends TestHarness {
+
+    @Rule
+    public WireMockRule wireMockRule = new WireMockRule();
+
+    private PubNub pubnub;
+
+    @Before
+    public void beforeEach() throws IOException {
+        pubnub = this.createPubNubInstance(8080);
+        pubnub.getConfiguration().setHistoryCacheSize(100);
+        wireMockRule.start();
+    }
+
+    @After
+    public void afterEach() {
+        pubnub.destroy();
+    }
+
+    private static PNHistoryItemResult item(long timetoken) {
+        return PNHistoryItemResult.builder().timetoken(timetoken).entry(new JsonPrimitive("m" + timetoken)).build();
+    }
+
+    @Test
+    public void testOverlappingRangesAreMerged() {
+        HistoryCacheManager cache = pubnub.getHistoryCacheManager();
+
+        cache.store("ch", Arrays.asList(item(10), item(20)), 10, 20);
+        cache.store("ch", Arrays.asList(item(30), item(40)), 21, 40);
+        cache.store("ch", Arrays.asList(item(60)), 50, 60);
+
+        assertArrayEquals(new long[]{10, 40}, cache.getCoveredRange("ch", 25));
+        assertNull(cache.getCoveredRange("ch", 45));
+        assertEquals(40, cache.getHighestCoveredBelow("ch", 50));
+
+        cache.store("ch", Collections.<PNHistoryItemResult>emptyList(), 35, 55);
+        assertArrayEquals(new long[]{10, 60}, cache.getCoveredRange("ch", 45));
+
+        List<PNHistoryItemResult> output = new ArrayList<>();
+        cache.read("ch", 45, 15, 10, output);
+        assertEquals(3, output.size());
+        assertEquals(Long.valueOf(40), output.get(0).getTimetoken());
+    }
+
+    @Test
+    public void testEvictionShrinksCoverage() {
+        PNConfiguration configuration = pubnub.getConfiguration();
+        configuration.setHistoryCacheSize(2);
+        HistoryCacheManager cache = pubnub.getHistoryCacheManager();
+
+        cache.store("ch", Arrays.asList(item(10), item(20), item(30)), 5, 30);
+
+        assertEquals(2, cache.size("ch"));
+        assertNull(cache.getCoveredRange("ch", 15));
+        assertArrayEquals(new long[]{20, 30}, cache.getCoveredRange("ch", 25));
+    }
+
+    @Test
+    public void testSubscribeExtendsTail() {
+        HistoryCacheManager cache = pubnub.getHistoryCacheManager();
+        cache.store("ch", Arrays.asList(item(10)), 0, 100);
+
+        cache.onSubscribeResponse(Arrays.asList("ch"), 90, 200, Collections.<String, Long>emptyMap());
+        assertEquals(Long.valueOf(200), cache.getLiveTail("ch"));
+
+        cache.onSubscribeResponse(Arrays.asList("ch"), 200, 300, Collections.singletonMap("ch", 250L));
+        assertEquals(Long.valueOf(200), cache.getLiveTail("ch"));
+
+        cache.append("ch", 250, new JsonPrimitive("live"));
+        assertEquals(Long.valueOf(300), cache.getLiveTail("ch"));
+
+        // a subscribe cursor the cache did not follow.
+        cache.onSubscribeResponse(Arrays.asList("ch"), 500, 600, Collections.<String, Long>emptyMap());
+        assertNull(cache.getLiveTail("ch"));
+    }
+
+    @Test
+    public void testOnlyMissingEdgeIsFetched() throws PubNubException {
+        stubFor(get(urlPathEqualTo("/v2/history/sub-key/mySubscribeKey/channel/niceChannel"))
+                .withQueryParam("start", equalTo("100"))
+                .willReturn(aResponse().withBody("[[{\"message\":\"a\",\"timetoken\":40},{\"message\":\"b\",\"timetoken\":60}],40,60]")));
+        stubFor(get(urlPathEqualTo("/v2/history/sub-key/mySubscribeKey/channel/niceChannel"))
+                .withQueryParam("start", equalTo("150"))
+                .willReturn(aResponse().withBody("[[{\"message\":\"c\",\"timetoken\":120}],120,120]")));
+
+        pubnub.history().channel("niceChannel").start(100L).end(20L).includeTimetoken(true).sync();
+        PNHistoryResult result = pubnub.history().channel("niceChannel").start(150L).end(20L).includeTimetoken(true).sync();
+
+        assertEquals(3, result.getMessages().size());
+        assertEquals(Long.valueOf(40), result.getStartTimetoken());
+        assertEquals(Long.valueOf(120), result.getEndTimetoken());
+        assertEquals(2, findAll(getRequestedFor(urlMatching("/v2/history.*"))).size());
+        assertEquals(1, findAll(getRequestedFor(urlMatching("/v2/history.*"))
+                .withQueryParam("start", equalTo("150")).withQueryParam("end", equalTo("100"))).size());
+
+        PNHistoryResult cached = pubnub.history().channel("niceChannel").start(130L).end(30L).sync();
+        assertEquals(3, cached.getMessages().size());
+        assertNull(cached.getMessages().get(0).getTimetoken());
+        assertEquals(2, findAll(getRequestedFor(urlMatching("/v2/history.*"))).size());
+    }
+
+    @Test
+    public void testCachedAsyncReadArrivesOnClientThread() {
+        HistoryCacheManager cache = pubnub.getHistoryCacheManager();
+        cache.store("niceChannel", Arrays.asList(item(40), item(60)), 20, 100);
+
+        final AtomicReference<Thread> deliveredOn = new AtomicReference<>();
+        pubnub.history().channel("niceChannel").start(100L).end(20L).async(new PNCallback<PNHistoryResult>() {
+            @Override
+            public void onResponse(PNHistoryResult result, PNStatus status) {
+                deliveredOn.set(Thread.currentThread());
+            }
+        });
+
+        Awaitility.await().atMost(5, TimeUnit.SECONDS).untilAtomic(deliveredOn, org.hamcrest.Matchers.notNullValue());
+        assertNotSame(Thread.currentThread(), deliveredOn.get());
+        assertEquals(0, findAll(getRequestedFor(urlMatching("/v2/history.*"))).size());
+    }
+
+}
@@ -0,0 +1,182 @@
+package com.pubnub.api.managers;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.reflect.TypeToken;
+import com.pubnub.api.PNConfiguration;
+import com.pubnub.api.PubNub;
+import com.pubnub.api.PubNubException;
+import com.pubnub.api.models.consumer.PNPublishResult;
+import com.pubnub.api.models.server.DeleteMessagesEnvelope;
+import com.pubnub.api.models.server.Envelope;
+import com.pubnub.api.models.server.FetchMessagesEnvelope;
+import com.pubnub.api.models.server.PresenceEnvelope;
+import com.pubnub.api.models.server.SubscribeEnvelope;
+import com.pubnub.api.models.server.access_manager.AccessManagerAuditPayload;
+import com.pubnub.api.models.server.access_manager.AccessManagerGrantPayload;
+import com.pubnub.api.models.server.presence.WhereNowPayload;
+import okhttp3.ResponseBody;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import retrofit2.Converter;
+import retrofit2.Retrofit;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class MapperManagerTest {
+
+    @Rule
+    public WireMockRule wireMockRule = new WireMockRule();
+
+    private PubNub pubnub;
+
+    private CountingCodec codec;
+
+    /**
+     * Gson underneath, counting what goes through the codec.
+     */
+    private static final class CountingCodec implements JsonCodec {
+
+        private final GsonCodec delegate = new GsonCodec(new Gson());
+        private final AtomicInteger encoded = new AtomicInteger();
+        private final AtomicInteger envelopes = new AtomicInteger();
+
+        @Override
+        public <T> T fromJson(String input, Class<T> clazz) throws PubNubException {
+            return delegate.fromJson(input, clazz);
+        }
+
+        @Override
+        public <T> T fromJsonTree(JsonElement input, Class<T> clazz) {
+            return delegate.fromJsonTree(input, clazz);
+        }
+
+        @Override
+        public String toJson(Object input) throws PubNubException {
+            encoded.incrementAndGet();
+            return delegate.toJson(input);
+        }
+
+        @Override
+        public Converter.Factory getConverterFactory() {
+            return new Converter.Factory() {
+                @Override
+                public Converter<ResponseBody, ?> responseBodyConverter(Type type, Annotation[] annotations,
+                                                                        Retrofit retrofit) {
+                    final Converter<ResponseBody, ?> converter =
+                            delegate.getConverterFactory().responseBodyConverter(type, annotations, retrofit);
+
+                    return new Converter<ResponseBody, Object>() {
+                        @Override
+                        public Object convert(ResponseBody value) throws IOException {
+                            envelopes.incrementAndGet();
+                            return converter.convert(value);
+                        }
+                    };
+                }
+            };
+        }
+    }
+
+    @Before
+    public void beforeEach() {
+        codec = new CountingCodec();
+
+        PNConfiguration configuration = new PNConfiguration()
+                .setOrigin("localhost:8080")
+                .setSecure(false)
+                .setSubscribeKey("mySubscribeKey")
+                .setPublishKey("myPublishKey")
+                .setJsonCodec(codec);
+
+        pubnub = new PubNub(configuration);
+        wireMockRule.start();
+    }
+
+    @After
+    public void afterEach() {
+        pubnub.destroy();
+    }
+
+    @Test
+    public void testDefaultCodecIsGson() throws PubNubException {
+        MapperManager mapper = new MapperManager();
+
+        assertTrue(mapper.getCodec() instanceof GsonCodec);
+        assertEquals("{\"a\":1}", mapper.toJson(Collections.singletonMap("a", 1)));
+        assertTrue(mapper.fromJson("{\"r\":1}", JsonElement.class).isJsonObject());
+    }
+
+    @Test
+    public void testConfiguredCodecIsUsed() throws PubNubException {
+        stubFor(get(urlPathEqualTo("/publish/myPublishKey/mySubscribeKey/0/coolChannel/0/%7B%22hi%22%3A%22there%22%7D"))
+                .willReturn(aResponse().withBody("[1,\"Sent\",\"14598111595318003\"]")));
+
+        assertSame(codec, pubnub.getMapper().getCodec());
+
+        PNPublishResult result = pubnub.publish().channel("coolChannel")
+                .message(Collections.singletonMap("hi", "there")).sync();
+
+        assertEquals(Long.valueOf(14598111595318003L), result.getTimetoken());
+        assertTrue(codec.encoded.get() > 0);
+        assertEquals(1, codec.envelopes.get());
+    }
+
+    private static void assertDecodesLikeReflection(String json, Type type) {
+        Gson reflective = new Gson();
+        Gson adapters = new MapperManager().getObjectMapper();
+
+        Object expected = reflective.fromJson(json, type);
+        Object actual = adapters.fromJson(json, type);
+
+        assertEquals(reflective.toJson(expected), reflective.toJson(actual));
+    }
+
+    @Test
+    public void testServerModelsDecodeLikeReflection() {
+        assertDecodesLikeReflection("{\"t\":{\"t\":\"14607577960932487\",\"r\":1},\"m\":[{\"a\":\"4\",\"f\":0,"
+                + "\"i\":\"Client-g5d4g\",\"p\":{\"t\":\"14607577960925503\",\"r\":1},\"o\":{\"t\":\"1\",\"r\":2},"
+                + "\"k\":\"sub-c-4cec9f8e\",\"c\":\"coolChannel\",\"d\":{\"text\":\"Enter Message Here\"},"
+                + "\"u\":null,\"b\":\"coolChan-bnel\",\"x\":[1,{\"y\":2}]}]}", SubscribeEnvelope.class);
+
+        assertDecodesLikeReflection("{\"status\":200,\"message\":\"OK\",\"payload\":{\"channels\":[\"a\",\"b\"]},"
+                + "\"service\":\"Presence\",\"error\":false}", new TypeToken<Envelope<WhereNowPayload>>() { }.getType());
+
+        assertDecodesLikeReflection("{\"channels\":{\"ch1\":[{\"message\":\"hello\",\"timetoken\":\"1525734452\"}],"
+                + "\"ch2\":[]}}", FetchMessagesEnvelope.class);
+
+        assertDecodesLikeReflection("{\"status\":200,\"error\":false,\"error_message\":\"\"}", DeleteMessagesEnvelope.class);
+
+        assertDecodesLikeReflection("{\"action\":\"join\",\"uuid\":\"u1\",\"occupancy\":2,\"timestamp\":1461451222,"
+                + "\"data\":{\"a\":1}}", PresenceEnvelope.class);
+
+        assertDecodesLikeReflection("{\"level\":\"user\",\"subscribe_key\":\"sub\",\"ttl\":1,\"channels\":{\"ch1\":"
+                + "{\"auths\":{\"key1\":{\"r\":true,\"w\":false,\"m\":false}}}},\"channel-groups\":\"cg1\"}",
+                AccessManagerGrantPayload.class);
+
+        assertDecodesLikeReflection("{\"level\":\"channel-group+auth\",\"subscribe_key\":\"sub\",\"channel-group\":\"cg2\","
+                + "\"auths\":{\"key1\":{\"r\":true,\"m\":true,\"w\":true}}}", AccessManagerAuditPayload.class);
+    }
+
+    @Test
+    public void testIntegerBooleansStillDecode() {
+        Gson gson = new MapperManager().getObjectMapper();
+        DeleteMessagesEnvelope envelope = gson.fromJson("{\"status\":403,\"error\":1}", DeleteMessagesEnvelope.class);
+
+        assertTrue(envelope.isError());
+        assertEquals(Integer.valueOf(403), envelope.getStatus());
+    }
+
+}
@@ -0,0 +1,179 @@
+package com.pubnub.api.managers;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import com.jayway.awaitility.Awaitility;
+import com.pubnub.api.PNConfiguration;
+import com.pubnub.api.PubNub;
+import com.pubnub.api.PubNubException;
+import com.pubnub.api.endpoints.TestHarness;
+import com.pubnub.api.models.consumer.PNTimeResult;
+import okhttp3.OkHttpClient;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.findAll;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlMatching;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.junit.Assert.assertEquals;
+
+public class OriginFailoverTest extends TestHarness {
+
+    @Rule
+    public WireMockRule wireMockRule = new WireMockRule();
+
+    private static final int BACKLOG_FILL = 8;
+    private static final int SHORT_TIMEOUT_MILLIS = 200;
+
+    private WireMockServer secondOrigin;
+
+    private PubNub pubnub;
+
+    @Before
+    public void beforeEach() throws IOException {
+        wireMockRule.start();
+        secondOrigin = new WireMockServer(wireMockConfig().port(8081));
+        secondOrigin.start();
+
+        stubFor(get(urlPathEqualTo("/time/0"))
+                .willReturn(aResponse().withBody("[14593046077243110]")));
+        secondOrigin.stubFor(get(urlPathEqualTo("/time/0"))
+                .willReturn(aResponse().withBody("[14593046077243111]")));
+    }
+
+    @After
+    public void afterEach() {
+        if (pubnub != null) {
+            pubnub.destroy();
+        }
+        secondOrigin.stop();
+    }
+
+    private PubNub createInstance(int timeout, String... origins) {
+        PNConfiguration configuration = createPubNubInstance(8080).getConfiguration();
+        configuration.setOrigins(Arrays.asList(origins));
+        configuration.setConnectTimeout(timeout);
+        configuration.setNonSubscribeRequestTimeout(timeout);
+        return new PubNub(configuration);
+    }
+
+    private PubNub createInstance(String... origins) {
+        PubNub instance = this.createPubNubInstance(8080);
+        instance.getConfiguration().setOrigins(Arrays.asList(origins));
+        return instance;
+    }
+
+    @Test
+    public void testFailsOverOnConnectError() throws PubNubException {
+        // nothing listens on 8082.
+        pubnub = createInstance("localhost:8082", "localhost:8081");
+
+        PNTimeResult result = pubnub.time().sync();
+
+        assertEquals(14593046077243111L, (long) result.getTimetoken());
+        assertEquals("localhost:8081", pubnub.getBasePathManager().selectOrigin(null));
+    }
+
+    @Test
+    public void testFailsOverOnConnectTimeout() throws Exception {
+        // a listener whose backlog is full drops further connection attempts, which then time out.
+        ServerSocket blackHole = new ServerSocket(8082, 1, InetAddress.getLoopbackAddress());
+        List<Socket> backlog = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < BACKLOG_FILL; i++) {
+                Socket socket = new Socket();
+
+                try {
+                    socket.connect(blackHole.getLocalSocketAddress(), SHORT_TIMEOUT_MILLIS);
+                } catch (IOException e) {
+                    socket.close();
+                    break;
+                }
+
+                backlog.add(socket);
+            }
+
+            pubnub = createInstance(1, "localhost:8082", "localhost:8081");
+
+            PNTimeResult result = pubnub.time().sync();
+
+            assertEquals(14593046077243111L, (long) result.getTimetoken());
+            assertEquals("localhost:8081", pubnub.getBasePathManager().selectOrigin(null));
+        } finally {
+            for (Socket socket : backlog) {
+                socket.close();
+            }
+
+            blackHole.close();
+        }
+    }
+
+    @Test
+    public void testDoesNotFailOverOnReadTimeout() {
+        stubFor(get(urlPathEqualTo("/time/0"))
+                .willReturn(aResponse().withFixedDelay(3000).withBody("[14593046077243110]")));
+
+        pubnub = createInstance(1, "localhost:8080", "localhost:8081");
+
+        try {
+            pubnub.time().sync();
+            throw new RuntimeException("should never reach here");
+        } catch (PubNubException e) {
+            assertEquals(0, secondOrigin.findAll(getRequestedFor(urlMatching("/time.*"))).size());
+        }
+    }
+
+    @Test
+    public void testFailingProbeAvoidsOrigin() {
+        stubFor(get(urlPathEqualTo("/time/0"))
+                .willReturn(aResponse().withStatus(500).withBody("{}")));
+        secondOrigin.stubFor(get(urlPathEqualTo("/time/0"))
+                .willReturn(aResponse().withFixedDelay(200).withBody("[14593046077243111]")));
+
+        pubnub = createInstance("localhost:8080", "localhost:8081");
+        pubnub.getConfiguration().setOriginProbeInterval(60);
+        pubnub.getBasePathManager().startProbing(new OkHttpClient());
+
+        Awaitility.await().atMost(5, TimeUnit.SECONDS).until(new Callable<Boolean>() {
+            @Override
+            public Boolean call() throws Exception {
+                return !secondOrigin.findAll(getRequestedFor(urlMatching("/time.*"))).isEmpty()
+                        && "localhost:8081".equals(pubnub.getBasePathManager().selectOrigin(null));
+            }
+        });
+
+        // the slower origin still wins once the other one only answered with errors.
+        assertEquals(1, findAll(getRequestedFor(urlMatching("/time.*"))).size());
+    }
+
+    @Test
+    public void testPrefersLowerLatencyOrigin() throws PubNubException {
+        pubnub = createInstance("localhost:8080", "localhost:8081");
+        pubnub.getBasePathManager().reportSuccess("localhost:8080", 90000000L);
+        pubnub.getBasePathManager().reportSuccess("localhost:8081", 10000000L);
+
+        pubnub.time().sync();
+
+        assertEquals(0, findAll(getRequestedFor(urlMatching("/time.*"))).size());
+        assertEquals(1, secondOrigin.findAll(getRequestedFor(urlMatching("/time.*"))).size());
+    }
+
+}
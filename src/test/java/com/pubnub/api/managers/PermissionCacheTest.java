@@ -0,0 +1,148 @@
+package com.pubnub.api.managers;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import com.pubnub.api.PubNub;
+import com.pubnub.api.PubNubException;
+import com.pubnub.api.endpoints.TestHarness;
+import com.pubnub.api.models.consumer.access_manager.PNAccessManagerKeyData;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PermissionCacheTest extends TestHarness {
+
+    @Rule
+    public WireMockRule wireMockRule = new WireMockRule();
+
+    private PubNub pubnub;
+
+    private final AtomicLong clock = new AtomicLong(TimeUnit.HOURS.toMillis(1));
+
+    @Before
+    public void beforeEach() throws IOException {
+        pubnub = this.createPubNubInstance(8080);
+        pubnub.getConfiguration().setSecretKey("secretKey").setPermissionCache(true);
+        wireMockRule.start();
+    }
+
+    @After
+    public void afterEach() {
+        pubnub.destroy();
+    }
+
+    private PermissionCache createCache() {
+        return new PermissionCache(pubnub) {
+            @Override
+            protected long currentTimeMillis() {
+                return clock.get();
+            }
+        };
+    }
+
+    private static PNAccessManagerKeyData permissions(boolean read, boolean write, boolean manage) {
+        return new PNAccessManagerKeyData().setReadEnabled(read).setWriteEnabled(write).setManageEnabled(manage);
+    }
+
+    @Test
+    public void testEntriesExpireWithTheirTtl() {
+        PermissionCache cache = createCache();
+
+        cache.store(Arrays.asList("ch1"), Collections.<String>emptyList(), Arrays.asList("key1"), permissions(true, false, false), 1);
+        cache.store(Arrays.asList("ch2"), Collections.<String>emptyList(), Arrays.asList("key1"), permissions(true, true, false), 0);
+
+        assertTrue(cache.canRead("ch1", "key1"));
+        assertNull(cache.canRead("ch1", "key2"));
+        assertEquals(2, cache.size());
+
+        clock.addAndGet(TimeUnit.SECONDS.toMillis(61));
+
+        assertNull(cache.canRead("ch1", "key1"));
+        assertEquals(1, cache.size());
+
+        // grants without a ttl never expire, also after several revolutions of the wheel.
+        clock.addAndGet(TimeUnit.DAYS.toMillis(1));
+        assertTrue(cache.canWrite("ch2", "key1"));
+    }
+
+    @Test
+    public void testLongTtlSurvivesRevolutionsOfTheWheel() {
+        PermissionCache cache = createCache();
+
+        cache.store(Arrays.asList("ch1"), Collections.<String>emptyList(), Arrays.asList("key1"), permissions(true, false, false), 60);
+
+        for (int i = 0; i < 59; i++) {
+            clock.addAndGet(TimeUnit.MINUTES.toMillis(1));
+            assertTrue(cache.canRead("ch1", "key1"));
+        }
+
+        clock.addAndGet(TimeUnit.MINUTES.toMillis(1));
+        assertNull(cache.canRead("ch1", "key1"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testKeyAndTargetPermissionsAddUp() {
+        PermissionCache cache = createCache();
+
+        cache.store(Arrays.asList("ch1"), Collections.<String>emptyList(), Collections.<String>emptyList(), permissions(true, false, false), 0);
+        cache.store(Arrays.asList("ch1"), Collections.<String>emptyList(), Arrays.asList("key1"), permissions(false, true, false), 0);
+
+        assertTrue(cache.canRead("ch1", "key1"));
+        assertTrue(cache.canWrite("ch1", "key1"));
+        assertFalse(cache.canManage("ch1", "key1"));
+
+        // the key may have been granted something on its own, which the cache did not see.
+        assertTrue(cache.canRead("ch1", "key2"));
+        assertNull(cache.canWrite("ch1", "key2"));
+    }
+
+    @Test
+    public void testGrantWritesThrough() throws PubNubException {
+        stubFor(get(urlPathEqualTo("/v1/auth/grant/sub-key/mySubscribeKey"))
+                .willReturn(aResponse().withBody("{\"message\":\"Success\",\"payload\":{\"level\":\"channel-group+auth\",\"subscribe_key\":\"mySubscribeKey\",\"ttl\":1440,\"channel-groups\":\"cg1\",\"auths\":{\"key1\":{\"r\":1,\"w\":0,\"m\":1}}},\"service\":\"Access Manager\",\"status\":200}")));
+
+        pubnub.grant().channelGroups(Arrays.asList("cg1")).authKeys(Arrays.asList("key1")).read(true).manage(true).sync();
+
+        assertTrue(pubnub.getPermissionCache().canReadChannelGroup("cg1", "key1"));
+        assertTrue(pubnub.getPermissionCache().canManageChannelGroup("cg1", "key1"));
+        assertNull(pubnub.getPermissionCache().canReadChannelGroup("cg1", "key2"));
+    }
+
+    @Test
+    public void testAuditFillsCache() throws PubNubException {
+        stubFor(get(urlPathEqualTo("/v1/auth/audit/sub-key/mySubscribeKey"))
+                .willReturn(aResponse().withBody("{\"message\":\"Success\",\"payload\":{\"level\":\"user\",\"subscribe_key\":\"mySubscribeKey\",\"channel\":\"ch1\",\"auths\":{\"key1\":{\"r\":1,\"m\":0,\"w\":0,\"ttl\":5}}},\"service\":\"Access Manager\",\"status\":200}")));
+
+        pubnub.audit().channel("ch1").authKeys(Arrays.asList("key1", "key2")).sync();
+
+        assertTrue(pubnub.getPermissionCache().canRead("ch1", "key1"));
+        // the audit answered for both keys, what it did not allow is denied.
+        assertFalse(pubnub.getPermissionCache().canWrite("ch1", "key1"));
+        assertFalse(pubnub.getPermissionCache().canRead("ch1", "key2"));
+        assertNull(pubnub.getPermissionCache().canRead("ch1", "key3"));
+    }
+
+    @Test
+    public void testDisabledCacheKnowsNothing() {
+        pubnub.getConfiguration().setPermissionCache(false);
+        PermissionCache cache = createCache();
+
+        cache.store(Arrays.asList("ch1"), Collections.<String>emptyList(), Arrays.asList("key1"), permissions(true, true, true), 0);
+
+        assertNull(cache.canRead("ch1", "key1"));
+    }
+
+}
@@ -0,0 +1,137 @@
+package com.pubnub.api.managers;
+
+import com.jayway.awaitility.Awaitility;
+import com.pubnub.api.PubNub;
+import com.pubnub.api.callbacks.SubscribeCallback;
+import com.pubnub.api.endpoints.TestHarness;
+import com.pubnub.api.models.consumer.PNStatus;
+import com.pubnub.api.models.consumer.pubsub.PNMessageResult;
+import com.pubnub.api.models.consumer.pubsub.PNPresenceEventResult;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class PresenceEventAggregatorTest extends TestHarness {
+
+    private PubNub pubnub;
+    private PresenceEventAggregator aggregator;
+    private final List<PNPresenceEventResult> delivered = new CopyOnWriteArrayList<>();
+    private final List<Thread> deliveringThreads = new CopyOnWriteArrayList<>();
+    private ExecutorService worker;
+    private Thread workerThread;
+
+    @Before
+    public void beforeEach() {
+        pubnub = this.createPubNubInstance(8080);
+        pubnub.getConfiguration().setPresenceAggregationInterval(100);
+
+        ListenerManager listenerManager = new ListenerManager(pubnub);
+        listenerManager.addListener(new SubscribeCallback() {
+            @Override
+            public void status(PubNub pubnub, PNStatus status) {
+            }
+
+            @Override
+            public void message(PubNub pubnub, PNMessageResult message) {
+            }
+
+            @Override
+            public void presence(PubNub pubnub, PNPresenceEventResult presence) {
+                delivered.add(presence);
+                deliveringThreads.add(Thread.currentThread());
+            }
+        });
+
+        worker = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                workerThread = new Thread(runnable);
+                return workerThread;
+            }
+        });
+        aggregator = new PresenceEventAggregator(pubnub, listenerManager, worker);
+    }
+
+    @After
+    public void afterEach() {
+        aggregator.stop();
+        worker.shutdownNow();
+        pubnub.destroy();
+    }
+
+    private static PNPresenceEventResult event(String channel, String action, String uuid, int occupancy) {
+        return PNPresenceEventResult.builder().channel(channel).event(action).uuid(uuid).occupancy(occupancy).build();
+    }
+
+    private void awaitDelivered(final int count) {
+        Awaitility.await().atMost(5, TimeUnit.SECONDS).until(new Callable<Boolean>() {
+            @Override
+            public Boolean call() throws Exception {
+                return delivered.size() >= count;
+            }
+        });
+    }
+
+    @Test
+    public void testEventsAreCollapsedPerChannel() {
+        aggregator.announce(event("ch1", "join", "user1", 1));
+        aggregator.announce(event("ch1", "join", "user2", 2));
+        aggregator.announce(event("ch1", "leave", "user1", 1));
+        aggregator.announce(PNPresenceEventResult.builder().channel("ch1").event("interval").occupancy(2)
+                .join(Arrays.asList("user3")).timeout(Arrays.asList("user2")).build());
+        aggregator.announce(event("ch2", "join", "user9", 1));
+
+        awaitDelivered(2);
+
+        assertEquals(2, delivered.size());
+
+        PNPresenceEventResult merged = delivered.get(0);
+        assertEquals("interval", merged.getEvent());
+        assertEquals("ch1", merged.getChannel());
+        assertEquals(Integer.valueOf(2), merged.getOccupancy());
+        assertEquals(Arrays.asList("user3"), merged.getJoin());
+        assertEquals(Arrays.asList("user1"), merged.getLeave());
+        assertEquals(Arrays.asList("user2"), merged.getTimeout());
+
+        // a single event is delivered as it is.
+        assertEquals("join", delivered.get(1).getEvent());
+        // due windows are delivered by the worker, not by the timer.
+        assertEquals(Arrays.asList(workerThread, workerThread), deliveringThreads);
+    }
+
+    @Test
+    public void testStateChangeFlushesChannelFirst() {
+        PNPresenceEventResult join = event("ch1", "join", "user1", 1);
+        PNPresenceEventResult stateChange = event("ch1", "state-change", "user1", 1);
+
+        aggregator.announce(join);
+        aggregator.announce(stateChange);
+
+        assertEquals(2, delivered.size());
+        assertSame(join, delivered.get(0));
+        assertSame(stateChange, delivered.get(1));
+    }
+
+    @Test
+    public void testDisabledDeliversImmediately() {
+        pubnub.getConfiguration().setPresenceAggregationInterval(0);
+
+        aggregator.announce(event("ch1", "join", "user1", 1));
+        aggregator.announce(event("ch1", "join", "user2", 2));
+
+        assertEquals(2, delivered.size());
+    }
+
+}
@@ -0,0 +1,124 @@
+package com.pubnub.api.managers;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import com.jayway.awaitility.Awaitility;
+import com.pubnub.api.PubNub;
+import com.pubnub.api.endpoints.TestHarness;
+import com.pubnub.api.models.consumer.pubsub.PNPresenceEventResult;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PresenceRosterTest extends TestHarness {
+
+    @Rule
+    public WireMockRule wireMockRule = new WireMockRule();
+
+    private PubNub pubnub;
+    private PresenceRoster roster;
+
+    @Before
+    public void beforeEach() throws IOException {
+        pubnub = this.createPubNubInstance(8080);
+        pubnub.getConfiguration().setPresenceRoster(true);
+        roster = pubnub.getPresenceRoster();
+        wireMockRule.start();
+    }
+
+    @After
+    public void afterEach() {
+        pubnub.destroy();
+    }
+
+    private void awaitSeeded(final String channel) {
+        Awaitility.await().atMost(5, TimeUnit.SECONDS).until(new Callable<Boolean>() {
+            @Override
+            public Boolean call() throws Exception {
+                return roster.isSeeded(channel);
+            }
+        });
+    }
+
+    @Test
+    public void testSeededAndKeptCurrentByEvents() {
+        stubFor(get(urlPathEqualTo("/v2/presence/sub_key/mySubscribeKey/channel/ch1,ch2"))
+                .willReturn(aResponse().withBody("{\"status\":200,\"message\":\"OK\",\"payload\":{\"total_occupancy\":3,"
+                        + "\"total_channels\":2,\"channels\":{\"ch1\":{\"occupancy\":1,\"uuids\":[\"user1\"]},"
+                        + "\"ch2\":{\"occupancy\":2,\"uuids\":[\"user1\",\"user3\"]}}},\"service\":\"Presence\"}")));
+
+        roster.track(Arrays.asList("ch1", "ch2"));
+        awaitSeeded("ch1");
+
+        assertEquals(1, roster.getOccupancy("ch1"));
+        assertEquals(2, roster.getOccupancy("ch2"));
+        assertTrue(roster.isPresent("ch2", "user3"));
+
+        roster.onPresenceEvent(PNPresenceEventResult.builder().channel("ch1").event("join").uuid("user2")
+                .occupancy(2).build());
+        roster.onPresenceEvent(PNPresenceEventResult.builder().channel("ch2").event("interval").occupancy(2)
+                .join(Arrays.asList("user4")).leave(Arrays.asList("user1")).timeout(Collections.<String>emptyList())
+                .hereNowRefresh(false).build());
+
+        assertEquals(2, roster.getOccupancy("ch1"));
+        assertTrue(roster.isPresent("ch1", "user2"));
+        assertEquals(2, roster.getOccupants("ch2").size());
+        assertFalse(roster.isPresent("ch2", "user1"));
+        assertTrue(roster.isPresent("ch2", "user4"));
+
+        // tracking again must not seed again.
+        roster.track(Arrays.asList("ch1"));
+        assertEquals(1, findAll(getRequestedFor(urlMatching("/v2/presence.*"))).size());
+    }
+
+    @Test
+    public void testRefreshResyncs() {
+        stubFor(get(urlPathEqualTo("/v2/presence/sub_key/mySubscribeKey/channel/ch1"))
+                .willReturn(aResponse().withBody("{\"status\": 200, \"message\": \"OK\", \"service\": \"Presence\", "
+                        + "\"uuids\": [\"user1\"], \"occupancy\": 1}")));
+
+        roster.track(Arrays.asList("ch1"));
+        awaitSeeded("ch1");
+
+        stubFor(get(urlPathEqualTo("/v2/presence/sub_key/mySubscribeKey/channel/ch1"))
+                .willReturn(aResponse().withBody("{\"status\": 200, \"message\": \"OK\", \"service\": \"Presence\", "
+                        + "\"uuids\": [\"user5\", \"user6\"], \"occupancy\": 2}")));
+
+        roster.onPresenceEvent(PNPresenceEventResult.builder().channel("ch1").event("interval").occupancy(2)
+                .hereNowRefresh(true).build());
+
+        Awaitility.await().atMost(5, TimeUnit.SECONDS).until(new Callable<Boolean>() {
+            @Override
+            public Boolean call() throws Exception {
+                return roster.isPresent("ch1", "user6");
+            }
+        });
+
+        assertFalse(roster.isPresent("ch1", "user1"));
+        assertEquals(2, roster.getOccupancy("ch1"));
+    }
+
+    @Test
+    public void testUntrackedChannelsAreIgnored() {
+        roster.onPresenceEvent(PNPresenceEventResult.builder().channel("other").event("join").uuid("user1").build());
+
+        assertEquals(-1, roster.getOccupancy("other"));
+        assertTrue(roster.getOccupants("other").isEmpty());
+
+        pubnub.getConfiguration().setPresenceRoster(false);
+        roster.track(Arrays.asList("ch1"));
+        assertFalse(roster.isSeeded("ch1"));
+    }
+
+}
@@ -0,0 +1,39 @@
+package com.pubnub.api.managers;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RateLimiterTest {
+
+    @Test
+    public void testBurstThenThrottle() {
+        RateLimiter rateLimiter = new RateLimiter(1, 3);
+
+        assertTrue(rateLimiter.tryAcquire());
+        assertTrue(rateLimiter.tryAcquire());
+        assertTrue(rateLimiter.tryAcquire());
+        assertFalse(rateLimiter.tryAcquire());
+    }
+
+    @Test
+    public void testAcquireWaitsForPermit() throws InterruptedException {
+        RateLimiter rateLimiter = new RateLimiter(20, 1);
+
+        long startedAt = System.nanoTime();
+        for (int i = 0; i < 5; i++) {
+            rateLimiter.acquire();
+        }
+        long elapsedMillis = (System.nanoTime() - startedAt) / 1000000;
+
+        // the first permit is stored, the other four are earned at 50ms each.
+        assertTrue(elapsedMillis >= 180);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsInvalidRate() {
+        new RateLimiter(0, 1);
+    }
+
+}
@@ -0,0 +1,190 @@
+package com.pubnub.api.managers;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import com.jayway.awaitility.Awaitility;
+import com.pubnub.api.PubNub;
+import com.pubnub.api.callbacks.ReconnectionCallback;
+import com.pubnub.api.endpoints.TestHarness;
+import com.pubnub.api.enums.PNReconnectionPolicy;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.findAll;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlMatching;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ReachabilityMonitorTest extends TestHarness {
+
+    @Rule
+    public WireMockRule wireMockRule = new WireMockRule();
+
+    private List<PubNub> instances;
+
+    @Before
+    public void beforeEach() throws IOException {
+        instances = new ArrayList<>();
+        wireMockRule.start();
+    }
+
+    @After
+    public void afterEach() {
+        for (PubNub pubnub : instances) {
+            pubnub.destroy();
+        }
+    }
+
+    private PubNub createInstance() {
+        PubNub pubnub = this.createPubNubInstance(8080);
+        pubnub.getConfiguration().setReconnectionPolicy(PNReconnectionPolicy.EXPONENTIAL);
+        instances.add(pubnub);
+        return pubnub;
+    }
+
+    @Test
+    public void testSingleProbeForAllInstances() {
+        stubFor(get(urlPathEqualTo("/time/0"))
+                .willReturn(aResponse().withBody("[14593046077243110]")));
+
+        final AtomicInteger reconnections = new AtomicInteger(0);
+        ReconnectionCallback callback = new ReconnectionCallback() {
+            @Override
+            public void onReconnection() {
+                reconnections.incrementAndGet();
+            }
+
+            @Override
+            public void onMaxReconnectionExhaustion() {
+            }
+        };
+
+        for (int i = 0; i < 5; i++) {
+            new ReconnectionManager(createInstance()).setReconnectionListener(callback).startPolling();
+        }
+
+        Awaitility.await().atMost(5, TimeUnit.SECONDS).untilAtomic(reconnections, org.hamcrest.Matchers.equalTo(5));
+        assertEquals(1, findAll(getRequestedFor(urlMatching("/time.*"))).size());
+    }
+
+    @Test
+    public void testRetriesAreExhaustedPerInstance() {
+        stubFor(get(urlPathEqualTo("/time/0"))
+                .willReturn(aResponse().withStatus(500).withBody("{}")));
+
+        final AtomicInteger exhaustions = new AtomicInteger(0);
+        ReconnectionCallback callback = new ReconnectionCallback() {
+            @Override
+            public void onReconnection() {
+            }
+
+            @Override
+            public void onMaxReconnectionExhaustion() {
+                exhaustions.incrementAndGet();
+            }
+        };
+
+        PubNub pubnub = createInstance();
+        pubnub.getConfiguration().setMaximumReconnectionRetries(2);
+        pubnub.getConfiguration().setMaximumReconnectionDelay(1);
+        new ReconnectionManager(pubnub).setReconnectionListener(callback).startPolling();
+
+        Awaitility.await().atMost(10, TimeUnit.SECONDS).untilAtomic(exhaustions, org.hamcrest.Matchers.equalTo(1));
+        assertEquals(2, findAll(getRequestedFor(urlMatching("/time.*"))).size());
+        assertNull(ReachabilityMonitor.find(pubnub.getBaseUrl()));
+    }
+
+    @Test
+    public void testWatcherTakesOverFromStoppedDriver() {
+        stubFor(get(urlPathEqualTo("/time/0"))
+                .willReturn(aResponse().withFixedDelay(500).withBody("[14593046077243110]")));
+
+        final AtomicInteger reconnections = new AtomicInteger(0);
+        ReconnectionCallback callback = new ReconnectionCallback() {
+            @Override
+            public void onReconnection() {
+                reconnections.incrementAndGet();
+            }
+
+            @Override
+            public void onMaxReconnectionExhaustion() {
+            }
+        };
+
+        PubNub driverInstance = createInstance();
+        ReconnectionManager driver = new ReconnectionManager(driverInstance).setReconnectionListener(callback);
+        driver.startPolling();
+        new ReconnectionManager(createInstance()).setReconnectionListener(callback).startPolling();
+
+        Awaitility.await().atMost(5, TimeUnit.SECONDS).until(new Callable<Boolean>() {
+            @Override
+            public Boolean call() throws Exception {
+                return !findAll(getRequestedFor(urlMatching("/time.*"))).isEmpty();
+            }
+        });
+
+        // the probe of the driver never reports back.
+        driver.stopPolling();
+        driverInstance.destroy();
+
+        Awaitility.await().atMost(5, TimeUnit.SECONDS).untilAtomic(reconnections, org.hamcrest.Matchers.equalTo(1));
+        assertNull(ReachabilityMonitor.find(driverInstance.getBaseUrl()));
+    }
+
+    @Test
+    public void testRecentClockSampleStandsInForProbe() {
+        stubFor(get(urlPathEqualTo("/time/0"))
+                .willReturn(aResponse().withStatus(500).withBody("{}")));
+
+        final AtomicInteger reconnections = new AtomicInteger(0);
+        ReconnectionCallback callback = new ReconnectionCallback() {
+            @Override
+            public void onReconnection() {
+                reconnections.incrementAndGet();
+            }
+
+            @Override
+            public void onMaxReconnectionExhaustion() {
+            }
+        };
+
+        PubNub pubnub = createInstance();
+        pubnub.getConfiguration().setMaximumReconnectionDelay(1);
+        new ReconnectionManager(pubnub).setReconnectionListener(callback).startPolling();
+
+        // the clock sync reached the origin after the connection was lost.
+        pubnub.getClockSyncManager().addSample(14593046077243110L, 0, System.currentTimeMillis());
+
+        Awaitility.await().atMost(5, TimeUnit.SECONDS).untilAtomic(reconnections, org.hamcrest.Matchers.equalTo(1));
+    }
+
+    @Test
+    public void testBackoffIsJitteredAndCapped() {
+        PubNub pubnub = createInstance();
+        pubnub.getConfiguration().setReconnectionBaseDelay(1);
+        pubnub.getConfiguration().setMaximumReconnectionDelay(8);
+        ReconnectionManager reconnectionManager = new ReconnectionManager(pubnub);
+
+        for (int attempt = 0; attempt < 64; attempt++) {
+            long delay = reconnectionManager.nextDelay(attempt);
+            long ceiling = Math.min(8000L, 1000L << Math.min(attempt, 30));
+
+            assertTrue(delay >= 0 && delay <= ceiling);
+        }
+    }
+
+}
@@ -0,0 +1,150 @@
+package com.pubnub.api.managers;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import com.jayway.awaitility.Awaitility;
+import com.pubnub.api.PubNub;
+import com.pubnub.api.PubNubException;
+import com.pubnub.api.callbacks.PNCallback;
+import com.pubnub.api.endpoints.TestHarness;
+import com.pubnub.api.models.consumer.PNStatus;
+import com.pubnub.api.models.consumer.PNTimeResult;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.findAll;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlMatching;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static org.junit.Assert.assertEquals;
+
+public class RequestCoalescingManagerTest extends TestHarness {
+
+    @Rule
+    public WireMockRule wireMockRule = new WireMockRule();
+
+    private PubNub pubnub;
+
+    @Before
+    public void beforeEach() throws IOException {
+        pubnub = this.createPubNubInstance(8080);
+        pubnub.getConfiguration().setCoalesceIdenticalRequests(true);
+        wireMockRule.start();
+    }
+
+    @After
+    public void afterEach() {
+        pubnub.destroy();
+    }
+
+    @Test
+    public void testConcurrentCallsShareRequest() throws PubNubException {
+        stubFor(get(urlPathEqualTo("/time/0"))
+                .willReturn(aResponse().withBody("[14593046077243110]").withFixedDelay(500)));
+
+        final AtomicInteger successes = new AtomicInteger(0);
+        PNCallback<PNTimeResult> callback = new PNCallback<PNTimeResult>() {
+            @Override
+            public void onResponse(PNTimeResult result, PNStatus status) {
+                if (!status.isError() && result.getTimetoken() == 14593046077243110L) {
+                    successes.incrementAndGet();
+                }
+            }
+        };
+
+        for (int i = 0; i < 5; i++) {
+            pubnub.time().async(callback);
+        }
+
+        PNTimeResult syncResult = pubnub.time().sync();
+        assertEquals(14593046077243110L, (long) syncResult.getTimetoken());
+
+        Awaitility.await().atMost(5, TimeUnit.SECONDS).untilAtomic(successes, org.hamcrest.Matchers.equalTo(5));
+        assertEquals(1, findAll(getRequestedFor(urlMatching("/time.*"))).size());
+        assertEquals(0, pubnub.getRequestCoalescingManager().size());
+    }
+
+    @Test
+    public void testFailureIsSharedWithSyncCallers() {
+        stubFor(get(urlPathEqualTo("/time/0"))
+                .willReturn(aResponse().withStatus(500).withBody("{}").withFixedDelay(500)));
+
+        final AtomicInteger failures = new AtomicInteger(0);
+        pubnub.time().async(new PNCallback<PNTimeResult>() {
+            @Override
+            public void onResponse(PNTimeResult result, PNStatus status) {
+                if (status.isError()) {
+                    failures.incrementAndGet();
+                }
+            }
+        });
+
+        try {
+            pubnub.time().sync();
+        } catch (PubNubException e) {
+            failures.incrementAndGet();
+        }
+
+        Awaitility.await().atMost(5, TimeUnit.SECONDS).untilAtomic(failures, org.hamcrest.Matchers.equalTo(2));
+        assertEquals(1, findAll(getRequestedFor(urlMatching("/time.*"))).size());
+    }
+
+    @Test
+    public void testUncheckedFailureReleasesWaitingCallers() throws InterruptedException {
+        // not a number, the converter fails with an unchecked exception.
+        stubFor(get(urlPathEqualTo("/time/0"))
+                .willReturn(aResponse().withBody("[\"abc\"]").withFixedDelay(500)));
+
+        final AtomicInteger failures = new AtomicInteger(0);
+        Thread leader = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    pubnub.time().sync();
+                } catch (PubNubException | RuntimeException e) {
+                    failures.incrementAndGet();
+                }
+            }
+        });
+        leader.start();
+
+        Awaitility.await().atMost(5, TimeUnit.SECONDS).until(new Callable<Boolean>() {
+            @Override
+            public Boolean call() throws Exception {
+                return pubnub.getRequestCoalescingManager().size() == 1;
+            }
+        });
+
+        try {
+            pubnub.time().sync();
+        } catch (PubNubException e) {
+            failures.incrementAndGet();
+        }
+
+        leader.join();
+        assertEquals(2, failures.get());
+        assertEquals(1, findAll(getRequestedFor(urlMatching("/time.*"))).size());
+        assertEquals(0, pubnub.getRequestCoalescingManager().size());
+    }
+
+    @Test
+    public void testSequentialCallsAreNotShared() throws PubNubException {
+        stubFor(get(urlPathEqualTo("/time/0"))
+                .willReturn(aResponse().withBody("[14593046077243110]")));
+
+        pubnub.time().sync();
+        pubnub.time().sync();
+
+        assertEquals(2, findAll(getRequestedFor(urlMatching("/time.*"))).size());
+    }
+
+}
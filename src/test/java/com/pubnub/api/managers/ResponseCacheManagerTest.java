@@ -0,0 +1,137 @@
+package com.pubnub.api.managers;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import com.jayway.awaitility.Awaitility;
+import com.pubnub.api.PubNub;
+import com.pubnub.api.PubNubException;
+import com.pubnub.api.callbacks.PNCallback;
+import com.pubnub.api.endpoints.TestHarness;
+import com.pubnub.api.enums.PNOperationType;
+import com.pubnub.api.models.consumer.PNStatus;
+import com.pubnub.api.models.consumer.presence.PNGetStateResult;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.findAll;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlMatching;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class ResponseCacheManagerTest extends TestHarness {
+
+    @Rule
+    public WireMockRule wireMockRule = new WireMockRule();
+
+    private PubNub pubnub;
+
+    @Before
+    public void beforeEach() throws IOException {
+        pubnub = this.createPubNubInstance(8080);
+        wireMockRule.start();
+
+        stubFor(get(urlPathEqualTo("/v2/presence/sub-key/mySubscribeKey/channel/testChannel/uuid/sampleUUID"))
+                .willReturn(aResponse().withBody("{ \"status\": 200, \"message\": \"OK\", \"payload\": { \"age\" : 20, \"status\" : \"online\"}, \"service\": \"Presence\"}")));
+        stubFor(get(urlPathEqualTo("/v2/presence/sub-key/mySubscribeKey/channel/testChannel/uuid/myUUID/data"))
+                .willReturn(aResponse().withBody("{ \"status\": 200, \"message\": \"OK\", \"payload\": { \"age\" : 20, \"status\" : \"online\"}, \"service\": \"Presence\"}")));
+    }
+
+    @After
+    public void afterEach() {
+        pubnub.destroy();
+    }
+
+    @Test
+    public void testDisabledByDefault() throws PubNubException {
+        pubnub.getPresenceState().channels(Collections.singletonList("testChannel")).uuid("sampleUUID").sync();
+        pubnub.getPresenceState().channels(Collections.singletonList("testChannel")).uuid("sampleUUID").sync();
+
+        assertEquals(2, findAll(getRequestedFor(urlMatching("/.*"))).size());
+    }
+
+    @Test
+    public void testIdenticalCallsAreServedFromCache() throws PubNubException {
+        pubnub.getConfiguration().setResponseCacheTtl(PNOperationType.PNGetState, 60);
+
+        PNGetStateResult first = pubnub.getPresenceState().channels(Collections.singletonList("testChannel")).uuid("sampleUUID").sync();
+        PNGetStateResult second = pubnub.getPresenceState().channels(Collections.singletonList("testChannel")).uuid("sampleUUID").sync();
+
+        assertSame(first, second);
+        assertEquals(1, findAll(getRequestedFor(urlMatching("/.*"))).size());
+    }
+
+    @Test
+    public void testCachedAsyncResponseArrivesOnClientThread() throws PubNubException {
+        pubnub.getConfiguration().setResponseCacheTtl(PNOperationType.PNGetState, 60);
+        pubnub.getPresenceState().channels(Collections.singletonList("testChannel")).uuid("sampleUUID").sync();
+
+        final AtomicReference<Thread> deliveredOn = new AtomicReference<>();
+        pubnub.getPresenceState().channels(Collections.singletonList("testChannel")).uuid("sampleUUID")
+                .async(new PNCallback<PNGetStateResult>() {
+                    @Override
+                    public void onResponse(PNGetStateResult result, PNStatus status) {
+                        deliveredOn.set(Thread.currentThread());
+                    }
+                });
+
+        Awaitility.await().atMost(5, TimeUnit.SECONDS).untilAtomic(deliveredOn, org.hamcrest.Matchers.notNullValue());
+        assertNotSame(Thread.currentThread(), deliveredOn.get());
+        assertEquals(1, findAll(getRequestedFor(urlMatching("/.*"))).size());
+    }
+
+    @Test
+    public void testSetStateInvalidatesChannel() throws PubNubException {
+        pubnub.getConfiguration().setResponseCacheTtl(PNOperationType.PNGetState, 60);
+        Map<String, Object> state = new HashMap<>();
+        state.put("age", 20);
+
+        pubnub.getPresenceState().channels(Collections.singletonList("testChannel")).uuid("sampleUUID").sync();
+        pubnub.setPresenceState().channels(Collections.singletonList("testChannel")).state(state).sync();
+        pubnub.getPresenceState().channels(Collections.singletonList("testChannel")).uuid("sampleUUID").sync();
+
+        assertEquals(3, findAll(getRequestedFor(urlMatching("/.*"))).size());
+    }
+
+    @Test
+    public void testPresenceEventInvalidatesChannel() throws PubNubException {
+        pubnub.getConfiguration().setResponseCacheTtl(PNOperationType.PNGetState, 60);
+
+        pubnub.getPresenceState().channels(Collections.singletonList("testChannel")).uuid("sampleUUID").sync();
+        pubnub.getResponseCacheManager().onPresenceEvent("otherChannel", null);
+        assertEquals(1, pubnub.getResponseCacheManager().size());
+
+        pubnub.getResponseCacheManager().onPresenceEvent("testChannel", null);
+        assertEquals(0, pubnub.getResponseCacheManager().size());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEviction() throws PubNubException {
+        pubnub.getConfiguration().setResponseCacheTtl(PNOperationType.PNGetState, 60);
+        pubnub.getConfiguration().setMaximumResponseCacheSize(1);
+
+        stubFor(get(urlPathEqualTo("/v2/presence/sub-key/mySubscribeKey/channel/otherChannel/uuid/sampleUUID"))
+                .willReturn(aResponse().withBody("{ \"status\": 200, \"message\": \"OK\", \"payload\": { \"age\" : 20}, \"service\": \"Presence\"}")));
+
+        pubnub.getPresenceState().channels(Collections.singletonList("testChannel")).uuid("sampleUUID").sync();
+        pubnub.getPresenceState().channels(Collections.singletonList("otherChannel")).uuid("sampleUUID").sync();
+        pubnub.getPresenceState().channels(Collections.singletonList("testChannel")).uuid("sampleUUID").sync();
+
+        assertEquals(1, pubnub.getResponseCacheManager().size());
+        assertEquals(3, findAll(getRequestedFor(urlMatching("/.*"))).size());
+    }
+
+}
@@ -26,13 +26,17 @@ import org.junit.Test;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
 import static com.github.tomakehurst.wiremock.client.WireMock.findAll;
 import static com.github.tomakehurst.wiremock.client.WireMock.get;
 import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
@@ -1531,4 +1535,186 @@ public class SubscriptionManagerTest extends TestHarness {
         }
         return builder.toString();
     }
+
+    @Test
+    public void testAcknowledgedStateIsNotResent() {
+        pubnub.getConfiguration().setPresenceTimeoutWithCustomInterval(20, 1);
+        pubnub.getConfiguration().setSuppressRedundantHeartbeats(true);
+
+        // a long poll which stays open, so heartbeats are not covered by a recent subscribe request.
+        stubFor(get(urlPathEqualTo("/v2/subscribe/mySubscribeKey/ch1,ch1-pnpres/0"))
+                .willReturn(aResponse().withFixedDelay(5000).withBody("{\"t\":{\"t\":\"14607577960932487\",\"r\":1},\"m\":[]}")));
+        stubFor(get(urlPathEqualTo("/v2/presence/sub-key/mySubscribeKey/channel/ch1/heartbeat"))
+                .willReturn(aResponse().withBody("{\"status\": 200, \"message\": \"OK\", \"service\": \"Presence\"}")));
+
+        pubnub.subscribe().channels(Arrays.asList("ch1")).withPresence().execute();
+
+        Awaitility.await().atMost(5, TimeUnit.SECONDS).until(new Callable<Boolean>() {
+            @Override
+            public Boolean call() throws Exception {
+                return findAll(getRequestedFor(urlMatching("/v2/presence/.*/heartbeat.*"))).size() >= 3;
+            }
+        });
+
+        List<LoggedRequest> heartbeats = findAll(getRequestedFor(urlMatching("/v2/presence/.*/heartbeat.*")));
+        int withState = 0;
+
+        for (LoggedRequest heartbeat : heartbeats) {
+            if (heartbeat.queryParameter("state") != null) {
+                withState++;
+            }
+        }
+
+        assertEquals(1, withState);
+    }
+
+    @Test
+    public void testHeartbeatSkippedAfterRecentSubscribe() {
+        pubnub.getConfiguration().setPresenceTimeoutWithCustomInterval(20, 1);
+        pubnub.getConfiguration().setSuppressRedundantHeartbeats(true);
+
+        stubFor(get(urlPathEqualTo("/v2/subscribe/mySubscribeKey/ch1,ch1-pnpres/0"))
+                .willReturn(aResponse().withFixedDelay(100).withBody("{\"t\":{\"t\":\"14607577960932487\",\"r\":1},\"m\":[]}")));
+        stubFor(get(urlPathEqualTo("/v2/presence/sub-key/mySubscribeKey/channel/ch1/heartbeat"))
+                .willReturn(aResponse().withBody("{\"status\": 200, \"message\": \"OK\", \"service\": \"Presence\"}")));
+
+        pubnub.subscribe().channels(Arrays.asList("ch1")).withPresence().execute();
+
+        // keep the loop going across three heartbeat intervals.
+        Awaitility.await().atMost(5, TimeUnit.SECONDS).until(new Callable<Boolean>() {
+            @Override
+            public Boolean call() throws Exception {
+                List<LoggedRequest> subscribes = findAll(getRequestedFor(urlMatching("/v2/subscribe/.*")));
+                return subscribes.size() > 1 && subscribes.get(subscribes.size() - 1).getLoggedDate().getTime()
+                        - subscribes.get(0).getLoggedDate().getTime() >= 3000;
+            }
+        });
+
+        // only the first heartbeat, which carried the state, went out.
+        assertEquals(1, findAll(getRequestedFor(urlMatching("/v2/presence/.*/heartbeat.*"))).size());
+    }
+
+    @Test
+    public void testSubscriptionIsPartitionedAcrossConnections() {
+        pubnub.getConfiguration().setSubscribeConnections(4);
+
+        stubFor(get(urlMatching("/v2/subscribe/mySubscribeKey/.*"))
+                .willReturn(aResponse().withFixedDelay(100).withBody("{\"t\":{\"t\":\"14607577960932487\",\"r\":1},\"m\":[]}")));
+
+        final List<String> channels = Arrays.asList("ch1", "ch2", "ch3", "ch4", "ch5", "ch6", "ch7", "ch8");
+        final ConsistentHashRing ring = new ConsistentHashRing(4);
+        final Set<Integer> partitions = new HashSet<>();
+
+        for (String channel : channels) {
+            partitions.add(ring.nodeFor(channel));
+        }
+
+        pubnub.subscribe().channels(channels).execute();
+
+        Awaitility.await().atMost(5, TimeUnit.SECONDS).until(new Callable<Boolean>() {
+            @Override
+            public Boolean call() throws Exception {
+                return findAll(getRequestedFor(urlMatching("/v2/subscribe/.*"))
+                        .withQueryParam("tt", equalTo("14607577960932487"))).size() >= partitions.size();
+            }
+        });
+
+        Set<String> paths = new HashSet<>();
+        List<String> requestedChannels = new ArrayList<>();
+
+        for (LoggedRequest request : findAll(getRequestedFor(urlMatching("/v2/subscribe/.*")))) {
+            String path = request.getUrl().split("\\?")[0];
+
+            if (paths.add(path)) {
+                requestedChannels.addAll(Arrays.asList(path.split("/")[4].split(",")));
+            }
+        }
+
+        // every channel is on exactly one loop.
+        assertEquals(partitions.size(), paths.size());
+        assertEquals(channels.size(), requestedChannels.size());
+        assertTrue(requestedChannels.containsAll(channels));
+    }
+
+    @Test
+    public void testPartitionedSubscriptionAnnouncesOutsideOfManager() {
+        pubnub.getConfiguration().setSubscribeConnections(4);
+
+        stubFor(get(urlMatching("/v2/subscribe/mySubscribeKey/.*"))
+                .willReturn(aResponse().withFixedDelay(100).withBody("{\"t\":{\"t\":\"14607577960932487\",\"r\":1},\"m\":[]}")));
+
+        final AtomicBoolean reachedManager = new AtomicBoolean();
+
+        pubnub.addListener(new SubscribeCallback() {
+            @Override
+            public void status(final PubNub pubnub, PNStatus status) {
+                if (status.getCategory() != PNStatusCategory.PNConnectedCategory) {
+                    return;
+                }
+
+                // a listener handing work to another thread which touches the subscription.
+                Thread other = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        pubnub.getSubscribedChannels();
+                    }
+                });
+                other.start();
+
+                try {
+                    other.join(1000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+
+                reachedManager.set(!other.isAlive());
+            }
+
+            @Override
+            public void message(PubNub pubnub, PNMessageResult message) {
+            }
+
+            @Override
+            public void presence(PubNub pubnub, PNPresenceEventResult presence) {
+            }
+        });
+
+        pubnub.subscribe().channels(Arrays.asList("ch1", "ch2", "ch3", "ch4")).execute();
+
+        Awaitility.await().atMost(5, TimeUnit.SECONDS).untilTrue(reachedManager);
+    }
+
+    @Test
+    public void testPartitionedSubscriptionStartsFromRequestedTimetoken() {
+        pubnub.getConfiguration().setSubscribeConnections(4);
+
+        stubFor(get(urlMatching("/v2/subscribe/mySubscribeKey/.*"))
+                .willReturn(aResponse().withFixedDelay(100).withBody("{\"t\":{\"t\":\"14607577960932487\",\"r\":1},\"m\":[]}")));
+
+        final List<String> channels = Arrays.asList("ch1", "ch2", "ch3", "ch4", "ch5", "ch6", "ch7", "ch8");
+        final ConsistentHashRing ring = new ConsistentHashRing(4);
+        final Set<Integer> partitions = new HashSet<>();
+
+        for (String channel : channels) {
+            partitions.add(ring.nodeFor(channel));
+        }
+
+        pubnub.subscribe().channels(channels).withTimetoken(14607577960900000L).execute();
+
+        // every loop goes on from the requested timetoken once it is connected.
+        Awaitility.await().atMost(5, TimeUnit.SECONDS).until(new Callable<Boolean>() {
+            @Override
+            public Boolean call() throws Exception {
+                Set<String> paths = new HashSet<>();
+
+                for (LoggedRequest request : findAll(getRequestedFor(urlMatching("/v2/subscribe/.*"))
+                        .withQueryParam("tt", equalTo("14607577960900000")))) {
+                    paths.add(request.getUrl().split("\\?")[0]);
+                }
+
+                return paths.size() == partitions.size();
+            }
+        });
+    }
+
 }
@@ -0,0 +1,141 @@
+package com.pubnub.api.managers;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.jayway.awaitility.Awaitility;
+import com.pubnub.api.PubNub;
+import com.pubnub.api.PubNubException;
+import com.pubnub.api.callbacks.TypedMessageCallback;
+import com.pubnub.api.endpoints.TestHarness;
+import com.pubnub.api.models.consumer.pubsub.PNMessageResult;
+import com.pubnub.api.models.consumer.pubsub.PNTypedMessageResult;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class TypedMessageManagerTest extends TestHarness {
+
+    @Rule
+    public WireMockRule wireMockRule = new WireMockRule();
+
+    private PubNub pubnub;
+
+    @Before
+    public void beforeEach() throws IOException {
+        pubnub = this.createPubNubInstance(8080);
+        wireMockRule.start();
+    }
+
+    @After
+    public void afterEach() {
+        pubnub.destroy();
+    }
+
+    public static class ChatMessage {
+        private String text;
+        private int priority;
+    }
+
+    private static final class Collector<T> extends TypedMessageCallback<T> {
+
+        private final List<PNTypedMessageResult<T>> messages = new ArrayList<>();
+        private final List<PubNubException> errors = new ArrayList<>();
+
+        @Override
+        public void message(PubNub pubnub, PNTypedMessageResult<T> message) {
+            messages.add(message);
+        }
+
+        @Override
+        public void decodingFailed(PubNub pubnub, PNMessageResult message, PubNubException error) {
+            errors.add(error);
+        }
+    }
+
+    private static PNMessageResult message(String channel, String payload) {
+        JsonElement element = new JsonParser().parse(payload);
+        return PNMessageResult.builder().channel(channel).message(element).timetoken(1L).publisher("p1").build();
+    }
+
+    @Test
+    public void testExactAndWildcardChannels() {
+        Collector<ChatMessage> exact = new Collector<>();
+        Collector<ChatMessage> wildcard = new Collector<>();
+        Collector<ChatMessage> other = new Collector<>();
+
+        pubnub.addTypedListener("chat.lobby", ChatMessage.class, exact);
+        pubnub.addTypedListener("chat.*", ChatMessage.class, wildcard);
+        pubnub.addTypedListener("news", ChatMessage.class, other);
+
+        pubnub.getTypedMessageManager().announce(message("chat.lobby", "{\"text\":\"hi\",\"priority\":2}"));
+        pubnub.getTypedMessageManager().announce(message("chat.room", "{\"text\":\"yo\"}"));
+        pubnub.getTypedMessageManager().announce(message("chat", "{\"text\":\"none\"}"));
+
+        assertEquals(1, exact.messages.size());
+        assertEquals("hi", exact.messages.get(0).getMessage().text);
+        assertEquals(2, exact.messages.get(0).getMessage().priority);
+        assertEquals("p1", exact.messages.get(0).getPublisher());
+        assertEquals(2, wildcard.messages.size());
+        assertEquals(0, other.messages.size());
+
+        // listeners of the same type share a single decoded instance.
+        assertSame(exact.messages.get(0).getMessage(), wildcard.messages.get(0).getMessage());
+    }
+
+    @Test
+    public void testDecodingFailureIsReported() {
+        Collector<ChatMessage> collector = new Collector<>();
+        pubnub.addTypedListener("chat", ChatMessage.class, collector);
+
+        pubnub.getTypedMessageManager().announce(message("chat", "\"just text\""));
+
+        assertEquals(0, collector.messages.size());
+        assertEquals(1, collector.errors.size());
+    }
+
+    @Test
+    public void testRemovedListenerIsNotCalled() {
+        Collector<ChatMessage> collector = new Collector<>();
+        pubnub.addTypedListener("chat", ChatMessage.class, collector);
+        pubnub.getTypedMessageManager().announce(message("chat", "{\"text\":\"a\"}"));
+
+        pubnub.removeTypedListener(collector);
+        pubnub.getTypedMessageManager().announce(message("chat", "{\"text\":\"b\"}"));
+
+        assertEquals(1, collector.messages.size());
+    }
+
+    @Test
+    public void testSubscribedMessagesAreDecoded() {
+        stubFor(get(urlPathEqualTo("/v2/subscribe/mySubscribeKey/coolChannel/0"))
+                .willReturn(aResponse().withBody("{\"t\":{\"t\":\"14607577960932487\",\"r\":1},\"m\":[{\"a\":\"4\",\"f\":0,\"i\":\"Publisher-A\",\"p\":{\"t\":\"14607577960925503\",\"r\":1},\"k\":\"mySubscribeKey\",\"c\":\"coolChannel\",\"d\":{\"text\":\"Message\",\"priority\":1},\"b\":\"coolChannel\"}]}")));
+
+        final Collector<ChatMessage> collector = new Collector<>();
+        pubnub.addTypedListener("coolChannel", ChatMessage.class, collector);
+        pubnub.subscribe().channels(Arrays.asList("coolChannel")).execute();
+
+        Awaitility.await().atMost(3, TimeUnit.SECONDS).until(new Callable<Boolean>() {
+            @Override
+            public Boolean call() throws Exception {
+                return !collector.messages.isEmpty();
+            }
+        });
+
+        assertEquals("Message", collector.messages.get(0).getMessage().text);
+        assertEquals(Long.valueOf(14607577960925503L), collector.messages.get(0).getTimetoken());
+    }
+
+}